@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.load;
+
+import com.github.alexdlaird.component.rest.metrics.HistogramSnapshot;
+import com.github.alexdlaird.component.rest.metrics.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What a load test measured: the latency, errors and allocation of every operation, and of all of them together. A
+ * report is written both as a table for people and as JSON for comparing runs.
+ */
+class LoadReport {
+    /**
+     * Measurements per operation.
+     */
+    private final Map<Workload.Operation, Measurements> operations = new EnumMap<>(Workload.Operation.class);
+
+    /**
+     * Measurements across every operation.
+     */
+    private final Measurements total = new Measurements();
+
+    /**
+     * When measurement started.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * How long measurement lasted, once it has stopped.
+     */
+    private volatile long durationNanos = -1;
+
+    LoadReport(final Iterable<Workload.Operation> operations) {
+        for (Workload.Operation operation : operations) {
+            this.operations.put(operation, new Measurements());
+        }
+    }
+
+    /**
+     * Record one operation.
+     *
+     * @param operation      The operation.
+     * @param latencyNanos   The time from when it should have started until it finished.
+     * @param allocatedBytes The bytes allocated by the thread that ran it, or -1 if unknown.
+     * @param failed         True if the operation threw.
+     */
+    void record(final Workload.Operation operation, final long latencyNanos, final long allocatedBytes,
+                final boolean failed) {
+        operations.get(operation).record(latencyNanos, allocatedBytes, failed);
+        total.record(latencyNanos, allocatedBytes, failed);
+    }
+
+    void stop() {
+        durationNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Format the report as a table.
+     *
+     * @return The table.
+     */
+    String toTable() {
+        final double seconds = seconds();
+        final StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(String.format("%-22s %10s %10s %8s %9s %9s %9s %9s %12s%n", "operation", "count",
+                "ops/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "bytes/op"));
+        for (Map.Entry<Workload.Operation, Measurements> entry : operations.entrySet()) {
+            entry.getValue().appendRow(stringBuilder, entry.getKey().toString(), seconds);
+        }
+        total.appendRow(stringBuilder, "total", seconds);
+        stringBuilder.append(String.format("%nallocation rate: %.1f MB/s%n",
+                total.allocatedBytes.sum() / seconds / (1024 * 1024)));
+
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Format the report as JSON.
+     *
+     * @param settings The settings the test ran with, recorded alongside the results.
+     * @return The JSON.
+     */
+    String toJson(final Map<String, String> settings) {
+        final double seconds = seconds();
+        final StringBuilder stringBuilder = new StringBuilder("{\n  \"settings\": {");
+        String separator = "\n";
+        for (Map.Entry<String, String> entry : settings.entrySet()) {
+            stringBuilder.append(separator).append("    \"").append(escape(entry.getKey())).append("\": \"")
+                    .append(escape(entry.getValue())).append('"');
+            separator = ",\n";
+        }
+        stringBuilder.append("\n  },\n  \"durationSeconds\": ").append(format(seconds))
+                .append(",\n  \"allocationRateBytesPerSecond\": ")
+                .append(format(total.allocatedBytes.sum() / seconds))
+                .append(",\n  \"total\": ");
+        total.appendJson(stringBuilder, seconds);
+        stringBuilder.append(",\n  \"operations\": {");
+        separator = "\n";
+        for (Map.Entry<Workload.Operation, Measurements> entry : operations.entrySet()) {
+            stringBuilder.append(separator).append("    \"").append(entry.getKey()).append("\": ");
+            entry.getValue().appendJson(stringBuilder, seconds);
+            separator = ",\n";
+        }
+        stringBuilder.append("\n  }\n}\n");
+
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Format the headline numbers as one CSV line, so runs can be appended to a single file and compared.
+     *
+     * @param settings The settings the test ran with.
+     * @return The line, without a line separator.
+     */
+    String toCsvLine(final Map<String, String> settings) {
+        final double seconds = seconds();
+        final HistogramSnapshot snapshot = total.latency.snapshot();
+
+        return String.join(",", settings.get("commit"), settings.get("timestamp"), settings.get("model"),
+                settings.get("concurrency"), settings.get("rate"), format(total.count.sum() / seconds),
+                format(snapshot.getValueAtPercentile(50, TimeUnit.MILLISECONDS)),
+                format(snapshot.getValueAtPercentile(99, TimeUnit.MILLISECONDS)),
+                format(snapshot.getValueAtPercentile(99.9, TimeUnit.MILLISECONDS)),
+                format(total.errorRate()), format(total.allocatedBytes.sum() / seconds / (1024 * 1024)));
+    }
+
+    static String csvHeader() {
+        return "commit,timestamp,model,concurrency,rate,opsPerSecond,p50Ms,p99Ms,p999Ms,errorRate,allocationMBPerSecond";
+    }
+
+    private double seconds() {
+        final long durationNanos = this.durationNanos >= 0 ? this.durationNanos : System.nanoTime() - startNanos;
+
+        return Math.max(durationNanos, 1) / 1e9;
+    }
+
+    private static String format(final double value) {
+        return String.format("%.3f", value);
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static final class Measurements {
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private void record(final long latencyNanos, final long allocatedBytes, final boolean failed) {
+            latency.record(latencyNanos);
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            if (allocatedBytes > 0) {
+                this.allocatedBytes.add(allocatedBytes);
+            }
+        }
+
+        private double errorRate() {
+            final long count = this.count.sum();
+
+            return count > 0 ? (double) errors.sum() / count : 0;
+        }
+
+        private long bytesPerOperation() {
+            final long count = this.count.sum();
+
+            return count > 0 ? allocatedBytes.sum() / count : 0;
+        }
+
+        private void appendRow(final StringBuilder stringBuilder, final String name, final double seconds) {
+            final HistogramSnapshot snapshot = latency.snapshot();
+            stringBuilder.append(String.format("%-22s %10d %10.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %,12d%n", name,
+                    count.sum(), count.sum() / seconds, errorRate() * 100,
+                    snapshot.getValueAtPercentile(50, TimeUnit.MILLISECONDS),
+                    snapshot.getValueAtPercentile(99, TimeUnit.MILLISECONDS),
+                    snapshot.getValueAtPercentile(99.9, TimeUnit.MILLISECONDS),
+                    snapshot.getMax() / 1e6, bytesPerOperation()));
+        }
+
+        private void appendJson(final StringBuilder stringBuilder, final double seconds) {
+            final HistogramSnapshot snapshot = latency.snapshot();
+            stringBuilder.append("{\"count\": ").append(count.sum())
+                    .append(", \"errors\": ").append(errors.sum())
+                    .append(", \"opsPerSecond\": ").append(format(count.sum() / seconds))
+                    .append(", \"p50Ms\": ").append(format(snapshot.getValueAtPercentile(50, TimeUnit.MILLISECONDS)))
+                    .append(", \"p99Ms\": ").append(format(snapshot.getValueAtPercentile(99, TimeUnit.MILLISECONDS)))
+                    .append(", \"p999Ms\": ")
+                    .append(format(snapshot.getValueAtPercentile(99.9, TimeUnit.MILLISECONDS)))
+                    .append(", \"maxMs\": ").append(format(snapshot.getMax() / 1e6))
+                    .append(", \"allocatedBytesPerOperation\": ").append(bytesPerOperation())
+                    .append('}');
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.load;
+
+import com.github.alexdlaird.DefaultFinicityClient;
+import com.github.alexdlaird.FinicityClient;
+import com.github.alexdlaird.component.rest.retry.RetryingRestClient;
+import com.github.alexdlaird.stub.FinicityStubServer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a mix of {@link FinicityClient} operations through the whole client stack, against an in-process {@link
+ * FinicityStubServer} or a server at <code>baseUrl</code>, and reports throughput, latency percentiles, error rate and
+ * the heap allocated by the threads running operations. Run it with <code>./gradlew loadTest</code>, passing settings as
+ * <code>-PloadArgs="model=open rate=5000 duration=60"</code>. <p> Two load models are supported: <ul> <li>closed, where
+ * <code>concurrency</code> workers each run one operation after another, so load drops when the client slows
+ * down;</li> <li>open, where operations arrive at a fixed <code>rate</code> and are run by up to
+ * <code>concurrency</code> threads, and latency is measured from when each operation should have started, so time spent
+ * queued behind a slow client is counted rather than hidden.</li> </ul> Operations are chosen from a seeded random
+ * sequence, and every run's settings and results are written as JSON and appended to <code>history.csv</code> in
+ * <code>output</code>, tagged with the commit, so runs on different commits can be compared.
+ */
+public class LoadTest {
+    /**
+     * Settings used when none are given.
+     */
+    private static final String[][] DEFAULT_SETTINGS = {
+            {"model", "closed"},
+            {"concurrency", "500"},
+            {"rate", "2000"},
+            {"warmup", "5"},
+            {"duration", "30"},
+            {"mix", Workload.DEFAULT_MIX},
+            {"seed", "42"},
+            {"retry", "false"},
+            {"baseUrl", ""},
+            {"latencyMs", "20"},
+            {"jitterMs", "10"},
+            {"errorRate", "0"},
+            {"dropRate", "0"},
+            {"mfaRate", "0.1"},
+            {"transactionsPerAccount", "250"},
+            {"descriptionLength", "24"},
+            {"output", "build/reports/load-test"}
+    };
+
+    /**
+     * Measures the heap allocated by each thread, or null if the JVM cannot.
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    /**
+     * The most failures whose messages are printed.
+     */
+    private static final int PRINTED_FAILURES = 5;
+
+    private final FinicityClient finicityClient;
+
+    private final Workload workload;
+
+    private final int concurrency;
+
+    private final double rate;
+
+    private final long seed;
+
+    private final boolean open;
+
+    private final AtomicInteger printedFailures = new AtomicInteger();
+
+    LoadTest(final FinicityClient finicityClient, final Workload workload, final Map<String, String> settings) {
+        this.finicityClient = finicityClient;
+        this.workload = workload;
+        this.concurrency = Integer.parseInt(settings.get("concurrency"));
+        this.rate = Double.parseDouble(settings.get("rate"));
+        this.seed = Long.parseLong(settings.get("seed"));
+
+        final String model = settings.get("model");
+        if (!"open".equals(model) && !"closed".equals(model)) {
+            throw new IllegalArgumentException("The model must be \"open\" or \"closed\", not \"" + model + "\"");
+        }
+        this.open = "open".equals(model);
+    }
+
+    public static void main(final String... args) throws Exception {
+        final Map<String, String> settings = parseSettings(args);
+        final Workload workload = new Workload(settings.get("mix"));
+
+        FinicityStubServer stub = null;
+        String baseUrl = settings.get("baseUrl");
+        if (baseUrl.isEmpty()) {
+            stub = new FinicityStubServer();
+            stub.setLatency(Long.parseLong(settings.get("latencyMs")), Long.parseLong(settings.get("jitterMs")));
+            stub.setErrorRate(Double.parseDouble(settings.get("errorRate")), 503);
+            stub.setDropRate(Double.parseDouble(settings.get("dropRate")));
+            stub.setMfaRate(Double.parseDouble(settings.get("mfaRate")));
+            stub.setTransactionsPerAccount(Integer.parseInt(settings.get("transactionsPerAccount")));
+            stub.setDescriptionLength(Integer.parseInt(settings.get("descriptionLength")));
+            baseUrl = stub.getBaseUrl();
+        }
+
+        try {
+            final FinicityClient finicityClient = DefaultFinicityClient.getInstance("appKey", "partnerId",
+                    "partnerSecret", baseUrl, Boolean.parseBoolean(settings.get("retry")) ?
+                            RetryingRestClient::new : null);
+            final LoadTest loadTest = new LoadTest(finicityClient, workload, settings);
+
+            System.out.printf("Warming up for %s seconds%n", settings.get("warmup"));
+            loadTest.run(Long.parseLong(settings.get("warmup")), null);
+
+            System.out.printf("Running %s-loop load for %s seconds%n", settings.get("model"), settings.get("duration"));
+            final LoadReport loadReport = new LoadReport(workload.getOperations());
+            loadTest.run(Long.parseLong(settings.get("duration")), loadReport);
+            loadReport.stop();
+
+            System.out.println();
+            System.out.print(loadReport.toTable());
+            write(loadReport, settings);
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    /**
+     * Run load for a while.
+     *
+     * @param seconds    How long to generate load for.
+     * @param loadReport Where operations are recorded, or null to not record them.
+     */
+    void run(final long seconds, final LoadReport loadReport) throws InterruptedException {
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        if (open) {
+            runOpen(end, loadReport);
+        } else {
+            runClosed(end, loadReport);
+        }
+    }
+
+    private void runClosed(final long end, final LoadReport loadReport) throws InterruptedException {
+        final List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; ++i) {
+            final Random random = new Random(seed + i);
+            final Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    execute(workload.next(random), random, System.nanoTime(), loadReport);
+                }
+            }, "load-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void runOpen(final long end, final LoadReport loadReport) throws InterruptedException {
+        final AtomicInteger threads = new AtomicInteger();
+        final ExecutorService executorService = Executors.newFixedThreadPool(concurrency, runnable -> {
+            final Thread thread = new Thread(runnable, "load-worker-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final Random random = new Random(seed);
+        final long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        final long start = System.nanoTime();
+        for (long i = 0; ; ++i) {
+            final long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+
+            final long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            final Workload.Operation operation = workload.next(random);
+            final Random operationRandom = new Random(random.nextLong());
+            executorService.execute(() -> execute(operation, operationRandom, intended, loadReport));
+        }
+
+        executorService.shutdown();
+        if (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+            System.err.println("Operations were still queued a minute after load stopped; the client is saturated");
+            executorService.shutdownNow();
+        }
+    }
+
+    private void execute(final Workload.Operation operation, final Random random, final long intendedNanos,
+                         final LoadReport loadReport) {
+        final long allocatedBefore = allocatedBytes();
+        boolean failed = false;
+        try {
+            operation.run(finicityClient, random);
+        } catch (RuntimeException ex) {
+            failed = true;
+            if (printedFailures.getAndIncrement() < PRINTED_FAILURES) {
+                System.err.println(operation + " failed: " + ex);
+            }
+        }
+        final long latencyNanos = System.nanoTime() - intendedNanos;
+
+        if (loadReport != null) {
+            loadReport.record(operation, latencyNanos,
+                    allocatedBefore >= 0 ? allocatedBytes() - allocatedBefore : -1, failed);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            final com.sun.management.ThreadMXBean threadMXBean =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (threadMXBean.isThreadAllocatedMemorySupported()) {
+                threadMXBean.setThreadAllocatedMemoryEnabled(true);
+                return threadMXBean;
+            }
+        } catch (ClassCastException | UnsupportedOperationException ignored) {
+        }
+
+        System.err.println("This JVM cannot measure allocation per thread, so allocation will not be reported");
+        return null;
+    }
+
+    private static Map<String, String> parseSettings(final String... args) {
+        final Map<String, String> settings = new LinkedHashMap<>();
+        for (String[] setting : DEFAULT_SETTINGS) {
+            settings.put(setting[0], setting[1]);
+        }
+        for (String arg : args) {
+            final String setting = arg.startsWith("--") ? arg.substring(2) : arg;
+            final int equals = setting.indexOf('=');
+            if (equals <= 0 || !settings.containsKey(setting.substring(0, equals))) {
+                throw new IllegalArgumentException("Unknown setting \"" + arg + "\"; the settings are "
+                        + settings.keySet());
+            }
+
+            settings.put(setting.substring(0, equals), setting.substring(equals + 1));
+        }
+
+        settings.put("commit", System.getProperty("loadTest.commit", "unknown"));
+        settings.put("timestamp", new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()));
+        settings.put("java", System.getProperty("java.version"));
+        settings.put("processors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+
+        return settings;
+    }
+
+    private static void write(final LoadReport loadReport, final Map<String, String> settings) throws IOException {
+        final Path output = Paths.get(settings.get("output"));
+        Files.createDirectories(output);
+
+        final Path json = output.resolve(settings.get("commit") + "-" + settings.get("model") + "-"
+                + settings.get("timestamp") + ".json");
+        Files.write(json, loadReport.toJson(settings).getBytes(StandardCharsets.UTF_8));
+
+        final Path history = output.resolve("history.csv");
+        final StringBuilder stringBuilder = new StringBuilder();
+        if (!Files.exists(history)) {
+            stringBuilder.append(LoadReport.csvHeader()).append(System.lineSeparator());
+        }
+        stringBuilder.append(loadReport.toCsvLine(settings)).append(System.lineSeparator());
+        Files.write(history, stringBuilder.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+
+        System.out.printf("Wrote %s and appended to %s%n", json, history);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.load;
+
+import com.github.alexdlaird.FinicityClient;
+import com.github.alexdlaird.type.Sort;
+import com.github.alexdlaird.type.account.AccountLoginForm;
+import com.github.alexdlaird.type.institution.LoginForm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A weighted mix of {@link FinicityClient} operations, parsed from a string such as
+ * <code>getTransactions:50,getAccounts:30,getCustomer:20</code>. The IDs each operation uses are chosen from the
+ * customers, accounts and institutions a {@link com.github.alexdlaird.stub.FinicityStubServer FinicityStubServer}
+ * serves by default.
+ */
+class Workload {
+    /**
+     * The mix used when none is given.
+     */
+    static final String DEFAULT_MIX = "getTransactions:40,getTransactionBatch:10,getAccounts:20,getCustomer:10,"
+            + "getInstitutions:10,refreshAccounts:5,addAllAccounts:5";
+
+    /**
+     * Transactions fetched per page.
+     */
+    private static final int PAGE_LIMIT = 250;
+
+    /**
+     * Dates transactions are fetched between.
+     */
+    private static final long TO_DATE = 1500000000L;
+
+    private static final long FROM_DATE = TO_DATE - 90 * 24 * 60 * 60;
+
+    /**
+     * The operations, in the order given.
+     */
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * The cumulative weight of each operation, in the same order.
+     */
+    private final int[] cumulativeWeights;
+
+    /**
+     * Construct a workload.
+     *
+     * @param mix Comma separated operation names, each followed by a colon and its weight.
+     */
+    Workload(final String mix) {
+        final List<Integer> weights = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            final String[] parts = entry.trim().split(":");
+            final int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight <= 0) {
+                continue;
+            }
+
+            operations.add(Operation.forName(parts[0].trim()));
+            weights.add(weight);
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("The mix \"" + mix + "\" has no operations");
+        }
+
+        cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        for (int i = 0; i < weights.size(); ++i) {
+            total += weights.get(i);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * Pick the next operation.
+     *
+     * @param random The source of randomness, which should be seeded for runs to be comparable.
+     * @return The operation.
+     */
+    Operation next(final Random random) {
+        final int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; ++i) {
+            if (value < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+
+        return operations.get(operations.size() - 1);
+    }
+
+    enum Operation {
+        GET_CUSTOMER("getCustomer") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getCustomerOperations().getCustomer(customerId(random));
+            }
+        },
+        GET_CUSTOMERS("getCustomers") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getCustomerOperations().getCustomers(null, null, 1, 25, null);
+            }
+        },
+        GET_INSTITUTIONS("getInstitutions") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getInstitutionOperations().getInstitutions(null, 1, 25);
+            }
+        },
+        GET_INSTITUTION_DETAILS("getInstitutionDetails") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getInstitutionOperations().getInstitutionDetails(
+                        String.valueOf(10001 + random.nextInt(100)));
+            }
+        },
+        GET_ACCOUNTS("getAccounts") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getAccountOperations().getAccounts(customerId(random));
+            }
+        },
+        REFRESH_ACCOUNTS("refreshAccounts") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getAccountOperations().refreshAccounts(customerId(random));
+            }
+        },
+        ADD_ALL_ACCOUNTS("addAllAccounts") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getAccountOperations().addAllAccounts(customerId(random), "101732",
+                        new AccountLoginForm(new LoginForm(Collections.emptyList())));
+            }
+        },
+        GET_TRANSACTIONS("getTransactions") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getTransactionOperations().getTransactions(customerId(random), FROM_DATE, TO_DATE, 1,
+                        PAGE_LIMIT, Sort.DESC, true);
+            }
+        },
+        GET_TRANSACTION_BATCH("getTransactionBatch") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                finicityClient.getTransactionOperations().getTransactionBatch(customerId(random), FROM_DATE, TO_DATE,
+                        1, PAGE_LIMIT, Sort.DESC, true);
+            }
+        },
+        ENABLE_TXPUSH("enableTxPush") {
+            @Override
+            void run(final FinicityClient finicityClient, final Random random) {
+                final String customerId = customerId(random);
+                finicityClient.getTxPushOperations().enableTxPushNotifications(customerId, customerId + "01", null);
+            }
+        };
+
+        private final String name;
+
+        Operation(final String name) {
+            this.name = name;
+        }
+
+        static Operation forName(final String name) {
+            for (Operation operation : values()) {
+                if (operation.name.equalsIgnoreCase(name)) {
+                    return operation;
+                }
+            }
+
+            throw new IllegalArgumentException("Unknown operation \"" + name + "\"");
+        }
+
+        /**
+         * Run the operation once.
+         *
+         * @param finicityClient The client.
+         * @param random         The source of randomness for choosing IDs.
+         */
+        abstract void run(final FinicityClient finicityClient, final Random random);
+
+        private static String customerId(final Random random) {
+            return String.valueOf(1001 + random.nextInt(100));
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
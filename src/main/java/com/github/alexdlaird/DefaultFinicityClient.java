@@ -24,7 +24,10 @@
 package com.github.alexdlaird;
 
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.jfr.FlightEvent;
+import com.github.alexdlaird.component.jfr.FlightEventType;
 import com.github.alexdlaird.component.rest.DefaultRestClient;
+import com.github.alexdlaird.component.rest.Endpoint;
 import com.github.alexdlaird.component.rest.RestClient;
 import com.github.alexdlaird.operation.AccountOperations;
 import com.github.alexdlaird.operation.CustomerOperations;
@@ -40,11 +43,21 @@ import com.github.alexdlaird.operation.TransactionOperations;
 import com.github.alexdlaird.operation.TxPushOperations;
 import com.github.alexdlaird.type.partner.PartnerAccess;
 
+import java.util.function.Function;
+
 /**
  * The default implementation of a {@link FinicityClient}, which instantiates default Operations clients and implements
  * token refreshing. <p> This implementation is a singleton pattern, and an instance of the client can be retrieved by
  * calling {@link #getInstance(String, String, String)}. This is to ensure an authentication token is not retrieved too
- * often and the proper refresh pattern is followed.
+ * often and the proper refresh pattern is followed. <p> To add behavior around every API call, such as retries, pass a
+ * decorator to {@link #getInstance(String, String, String, Function)}. The decorator is given the underlying
+ * {@link DefaultRestClient}, which it may also configure (for instance, with {@link
+ * DefaultRestClient#setTimeouts(com.github.alexdlaird.component.rest.Timeouts)}), and the {@link RestClient} it returns
+ * is the one the Operations clients use. If the decorator sets {@link
+ * DefaultRestClient#setRequestMetrics(com.github.alexdlaird.component.rest.metrics.RequestMetrics)}, the Operations
+ * clients record the time spent decoding responses there too. <p> To run against something other than Finicity's
+ * API, such as a local stub server, pass its base URL to {@link #getInstance(String, String, String, String,
+ * Function)}.
  */
 public class DefaultFinicityClient implements FinicityClient {
     /**
@@ -82,11 +95,21 @@ public class DefaultFinicityClient implements FinicityClient {
      */
     private final String partnerSecret;
 
+    /**
+     * Base URL requests are made against, or null for Finicity's API.
+     */
+    private final String baseUrl;
+
     /**
      * Provides basic REST operation implementations to communicate with the API.
      */
     private final DefaultRestClient restClient;
 
+    /**
+     * Wraps {@link #restClient} before it is given to the Operations clients, or null if it is used directly.
+     */
+    private final Function<DefaultRestClient, RestClient> restClientDecorator;
+
     /**
      * Convenience implementation for Partner API operations.
      */
@@ -128,25 +151,41 @@ public class DefaultFinicityClient implements FinicityClient {
      *
      * @param appKey        The Finicity developer appKey.
      * @param partnerId     The Finicity developer partnerId.
-     * @param partnerSecret The Finicity developer partnerSecret.
+     * @param partnerSecret       The Finicity developer partnerSecret.
+     * @param baseUrl             Base URL requests are made against, or null for Finicity's API.
+     * @param restClientDecorator Wraps the {@link DefaultRestClient} before it is given to the Operations clients, or
+     *                            null.
      */
-    private DefaultFinicityClient(String appKey, String partnerId, String partnerSecret) {
+    private DefaultFinicityClient(String appKey, String partnerId, String partnerSecret, String baseUrl,
+                                  Function<DefaultRestClient, RestClient> restClientDecorator) {
         this.appKey = appKey;
         this.partnerId = partnerId;
         this.partnerSecret = partnerSecret;
+        this.baseUrl = baseUrl;
+        this.restClientDecorator = restClientDecorator;
 
-        this.restClient = new DefaultRestClient(appKey, DEFAULT_ENCODING, DEFAULT_CONTENT_TYPE);
+        this.restClient = baseUrl != null ?
+                new DefaultRestClient(appKey, DEFAULT_ENCODING, DEFAULT_CONTENT_TYPE, baseUrl) :
+                new DefaultRestClient(appKey, DEFAULT_ENCODING, DEFAULT_CONTENT_TYPE);
+        final RestClient operationsRestClient = restClientDecorator != null ? restClientDecorator.apply(restClient) : restClient;
 
-        partnerOperations = new DefaultPartnerOperations(restClient, appKey, partnerId, partnerSecret);
-        final PartnerAccess partnerAccess = partnerOperations.authentication();
-        token = new Token(partnerAccess.getToken(), System.currentTimeMillis() + DEFAULT_TOKEN_EXPIRATION);
+        partnerOperations = new DefaultPartnerOperations(operationsRestClient, appKey, partnerId, partnerSecret);
+        partnerOperations.setRequestMetrics(restClient.getRequestMetrics());
+        token = authenticate();
         restClient.refreshToken(token);
 
-        accountOperations = new DefaultAccountOperations(restClient, appKey, token);
-        customerOperations = new DefaultCustomerOperations(restClient, appKey, token);
-        institutionOperations = new DefaultInstitutionOperations(restClient, appKey, token);
-        transactionOperations = new DefaultTransactionOperations(restClient, appKey, token);
-        txPushOperations = new DefaultTxPushOperations(restClient, appKey, token);
+        accountOperations = new DefaultAccountOperations(operationsRestClient, appKey, token);
+        customerOperations = new DefaultCustomerOperations(operationsRestClient, appKey, token);
+        institutionOperations = new DefaultInstitutionOperations(operationsRestClient, appKey, token);
+        transactionOperations = new DefaultTransactionOperations(operationsRestClient, appKey, token);
+        txPushOperations = new DefaultTxPushOperations(operationsRestClient, appKey, token);
+
+        // The decorator may have set metrics on the REST client, which also measure how long responses take to decode
+        accountOperations.setRequestMetrics(restClient.getRequestMetrics());
+        customerOperations.setRequestMetrics(restClient.getRequestMetrics());
+        institutionOperations.setRequestMetrics(restClient.getRequestMetrics());
+        transactionOperations.setRequestMetrics(restClient.getRequestMetrics());
+        txPushOperations.setRequestMetrics(restClient.getRequestMetrics());
     }
 
     /**
@@ -164,11 +203,71 @@ public class DefaultFinicityClient implements FinicityClient {
         assert partnerId != null;
         assert partnerSecret != null;
 
+        if (instance == null || !instance.hasCredentials(appKey, partnerId, partnerSecret)) {
+            instance = new DefaultFinicityClient(appKey, partnerId, partnerSecret, null, null);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Retrieve the singleton instance of the default Finicity client, with every API call made through the {@link
+     * RestClient} returned by the given decorator. For example, to retry transient failures: <pre>
+     * DefaultFinicityClient.getInstance(appKey, partnerId, partnerSecret, RetryingRestClient::new);
+     * </pre> <p> Note that if an instance already exists and getInstance is called with a different set of Finicity
+     * credentials or a different decorator, a new instance of the singleton will be instantiated and returned. Once
+     * instantiated, {@link #getInstance(String, String, String)} may be used to retrieve the same instance.
+     *
+     * @param appKey              The Finicity developer appKey.
+     * @param partnerId           The Finicity developer partnerId.
+     * @param partnerSecret       The Finicity developer partnerSecret.
+     * @param restClientDecorator Wraps the {@link DefaultRestClient} before it is given to the Operations clients.
+     * @return An instance of a {@link DefaultFinicityClient} with a valid authentication token.
+     */
+    public static DefaultFinicityClient getInstance(String appKey, String partnerId, String partnerSecret,
+                                                    Function<DefaultRestClient, RestClient> restClientDecorator) {
+        assert appKey != null;
+        assert partnerId != null;
+        assert partnerSecret != null;
+        assert restClientDecorator != null;
+
         if (instance == null ||
-                !instance.getAppKey().equals(appKey) ||
-                !instance.getPartnerId().equals(partnerId) ||
-                !instance.getPartnerSecret().equals(partnerSecret)) {
-            instance = new DefaultFinicityClient(appKey, partnerId, partnerSecret);
+                !instance.hasCredentials(appKey, partnerId, partnerSecret) ||
+                instance.baseUrl != null ||
+                instance.restClientDecorator != restClientDecorator) {
+            instance = new DefaultFinicityClient(appKey, partnerId, partnerSecret, null, restClientDecorator);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Retrieve the singleton instance of a Finicity client that makes its requests against an alternate base URL, for
+     * instance a local stub server used for testing. <p> Note that if an instance already exists and getInstance is
+     * called with a different set of Finicity credentials, a different base URL or a different decorator, a new
+     * instance of the singleton will be instantiated and returned.
+     *
+     * @param appKey              The Finicity developer appKey.
+     * @param partnerId           The Finicity developer partnerId.
+     * @param partnerSecret       The Finicity developer partnerSecret.
+     * @param baseUrl             Base URL requests are made against, without a trailing slash.
+     * @param restClientDecorator Wraps the {@link DefaultRestClient} before it is given to the Operations clients, or
+     *                            null.
+     * @return An instance of a {@link DefaultFinicityClient} with a valid authentication token.
+     */
+    public static DefaultFinicityClient getInstance(String appKey, String partnerId, String partnerSecret,
+                                                    String baseUrl,
+                                                    Function<DefaultRestClient, RestClient> restClientDecorator) {
+        assert appKey != null;
+        assert partnerId != null;
+        assert partnerSecret != null;
+        assert baseUrl != null;
+
+        if (instance == null ||
+                !instance.hasCredentials(appKey, partnerId, partnerSecret) ||
+                !baseUrl.equals(instance.baseUrl) ||
+                instance.restClientDecorator != restClientDecorator) {
+            instance = new DefaultFinicityClient(appKey, partnerId, partnerSecret, baseUrl, restClientDecorator);
         }
 
         return instance;
@@ -190,6 +289,10 @@ public class DefaultFinicityClient implements FinicityClient {
         return partnerSecret;
     }
 
+    private boolean hasCredentials(String appKey, String partnerId, String partnerSecret) {
+        return getAppKey().equals(appKey) && getPartnerId().equals(partnerId) && getPartnerSecret().equals(partnerSecret);
+    }
+
     /**
      * Should be executed before a request to the API. If the token is past what we consider its expiration window,
      * refresh it before making the request.
@@ -206,8 +309,7 @@ public class DefaultFinicityClient implements FinicityClient {
      */
     @Override
     public void refreshToken() {
-        PartnerAccess partnerAccess = partnerOperations.authentication();
-        token = new Token(partnerAccess.getToken(), System.currentTimeMillis() + DEFAULT_TOKEN_EXPIRATION);
+        token = authenticate();
 
         restClient.refreshToken(token);
         accountOperations.refreshToken(token);
@@ -216,6 +318,26 @@ public class DefaultFinicityClient implements FinicityClient {
         transactionOperations.refreshToken(token);
     }
 
+    /**
+     * Authenticate with the partner credentials, timed as a {@link FlightEventType#TOKEN_REFRESH} event.
+     *
+     * @return A new token.
+     */
+    private Token authenticate() {
+        final FlightEvent event = FlightEvent.begin(FlightEventType.TOKEN_REFRESH);
+        int statusCode = 0;
+        try {
+            final PartnerAccess partnerAccess = partnerOperations.authentication();
+            statusCode = 200;
+
+            return new Token(partnerAccess.getToken(), System.currentTimeMillis() + DEFAULT_TOKEN_EXPIRATION);
+        } finally {
+            if (event != null) {
+                event.commit(Endpoint.PARTNER_AUTHENTICATION, statusCode);
+            }
+        }
+    }
+
     @Override
     public PartnerOperations getPartnerOperations() {
         ensureTokenIsValid();
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.analytics;
+
+import com.github.alexdlaird.sync.SyncResult;
+import com.github.alexdlaird.type.Money;
+import com.github.alexdlaird.type.account.Account;
+import com.github.alexdlaird.type.transaction.Transaction;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link BalanceHistory} per account, fed with accounts as they are refreshed and with transactions as they arrive.
+ * <p> This class is thread-safe.
+ */
+public class BalanceHistories {
+    /**
+     * Each account's history, by account ID.
+     */
+    private final ConcurrentMap<String, BalanceHistory> balanceHistories = new ConcurrentHashMap<>();
+
+    /**
+     * Update an account's known balance, if the account has one.
+     *
+     * @param account The account.
+     */
+    public void accept(final Account account) {
+        if (account.getId() != null && account.getBalanceMoney() != null && account.getBalanceDate() != null) {
+            getOrCreate(account.getId()).setKnownBalance(account.getBalanceMoney(), account.getBalanceDate());
+        }
+    }
+
+    /**
+     * Add a transaction to its account's history, or replace an earlier copy.
+     *
+     * @param transaction The transaction, which must have an account ID.
+     */
+    public void accept(final Transaction transaction) {
+        assert transaction.getAccountId() != null;
+
+        getOrCreate(transaction.getAccountId()).put(transaction);
+    }
+
+    /**
+     * Add transactions to their accounts' histories.
+     *
+     * @param transactions The transactions.
+     */
+    public void acceptAll(final Collection<Transaction> transactions) {
+        for (final Transaction transaction : transactions) {
+            accept(transaction);
+        }
+    }
+
+    /**
+     * Add the transactions that changed in a sync to their account's history.
+     *
+     * @param syncResult The result of the sync.
+     */
+    public void accept(final SyncResult syncResult) {
+        final BalanceHistory balanceHistory = getOrCreate(syncResult.getAccountId());
+        for (final Transaction transaction : syncResult.getInserted()) {
+            balanceHistory.put(transaction);
+        }
+        for (final Transaction transaction : syncResult.getUpdated()) {
+            balanceHistory.put(transaction);
+        }
+        for (final Transaction transaction : syncResult.getPosted()) {
+            balanceHistory.put(transaction);
+        }
+    }
+
+    /**
+     * Get an account's history.
+     *
+     * @param accountId The account ID.
+     * @return The history, or null if nothing has been seen for the account.
+     */
+    public BalanceHistory get(final String accountId) {
+        return balanceHistories.get(accountId);
+    }
+
+    /**
+     * Get an account's balance at a time.
+     *
+     * @param accountId The account ID.
+     * @param date      The time, in seconds since the epoch.
+     * @return The balance, or null if no balance is known for the account.
+     */
+    public Money getBalance(final String accountId, final long date) {
+        final BalanceHistory balanceHistory = balanceHistories.get(accountId);
+
+        return balanceHistory != null ? balanceHistory.getBalance(date) : null;
+    }
+
+    private BalanceHistory getOrCreate(final String accountId) {
+        return balanceHistories.computeIfAbsent(accountId, BalanceHistory::new);
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.analytics;
+
+import com.github.alexdlaird.type.Money;
+import com.github.alexdlaird.type.transaction.Transaction;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The balance history of one account, built from a known balance, such as {@link
+ * com.github.alexdlaird.type.account.Account#getBalanceMoney() Account.getBalanceMoney()} at its
+ * <code>balanceDate</code>, and the account's posted transactions. <p> Transactions are held sorted by posted date
+ * alongside a running sum of their amounts, so the balance at any time is the known balance, plus the sum up to that
+ * time, less the sum up to the known balance's date, which takes a binary search. <p> Transactions can be added or
+ * changed as they arrive, for instance from a {@link com.github.alexdlaird.sync.TransactionSync TransactionSync}. They
+ * are keyed by ID, so a transaction seen again replaces the earlier copy. Adding a transaction only shifts and re-sums
+ * the transactions posted after it, so new transactions, which are almost always the latest, are cheap to add. Pending
+ * transactions, which have no posted date, do not affect the balance until they post. <p> A history is thread-safe.
+ */
+public class BalanceHistory {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The account ID.
+     */
+    private final String accountId;
+
+    /**
+     * Guards the fields below.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Posted dates, in ascending order.
+     */
+    private long[] dates = new long[INITIAL_CAPACITY];
+
+    /**
+     * Amounts in minor units, in the same order.
+     */
+    private long[] amounts = new long[INITIAL_CAPACITY];
+
+    /**
+     * The sum of the amounts up to and including each index.
+     */
+    private long[] sums = new long[INITIAL_CAPACITY];
+
+    /**
+     * Transaction IDs, in the same order.
+     */
+    private String[] ids = new String[INITIAL_CAPACITY];
+
+    /**
+     * The number of transactions.
+     */
+    private int size;
+
+    /**
+     * The posted date of each transaction, by ID.
+     */
+    private final Map<String, Long> datesById = new HashMap<>();
+
+    /**
+     * The known balance in minor units, or null if there is none.
+     */
+    private Long knownBalance;
+
+    /**
+     * The time of the known balance, in seconds since the epoch.
+     */
+    private long knownBalanceDate;
+
+    /**
+     * Construct an empty history.
+     *
+     * @param accountId The account ID.
+     */
+    public BalanceHistory(final String accountId) {
+        this.accountId = accountId;
+    }
+
+    /**
+     * Set the balance the history is computed from, which must include every transaction posted up to its date.
+     *
+     * @param balance     The balance.
+     * @param balanceDate The time of the balance, in seconds since the epoch.
+     */
+    public void setKnownBalance(final Money balance, final long balanceDate) {
+        assert balance != null;
+
+        lock.writeLock().lock();
+        try {
+            knownBalance = balance.getMinorUnits();
+            knownBalanceDate = balanceDate;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a transaction, or replace an earlier copy with the same ID. A transaction without a posted date or amount
+     * removes any earlier copy.
+     *
+     * @param transaction The transaction.
+     */
+    public void put(final Transaction transaction) {
+        final boolean posted = transaction.getPostedDate() != null && transaction.getAmount() != null;
+        final long amount = posted ? Money.valueOf(transaction.getAmount()).getMinorUnits() : 0;
+
+        lock.writeLock().lock();
+        try {
+            if (transaction.getId() != null) {
+                removeLocked(transaction.getId());
+            }
+            if (posted) {
+                insertLocked(transaction.getId(), transaction.getPostedDate(), amount);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a transaction, for instance one that was deleted.
+     *
+     * @param transactionId The transaction ID.
+     * @return True if the transaction was in the history.
+     */
+    public boolean remove(final String transactionId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(transactionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the balance at a time.
+     *
+     * @param date The time, in seconds since the epoch.
+     * @return The balance after every transaction posted up to and including that time, or null if no balance is
+     * known yet.
+     */
+    public Money getBalance(final long date) {
+        lock.readLock().lock();
+        try {
+            if (knownBalance == null) {
+                return null;
+            }
+
+            return Money.ofMinorUnits(balanceLocked(date));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the balance at the end of each day in a range.
+     *
+     * @param from   The first day.
+     * @param to     The last day.
+     * @param zoneId The zone days are in.
+     * @return The balance at the end of each day, in order, or an empty map if no balance is known yet.
+     */
+    public SortedMap<LocalDate, Money> getDailyBalances(final LocalDate from, final LocalDate to,
+                                                        final ZoneId zoneId) {
+        final SortedMap<LocalDate, Money> dailyBalances = new TreeMap<>();
+
+        lock.readLock().lock();
+        try {
+            if (knownBalance == null) {
+                return dailyBalances;
+            }
+
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                final long endOfDay = day.plusDays(1).atStartOfDay(zoneId).toEpochSecond() - 1;
+                dailyBalances.put(day, Money.ofMinorUnits(balanceLocked(endOfDay)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return dailyBalances;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Get the number of posted transactions in the history.
+     *
+     * @return The number of transactions.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long balanceLocked(final long date) {
+        return knownBalance + sumThrough(date) - sumThrough(knownBalanceDate);
+    }
+
+    /**
+     * Sum the amounts of the transactions posted up to and including a time.
+     */
+    private long sumThrough(final long date) {
+        final int index = upperBound(date);
+
+        return index > 0 ? sums[index - 1] : 0;
+    }
+
+    /**
+     * Find the index of the first transaction posted after a time.
+     */
+    private int upperBound(final long date) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (dates[middle] <= date) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private void insertLocked(final String id, final long date, final long amount) {
+        if (size == dates.length) {
+            final int capacity = Math.multiplyExact(dates.length, 2);
+            dates = Arrays.copyOf(dates, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+
+        final int index = upperBound(date);
+        System.arraycopy(dates, index, dates, index + 1, size - index);
+        System.arraycopy(amounts, index, amounts, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        dates[index] = date;
+        amounts[index] = amount;
+        ids[index] = id;
+        ++size;
+
+        if (id != null) {
+            datesById.put(id, date);
+        }
+        resum(index);
+    }
+
+    private boolean removeLocked(final String id) {
+        final Long date = datesById.remove(id);
+        if (date == null) {
+            return false;
+        }
+
+        // Only transactions with the same posted date need to be searched
+        int index = upperBound(date) - 1;
+        while (!id.equals(ids[index])) {
+            --index;
+        }
+
+        System.arraycopy(dates, index + 1, dates, index, size - index - 1);
+        System.arraycopy(amounts, index + 1, amounts, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        --size;
+        ids[size] = null;
+
+        resum(index);
+
+        return true;
+    }
+
+    /**
+     * Recompute the running sum from an index onward.
+     */
+    private void resum(final int from) {
+        long sum = from > 0 ? sums[from - 1] : 0;
+        for (int i = from; i < size; ++i) {
+            sum = Math.addExact(sum, amounts[i]);
+            sums[i] = sum;
+        }
+    }
+}
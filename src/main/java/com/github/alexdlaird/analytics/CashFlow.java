@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.analytics;
+
+import com.github.alexdlaird.type.Money;
+
+/**
+ * The money that flowed in and out over a group of transactions, held in minor units. Positive amounts are inflows and
+ * negative amounts are outflows. <p> Cash flows are not thread-safe, but can be built per shard and then combined.
+ */
+public class CashFlow {
+    /**
+     * Number of transactions.
+     */
+    private long count;
+
+    /**
+     * Sum of the positive amounts, in cents.
+     */
+    private long inflow;
+
+    /**
+     * Sum of the negative amounts, in cents.
+     */
+    private long outflow;
+
+    public CashFlow() {
+    }
+
+    CashFlow(final long count, final long inflow, final long outflow) {
+        this.count = count;
+        this.inflow = inflow;
+        this.outflow = outflow;
+    }
+
+    /**
+     * Add a transaction's amount.
+     *
+     * @param minorUnits The amount in cents.
+     */
+    public void accept(final long minorUnits) {
+        if (minorUnits > 0) {
+            inflow = Math.addExact(inflow, minorUnits);
+        } else {
+            outflow = Math.addExact(outflow, minorUnits);
+        }
+        ++count;
+    }
+
+    /**
+     * Add another cash flow to this one.
+     *
+     * @param other The other cash flow.
+     * @return This cash flow.
+     */
+    public CashFlow combine(final CashFlow other) {
+        count += other.count;
+        inflow = Math.addExact(inflow, other.inflow);
+        outflow = Math.addExact(outflow, other.outflow);
+
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getInflowMinorUnits() {
+        return inflow;
+    }
+
+    public long getOutflowMinorUnits() {
+        return outflow;
+    }
+
+    public long getNetMinorUnits() {
+        return Math.addExact(inflow, outflow);
+    }
+
+    public Money getInflow() {
+        return Money.ofMinorUnits(inflow);
+    }
+
+    /**
+     * Get the money that flowed out.
+     *
+     * @return The sum of the negative amounts, which is zero or less.
+     */
+    public Money getOutflow() {
+        return Money.ofMinorUnits(outflow);
+    }
+
+    public Money getNet() {
+        return Money.ofMinorUnits(getNetMinorUnits());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CashFlow)) {
+            return false;
+        }
+
+        final CashFlow other = (CashFlow) o;
+        return count == other.count && inflow == other.inflow && outflow == other.outflow;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(count) + Long.hashCode(inflow)) + Long.hashCode(outflow);
+    }
+
+    @Override
+    public String toString() {
+        return "CashFlow{count=" + count +
+                ", inflow=" + getInflow() +
+                ", outflow=" + getOutflow() + "}";
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.analytics;
+
+import com.github.alexdlaird.type.Money;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Cash flow totals over a set of transactions, grouped by category, by account ID and by the month each was posted.
+ * <p> Aggregates are merge-friendly: aggregates of separate shards, or of each new page fetched in an incremental run,
+ * can be merged into one, giving the same totals as if every transaction had been aggregated together. Transactions
+ * must not be aggregated twice, so when merging incremental runs, aggregate only the transactions that are new.
+ */
+public class TransactionAggregates {
+    /**
+     * The zone months are bucketed in.
+     */
+    private final ZoneId zoneId;
+
+    /**
+     * Totals over every transaction.
+     */
+    private final CashFlow total = new CashFlow();
+
+    /**
+     * Totals per category, where the null key holds uncategorized transactions.
+     */
+    private final Map<String, CashFlow> byCategory = new HashMap<>();
+
+    /**
+     * Totals per account ID.
+     */
+    private final Map<String, CashFlow> byAccountId = new HashMap<>();
+
+    /**
+     * Totals per month.
+     */
+    private final SortedMap<YearMonth, CashFlow> byMonth = new TreeMap<>();
+
+    /**
+     * Totals per account ID, then per month.
+     */
+    private final Map<String, SortedMap<YearMonth, CashFlow>> byAccountIdAndMonth = new HashMap<>();
+
+    /**
+     * Construct empty aggregates.
+     *
+     * @param zoneId The zone months are bucketed in.
+     */
+    public TransactionAggregates(final ZoneId zoneId) {
+        assert zoneId != null;
+
+        this.zoneId = zoneId;
+    }
+
+    /**
+     * Merge other aggregates into these.
+     *
+     * @param other Aggregates bucketed in the same zone.
+     * @return These aggregates.
+     */
+    public TransactionAggregates merge(final TransactionAggregates other) {
+        if (!zoneId.equals(other.zoneId)) {
+            throw new IllegalArgumentException("Cannot merge aggregates bucketed in " + other.zoneId + " into " +
+                    zoneId);
+        }
+
+        total.combine(other.total);
+        other.byCategory.forEach((category, cashFlow) -> addCategory(category, cashFlow));
+        other.byAccountId.forEach((accountId, cashFlow) -> addAccountId(accountId, cashFlow));
+        other.byMonth.forEach((month, cashFlow) -> addMonth(month, cashFlow));
+        other.byAccountIdAndMonth.forEach((accountId, months) ->
+                months.forEach((month, cashFlow) -> addAccountIdAndMonth(accountId, month, cashFlow)));
+
+        return this;
+    }
+
+    void addTotal(final CashFlow cashFlow) {
+        total.combine(cashFlow);
+    }
+
+    void addCategory(final String category, final CashFlow cashFlow) {
+        byCategory.computeIfAbsent(category, key -> new CashFlow()).combine(cashFlow);
+    }
+
+    void addAccountId(final String accountId, final CashFlow cashFlow) {
+        byAccountId.computeIfAbsent(accountId, key -> new CashFlow()).combine(cashFlow);
+    }
+
+    void addMonth(final YearMonth month, final CashFlow cashFlow) {
+        byMonth.computeIfAbsent(month, key -> new CashFlow()).combine(cashFlow);
+    }
+
+    void addAccountIdAndMonth(final String accountId, final YearMonth month, final CashFlow cashFlow) {
+        byAccountIdAndMonth.computeIfAbsent(accountId, key -> new TreeMap<>())
+                .computeIfAbsent(month, key -> new CashFlow()).combine(cashFlow);
+    }
+
+    /**
+     * Compute an account's balance at the end of each month, from its balance before the first month aggregated.
+     *
+     * @param accountId      The account ID.
+     * @param openingBalance The account's balance before the first month aggregated.
+     * @return The closing balance of each month that had transactions, in order.
+     */
+    public SortedMap<YearMonth, Money> getRunningBalances(final String accountId, final Money openingBalance) {
+        final SortedMap<YearMonth, Money> runningBalances = new TreeMap<>();
+        final SortedMap<YearMonth, CashFlow> months = byAccountIdAndMonth.get(accountId);
+        if (months == null) {
+            return runningBalances;
+        }
+
+        long balance = openingBalance.getMinorUnits();
+        for (final Map.Entry<YearMonth, CashFlow> entry : months.entrySet()) {
+            balance = Math.addExact(balance, entry.getValue().getNetMinorUnits());
+            runningBalances.put(entry.getKey(), Money.ofMinorUnits(balance));
+        }
+
+        return runningBalances;
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public CashFlow getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the totals per category.
+     *
+     * @return The totals, where the null key holds uncategorized transactions.
+     */
+    public Map<String, CashFlow> getByCategory() {
+        return Collections.unmodifiableMap(byCategory);
+    }
+
+    public Map<String, CashFlow> getByAccountId() {
+        return Collections.unmodifiableMap(byAccountId);
+    }
+
+    /**
+     * Get the totals per month, of the transactions that have a posted date, or failing that, a transaction date.
+     *
+     * @return The totals, in order.
+     */
+    public SortedMap<YearMonth, CashFlow> getByMonth() {
+        return Collections.unmodifiableSortedMap(byMonth);
+    }
+
+    /**
+     * Get the totals per month of an account.
+     *
+     * @param accountId The account ID.
+     * @return The totals, in order.
+     */
+    public SortedMap<YearMonth, CashFlow> getByMonth(final String accountId) {
+        final SortedMap<YearMonth, CashFlow> months = byAccountIdAndMonth.get(accountId);
+
+        return months != null ? Collections.unmodifiableSortedMap(months) : Collections.emptySortedMap();
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.analytics;
+
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionBatch;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Computes {@link TransactionAggregates} over a {@link TransactionBatch}, splitting its rows across a {@link
+ * ForkJoinPool}. <p> Each task totals its rows into flat <code>long[]</code> arrays indexed by the batch's dictionary
+ * codes and by month, so no objects are created per row, and tasks are combined by adding their arrays. Totals per
+ * account and month are kept sparsely, in a primitive hash table of the cells a task's rows actually fall in, since
+ * the dense grid grows with accounts times months and would be allocated by every task. Only the final
+ * totals are converted into {@link TransactionAggregates}, which can then be merged with those of other batches. <p>
+ * Rows without an amount are skipped. A row is bucketed by its posted date, or, for pending transactions, its
+ * transaction date.
+ */
+public class TransactionAnalytics {
+    /**
+     * Default number of rows below which a task is not split further.
+     */
+    public static final int DEFAULT_THRESHOLD = 16384;
+
+    /**
+     * The pool tasks are run in.
+     */
+    private final ForkJoinPool forkJoinPool;
+
+    /**
+     * The zone months are bucketed in.
+     */
+    private final ZoneId zoneId;
+
+    /**
+     * Number of rows below which a task is not split further.
+     */
+    private final int threshold;
+
+    /**
+     * Construct an engine that runs in the common pool and buckets months in UTC.
+     */
+    public TransactionAnalytics() {
+        this(ForkJoinPool.commonPool(), ZoneOffset.UTC, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Construct an engine.
+     *
+     * @param forkJoinPool The pool tasks are run in.
+     * @param zoneId       The zone months are bucketed in.
+     * @param threshold    Number of rows below which a task is not split further.
+     */
+    public TransactionAnalytics(final ForkJoinPool forkJoinPool, final ZoneId zoneId, final int threshold) {
+        assert forkJoinPool != null;
+        assert zoneId != null;
+        assert threshold > 0;
+
+        this.forkJoinPool = forkJoinPool;
+        this.zoneId = zoneId;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Aggregate transactions, for instance a page returned by {@link
+     * com.github.alexdlaird.operation.TransactionOperations TransactionOperations}.
+     *
+     * @param transactions The transactions.
+     * @return The aggregates.
+     */
+    public TransactionAggregates aggregate(final List<Transaction> transactions) {
+        return aggregate(TransactionBatch.of(transactions));
+    }
+
+    /**
+     * Aggregate a stream of transactions, which is collected into a {@link TransactionBatch} first.
+     *
+     * @param transactions The transactions.
+     * @return The aggregates.
+     */
+    public TransactionAggregates aggregate(final Stream<Transaction> transactions) {
+        final TransactionBatch transactionBatch = new TransactionBatch();
+        transactions.forEachOrdered(transactionBatch::add);
+
+        return aggregate(transactionBatch);
+    }
+
+    /**
+     * Aggregate every row of a batch.
+     *
+     * @param transactionBatch The batch, which must not have rows added while it is aggregated.
+     * @return The aggregates.
+     */
+    public TransactionAggregates aggregate(final TransactionBatch transactionBatch) {
+        return aggregate(transactionBatch, row -> true);
+    }
+
+    /**
+     * Aggregate the rows of a batch that match a filter, for instance to leave out pending transactions.
+     *
+     * @param transactionBatch The batch, which must not have rows added while it is aggregated.
+     * @param filter           Tests a row number, and is called from many threads at once.
+     * @return The aggregates.
+     */
+    public TransactionAggregates aggregate(final TransactionBatch transactionBatch, final IntPredicate filter) {
+        final Layout layout = new Layout(transactionBatch, computeMonthStarts(transactionBatch));
+        final Totals totals = forkJoinPool.invoke(new AggregateTask(layout, filter, 0, transactionBatch.size()));
+
+        return layout.toAggregates(totals);
+    }
+
+    /**
+     * Find the start of each month that a row of the batch falls in, plus the end of the last.
+     */
+    private long[] computeMonthStarts(final TransactionBatch transactionBatch) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int row = 0; row < transactionBatch.size(); ++row) {
+            if (hasDate(transactionBatch, row)) {
+                final long date = getDate(transactionBatch, row);
+                min = Math.min(min, date);
+                max = Math.max(max, date);
+            }
+        }
+        if (min > max) {
+            return new long[0];
+        }
+
+        final YearMonth first = YearMonth.from(Instant.ofEpochSecond(min).atZone(zoneId));
+        final YearMonth last = YearMonth.from(Instant.ofEpochSecond(max).atZone(zoneId));
+        final int months = (int) (last.getYear() * 12L + last.getMonthValue() - first.getYear() * 12L -
+                first.getMonthValue()) + 1;
+
+        final long[] monthStarts = new long[months + 1];
+        for (int i = 0; i <= months; ++i) {
+            monthStarts[i] = first.plusMonths(i).atDay(1).atStartOfDay(zoneId).toEpochSecond();
+        }
+
+        return monthStarts;
+    }
+
+    private static boolean hasDate(final TransactionBatch transactionBatch, final int row) {
+        return transactionBatch.hasPostedDate(row) || transactionBatch.hasTransactionDate(row);
+    }
+
+    private static long getDate(final TransactionBatch transactionBatch, final int row) {
+        return transactionBatch.hasPostedDate(row) ? transactionBatch.getPostedDate(row) :
+                transactionBatch.getTransactionDate(row);
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Where each group's totals are held in a {@link Totals}. Groups are laid out in its flat arrays as the total, then
+     * each category, each account ID and each month, where the last category and account ID slots hold rows with none.
+     * Each month of each account ID is a cell of its {@link Cells}, keyed by account ID slot times months plus month.
+     */
+    private final class Layout {
+        private final TransactionBatch transactionBatch;
+        private final long[] monthStarts;
+        private final int categories;
+        private final int accountIds;
+        private final int months;
+        private final int categoryOffset;
+        private final int accountIdOffset;
+        private final int monthOffset;
+        private final int slots;
+
+        private Layout(final TransactionBatch transactionBatch, final long[] monthStarts) {
+            this.transactionBatch = transactionBatch;
+            this.monthStarts = monthStarts;
+            this.categories = transactionBatch.getCategoryCodeCount() + 1;
+            this.accountIds = transactionBatch.getAccountIdCodeCount() + 1;
+            this.months = Math.max(monthStarts.length - 1, 0);
+            this.categoryOffset = 1;
+            this.accountIdOffset = categoryOffset + categories;
+            this.monthOffset = accountIdOffset + accountIds;
+            this.slots = monthOffset + months;
+            // Cell keys must fit in an int
+            Math.multiplyExact(accountIds, months);
+        }
+
+        private void accumulate(final Totals totals, final IntPredicate filter, final int from, final int to) {
+            for (int row = from; row < to; ++row) {
+                if (!transactionBatch.hasAmount(row) || !filter.test(row)) {
+                    continue;
+                }
+
+                final long amount = transactionBatch.getAmountMinorUnits(row);
+                final int category = transactionBatch.getCategoryCode(row);
+                final int accountId = transactionBatch.getAccountIdCode(row);
+                final int accountIdSlot = accountId >= 0 ? accountId : accountIds - 1;
+
+                totals.accept(0, amount);
+                totals.accept(categoryOffset + (category >= 0 ? category : categories - 1), amount);
+                totals.accept(accountIdOffset + accountIdSlot, amount);
+
+                if (hasDate(transactionBatch, row)) {
+                    final int search = Arrays.binarySearch(monthStarts, getDate(transactionBatch, row));
+                    final int month = search >= 0 ? search : -search - 2;
+                    totals.accept(monthOffset + month, amount);
+                    totals.cells.accept(accountIdSlot * months + month, amount);
+                }
+            }
+        }
+
+        private TransactionAggregates toAggregates(final Totals totals) {
+            final TransactionAggregates transactionAggregates = new TransactionAggregates(zoneId);
+            transactionAggregates.addTotal(totals.get(0));
+
+            for (int i = 0; i < categories; ++i) {
+                if (totals.counts[categoryOffset + i] > 0) {
+                    transactionAggregates.addCategory(i < categories - 1 ? transactionBatch.getCategoryForCode(i) :
+                            null, totals.get(categoryOffset + i));
+                }
+            }
+            for (int i = 0; i < accountIds; ++i) {
+                if (totals.counts[accountIdOffset + i] > 0) {
+                    transactionAggregates.addAccountId(getAccountId(i), totals.get(accountIdOffset + i));
+                }
+            }
+            for (int month = 0; month < months; ++month) {
+                if (totals.counts[monthOffset + month] > 0) {
+                    transactionAggregates.addMonth(getMonth(month), totals.get(monthOffset + month));
+                }
+            }
+            final Cells cells = totals.cells;
+            final long[] sorted = new long[cells.size];
+            for (int index = 0; index < cells.size; ++index) {
+                sorted[index] = (long) cells.keys[index] << 32 | index;
+            }
+            Arrays.sort(sorted);
+            for (final long keyAndIndex : sorted) {
+                final int key = (int) (keyAndIndex >>> 32);
+                final int index = (int) keyAndIndex;
+                transactionAggregates.addAccountIdAndMonth(getAccountId(key / months), getMonth(key % months),
+                        new CashFlow(cells.counts[index], cells.inflows[index], cells.outflows[index]));
+            }
+
+            return transactionAggregates;
+        }
+
+        private String getAccountId(final int slot) {
+            return slot < accountIds - 1 ? transactionBatch.getAccountIdForCode(slot) : null;
+        }
+
+        private YearMonth getMonth(final int month) {
+            return YearMonth.from(Instant.ofEpochSecond(monthStarts[month]).atZone(zoneId));
+        }
+    }
+
+    /**
+     * The totals of each group, as parallel arrays of counts, inflows and outflows, and the totals of each cell.
+     */
+    private static final class Totals {
+        private final long[] counts;
+        private final long[] inflows;
+        private final long[] outflows;
+        private Cells cells = new Cells();
+
+        private Totals(final int slots) {
+            counts = new long[slots];
+            inflows = new long[slots];
+            outflows = new long[slots];
+        }
+
+        private void accept(final int slot, final long amount) {
+            if (amount > 0) {
+                inflows[slot] = Math.addExact(inflows[slot], amount);
+            } else {
+                outflows[slot] = Math.addExact(outflows[slot], amount);
+            }
+            ++counts[slot];
+        }
+
+        private Totals combine(final Totals other) {
+            for (int slot = 0; slot < counts.length; ++slot) {
+                counts[slot] += other.counts[slot];
+                inflows[slot] = Math.addExact(inflows[slot], other.inflows[slot]);
+                outflows[slot] = Math.addExact(outflows[slot], other.outflows[slot]);
+            }
+
+            // Fold the smaller table into the larger one
+            if (other.cells.size > cells.size) {
+                other.cells.combine(cells);
+                cells = other.cells;
+            } else {
+                cells.combine(other.cells);
+            }
+
+            return this;
+        }
+
+        private CashFlow get(final int slot) {
+            return new CashFlow(counts[slot], inflows[slot], outflows[slot]);
+        }
+    }
+
+    /**
+     * Totals of sparse, non-negative int keys, in an open-addressing hash table of indexes into parallel arrays of
+     * keys, counts, inflows and outflows.
+     */
+    private static final class Cells {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] table = new int[INITIAL_CAPACITY * 2];
+        private int[] keys = new int[INITIAL_CAPACITY];
+        private long[] counts = new long[INITIAL_CAPACITY];
+        private long[] inflows = new long[INITIAL_CAPACITY];
+        private long[] outflows = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private void accept(final int key, final long amount) {
+            final int index = indexOf(key);
+            if (amount > 0) {
+                inflows[index] = Math.addExact(inflows[index], amount);
+            } else {
+                outflows[index] = Math.addExact(outflows[index], amount);
+            }
+            ++counts[index];
+        }
+
+        private void combine(final Cells other) {
+            for (int otherIndex = 0; otherIndex < other.size; ++otherIndex) {
+                final int index = indexOf(other.keys[otherIndex]);
+                counts[index] += other.counts[otherIndex];
+                inflows[index] = Math.addExact(inflows[index], other.inflows[otherIndex]);
+                outflows[index] = Math.addExact(outflows[index], other.outflows[otherIndex]);
+            }
+        }
+
+        /**
+         * Find the index of a key, adding it if it is new. Table entries hold an index plus one, so zero is empty.
+         */
+        private int indexOf(final int key) {
+            final int mask = table.length - 1;
+            int position = mix(key) & mask;
+            while (table[position] != 0) {
+                final int index = table[position] - 1;
+                if (keys[index] == key) {
+                    return index;
+                }
+                position = (position + 1) & mask;
+            }
+
+            if (size == keys.length) {
+                grow();
+                return indexOf(key);
+            }
+
+            final int index = size++;
+            keys[index] = key;
+            table[position] = index + 1;
+
+            return index;
+        }
+
+        private void grow() {
+            final int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            inflows = Arrays.copyOf(inflows, capacity);
+            outflows = Arrays.copyOf(outflows, capacity);
+
+            table = new int[capacity * 2];
+            final int mask = table.length - 1;
+            for (int index = 0; index < size; ++index) {
+                int position = mix(keys[index]) & mask;
+                while (table[position] != 0) {
+                    position = (position + 1) & mask;
+                }
+                table[position] = index + 1;
+            }
+        }
+
+        private static int mix(final int key) {
+            final int hash = key * 0x9E3779B9;
+
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private final class AggregateTask extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final Layout layout;
+        private final IntPredicate filter;
+        private final int from;
+        private final int to;
+
+        private AggregateTask(final Layout layout, final IntPredicate filter, final int from, final int to) {
+            this.layout = layout;
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= threshold) {
+                final Totals totals = new Totals(layout.slots);
+                layout.accumulate(totals, filter, from, to);
+
+                return totals;
+            }
+
+            final int middle = (from + to) >>> 1;
+            final AggregateTask left = new AggregateTask(layout, filter, from, middle);
+            left.fork();
+            final Totals right = new AggregateTask(layout, filter, middle, to).compute();
+
+            return left.join().combine(right);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.bulk;
+
+import com.github.alexdlaird.FinicityClient;
+import com.github.alexdlaird.type.Sort;
+import com.github.alexdlaird.type.account.Account;
+import com.github.alexdlaird.type.transaction.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Runs operations for many customers at once, for instance to fetch the accounts of every customer. <p> Customers are
+ * taken from a collection or stream by a bounded number of worker threads, and each customer's result, or failure, is
+ * streamed back as it completes, so one customer that fails does not stop the rest. Each run reports its {@link
+ * BulkProgress}. <p> Requests are made through the given client, so to share a rate limit and retries across every
+ * worker, build it with a {@link com.github.alexdlaird.component.rest.limit.RateLimitingRestClient
+ * RateLimitingRestClient} and {@link com.github.alexdlaird.component.rest.retry.RetryingRestClient
+ * RetryingRestClient}. Workers run in the {@link com.github.alexdlaird.component.rest.schedule.Lane#BATCH BATCH} lane,
+ * so a {@link com.github.alexdlaird.component.rest.schedule.PrioritizingRestClient PrioritizingRestClient} keeps
+ * interactive requests ahead of them.
+ */
+public class BulkOperations {
+    /**
+     * Default number of customers processed at once.
+     */
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    /**
+     * The number of transactions requested per page, which is the most the API allows.
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * Numbers the worker threads of all runs.
+     */
+    private static final AtomicInteger WORKER_NUMBER = new AtomicInteger();
+
+    /**
+     * The client operations are made with.
+     */
+    private final FinicityClient finicityClient;
+
+    /**
+     * Number of customers processed at once.
+     */
+    private final int parallelism;
+
+    /**
+     * Construct a facade that processes the default number of customers at once.
+     *
+     * @param finicityClient The client operations are made with.
+     */
+    public BulkOperations(final FinicityClient finicityClient) {
+        this(finicityClient, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Construct a facade.
+     *
+     * @param finicityClient The client operations are made with.
+     * @param parallelism    Number of customers processed at once.
+     */
+    public BulkOperations(final FinicityClient finicityClient, final int parallelism) {
+        assert finicityClient != null;
+        assert parallelism > 0;
+
+        this.finicityClient = finicityClient;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the accounts of many customers.
+     *
+     * @param customerIds The customer IDs.
+     * @return Each customer's accounts, as they are retrieved.
+     */
+    public BulkResults<List<Account>> getAccounts(final Collection<String> customerIds) {
+        return execute(customerIds, customerId -> finicityClient.getAccountOperations().getAccounts(customerId));
+    }
+
+    /**
+     * Get the accounts of many customers.
+     *
+     * @param customerIds The customer IDs, which are read as workers become free.
+     * @return Each customer's accounts, as they are retrieved.
+     */
+    public BulkResults<List<Account>> getAccounts(final Stream<String> customerIds) {
+        return execute(customerIds, customerId -> finicityClient.getAccountOperations().getAccounts(customerId));
+    }
+
+    /**
+     * Get every transaction of many customers in a date range, requesting as many pages as needed.
+     *
+     * @param customerIds The customer IDs.
+     * @param fromDate    The start of the range, in seconds since the epoch.
+     * @param toDate      The end of the range, in seconds since the epoch, which must be within the range the API
+     *                    allows.
+     * @return Each customer's transactions, as they are retrieved.
+     */
+    public BulkResults<List<Transaction>> getTransactions(final Collection<String> customerIds, final long fromDate,
+                                                          final long toDate) {
+        return execute(customerIds, customerId -> getAllTransactions(customerId, fromDate, toDate));
+    }
+
+    /**
+     * Get every transaction of many customers in a date range, requesting as many pages as needed.
+     *
+     * @param customerIds The customer IDs, which are read as workers become free.
+     * @param fromDate    The start of the range, in seconds since the epoch.
+     * @param toDate      The end of the range, in seconds since the epoch, which must be within the range the API
+     *                    allows.
+     * @return Each customer's transactions, as they are retrieved.
+     */
+    public BulkResults<List<Transaction>> getTransactions(final Stream<String> customerIds, final long fromDate,
+                                                          final long toDate) {
+        return execute(customerIds, customerId -> getAllTransactions(customerId, fromDate, toDate));
+    }
+
+    /**
+     * Run any operation for many customers.
+     *
+     * @param customerIds The customer IDs.
+     * @param operation   The operation, given a customer ID.
+     * @param <T>         The type of each customer's value.
+     * @return Each customer's value, as the operation completes.
+     */
+    public <T> BulkResults<T> execute(final Collection<String> customerIds, final Function<String, T> operation) {
+        return new BulkResults<>(customerIds.iterator(), customerIds.size(), operation, parallelism,
+                createThreadFactory());
+    }
+
+    /**
+     * Run any operation for many customers.
+     *
+     * @param customerIds The customer IDs, which are read as workers become free.
+     * @param operation   The operation, given a customer ID.
+     * @param <T>         The type of each customer's value.
+     * @return Each customer's value, as the operation completes.
+     */
+    public <T> BulkResults<T> execute(final Stream<String> customerIds, final Function<String, T> operation) {
+        final Iterator<String> iterator = customerIds.iterator();
+
+        return new BulkResults<>(iterator, -1, operation, parallelism, createThreadFactory());
+    }
+
+    private List<Transaction> getAllTransactions(final String customerId, final long fromDate, final long toDate) {
+        final List<Transaction> transactions = new ArrayList<>();
+
+        int start = 1;
+        while (true) {
+            final List<Transaction> page = finicityClient.getTransactionOperations().getTransactions(customerId,
+                    fromDate, toDate, start, PAGE_SIZE, Sort.ASC, true);
+            transactions.addAll(page);
+            if (page.size() < PAGE_SIZE) {
+                return transactions;
+            }
+
+            start += PAGE_SIZE;
+        }
+    }
+
+    /**
+     * Override this method if you would like to change how worker threads are created.
+     *
+     * @return A {@link ThreadFactory} instance.
+     */
+    protected ThreadFactory createThreadFactory() {
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "finicity-bulk-" + WORKER_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        };
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.bulk;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of one bulk run, which can be polled from any thread while results are being consumed.
+ */
+public class BulkProgress {
+    /**
+     * Number of customers in the run, or -1 if not known up front.
+     */
+    private final long total;
+
+    /**
+     * When the run started, in {@link System#nanoTime()}.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * When the run finished, or 0 while it is running.
+     */
+    private volatile long finishNanos;
+
+    /**
+     * Customers whose operation has started.
+     */
+    private final LongAdder started = new LongAdder();
+
+    /**
+     * Customers whose operation succeeded.
+     */
+    private final LongAdder succeeded = new LongAdder();
+
+    /**
+     * Customers whose operation failed.
+     */
+    private final LongAdder failed = new LongAdder();
+
+    BulkProgress(final long total) {
+        this.total = total;
+    }
+
+    void recordStarted() {
+        started.increment();
+    }
+
+    void recordSucceeded() {
+        succeeded.increment();
+    }
+
+    void recordFailed() {
+        failed.increment();
+    }
+
+    void recordFinished() {
+        finishNanos = System.nanoTime();
+    }
+
+    /**
+     * Get the number of customers in the run.
+     *
+     * @return The number of customers, or -1 if they were given as a stream.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getStarted() {
+        return started.sum();
+    }
+
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getCompleted() {
+        return getSucceeded() + getFailed();
+    }
+
+    public boolean isFinished() {
+        return finishNanos != 0;
+    }
+
+    /**
+     * Get the fraction of customers completed.
+     *
+     * @return The fraction from 0 to 1, or -1 if the total is not known.
+     */
+    public double getFractionCompleted() {
+        if (total < 0) {
+            return -1;
+        }
+
+        return total > 0 ? (double) getCompleted() / total : 1;
+    }
+
+    public long getElapsedMillis() {
+        final long finish = finishNanos;
+
+        return TimeUnit.NANOSECONDS.toMillis((finish != 0 ? finish : System.nanoTime()) - startNanos);
+    }
+
+    /**
+     * Get the average throughput of the run so far.
+     *
+     * @return Customers completed per second.
+     */
+    public double getThroughput() {
+        final long elapsedMillis = getElapsedMillis();
+
+        return elapsedMillis > 0 ? getCompleted() * 1000.0 / elapsedMillis : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkProgress{completed=" + getCompleted() +
+                (total >= 0 ? "/" + total : "") +
+                ", failed=" + getFailed() +
+                ", elapsedMillis=" + getElapsedMillis() +
+                ", throughput=" + String.format("%.1f/s", getThroughput()) + "}";
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.bulk;
+
+import com.github.alexdlaird.component.rest.schedule.Lane;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The results of one bulk run, which are streamed as each customer completes, in the order they complete. <p> The run
+ * starts as soon as it is created. Workers stop taking new customers while the stream's consumer falls behind, so
+ * results are never buffered without bound. Closing the results, or the stream, stops the run early; results that are
+ * abandoned without being consumed or closed leave their workers waiting.
+ *
+ * @param <T> The type of each customer's value.
+ */
+public class BulkResults<T> implements AutoCloseable {
+    /**
+     * Marks the end of the results.
+     */
+    private static final Object END = new Object();
+
+    /**
+     * The customers yet to be taken by a worker; guarded by itself.
+     */
+    private final Iterator<String> customerIds;
+
+    /**
+     * The operation run for each customer.
+     */
+    private final Function<String, T> operation;
+
+    /**
+     * Completed results, followed by {@link #END}.
+     */
+    private final BlockingQueue<Object> results;
+
+    /**
+     * Progress of the run.
+     */
+    private final BulkProgress bulkProgress;
+
+    /**
+     * The workers.
+     */
+    private final List<Thread> workers = new ArrayList<>();
+
+    /**
+     * Workers still running.
+     */
+    private final AtomicInteger running;
+
+    /**
+     * True once the run has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * True once the stream has been requested.
+     */
+    private boolean streamed;
+
+    BulkResults(final Iterator<String> customerIds, final long total, final Function<String, T> operation,
+                final int parallelism, final ThreadFactory threadFactory) {
+        this.customerIds = customerIds;
+        this.operation = operation;
+        this.results = new ArrayBlockingQueue<>(parallelism * 2 + 1);
+        this.bulkProgress = new BulkProgress(total);
+        this.running = new AtomicInteger(parallelism);
+
+        for (int i = 0; i < parallelism; ++i) {
+            workers.add(threadFactory.newThread(this::work));
+        }
+        for (final Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    @SuppressWarnings("try")
+    private void work() {
+        try (Lane.Scope ignored = Lane.BATCH.enter()) {
+            String customerId;
+            while (!closed && (customerId = nextCustomerId()) != null) {
+                bulkProgress.recordStarted();
+
+                final long start = System.nanoTime();
+                CustomerResult<T> customerResult;
+                try {
+                    customerResult = CustomerResult.success(customerId, operation.apply(customerId),
+                            System.nanoTime() - start);
+                    bulkProgress.recordSucceeded();
+                } catch (RuntimeException ex) {
+                    customerResult = CustomerResult.failure(customerId, ex, System.nanoTime() - start);
+                    bulkProgress.recordFailed();
+                }
+
+                results.put(customerResult);
+            }
+        } catch (InterruptedException ex) {
+            // The run was closed while waiting for the consumer
+            Thread.currentThread().interrupt();
+        } finally {
+            if (running.decrementAndGet() == 0) {
+                bulkProgress.recordFinished();
+                offerEnd();
+            }
+        }
+    }
+
+    private String nextCustomerId() {
+        synchronized (customerIds) {
+            return customerIds.hasNext() ? customerIds.next() : null;
+        }
+    }
+
+    private void offerEnd() {
+        // The last worker may itself have been interrupted by close(), but must still end the stream
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (true) {
+                if (closed) {
+                    results.clear();
+                }
+                try {
+                    if (results.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Get the results as a stream, which can only be done once.
+     *
+     * @return The results, in the order customers completed.
+     */
+    public synchronized Stream<CustomerResult<T>> stream() {
+        if (streamed) {
+            throw new IllegalStateException("The results have already been streamed");
+        }
+        streamed = true;
+
+        final Spliterator<CustomerResult<T>> spliterator = new Spliterators.AbstractSpliterator<CustomerResult<T>>(
+                bulkProgress.getTotal() >= 0 ? bulkProgress.getTotal() : Long.MAX_VALUE, Spliterator.NONNULL) {
+            private boolean ended;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean tryAdvance(final Consumer<? super CustomerResult<T>> action) {
+                if (ended) {
+                    return false;
+                }
+
+                final Object result;
+                try {
+                    result = results.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    close();
+
+                    throw new IllegalStateException("Interrupted while waiting for bulk results", ex);
+                }
+                if (result == END) {
+                    ended = true;
+                    return false;
+                }
+
+                action.accept((CustomerResult<T>) result);
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    public BulkProgress getProgress() {
+        return bulkProgress;
+    }
+
+    /**
+     * Stop the run. Operations already started are interrupted, and no more customers are taken.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        for (final Thread worker : workers) {
+            worker.interrupt();
+        }
+        results.clear();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.bulk;
+
+/**
+ * The outcome of a bulk operation for one customer, which either succeeded with a value or failed with an exception.
+ *
+ * @param <T> The type of the value.
+ */
+public class CustomerResult<T> {
+    /**
+     * ID of the customer.
+     */
+    private final String customerId;
+
+    /**
+     * The value, if the operation succeeded.
+     */
+    private final T value;
+
+    /**
+     * The failure, if the operation failed.
+     */
+    private final RuntimeException exception;
+
+    /**
+     * Time taken by the operation.
+     */
+    private final long elapsedNanos;
+
+    private CustomerResult(final String customerId, final T value, final RuntimeException exception,
+                           final long elapsedNanos) {
+        this.customerId = customerId;
+        this.value = value;
+        this.exception = exception;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    static <T> CustomerResult<T> success(final String customerId, final T value, final long elapsedNanos) {
+        return new CustomerResult<>(customerId, value, null, elapsedNanos);
+    }
+
+    static <T> CustomerResult<T> failure(final String customerId, final RuntimeException exception,
+                                         final long elapsedNanos) {
+        return new CustomerResult<>(customerId, null, exception, elapsedNanos);
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    /**
+     * Get the value.
+     *
+     * @return The value.
+     * @throws RuntimeException The operation failed, in which case its exception is rethrown.
+     */
+    public T getValue() {
+        if (exception != null) {
+            throw exception;
+        }
+
+        return value;
+    }
+
+    /**
+     * Get the failure.
+     *
+     * @return The exception, or null if the operation succeeded.
+     */
+    public RuntimeException getException() {
+        return exception;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerResult{customerId=" + customerId +
+                (exception == null ? ", success" : ", exception=" + exception) + "}";
+    }
+}
@@ -23,11 +23,15 @@
 
 package com.github.alexdlaird.component;
 
+import com.github.alexdlaird.type.Money;
+
 import org.simpleframework.xml.core.Persister;
 import org.simpleframework.xml.transform.Matcher;
 
 /**
- * Extends {@link Persister} and adds Enum functionality based off of the {@link EnumTransform} implementation.
+ * Extends {@link Persister} and adds Enum functionality based off of the {@link EnumTransform} implementation, and
+ * {@link Money} functionality based off of the {@link MoneyTransform} implementation. Optionally, every string read
+ * can be deduplicated through a {@link StringPool}.
  */
 public class FinicityPersister extends Persister {
     public FinicityPersister() {
@@ -35,6 +39,30 @@ public class FinicityPersister extends Persister {
             if (type.isEnum()) {
                 return new EnumTransform(type);
             }
+            if (type == Money.class) {
+                return new MoneyTransform();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Construct a persister that deduplicates the strings it reads, so repetitive values, like the account ID of
+     * every transaction in a page, share one copy.
+     *
+     * @param stringPool The pool strings are deduplicated through, which may be shared.
+     */
+    public FinicityPersister(final StringPool stringPool) {
+        super((Matcher) type -> {
+            if (type.isEnum()) {
+                return new EnumTransform(type);
+            }
+            if (type == Money.class) {
+                return new MoneyTransform();
+            }
+            if (type == String.class) {
+                return new PooledStringTransform(stringPool);
+            }
             return null;
         });
     }
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe pool for deduplicating the short, repetitive strings found in API responses, such as account
+ * IDs, transaction types and categories, so a large page of results holds one copy of each rather than one per
+ * record. <p> The pool is a fixed-size table indexed by hash, where a string that collides with a different one
+ * replaces it. This keeps lookups lock-free and memory bounded: values that recur constantly stay pooled, while one-off
+ * values, like transaction IDs, pass through and are soon replaced. Unlike {@link String#intern()}, nothing is kept
+ * after the pool itself is unreachable.
+ */
+public class StringPool {
+    /**
+     * Default number of slots.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Default length of the longest string pooled.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    /**
+     * The pooled strings, indexed by hash.
+     */
+    private final AtomicReferenceArray<String> slots;
+
+    /**
+     * Mask that reduces a hash to a slot index.
+     */
+    private final int mask;
+
+    /**
+     * The length of the longest string pooled.
+     */
+    private final int maxLength;
+
+    /**
+     * Lookups that returned a pooled string.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Lookups that did not.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Construct a pool with the default capacity and maximum length.
+     */
+    public StringPool() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Construct a pool.
+     *
+     * @param capacity  The number of slots, which is rounded up to a power of two.
+     * @param maxLength The length of the longest string pooled; longer strings are returned as is.
+     */
+    public StringPool(final int capacity, final int maxLength) {
+        assert capacity > 0 && capacity <= 1 << 30;
+        assert maxLength >= 0;
+
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Get the pooled copy of a string, pooling it if there is none.
+     *
+     * @param value The string.
+     * @return An equal string, which is the pooled copy if there is one.
+     */
+    public String intern(final String value) {
+        if (value == null || value.length() > maxLength) {
+            return value;
+        }
+
+        final int hash = value.hashCode();
+        final int index = spread(hash) & mask;
+        final String pooled = slots.get(index);
+        if (pooled != null && pooled.hashCode() == hash && pooled.equals(value)) {
+            hits.increment();
+            return pooled;
+        }
+
+        misses.increment();
+        slots.lazySet(index, value);
+
+        return value;
+    }
+
+    /**
+     * Get the pooled copy of a string held in a character array, only creating a string if there is none. This lets a
+     * parser avoid allocating a string at all for values it has seen before.
+     *
+     * @param chars  The array.
+     * @param offset The offset of the first character.
+     * @param length The number of characters.
+     * @return An equal string, which is the pooled copy if there is one.
+     */
+    public String intern(final char[] chars, final int offset, final int length) {
+        if (length > maxLength) {
+            return new String(chars, offset, length);
+        }
+
+        // The same hash as String.hashCode()
+        int hash = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            hash = 31 * hash + chars[i];
+        }
+
+        final int index = spread(hash) & mask;
+        final String pooled = slots.get(index);
+        if (pooled != null && pooled.hashCode() == hash && regionEquals(pooled, chars, offset, length)) {
+            hits.increment();
+            return pooled;
+        }
+
+        misses.increment();
+        final String value = new String(chars, offset, length);
+        slots.lazySet(index, value);
+
+        return value;
+    }
+
+    private static boolean regionEquals(final String value, final char[] chars, final int offset, final int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (value.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Mix the high bits of a hash into the low bits the index is taken from.
+     */
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
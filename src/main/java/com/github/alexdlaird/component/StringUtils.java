@@ -28,6 +28,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Convenience methods for String manipulation.
@@ -92,4 +93,26 @@ public class StringUtils {
 
         return true;
     }
+
+    /**
+     * Encode an ID as a file name that is safe on every file system, including case-insensitive ones, and that is
+     * different for every different ID. Lowercase letters and digits are kept, and every other UTF-8 byte is written
+     * as an underscore followed by two hex digits, so "a.b", "a_b" and "A_b" all stay distinct.
+     *
+     * @param id The ID.
+     * @return The file name.
+     */
+    public static String toFileName(final String id) {
+        final StringBuilder stringBuilder = new StringBuilder(id.length());
+        for (final byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            if ((b >= 'a' && b <= 'z') || (b >= '0' && b <= '9')) {
+                stringBuilder.append((char) b);
+            } else {
+                stringBuilder.append('_').append(Character.forDigit((b >> 4) & 0xF, 16))
+                        .append(Character.forDigit(b & 0xF, 16));
+            }
+        }
+
+        return stringBuilder.toString();
+    }
 }
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.jfr;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A JDK Flight Recorder event for one phase of a Finicity call, carrying the endpoint, the status code and, for
+ * retries, the attempt. <p> The library targets Java 8, so event types are registered at runtime through
+ * <code>jdk.jfr.EventFactory</code> rather than compiled as subclasses of <code>jdk.jfr.Event</code>. On a JVM without
+ * Flight Recorder, or while no recording is running, {@link #begin(FlightEventType)} returns null after reading a
+ * single volatile field, so call sites cost nearly nothing: <pre>
+ * final FlightEvent event = FlightEvent.begin(FlightEventType.DECODE);
+ * // Decode
+ * if (event != null) {
+ *     event.end().commit(endpoint, statusCode);
+ * }
+ * </pre>
+ */
+public final class FlightEvent {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(FlightEvent.class));
+
+    /**
+     * Field indexes, in the order the fields are declared.
+     */
+    private static final int ENDPOINT = 0;
+
+    private static final int STATUS = 1;
+
+    private static final int ATTEMPT = 2;
+
+    /**
+     * A <code>jdk.jfr.EventFactory</code> for each {@link FlightEventType}, by ordinal, or null if Flight Recorder is
+     * not available.
+     */
+    private static final Object[] FACTORIES;
+
+    private static final Method NEW_EVENT;
+
+    private static final Method BEGIN;
+
+    private static final Method END;
+
+    private static final Method COMMIT;
+
+    private static final Method SET;
+
+    /**
+     * True while a recording is running.
+     */
+    private static volatile boolean recording;
+
+    static {
+        Object[] factories = null;
+        Method newEvent = null;
+        Method begin = null;
+        Method end = null;
+        Method commit = null;
+        Method set = null;
+        try {
+            final Class<?> flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+            if ((Boolean) flightRecorder.getMethod("isAvailable").invoke(null)) {
+                final Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+                final Class<?> event = Class.forName("jdk.jfr.Event");
+                newEvent = eventFactory.getMethod("newEvent");
+                begin = event.getMethod("begin");
+                end = event.getMethod("end");
+                commit = event.getMethod("commit");
+                set = event.getMethod("set", int.class, Object.class);
+
+                final Method create = eventFactory.getMethod("create", List.class, List.class);
+                factories = new Object[FlightEventType.values().length];
+                for (final FlightEventType type : FlightEventType.values()) {
+                    factories[type.ordinal()] = create.invoke(null, createAnnotations(type), createFields());
+                }
+
+                listen(flightRecorder);
+            }
+        } catch (Exception | LinkageError ex) {
+            LOGGER.log(Level.FINE, "JDK Flight Recorder is not available, so no events will be emitted", ex);
+
+            factories = null;
+        }
+
+        FACTORIES = factories;
+        NEW_EVENT = newEvent;
+        BEGIN = begin;
+        END = end;
+        COMMIT = commit;
+        SET = set;
+    }
+
+    /**
+     * The underlying <code>jdk.jfr.Event</code>.
+     */
+    private final Object event;
+
+    private FlightEvent(final Object event) {
+        this.event = event;
+    }
+
+    /**
+     * Start timing an event, if a recording is running.
+     *
+     * @param type The kind of event.
+     * @return The event, or null if no recording is running.
+     */
+    public static FlightEvent begin(final FlightEventType type) {
+        if (!recording) {
+            return null;
+        }
+
+        try {
+            final Object event = NEW_EVENT.invoke(FACTORIES[type.ordinal()]);
+            BEGIN.invoke(event);
+
+            return new FlightEvent(event);
+        } catch (Exception ex) {
+            LOGGER.log(Level.FINE, "Unable to begin a Flight Recorder event", ex);
+
+            return null;
+        }
+    }
+
+    /**
+     * Check if events are currently being recorded.
+     *
+     * @return True if a recording is running.
+     */
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Stop timing the event. The event can still be committed later, once its status is known.
+     *
+     * @return This event.
+     */
+    public FlightEvent end() {
+        try {
+            END.invoke(event);
+        } catch (Exception ex) {
+            LOGGER.log(Level.FINE, "Unable to end a Flight Recorder event", ex);
+        }
+
+        return this;
+    }
+
+    /**
+     * Write the event to the recording. If the event was not ended, it ends now.
+     *
+     * @param endpoint   The endpoint, or null if unknown.
+     * @param statusCode The response status code, or 0 if there was none.
+     */
+    public void commit(final Endpoint endpoint, final int statusCode) {
+        commit(endpoint, statusCode, 0);
+    }
+
+    /**
+     * Write the event to the recording. If the event was not ended, it ends now.
+     *
+     * @param endpoint   The endpoint, or null if unknown.
+     * @param statusCode The response status code, or 0 if there was none.
+     * @param attempt    The attempt, for retries, or 0.
+     */
+    public void commit(final Endpoint endpoint, final int statusCode, final int attempt) {
+        try {
+            SET.invoke(event, ENDPOINT, endpoint != null ? endpoint.toString() : null);
+            SET.invoke(event, STATUS, statusCode);
+            SET.invoke(event, ATTEMPT, attempt);
+            COMMIT.invoke(event);
+        } catch (Exception ex) {
+            LOGGER.log(Level.FINE, "Unable to commit a Flight Recorder event", ex);
+        }
+    }
+
+    private static List<Object> createAnnotations(final FlightEventType type) throws Exception {
+        return Arrays.asList(
+                annotation("jdk.jfr.Name", "com.github.alexdlaird." + type.getName()),
+                annotation("jdk.jfr.Label", type.getLabel()),
+                annotation("jdk.jfr.Description", type.getDescription()),
+                annotation("jdk.jfr.Category", new String[]{"Finicity"}),
+                annotation("jdk.jfr.StackTrace", false));
+    }
+
+    private static List<Object> createFields() throws Exception {
+        final Constructor<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor")
+                .getConstructor(Class.class, String.class, List.class);
+
+        final List<Object> fields = new ArrayList<>();
+        fields.add(valueDescriptor.newInstance(String.class, "endpoint",
+                Collections.singletonList(annotation("jdk.jfr.Label", "Endpoint"))));
+        fields.add(valueDescriptor.newInstance(int.class, "status",
+                Collections.singletonList(annotation("jdk.jfr.Label", "Status"))));
+        fields.add(valueDescriptor.newInstance(int.class, "attempt",
+                Collections.singletonList(annotation("jdk.jfr.Label", "Attempt"))));
+
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object annotation(final String annotationClass, final Object value) throws Exception {
+        final Class<? extends Annotation> type = (Class<? extends Annotation>) Class.forName(annotationClass);
+
+        return Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class)
+                .newInstance(type, value);
+    }
+
+    /**
+     * Keep {@link #recording} up to date as recordings start and stop.
+     */
+    private static void listen(final Class<?> flightRecorder) throws Exception {
+        final Class<?> listener = Class.forName("jdk.jfr.FlightRecorderListener");
+        final InvocationHandler invocationHandler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "recorderInitialized":
+                case "recordingStateChanged":
+                    updateRecording(flightRecorder);
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return FlightEvent.class.getName() + " listener";
+                default:
+                    return null;
+            }
+        };
+
+        flightRecorder.getMethod("addListener", listener).invoke(null, Proxy.newProxyInstance(
+                FlightEvent.class.getClassLoader(), new Class<?>[]{listener}, invocationHandler));
+
+        if ((Boolean) flightRecorder.getMethod("isInitialized").invoke(null)) {
+            updateRecording(flightRecorder);
+        }
+    }
+
+    private static void updateRecording(final Class<?> flightRecorder) {
+        try {
+            final Object recorder = flightRecorder.getMethod("getFlightRecorder").invoke(null);
+            boolean running = false;
+            for (final Object recording : (List<?>) flightRecorder.getMethod("getRecordings").invoke(recorder)) {
+                running |= "RUNNING".equals(String.valueOf(recording.getClass().getMethod("getState")
+                        .invoke(recording)));
+            }
+
+            recording = running;
+        } catch (Exception ex) {
+            LOGGER.log(Level.FINE, "Unable to check for running recordings", ex);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.jfr;
+
+/**
+ * The kinds of {@link FlightEvent} the client emits. Each is registered with JDK Flight Recorder under the name
+ * <code>com.github.alexdlaird.</code> followed by its {@link #getName() name}, in the "Finicity" category.
+ */
+public enum FlightEventType {
+    CONNECT("Connect", "Connection Acquire", "Opening a connection to the Finicity API"),
+    REQUEST_WRITE("RequestWrite", "Request Write", "Writing a request body"),
+    FIRST_BYTE("FirstByte", "Time to First Byte", "Waiting for the response status and headers"),
+    BODY_READ("BodyRead", "Body Read", "Reading a response body"),
+    DECODE("Decode", "XML Decode", "Decoding a response body"),
+    TOKEN_REFRESH("TokenRefresh", "Token Refresh", "Refreshing the authentication token"),
+    RETRY("Retry", "Retry", "Waiting to retry a request that failed transiently");
+
+    private final String name;
+
+    private final String label;
+
+    private final String description;
+
+    FlightEventType(final String name, final String label, final String description) {
+        this.name = name;
+        this.label = label;
+        this.description = description;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
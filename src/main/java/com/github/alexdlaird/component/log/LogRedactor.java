@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.log;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Prepares response bodies and other API text for logs and exception messages. Values of elements that carry
+ * credentials, such as <code>partnerSecret</code>, <code>token</code> and login form or MFA answers, are replaced, and
+ * the result is truncated. Only the part of the text that is kept is copied, so abbreviating a very large body costs
+ * no more than abbreviating a small one. <p> Text that is kept whole, such as a recorded response, can instead be
+ * masked with {@link #mask(CharSequence, Set)}, which keeps its length.
+ */
+public final class LogRedactor {
+    /**
+     * Default number of characters kept.
+     */
+    public static final int DEFAULT_MAX_CHARS = 1024;
+
+    /**
+     * What the value of a sensitive element is replaced with.
+     */
+    public static final String REDACTED = "***";
+
+    /**
+     * Elements that carry credentials, whose values are never logged.
+     */
+    public static final Set<String> CREDENTIAL_ELEMENTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "partnerSecret", "newPartnerSecret", "token", "value", "answer", "password")));
+
+    private LogRedactor() {
+    }
+
+    /**
+     * Redact and truncate text to {@link #DEFAULT_MAX_CHARS}.
+     *
+     * @param text The text, or null.
+     * @return The abbreviated text, or null.
+     */
+    public static String abbreviate(final CharSequence text) {
+        return abbreviate(text, DEFAULT_MAX_CHARS);
+    }
+
+    /**
+     * Redact and truncate text. If text is cut off, the number of characters dropped is appended.
+     *
+     * @param text     The text, or null.
+     * @param maxChars The number of characters of the text to keep.
+     * @return The abbreviated text, or null.
+     */
+    public static String abbreviate(final CharSequence text, final int maxChars) {
+        assert maxChars >= 0;
+
+        return redact(text, maxChars, CREDENTIAL_ELEMENTS, false);
+    }
+
+    /**
+     * Mask the values of the given elements, replacing each of their characters with <code>*</code>, so the text
+     * keeps its length and shape.
+     *
+     * @param text     The text, or null.
+     * @param elements The names of the elements to mask.
+     * @return The masked text, or null.
+     */
+    public static String mask(final CharSequence text, final Set<String> elements) {
+        assert elements != null;
+
+        return redact(text, Integer.MAX_VALUE, elements, true);
+    }
+
+    private static String redact(final CharSequence text, final int maxChars, final Set<String> elements,
+                                 final boolean keepLength) {
+        if (text == null) {
+            return null;
+        }
+
+        final int length = text.length();
+        final StringBuilder stringBuilder = new StringBuilder(Math.min(length, maxChars) + 32);
+        int i = 0;
+        while (i < length && stringBuilder.length() < maxChars) {
+            final char c = text.charAt(i);
+            if (c != '<') {
+                stringBuilder.append(c);
+                ++i;
+                continue;
+            }
+
+            final int nameEnd = nameEnd(text, i + 1);
+            final int tagEnd = indexOf(text, '>', nameEnd);
+            if (nameEnd == i + 1 || tagEnd < 0 || text.charAt(tagEnd - 1) == '/'
+                    || !elements.contains(text.subSequence(i + 1, nameEnd).toString())) {
+                stringBuilder.append(c);
+                ++i;
+                continue;
+            }
+
+            stringBuilder.append(text, i, tagEnd + 1);
+            int closeTag = indexOf(text, '<', tagEnd + 1);
+            if (closeTag < 0) {
+                closeTag = length;
+            }
+            if (keepLength) {
+                for (int j = tagEnd + 1; j < closeTag; ++j) {
+                    stringBuilder.append('*');
+                }
+            } else {
+                stringBuilder.append(REDACTED);
+            }
+            i = closeTag;
+        }
+
+        if (i < length) {
+            stringBuilder.append("... (").append(length - i).append(" more characters)");
+        }
+
+        return stringBuilder.toString();
+    }
+
+    private static int nameEnd(final CharSequence text, final int start) {
+        int i = start;
+        while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+            ++i;
+        }
+
+        return i;
+    }
+
+    private static int indexOf(final CharSequence text, final char c, final int start) {
+        for (int i = start; i < text.length(); ++i) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.log;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.github.alexdlaird.component.rest.intercept.Interceptor;
+import com.github.alexdlaird.component.rest.intercept.Request;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An {@link Interceptor} that logs one structured line per request, for instance: <pre>
+ * finicity.request method=GET endpoint="GET /v1/customers/{customerId}" status=200 durationMs=84
+ * </pre> Successful requests can be sampled per {@link Endpoint}, so a busy endpoint such as <code>getTransactions</code>
+ * can be logged once in every hundred calls while the rest are logged every time. Failed requests, meaning those that
+ * threw or returned a status of 400 or above, are always logged, along with their response body or the message of the
+ * underlying failure, abbreviated by {@link LogRedactor}. <p> When the logger is not enabled for the interceptor's level, a request costs a
+ * single {@link Logger#isLoggable(Level)} check, and nothing is allocated. Otherwise the line is only built once the
+ * request has been sampled.
+ */
+public class LoggingInterceptor implements Interceptor {
+    /**
+     * Logger used when none is given.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(LoggingInterceptor.class));
+
+    /**
+     * All endpoints, indexed by ordinal.
+     */
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+
+    /**
+     * The index used for requests that do not match a known endpoint.
+     */
+    private static final int UNKNOWN_ENDPOINT = ENDPOINTS.length;
+
+    /**
+     * The logger requests are logged to.
+     */
+    private final Logger logger;
+
+    /**
+     * The level requests are logged at.
+     */
+    private final Level level;
+
+    /**
+     * The number of characters of a response body or error message to keep.
+     */
+    private final int maxBodyChars;
+
+    /**
+     * For each endpoint, log one in this many successful requests, or none if 0.
+     */
+    private final AtomicIntegerArray sampleRates = new AtomicIntegerArray(ENDPOINTS.length + 1);
+
+    /**
+     * For each endpoint, the number of successful requests seen.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(ENDPOINTS.length + 1);
+
+    /**
+     * Construct an interceptor that logs every request at {@link Level#FINE}.
+     */
+    public LoggingInterceptor() {
+        this(LOGGER, Level.FINE, LogRedactor.DEFAULT_MAX_CHARS);
+    }
+
+    /**
+     * Construct an interceptor that logs every request.
+     *
+     * @param logger       The logger requests are logged to.
+     * @param level        The level requests are logged at.
+     * @param maxBodyChars The number of characters of a response body or error message to keep.
+     */
+    public LoggingInterceptor(final Logger logger, final Level level, final int maxBodyChars) {
+        assert logger != null;
+        assert level != null;
+        assert maxBodyChars >= 0;
+
+        this.logger = logger;
+        this.level = level;
+        this.maxBodyChars = maxBodyChars;
+
+        for (int i = 0; i < sampleRates.length(); ++i) {
+            sampleRates.set(i, 1);
+        }
+    }
+
+    /**
+     * Log one in every given number of successful requests, for every endpoint.
+     *
+     * @param sampleRate Log one in this many successful requests, or none if 0.
+     */
+    public void setSampleRate(final int sampleRate) {
+        assert sampleRate >= 0;
+
+        for (int i = 0; i < sampleRates.length(); ++i) {
+            sampleRates.set(i, sampleRate);
+        }
+    }
+
+    /**
+     * Log one in every given number of successful requests to an endpoint.
+     *
+     * @param endpoint   The endpoint, or null for requests that do not match a known endpoint.
+     * @param sampleRate Log one in this many successful requests, or none if 0.
+     */
+    public void setSampleRate(final Endpoint endpoint, final int sampleRate) {
+        assert sampleRate >= 0;
+
+        sampleRates.set(index(endpoint), sampleRate);
+    }
+
+    /**
+     * Get how often successful requests to an endpoint are logged.
+     *
+     * @param endpoint The endpoint, or null for requests that do not match a known endpoint.
+     * @return One in this many successful requests are logged, or none if 0.
+     */
+    public int getSampleRate(final Endpoint endpoint) {
+        return sampleRates.get(index(endpoint));
+    }
+
+    @Override
+    public Response intercept(final Request request, final Chain chain) {
+        if (!logger.isLoggable(level)) {
+            return chain.proceed(request);
+        }
+
+        final long start = System.nanoTime();
+        final Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (RuntimeException ex) {
+            final long durationNanos = System.nanoTime() - start;
+            final Integer statusCode = ex instanceof RestClient.RestClientException ?
+                    ((RestClient.RestClientException) ex).getStatusCode() : null;
+            logger.log(level, ex, () -> format(request, statusCode, durationNanos, getDetail(ex)));
+
+            throw ex;
+        }
+
+        final long durationNanos = System.nanoTime() - start;
+        if (response.getStatusCode() >= 400) {
+            logger.log(level, () -> format(request, response.getStatusCode(), durationNanos, response.getBody()));
+        } else if (isSampled(request.getEndpoint())) {
+            logger.log(level, () -> format(request, response.getStatusCode(), durationNanos, null));
+        }
+
+        return response;
+    }
+
+    /**
+     * Find what went wrong, since {@link com.github.alexdlaird.component.rest.DefaultRestClient DefaultRestClient}
+     * wraps every failure in a generic one: the message of the innermost {@link RestClient.RestClientException} with a
+     * status, which holds the error body, or else the message of the root cause, like a refused connection.
+     */
+    private static String getDetail(final Throwable throwable) {
+        String detail = null;
+        Throwable root = throwable;
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause() != cause ? cause.getCause() : null) {
+            if (cause instanceof RestClient.RestClientException &&
+                    ((RestClient.RestClientException) cause).getStatusCode() != null) {
+                detail = cause.getMessage();
+            }
+            root = cause;
+        }
+
+        return detail != null ? detail : root.getMessage();
+    }
+
+    private boolean isSampled(final Endpoint endpoint) {
+        final int index = index(endpoint);
+        final int sampleRate = sampleRates.get(index);
+        if (sampleRate <= 1) {
+            return sampleRate == 1;
+        }
+
+        return counts.getAndIncrement(index) % sampleRate == 0;
+    }
+
+    private static int index(final Endpoint endpoint) {
+        return endpoint != null ? endpoint.ordinal() : UNKNOWN_ENDPOINT;
+    }
+
+    private String format(final Request request, final Integer statusCode, final long durationNanos,
+                          final String detail) {
+        final StringBuilder stringBuilder = new StringBuilder(128);
+        stringBuilder.append("finicity.request method=").append(request.getMethod());
+
+        final Endpoint endpoint = request.getEndpoint();
+        if (endpoint != null) {
+            appendQuoted(stringBuilder.append(" endpoint="), endpoint.toString());
+        } else {
+            appendQuoted(stringBuilder.append(" url="), request.getUrl());
+        }
+        if (statusCode != null) {
+            stringBuilder.append(" status=").append(statusCode);
+        }
+        stringBuilder.append(" durationMs=").append(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        if (detail != null) {
+            appendQuoted(stringBuilder.append(" detail="), LogRedactor.abbreviate(detail, maxBodyChars));
+        }
+
+        return stringBuilder.toString();
+    }
+
+    private static void appendQuoted(final StringBuilder stringBuilder, final String value) {
+        stringBuilder.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                    stringBuilder.append('\\').append(c);
+                    break;
+                case '\n':
+                    stringBuilder.append("\\n");
+                    break;
+                case '\r':
+                    stringBuilder.append("\\r");
+                    break;
+                default:
+                    stringBuilder.append(c);
+            }
+        }
+        stringBuilder.append('"');
+    }
+}
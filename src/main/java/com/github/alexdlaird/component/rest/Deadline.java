@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a unit of work, such as a batch, must be finished. <p> A deadline applies to every request
+ * made on the current thread while it is entered: {@link DefaultRestClient} caps each request's timeouts at the time
+ * remaining and fails fast once it has passed, and retries are not attempted if they cannot complete in time. Entering
+ * a deadline while another is already entered never extends the outer one. <pre>
+ * try (Deadline.Scope ignored = Deadline.after(2, TimeUnit.MINUTES).enter()) {
+ *     // Every call, retry and page fetched here shares the same two minutes
+ * }
+ * </pre>
+ */
+public class Deadline {
+    /**
+     * The deadline entered on each thread.
+     */
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * When the deadline passes, on the {@link System#nanoTime()} clock.
+     */
+    private final long deadlineNanos;
+
+    private Deadline(final long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Construct a deadline that passes after the given duration.
+     *
+     * @param duration The duration.
+     * @param unit     The unit of the duration.
+     * @return The deadline.
+     */
+    public static Deadline after(final long duration, final TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * The deadline entered on the current thread.
+     *
+     * @return The deadline, or null if none is entered.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Throw if the deadline entered on the current thread has passed.
+     *
+     * @throws DeadlineExceededException The deadline has passed.
+     */
+    public static void checkCurrent() {
+        final Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("The deadline for this operation has passed");
+        }
+    }
+
+    /**
+     * Apply this deadline to the current thread until the returned scope is closed. If an earlier deadline is already
+     * entered, that one remains in effect.
+     *
+     * @return The scope, which must be closed on the same thread.
+     */
+    public Scope enter() {
+        final Deadline previous = CURRENT.get();
+        CURRENT.set(previous != null && previous.deadlineNanos - deadlineNanos < 0 ? previous : this);
+
+        return new Scope(previous);
+    }
+
+    /**
+     * Apply this deadline to the current thread while the given work is done. This is useful for propagating a
+     * deadline to work submitted to another thread.
+     *
+     * @param callable The work to do.
+     * @param <T>      The type of the result.
+     * @return The result of the work.
+     * @throws Exception The work failed.
+     */
+    @SuppressWarnings("try")
+    public <T> T call(final Callable<T> callable) throws Exception {
+        try (Scope ignored = enter()) {
+            return callable.call();
+        }
+    }
+
+    /**
+     * The time remaining before the deadline passes.
+     *
+     * @param unit The unit to return the time in.
+     * @return The time remaining, or 0 or less if it has passed.
+     */
+    public long remaining(final TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Cap a timeout at the time remaining before the deadline passes.
+     *
+     * @param timeoutMillis The timeout.
+     * @return The lesser of the timeout and the time remaining, but at least 1 millisecond.
+     */
+    public int cap(final int timeoutMillis) {
+        return (int) Math.max(1, Math.min(timeoutMillis, remaining(TimeUnit.MILLISECONDS)));
+    }
+
+    /**
+     * A deadline entered on the current thread.
+     */
+    public static class Scope implements AutoCloseable {
+        /**
+         * The deadline entered before this one, which is restored on close.
+         */
+        private final Deadline previous;
+
+        private Scope(final Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * An operation was not attempted, or not retried, because its deadline passed.
+     */
+    public static class DeadlineExceededException extends RestClient.RestClientException {
+        private static final long serialVersionUID = 1L;
+
+        public DeadlineExceededException(final String msg) {
+            super(msg);
+        }
+    }
+}
@@ -26,9 +26,14 @@ package com.github.alexdlaird.component.rest;
 import com.github.alexdlaird.component.FinicityPersister;
 import com.github.alexdlaird.component.StringUtils;
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.jfr.FlightEvent;
+import com.github.alexdlaird.component.jfr.FlightEventType;
+import com.github.alexdlaird.component.log.LogRedactor;
+import com.github.alexdlaird.component.rest.metrics.RequestMetrics;
 
 import org.simpleframework.xml.Serializer;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -46,7 +51,10 @@ import java.util.logging.Logger;
 /**
  * The default implementation of a {@link RestClient}. <p> Each request has the "Finicity-App-Key" header added to it
  * with the appKey. If a token exists, the "Finicity-App-Token" header is also set with that value. <p> If no body is
- * given, the "Content-Length" header is set to 0.
+ * given, the "Content-Length" header is set to 0. <p> Connect and read timeouts are always set, per {@link Timeouts},
+ * and are capped by the {@link Deadline} entered on the calling thread, if there is one. <p> If {@link RequestMetrics}
+ * are set, every request's network time, status code and body sizes are recorded. <p> If a {@link ResponseCache} is
+ * set, GET responses from the endpoints it caches are served from it while fresh and revalidated once stale.
  */
 public class DefaultRestClient implements RestClient {
     /**
@@ -69,6 +77,11 @@ public class DefaultRestClient implements RestClient {
      */
     private final String appKey;
 
+    /**
+     * Base URL requests are made against.
+     */
+    private final String baseUrl;
+
     /**
      * Default encoding for requests.
      */
@@ -79,6 +92,21 @@ public class DefaultRestClient implements RestClient {
      */
     private String contentType;
 
+    /**
+     * Connect and read timeouts for requests.
+     */
+    private volatile Timeouts timeouts = new Timeouts();
+
+    /**
+     * Where requests are measured, or null.
+     */
+    private volatile RequestMetrics requestMetrics;
+
+    /**
+     * Where GET responses are cached and revalidated, or null.
+     */
+    private volatile ResponseCache responseCache;
+
     /**
      * Finicity authentication token.
      */
@@ -92,7 +120,22 @@ public class DefaultRestClient implements RestClient {
      * @param contentType Default contentType header for the client.
      */
     public DefaultRestClient(final String appKey, final String encoding, final String contentType) {
+        this(appKey, encoding, contentType, BASE_URL);
+    }
+
+    /**
+     * Construct a default client that performs basic REST operations against an alternate base URL, for instance a
+     * stub server.
+     *
+     * @param appKey      Finicity appKey.
+     * @param encoding    Default encoding for the client.
+     * @param contentType Default contentType header for the client.
+     * @param baseUrl     Base URL requests are made against, without a trailing slash.
+     */
+    public DefaultRestClient(final String appKey, final String encoding, final String contentType,
+                             final String baseUrl) {
         this.appKey = appKey;
+        this.baseUrl = baseUrl;
 
         this.encoding = encoding;
         this.contentType = contentType;
@@ -129,12 +172,27 @@ public class DefaultRestClient implements RestClient {
     public Response executeGet(final String url, final List<Parameter> parameters,
                                final Map<String, String> additionalHeaders) {
         ensureTokenIsValid();
+        Deadline.checkCurrent();
 
         try {
-            return execute(urlWithParameters(BASE_URL + url, parameters), null, "GET",
-                    additionalHeaders);
+            final Endpoint endpoint = Endpoint.resolve("GET", url, additionalHeaders);
+            final String fullUrl = urlWithParameters(baseUrl + url, parameters);
+
+            final ResponseCache responseCache = this.responseCache;
+            if (responseCache == null || !responseCache.isCacheable(endpoint)) {
+                return execute(fullUrl, null, "GET", additionalHeaders, endpoint);
+            }
+
+            final long now = System.currentTimeMillis();
+            final ResponseCache.CachedResponse entry = responseCache.get(fullUrl);
+            if (entry != null && entry.isFresh(now)) {
+                return responseCache.hit(entry);
+            }
+
+            return responseCache.update(fullUrl, entry, execute(fullUrl, null, "GET",
+                    responseCache.conditionalHeaders(entry, additionalHeaders), endpoint), now);
         } catch (Exception ex) {
-            throw new RestClientException("Rest client error", ex);
+            throw wrap(ex);
         }
     }
 
@@ -142,12 +200,13 @@ public class DefaultRestClient implements RestClient {
     public Response executePost(final String url, final Body body, final List<Parameter> parameters,
                                 final Map<String, String> additionalHeaders) {
         ensureTokenIsValid();
+        Deadline.checkCurrent();
 
         try {
-            return execute(urlWithParameters(BASE_URL + url, parameters), getBodyString(body), "POST",
-                    additionalHeaders);
+            return execute(urlWithParameters(baseUrl + url, parameters), getBodyString(body), "POST",
+                    additionalHeaders, Endpoint.resolve("POST", url, additionalHeaders));
         } catch (Exception ex) {
-            throw new RestClientException("Rest client error", ex);
+            throw wrap(ex);
         }
     }
 
@@ -155,12 +214,13 @@ public class DefaultRestClient implements RestClient {
     public Response executePut(final String url, final Body body, final List<Parameter> parameters,
                                final Map<String, String> additionalHeaders) {
         ensureTokenIsValid();
+        Deadline.checkCurrent();
 
         try {
-            return execute(urlWithParameters(BASE_URL + url, parameters), getBodyString(body), "PUT",
-                    additionalHeaders);
+            return execute(urlWithParameters(baseUrl + url, parameters), getBodyString(body), "PUT",
+                    additionalHeaders, Endpoint.resolve("PUT", url, additionalHeaders));
         } catch (Exception ex) {
-            throw new RestClientException("Rest client error", ex);
+            throw wrap(ex);
         }
     }
 
@@ -168,15 +228,24 @@ public class DefaultRestClient implements RestClient {
     public Response executeDelete(final String url, final List<Parameter> parameters,
                                   final Map<String, String> additionalHeaders) {
         ensureTokenIsValid();
+        Deadline.checkCurrent();
 
         try {
-            return execute(urlWithParameters(BASE_URL + url, parameters), null, "DELETE",
-                    additionalHeaders);
+            return execute(urlWithParameters(baseUrl + url, parameters), null, "DELETE",
+                    additionalHeaders, Endpoint.resolve("DELETE", url, additionalHeaders));
         } catch (Exception ex) {
-            throw new RestClientException("Rest client error", ex);
+            throw wrap(ex);
         }
     }
 
+    /**
+     * Wrap a failure, keeping the HTTP status code of a failed response, so decorators can tell why it failed.
+     */
+    private static RestClientException wrap(final Exception ex) {
+        return new RestClientException("Rest client error", ex instanceof RestClientException ?
+                ((RestClientException) ex).getStatusCode() : null, ex);
+    }
+
     private String urlWithParameters(final String url, final List<Parameter> parameters)
             throws UnsupportedEncodingException {
         final StringBuilder stringBuilder = new StringBuilder();
@@ -203,48 +272,78 @@ public class DefaultRestClient implements RestClient {
     }
 
     private Response execute(final String url, final String body, final String method,
-                             final Map<String, String> additionalHeaders) {
+                             final Map<String, String> additionalHeaders, final Endpoint endpoint) {
         HttpURLConnection httpUrlConnection = null;
         OutputStream outputStream = null;
-        InputStream inputStream = null;
+        CountingInputStream inputStream = null;
+        final long start = System.nanoTime();
+        int responseCode = 0;
+        long requestBytes = 0;
+        long errorBytes = 0;
+        FlightEvent connectEvent = null;
+        FlightEvent writeEvent = null;
+        FlightEvent firstByteEvent = null;
+        FlightEvent readEvent = null;
 
         try {
             httpUrlConnection = createHttpUrlConnection(url);
             httpUrlConnection.setRequestMethod(method);
+            applyTimeouts(httpUrlConnection, endpoint);
 
             appendFinicityDefaultsToConnection(httpUrlConnection, additionalHeaders);
             modifyConnection(httpUrlConnection);
 
             if (StringUtils.isNotBlank(body)) {
                 httpUrlConnection.setDoOutput(true);
+                connectEvent = FlightEvent.begin(FlightEventType.CONNECT);
                 httpUrlConnection.connect();
+                end(connectEvent);
 
+                writeEvent = FlightEvent.begin(FlightEventType.REQUEST_WRITE);
                 outputStream = httpUrlConnection.getOutputStream();
 
-                outputStream.write(body.getBytes(Charset.forName(encoding)));
+                final byte[] bytes = body.getBytes(Charset.forName(encoding));
+                requestBytes = bytes.length;
+                outputStream.write(bytes);
+                end(writeEvent);
             } else {
                 httpUrlConnection.setRequestProperty("Content-Length", "0");
+                connectEvent = FlightEvent.begin(FlightEventType.CONNECT);
                 httpUrlConnection.connect();
+                end(connectEvent);
             }
 
-            inputStream = httpUrlConnection.getInputStream();
+            firstByteEvent = FlightEvent.begin(FlightEventType.FIRST_BYTE);
+            inputStream = new CountingInputStream(httpUrlConnection.getInputStream());
+            responseCode = httpUrlConnection.getResponseCode();
+            end(firstByteEvent);
 
-            return new Response(httpUrlConnection.getResponseCode(),
-                    StringUtils.streamToString(inputStream, Charset.forName(encoding)),
-                    httpUrlConnection.getHeaderFields());
+            readEvent = FlightEvent.begin(FlightEventType.BODY_READ);
+            final String responseBody = StringUtils.streamToString(inputStream, Charset.forName(encoding));
+            end(readEvent);
+
+            return new Response(responseCode, responseBody, httpUrlConnection.getHeaderFields(), endpoint);
         } catch (Exception ex) {
             String msg = "An unknown error occurred when performing the operation";
+            Integer statusCode = null;
 
             if (httpUrlConnection != null) {
                 try {
-                    String errorString = StringUtils.streamToString(httpUrlConnection.getErrorStream(), Charset.forName(encoding));
-
-                    msg = "An error occurred when performing the operation (" + httpUrlConnection.getResponseCode() + "): " + errorString;
+                    final InputStream errorStream = httpUrlConnection.getErrorStream();
+                    final CountingInputStream countingErrorStream = errorStream != null ?
+                            new CountingInputStream(errorStream) : null;
+                    String errorString = StringUtils.streamToString(countingErrorStream, Charset.forName(encoding));
+                    errorBytes = countingErrorStream != null ? countingErrorStream.count : 0;
+                    statusCode = httpUrlConnection.getResponseCode();
+                    responseCode = statusCode;
+
+                    msg = "An error occurred when performing the operation (" + statusCode + "): "
+                            + LogRedactor.abbreviate(errorString);
                 } catch (IOException | NullPointerException ignored) {
                 }
             }
 
-            throw new RestClientException(msg, ex);
+            throw new RestClientException(msg, statusCode != null && statusCode > 0 ? statusCode : null, ex);
         } finally {
             if (httpUrlConnection != null) {
                 httpUrlConnection.disconnect();
@@ -259,7 +358,45 @@ public class DefaultRestClient implements RestClient {
             } catch (IOException ex) {
                 LOGGER.log(Level.INFO, "Unable to close connection", ex);
             }
+
+            final RequestMetrics requestMetrics = this.requestMetrics;
+            if (requestMetrics != null) {
+                requestMetrics.recordExchange(endpoint, responseCode, System.nanoTime() - start, requestBytes,
+                        (inputStream != null ? inputStream.count : 0) + errorBytes);
+            }
+
+            commit(connectEvent, endpoint, responseCode);
+            commit(writeEvent, endpoint, responseCode);
+            commit(firstByteEvent, endpoint, responseCode);
+            commit(readEvent, endpoint, responseCode);
+        }
+    }
+
+    private static void end(final FlightEvent event) {
+        if (event != null) {
+            event.end();
+        }
+    }
+
+    private static void commit(final FlightEvent event, final Endpoint endpoint, final int statusCode) {
+        if (event != null) {
+            event.commit(endpoint, statusCode);
+        }
+    }
+
+    private void applyTimeouts(final HttpURLConnection httpUrlConnection, final Endpoint endpoint) {
+        final Timeouts timeouts = this.timeouts;
+        int connectTimeout = timeouts.getConnectTimeoutMillis();
+        int readTimeout = timeouts.getReadTimeoutMillis(endpoint);
+
+        final Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            connectTimeout = deadline.cap(connectTimeout);
+            readTimeout = deadline.cap(readTimeout);
         }
+
+        httpUrlConnection.setConnectTimeout(connectTimeout);
+        httpUrlConnection.setReadTimeout(readTimeout);
     }
 
     private void appendFinicityDefaultsToConnection(final HttpURLConnection httpUrlConnection,
@@ -325,4 +462,82 @@ public class DefaultRestClient implements RestClient {
     public void setContentType(final String contentType) {
         this.contentType = contentType;
     }
+
+    /**
+     * Set the connect and read timeouts used for every subsequent request.
+     *
+     * @param timeouts The timeouts to set.
+     */
+    public void setTimeouts(final Timeouts timeouts) {
+        assert timeouts != null;
+
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * Set where every subsequent request is measured. When the client is given to a {@link
+     * com.github.alexdlaird.DefaultFinicityClient DefaultFinicityClient}, its Operations clients also record the time
+     * spent decoding each response here.
+     *
+     * @param requestMetrics Where requests are measured, or null to stop measuring.
+     */
+    public void setRequestMetrics(final RequestMetrics requestMetrics) {
+        this.requestMetrics = requestMetrics;
+    }
+
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
+    /**
+     * Set where responses to every subsequent GET request are cached and revalidated.
+     *
+     * @param responseCache Where responses are cached, or null to stop caching.
+     */
+    public void setResponseCache(final ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Counts the bytes read from a stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read >= 0) {
+                ++count;
+            }
+
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            final int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+
+            return skipped;
+        }
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The Finicity API endpoints used by the {@link com.github.alexdlaird.operation operations} classes. Since a {@link
+ * RestClient} only sees an HTTP method and a URL, this allows components that sit at the {@link RestClient} boundary to
+ * know which logical operation a request belongs to, and whether it is safe to execute that request more than once.
+ */
+public enum Endpoint {
+    PARTNER_AUTHENTICATION("POST", "/v2/partners/authentication", Family.PARTNER, true),
+    MODIFY_PARTNER_SECRET("PUT", "/v2/partners/authentication", Family.PARTNER, false),
+
+    GET_INSTITUTIONS("GET", "/v1/institutions", Family.INSTITUTION, true),
+    GET_INSTITUTION("GET", "/v1/institutions/{institutionId}", Family.INSTITUTION, true),
+    GET_INSTITUTION_DETAILS("GET", "/v1/institutions/{institutionId}/details", Family.INSTITUTION, true),
+    GET_INSTITUTION_LOGIN_FORM("GET", "/v1/institutions/{institutionId}/loginForm", Family.INSTITUTION, true),
+
+    GET_CUSTOMERS("GET", "/v1/customers", Family.CUSTOMER, true),
+    GET_CUSTOMER("GET", "/v1/customers/{customerId}", Family.CUSTOMER, true),
+    ADD_TESTING_CUSTOMER("POST", "/v1/customers/testing", Family.CUSTOMER, false),
+    ADD_CUSTOMER("POST", "/v1/customers/active", Family.CUSTOMER, false),
+    MODIFY_CUSTOMER("PUT", "/v1/customers/{customerId}", Family.CUSTOMER, true),
+    DELETE_CUSTOMER("DELETE", "/v1/customers/{customerId}", Family.CUSTOMER, true),
+
+    ADD_ALL_ACCOUNTS("POST", "/v1/customers/{customerId}/institutions/{institutionId}/accounts/addall", Family.AGGREGATION, false),
+    ADD_ALL_ACCOUNTS_MFA("POST", "/v1/customers/{customerId}/institutions/{institutionId}/accounts/addall/mfa", Family.AGGREGATION, false, true),
+    DISCOVER_ACCOUNTS("POST", "/v1/customers/{customerId}/institutions/{institutionId}/accounts", Family.AGGREGATION, false),
+    DISCOVER_ACCOUNTS_MFA("POST", "/v1/customers/{customerId}/institutions/{institutionId}/accounts/mfa", Family.AGGREGATION, false, true),
+    ACTIVATE_ACCOUNTS("PUT", "/v2/customers/{customerId}/institutions/{institutionId}/accounts", Family.ACCOUNT, true),
+    REFRESH_ACCOUNT("POST", "/v1/customers/{customerId}/accounts/{accountId}", Family.AGGREGATION, true),
+    REFRESH_ACCOUNT_MFA("POST", "/v1/customers/{customerId}/accounts/{accountId}", Family.AGGREGATION, false, true),
+    REFRESH_ACCOUNTS("POST", "/v1/customers/{customerId}/accounts", Family.AGGREGATION, true),
+    GET_ACCOUNTS("GET", "/v1/customers/{customerId}/accounts", Family.ACCOUNT, true),
+    GET_INSTITUTION_ACCOUNTS("GET", "/v1/customers/{customerId}/institutions/{institutionId}/accounts", Family.ACCOUNT, true),
+    GET_ACCOUNT("GET", "/v1/customers/{customerId}/accounts/{accountId}", Family.ACCOUNT, true),
+    MODIFY_ACCOUNT("PUT", "/v1/customers/{customerId}/accounts/{accountId}", Family.ACCOUNT, true),
+    DELETE_ACCOUNT("DELETE", "/v1/customers/{customerId}/accounts/{accountId}", Family.ACCOUNT, true),
+    GET_ACCOUNT_LOGIN_FORM("GET", "/v1/customers/{customerId}/accounts/{accountId}/loginForm", Family.ACCOUNT, true),
+    MODIFY_ACCOUNT_CREDENTIALS("PUT", "/v1/customers/{customerId}/accounts/{accountId}/loginForm", Family.ACCOUNT, true),
+
+    GET_TRANSACTIONS("GET", "/v2/customers/{customerId}/transactions", Family.TRANSACTION, true),
+    GET_ACCOUNT_TRANSACTIONS("GET", "/v2/customers/{customerId}/accounts/{accountId}/transactions", Family.TRANSACTION, true),
+    GET_TRANSACTION("GET", "/v2/customers/{customerId}/transactions/{transactionId}", Family.TRANSACTION, true),
+
+    ENABLE_TXPUSH_NOTIFICATIONS("POST", "/v1/customers/{customerId}/accounts/{accountId}/txpush", Family.TXPUSH, false),
+    DISABLE_TXPUSH_NOTIFICATIONS("DELETE", "/v1/customers/{customerId}/accounts/{accountId}/txpush", Family.TXPUSH, true),
+    DELETE_TXPUSH_SUBSCRIPTION("DELETE", "/v1/customers/{customerId}/subscriptions/{subscriptionId}", Family.TXPUSH, true),
+    ADD_TRANSACTION_FOR_TESTING_ACCOUNT("POST", "/v1/customers/{customerId}/accounts/{accountId}/transactions", Family.TXPUSH, false);
+
+    /**
+     * The header Finicity uses to continue an MFA session.
+     */
+    private static final String MFA_SESSION_HEADER = "MFA-Session";
+
+    /**
+     * The HTTP method.
+     */
+    private final String method;
+
+    /**
+     * The URL template, relative to the Finicity base URL.
+     */
+    private final String template;
+
+    /**
+     * The family of endpoints this belongs to.
+     */
+    private final Family family;
+
+    /**
+     * True if executing the request more than once has the same effect as executing it once.
+     */
+    private final boolean idempotent;
+
+    /**
+     * True if the request continues an MFA session, which is how it is told apart from an otherwise identical request.
+     */
+    private final boolean mfa;
+
+    /**
+     * The compiled URL template.
+     */
+    private final Pattern pattern;
+
+    Endpoint(final String method, final String template, final Family family, final boolean idempotent) {
+        this(method, template, family, idempotent, false);
+    }
+
+    Endpoint(final String method, final String template, final Family family, final boolean idempotent,
+             final boolean mfa) {
+        this.method = method;
+        this.template = template;
+        this.family = family;
+        this.idempotent = idempotent;
+        this.mfa = mfa;
+
+        this.pattern = compile(template);
+    }
+
+    private static Pattern compile(final String template) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (String segment : template.substring(1).split("/")) {
+            stringBuilder.append("/");
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                stringBuilder.append("[^/]+");
+            } else {
+                stringBuilder.append(Pattern.quote(segment));
+            }
+        }
+        return Pattern.compile(stringBuilder.toString());
+    }
+
+    /**
+     * Find the endpoint a request is being made against.
+     *
+     * @param method            The HTTP method.
+     * @param url               The URL relative to the Finicity base URL, without parameters.
+     * @param additionalHeaders Additional headers for the request.
+     * @return The matching endpoint, or null if the request does not match a known endpoint.
+     */
+    public static Endpoint resolve(final String method, final String url,
+                                   final Map<String, String> additionalHeaders) {
+        if (method == null || url == null) {
+            return null;
+        }
+
+        final boolean mfaSession = additionalHeaders != null && additionalHeaders.containsKey(MFA_SESSION_HEADER);
+        for (Endpoint endpoint : values()) {
+            if (endpoint.method.equals(method) && endpoint.mfa == mfaSession && endpoint.pattern.matcher(url).matches()) {
+                return endpoint;
+            }
+        }
+
+        return null;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public Family getFamily() {
+        return family;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + template;
+    }
+
+    /**
+     * Endpoints grouped by the part of Finicity's platform that serves them, so that one slow or failing part does not
+     * have to affect the others.
+     */
+    public enum Family {
+        PARTNER,
+        INSTITUTION,
+        CUSTOMER,
+        ACCOUNT,
+        /**
+         * Endpoints that connect to a financial institution while the request is open, such as adding, discovering and
+         * refreshing accounts. These are the slowest and least reliable.
+         */
+        AGGREGATION,
+        TRANSACTION,
+        TXPUSH
+    }
+}
@@ -45,6 +45,17 @@ public class Response {
      */
     private final Map<String, List<String>> headerFields;
 
+    /**
+     * The endpoint the request was made against, or null if unknown.
+     */
+    private final Endpoint endpoint;
+
+    /**
+     * The body as decoded by the Operations clients, kept so a response served again from a {@link ResponseCache} is
+     * not decoded again, or null.
+     */
+    private volatile Object decoded;
+
     /**
      * Construct a response.
      *
@@ -53,9 +64,23 @@ public class Response {
      * @param headerFields Header fields in the response.
      */
     public Response(final int statusCode, final String body, final Map<String, List<String>> headerFields) {
+        this(statusCode, body, headerFields, null);
+    }
+
+    /**
+     * Construct a response.
+     *
+     * @param statusCode   The response code.
+     * @param body         The body of the response.
+     * @param headerFields Header fields in the response.
+     * @param endpoint     The endpoint the request was made against, or null if unknown.
+     */
+    public Response(final int statusCode, final String body, final Map<String, List<String>> headerFields,
+                    final Endpoint endpoint) {
         this.statusCode = statusCode;
         this.body = body;
         this.headerFields = headerFields;
+        this.endpoint = endpoint;
     }
 
     public int getStatusCode() {
@@ -69,4 +94,50 @@ public class Response {
     public Map<String, List<String>> getHeaderFields() {
         return headerFields;
     }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Get the object the body was decoded to, if it has been decoded to the given type before.
+     *
+     * @param type The type the body is decoded to.
+     * @param <T>  The type the body is decoded to.
+     * @return The decoded body, or null if it has not been decoded to that type.
+     */
+    public <T> T getDecoded(final Class<T> type) {
+        final Object decoded = this.decoded;
+
+        return type.isInstance(decoded) ? type.cast(decoded) : null;
+    }
+
+    public void setDecoded(final Object decoded) {
+        this.decoded = decoded;
+    }
+
+    /**
+     * Get the first value of a header. Header names are matched regardless of case, as servers and proxies do not
+     * always preserve it.
+     *
+     * @param name The header name.
+     * @return The header value, or null if the response does not have the header.
+     */
+    public String getHeader(final String name) {
+        if (headerFields == null) {
+            return null;
+        }
+
+        List<String> values = headerFields.get(name);
+        if (values == null) {
+            for (Map.Entry<String, List<String>> entry : headerFields.entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey())) {
+                    values = entry.getValue();
+                    break;
+                }
+            }
+        }
+
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
 }
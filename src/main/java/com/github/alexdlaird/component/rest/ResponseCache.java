@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of GET responses for a {@link DefaultRestClient}, for large and mostly static resources such as
+ * institutions and their login forms. <p> A cached response is served without a request while it is fresh. Once it is
+ * stale, it is revalidated: the request is sent with <code>If-None-Match</code> and <code>If-Modified-Since</code> from
+ * the response's <code>ETag</code> and <code>Last-Modified</code> headers, and a <code>304 Not Modified</code> answer is
+ * served from the cache. Since the cached {@link Response} itself is returned, the Operations clients reuse the object
+ * they decoded from it rather than decoding the body again, and give each caller its own copy of anything the caller
+ * could change, such as lists and login fields. <p> How long a response stays fresh follows its
+ * <code>Cache-Control</code> header: <code>no-store</code> responses are not cached, <code>no-cache</code> responses
+ * are revalidated every time, and <code>max-age</code> is honored. Responses without a <code>Cache-Control</code>
+ * lifetime, which includes servers that ignore validators entirely, stay fresh for a fallback TTL. <p> When the cache
+ * is full, the least recently used response is evicted.
+ */
+public class ResponseCache {
+    /**
+     * Default number of responses kept.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /**
+     * Default time a response without a <code>Cache-Control</code> lifetime stays fresh.
+     */
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    /**
+     * Endpoints cached by default.
+     */
+    public static final Set<Endpoint> DEFAULT_ENDPOINTS = Collections.unmodifiableSet(EnumSet.of(
+            Endpoint.GET_INSTITUTIONS, Endpoint.GET_INSTITUTION, Endpoint.GET_INSTITUTION_DETAILS,
+            Endpoint.GET_INSTITUTION_LOGIN_FORM));
+
+    /**
+     * Number of responses kept.
+     */
+    private final int maxEntries;
+
+    /**
+     * Time a response without a <code>Cache-Control</code> lifetime stays fresh.
+     */
+    private final long ttlMillis;
+
+    /**
+     * Endpoints whose responses are cached.
+     */
+    private final Set<Endpoint> endpoints;
+
+    /**
+     * Cached responses by URL, in order of use. Guarded by itself.
+     */
+    private final LinkedHashMap<String, CachedResponse> entries;
+
+    /**
+     * Requests served without a request to the API.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Requests answered with <code>304 Not Modified</code> and served from the cache.
+     */
+    private final LongAdder revalidations = new LongAdder();
+
+    /**
+     * Requests that had no usable cached response.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Construct a cache of {@link #DEFAULT_ENDPOINTS} with the default size and fallback TTL.
+     */
+    public ResponseCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, DEFAULT_ENDPOINTS);
+    }
+
+    /**
+     * Construct a cache.
+     *
+     * @param maxEntries Number of responses kept.
+     * @param ttlMillis  Time a response without a <code>Cache-Control</code> lifetime stays fresh. If 0, such
+     *                   responses are revalidated every time.
+     * @param endpoints  Endpoints whose responses are cached. Only GET endpoints are cached.
+     */
+    public ResponseCache(final int maxEntries, final long ttlMillis, final Endpoint... endpoints) {
+        this(maxEntries, ttlMillis, endpoints.length > 0 ? EnumSet.copyOf(Arrays.asList(endpoints)) :
+                EnumSet.noneOf(Endpoint.class));
+    }
+
+    /**
+     * Construct a cache.
+     *
+     * @param maxEntries Number of responses kept.
+     * @param ttlMillis  Time a response without a <code>Cache-Control</code> lifetime stays fresh. If 0, such
+     *                   responses are revalidated every time.
+     * @param endpoints  Endpoints whose responses are cached. Only GET endpoints are cached.
+     */
+    public ResponseCache(final int maxEntries, final long ttlMillis, final Set<Endpoint> endpoints) {
+        assert maxEntries > 0;
+        assert ttlMillis >= 0;
+        assert endpoints != null;
+
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.endpoints = endpoints.isEmpty() ? Collections.emptySet() :
+                Collections.unmodifiableSet(EnumSet.copyOf(endpoints));
+        this.entries = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedResponse> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Check if requests to an endpoint are cached.
+     *
+     * @param endpoint The endpoint, or null if unknown.
+     * @return True if its responses are cached.
+     */
+    public boolean isCacheable(final Endpoint endpoint) {
+        return endpoint != null && "GET".equals(endpoint.getMethod()) && endpoints.contains(endpoint);
+    }
+
+    /**
+     * Get the cached entry for a URL.
+     *
+     * @param url The URL, with its parameters.
+     * @return The entry, or null if there is none.
+     */
+    CachedResponse get(final String url) {
+        synchronized (entries) {
+            return entries.get(url);
+        }
+    }
+
+    /**
+     * Count a request served from a fresh entry.
+     *
+     * @param entry The entry.
+     * @return The entry's response.
+     */
+    Response hit(final CachedResponse entry) {
+        hits.increment();
+
+        return entry.response;
+    }
+
+    /**
+     * Build the headers for revalidating an entry.
+     *
+     * @param entry             The stale entry, or null if there is none.
+     * @param additionalHeaders The headers of the request.
+     * @return The headers with the entry's validators added.
+     */
+    Map<String, String> conditionalHeaders(final CachedResponse entry,
+                                           final Map<String, String> additionalHeaders) {
+        if (entry == null || (entry.etag == null && entry.lastModified == null)) {
+            return additionalHeaders;
+        }
+
+        final Map<String, String> headers = additionalHeaders != null ? new HashMap<>(additionalHeaders) :
+                new HashMap<>(4);
+        if (entry.etag != null) {
+            headers.put("If-None-Match", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            headers.put("If-Modified-Since", entry.lastModified);
+        }
+
+        return headers;
+    }
+
+    /**
+     * Handle the response to a request for a URL: store it if it can be cached, or, if it is a <code>304 Not
+     * Modified</code> answer to a revalidation, refresh the entry and return its response instead.
+     *
+     * @param url      The URL, with its parameters.
+     * @param entry    The entry that was revalidated, or null if there was none.
+     * @param response The response from the API.
+     * @param now      The current time, in milliseconds.
+     * @return The response to return to the caller.
+     */
+    Response update(final String url, final CachedResponse entry, final Response response, final long now) {
+        if (response.getStatusCode() == 304 && entry != null) {
+            revalidations.increment();
+            final long lifetime = lifetime(response.getHeader("Cache-Control"));
+            entry.expiresAt = now + Math.max(0, lifetime);
+
+            return entry.response;
+        }
+
+        misses.increment();
+        if (response.getStatusCode() != 200) {
+            return response;
+        }
+
+        final long lifetime = lifetime(response.getHeader("Cache-Control"));
+        final String etag = response.getHeader("ETag");
+        final String lastModified = response.getHeader("Last-Modified");
+        synchronized (entries) {
+            if (lifetime < 0 || (lifetime == 0 && etag == null && lastModified == null)) {
+                entries.remove(url);
+            } else {
+                entries.put(url, new CachedResponse(response, etag, lastModified, now + lifetime));
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Get how long a response stays fresh.
+     *
+     * @param cacheControl The <code>Cache-Control</code> header of the response, or null.
+     * @return The lifetime in milliseconds, or -1 if the response must not be stored.
+     */
+    private long lifetime(final String cacheControl) {
+        if (cacheControl == null) {
+            return ttlMillis;
+        }
+
+        long lifetime = ttlMillis;
+        for (String directive : cacheControl.split(",")) {
+            final String trimmed = directive.trim().toLowerCase(Locale.ROOT);
+            if (trimmed.equals("no-store")) {
+                return -1;
+            } else if (trimmed.equals("no-cache")) {
+                lifetime = 0;
+            } else if (trimmed.startsWith("max-age=") && lifetime != 0) {
+                try {
+                    lifetime = TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(trimmed.substring(8))));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+
+        return lifetime;
+    }
+
+    /**
+     * Remove every cached response.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public Set<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getRevalidatedCount() {
+        return revalidations.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * A cached response and its validators.
+     */
+    static final class CachedResponse {
+        private final Response response;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        private volatile long expiresAt;
+
+        private CachedResponse(final Response response, final String etag, final String lastModified,
+                               final long expiresAt) {
+            this.response = response;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isFresh(final long now) {
+            return now < expiresAt;
+        }
+    }
+}
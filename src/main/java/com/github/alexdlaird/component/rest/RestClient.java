@@ -77,12 +77,37 @@ public interface RestClient {
                            final Map<String, String> additionalHeaders);
 
     class RestClientException extends RuntimeException {
+        /**
+         * The HTTP status code returned by the API, if a response was received.
+         */
+        private final Integer statusCode;
+
         public RestClientException(final String msg) {
             super(msg);
+
+            this.statusCode = null;
         }
 
         public RestClientException(final String msg, final Exception cause) {
             super(msg, cause);
+
+            this.statusCode = null;
+        }
+
+        public RestClientException(final String msg, final Integer statusCode, final Exception cause) {
+            super(msg, cause);
+
+            this.statusCode = statusCode;
+        }
+
+        /**
+         * The HTTP status code of the failed response, or null if the failure occurred before a response was received
+         * (for instance, a connection was refused or reset).
+         *
+         * @return The HTTP status code.
+         */
+        public Integer getStatusCode() {
+            return statusCode;
         }
     }
 
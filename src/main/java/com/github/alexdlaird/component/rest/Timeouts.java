@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Connect and read timeouts for a {@link DefaultRestClient}. A read timeout can be given per {@link Endpoint}, since
+ * some operations, like <code>refreshAccounts</code>, connect to financial institutions while the request is open and
+ * are legitimately slow, while others, like <code>getCustomer</code>, should return quickly. <p> By default, endpoints
+ * in the {@link Endpoint.Family#AGGREGATION AGGREGATION} family are given a much longer read timeout than the rest.
+ */
+public class Timeouts {
+    /**
+     * Default time allowed to establish a connection.
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10 * 1000;
+
+    /**
+     * Default time allowed to wait for data once connected.
+     */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 30 * 1000;
+
+    /**
+     * Default time allowed to wait for data from an aggregation endpoint.
+     */
+    public static final int DEFAULT_AGGREGATION_READ_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    /**
+     * Time allowed to establish a connection.
+     */
+    private final int connectTimeoutMillis;
+
+    /**
+     * Time allowed to wait for data once connected, for endpoints without their own read timeout.
+     */
+    private final int readTimeoutMillis;
+
+    /**
+     * Read timeouts for specific endpoints.
+     */
+    private final Map<Endpoint, Integer> endpointReadTimeouts;
+
+    /**
+     * Construct the default timeouts.
+     */
+    public Timeouts() {
+        this(DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS, defaultEndpointReadTimeouts());
+    }
+
+    /**
+     * Construct timeouts that are the same for every endpoint.
+     *
+     * @param connectTimeoutMillis Time allowed to establish a connection.
+     * @param readTimeoutMillis    Time allowed to wait for data once connected.
+     */
+    public Timeouts(final int connectTimeoutMillis, final int readTimeoutMillis) {
+        this(connectTimeoutMillis, readTimeoutMillis, Collections.<Endpoint, Integer>emptyMap());
+    }
+
+    /**
+     * Construct timeouts.
+     *
+     * @param connectTimeoutMillis Time allowed to establish a connection.
+     * @param readTimeoutMillis    Time allowed to wait for data once connected, for endpoints without their own.
+     * @param endpointReadTimeouts Read timeouts for specific endpoints.
+     */
+    public Timeouts(final int connectTimeoutMillis, final int readTimeoutMillis,
+                    final Map<Endpoint, Integer> endpointReadTimeouts) {
+        assert connectTimeoutMillis > 0;
+        assert readTimeoutMillis > 0;
+        assert endpointReadTimeouts != null;
+
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.endpointReadTimeouts = new EnumMap<>(Endpoint.class);
+        this.endpointReadTimeouts.putAll(endpointReadTimeouts);
+    }
+
+    private static Map<Endpoint, Integer> defaultEndpointReadTimeouts() {
+        final Map<Endpoint, Integer> endpointReadTimeouts = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            if (endpoint.getFamily() == Endpoint.Family.AGGREGATION) {
+                endpointReadTimeouts.put(endpoint, DEFAULT_AGGREGATION_READ_TIMEOUT_MILLIS);
+            }
+        }
+        return endpointReadTimeouts;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * The read timeout for an endpoint.
+     *
+     * @param endpoint The endpoint, or null if the request did not match a known endpoint.
+     * @return The read timeout in milliseconds.
+     */
+    public int getReadTimeoutMillis(final Endpoint endpoint) {
+        final Integer readTimeout = endpoint != null ? endpointReadTimeouts.get(endpoint) : null;
+
+        return readTimeout != null ? readTimeout : readTimeoutMillis;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+
+/**
+ * Convenience methods for deciding whether a failed request indicates a problem on Finicity's side that may go away on
+ * its own, as opposed to a problem with the request itself.
+ */
+public class TransientFailures {
+    /**
+     * Check if a response status code indicates a failure that may succeed if tried again.
+     *
+     * @param statusCode The HTTP status code.
+     * @return True if the status is transient.
+     */
+    public static boolean isTransientStatus(final int statusCode) {
+        return statusCode == 408 || statusCode == 429 || (statusCode >= 500 && statusCode != 501);
+    }
+
+    /**
+     * Check if a failure may succeed if tried again. The cause chain is searched for the first {@link
+     * RestClient.RestClientException} that has a status code, or for an I/O error that occurred before a response was
+     * received.
+     *
+     * @param throwable The failure.
+     * @return True if the failure is transient.
+     */
+    public static boolean isTransient(final Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause != null) {
+            if (cause instanceof RestClient.RestClientTokenExpiredException) {
+                return false;
+            }
+            if (cause instanceof RestClient.RestClientException &&
+                    ((RestClient.RestClientException) cause).getStatusCode() != null) {
+                return isTransientStatus(((RestClient.RestClientException) cause).getStatusCode());
+            }
+            if (cause instanceof UnknownHostException) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+
+            cause = cause.getCause() != cause ? cause.getCause() : null;
+        }
+
+        return false;
+    }
+
+    /**
+     * Check if a failure happened on this side, before a request reached the API, for instance because a limit or
+     * deadline rejected it. Such failures say nothing about the health of the API.
+     *
+     * @param throwable The failure.
+     * @return True if no response was received and the failure was not an I/O error.
+     */
+    public static boolean isLocal(final Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause != null) {
+            if (cause instanceof RestClient.RestClientException &&
+                    ((RestClient.RestClientException) cause).getStatusCode() != null) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return false;
+            }
+
+            cause = cause.getCause() != cause ? cause.getCause() : null;
+        }
+
+        return true;
+    }
+}
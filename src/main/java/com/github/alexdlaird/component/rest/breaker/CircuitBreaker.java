@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.breaker;
+
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A circuit breaker that tracks the outcome of the most recent calls and, once too many of them have failed or been
+ * slow, rejects further calls for a while instead of letting them wait on a degraded dependency. <p> The breaker starts
+ * {@link State#CLOSED CLOSED}. When the failure rate or slow call rate over the window reaches its threshold, it opens.
+ * While {@link State#OPEN OPEN}, calls are rejected without being made. Once the open duration has elapsed, it becomes
+ * {@link State#HALF_OPEN HALF_OPEN} and permits a few probe calls. If all the probes succeed quickly, it closes again;
+ * otherwise it reopens. <p> Callers must pair each successful {@link #tryAcquirePermission()} with exactly one call to
+ * {@link #onSuccess(long)} or {@link #onFailure(long)}.
+ */
+public class CircuitBreaker {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(CircuitBreaker.class));
+
+    /**
+     * Outcome flag for a failed call.
+     */
+    private static final byte FAILED = 1;
+
+    /**
+     * Outcome flag for a slow call.
+     */
+    private static final byte SLOW = 2;
+
+    /**
+     * Name of the breaker, used in logs and rejections.
+     */
+    private final String name;
+
+    /**
+     * Thresholds and timings.
+     */
+    private final CircuitBreakerConfig config;
+
+    /**
+     * Duration after which a call is considered slow.
+     */
+    private final long slowCallDurationNanos;
+
+    /**
+     * Duration the circuit stays open.
+     */
+    private final long openDurationNanos;
+
+    /**
+     * Ring buffer of the most recent outcomes while closed.
+     */
+    private final byte[] outcomes;
+
+    /**
+     * Calls rejected without being made.
+     */
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    /**
+     * Number of times the circuit has opened.
+     */
+    private final LongAdder openedCount = new LongAdder();
+
+    /**
+     * Rejection thrown when the circuit is open; it carries no stack trace, so it is cheap to reuse.
+     */
+    private final CircuitBreakerOpenException openException;
+
+    /**
+     * The current state, read without locking so open circuits reject quickly.
+     */
+    private volatile State state = State.CLOSED;
+
+    /**
+     * When the circuit last opened.
+     */
+    private volatile long openedAtNanos;
+
+    /**
+     * Next slot in the ring buffer.
+     */
+    private int index;
+
+    /**
+     * Number of outcomes in the ring buffer.
+     */
+    private int recordedCalls;
+
+    /**
+     * Number of failed outcomes in the ring buffer.
+     */
+    private int failedCalls;
+
+    /**
+     * Number of slow outcomes in the ring buffer.
+     */
+    private int slowCalls;
+
+    /**
+     * Probe calls that may still be permitted while half-open.
+     */
+    private int halfOpenPermits;
+
+    /**
+     * Probe calls that have succeeded while half-open.
+     */
+    private int halfOpenSuccesses;
+
+    /**
+     * Construct a circuit breaker.
+     *
+     * @param name   Name of the breaker, used in logs and rejections.
+     * @param config Thresholds and timings.
+     */
+    public CircuitBreaker(final String name, final CircuitBreakerConfig config) {
+        assert name != null;
+        assert config != null;
+
+        this.name = name;
+        this.config = config;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationMillis());
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMillis());
+        this.outcomes = new byte[config.getWindowSize()];
+        this.openException = new CircuitBreakerOpenException("The circuit breaker for " + name + " is open");
+    }
+
+    /**
+     * Check if a call may be made. If the circuit is open, the call should be rejected without being made.
+     *
+     * @return True if the call may be made.
+     */
+    public boolean tryAcquirePermission() {
+        if (state == State.OPEN && currentTimeNanos() - openedAtNanos < openDurationNanos) {
+            rejectedCalls.increment();
+            return false;
+        }
+
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (currentTimeNanos() - openedAtNanos < openDurationNanos) {
+                    rejectedCalls.increment();
+                    return false;
+                }
+
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    rejectedCalls.increment();
+                    return false;
+                }
+
+                --halfOpenPermits;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Acquire permission for a call, or throw if the circuit is open.
+     *
+     * @throws CircuitBreakerOpenException The circuit is open.
+     */
+    public void acquirePermission() {
+        if (!tryAcquirePermission()) {
+            throw openException;
+        }
+    }
+
+    /**
+     * Record a call that succeeded.
+     *
+     * @param durationNanos How long the call took.
+     */
+    public void onSuccess(final long durationNanos) {
+        record(durationNanos >= slowCallDurationNanos ? SLOW : 0);
+    }
+
+    /**
+     * Record a call that failed.
+     *
+     * @param durationNanos How long the call took.
+     */
+    public void onFailure(final long durationNanos) {
+        record(durationNanos >= slowCallDurationNanos ? FAILED | SLOW : FAILED);
+    }
+
+    /**
+     * Record a permitted call that was never made, for instance because it was rejected locally, so its permission can
+     * be given to another call.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenPermits < config.getHalfOpenCalls()) {
+            ++halfOpenPermits;
+        }
+    }
+
+    private synchronized void record(final byte outcome) {
+        if (state == State.HALF_OPEN) {
+            if (outcome != 0) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSuccesses >= config.getHalfOpenCalls()) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        } else if (state == State.OPEN) {
+            // A call that was permitted before the circuit opened
+            return;
+        }
+
+        if (recordedCalls == outcomes.length) {
+            forget(outcomes[index]);
+        } else {
+            ++recordedCalls;
+        }
+        outcomes[index] = outcome;
+        if ((outcome & FAILED) != 0) {
+            ++failedCalls;
+        }
+        if ((outcome & SLOW) != 0) {
+            ++slowCalls;
+        }
+        index = (index + 1) % outcomes.length;
+
+        if (recordedCalls >= config.getMinimumCalls() &&
+                (failedCalls >= config.getFailureRateThreshold() * recordedCalls ||
+                        slowCalls >= config.getSlowCallRateThreshold() * recordedCalls)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void forget(final byte outcome) {
+        if ((outcome & FAILED) != 0) {
+            --failedCalls;
+        }
+        if ((outcome & SLOW) != 0) {
+            --slowCalls;
+        }
+    }
+
+    private void transitionTo(final State newState) {
+        LOGGER.log(Level.INFO, "Circuit breaker for {0} transitioning from {1} to {2}",
+                new Object[]{name, state, newState});
+
+        if (newState == State.OPEN) {
+            openedAtNanos = currentTimeNanos();
+            openedCount.increment();
+        } else if (newState == State.HALF_OPEN) {
+            halfOpenPermits = config.getHalfOpenCalls();
+            halfOpenSuccesses = 0;
+        } else {
+            index = 0;
+            recordedCalls = 0;
+            failedCalls = 0;
+            slowCalls = 0;
+        }
+
+        state = newState;
+    }
+
+    /**
+     * Override this method if you would like to change the breaker's clock.
+     *
+     * @return The current value of a monotonic clock, in nanoseconds.
+     */
+    protected long currentTimeNanos() {
+        return System.nanoTime();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreakerConfig getConfig() {
+        return config;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * The fraction of calls in the current window that failed.
+     *
+     * @return The failure rate, between 0 and 1.
+     */
+    public synchronized double getFailureRate() {
+        return recordedCalls > 0 ? (double) failedCalls / recordedCalls : 0;
+    }
+
+    /**
+     * The fraction of calls in the current window that were slow.
+     *
+     * @return The slow call rate, between 0 and 1.
+     */
+    public synchronized double getSlowCallRate() {
+        return recordedCalls > 0 ? (double) slowCalls / recordedCalls : 0;
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    public long getOpenedCount() {
+        return openedCount.sum();
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * A call was rejected because the circuit is open.
+     */
+    public static class CircuitBreakerOpenException extends RestClient.RestClientException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitBreakerOpenException(final String msg) {
+            super(msg);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.breaker;
+
+/**
+ * Thresholds and timings for a {@link CircuitBreaker}.
+ */
+public class CircuitBreakerConfig {
+    /**
+     * Default fraction of calls that must fail before the circuit opens.
+     */
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+
+    /**
+     * Default fraction of calls that must be slow before the circuit opens.
+     */
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8;
+
+    /**
+     * Default duration after which a call is considered slow.
+     */
+    public static final long DEFAULT_SLOW_CALL_DURATION_MILLIS = 10000;
+
+    /**
+     * Default number of most recent calls the rates are computed over.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 50;
+
+    /**
+     * Default number of calls that must be recorded before the rates are evaluated.
+     */
+    public static final int DEFAULT_MINIMUM_CALLS = 20;
+
+    /**
+     * Default duration the circuit stays open before probing.
+     */
+    public static final long DEFAULT_OPEN_DURATION_MILLIS = 30000;
+
+    /**
+     * Default number of probe calls permitted while half-open.
+     */
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    /**
+     * Fraction of calls, between 0 and 1, that must fail before the circuit opens.
+     */
+    private final double failureRateThreshold;
+
+    /**
+     * Fraction of calls, between 0 and 1, that must be slow before the circuit opens.
+     */
+    private final double slowCallRateThreshold;
+
+    /**
+     * Duration after which a call is considered slow, whether or not it succeeds.
+     */
+    private final long slowCallDurationMillis;
+
+    /**
+     * Number of most recent calls the rates are computed over.
+     */
+    private final int windowSize;
+
+    /**
+     * Number of calls that must be recorded before the rates are evaluated.
+     */
+    private final int minimumCalls;
+
+    /**
+     * Duration the circuit stays open, rejecting calls, before it permits probe calls.
+     */
+    private final long openDurationMillis;
+
+    /**
+     * Number of probe calls permitted while half-open, all of which must succeed for the circuit to close.
+     */
+    private final int halfOpenCalls;
+
+    /**
+     * Construct a config with the default thresholds and timings.
+     */
+    public CircuitBreakerConfig() {
+        this(DEFAULT_FAILURE_RATE_THRESHOLD, DEFAULT_SLOW_CALL_RATE_THRESHOLD, DEFAULT_SLOW_CALL_DURATION_MILLIS,
+                DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, DEFAULT_OPEN_DURATION_MILLIS, DEFAULT_HALF_OPEN_CALLS);
+    }
+
+    /**
+     * Construct a config.
+     *
+     * @param failureRateThreshold   Fraction of calls, between 0 and 1, that must fail before the circuit opens.
+     * @param slowCallRateThreshold  Fraction of calls, between 0 and 1, that must be slow before the circuit opens.
+     * @param slowCallDurationMillis Duration after which a call is considered slow.
+     * @param windowSize             Number of most recent calls the rates are computed over.
+     * @param minimumCalls           Number of calls that must be recorded before the rates are evaluated.
+     * @param openDurationMillis     Duration the circuit stays open before it permits probe calls.
+     * @param halfOpenCalls          Number of probe calls permitted while half-open.
+     */
+    public CircuitBreakerConfig(final double failureRateThreshold, final double slowCallRateThreshold,
+                                final long slowCallDurationMillis, final int windowSize, final int minimumCalls,
+                                final long openDurationMillis, final int halfOpenCalls) {
+        assert failureRateThreshold > 0 && failureRateThreshold <= 1;
+        assert slowCallRateThreshold > 0 && slowCallRateThreshold <= 1;
+        assert slowCallDurationMillis > 0;
+        assert windowSize > 0;
+        assert minimumCalls > 0 && minimumCalls <= windowSize;
+        assert openDurationMillis >= 0;
+        assert halfOpenCalls > 0;
+
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationMillis = slowCallDurationMillis;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationMillis() {
+        return slowCallDurationMillis;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.breaker;
+
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.github.alexdlaird.component.rest.TransientFailures;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A {@link RestClient} that wraps another and guards each {@link Endpoint.Family} with its own {@link CircuitBreaker}.
+ * When, for instance, aggregation endpoints slow down, calls to them are rejected with a {@link
+ * CircuitBreaker.CircuitBreakerOpenException} instead of waiting on the connection, while calls to healthy families,
+ * like institutions, are unaffected. <p> Failures are transient failures, as decided by {@link TransientFailures};
+ * client errors such as a 404 mean the API is responding, so they count as successes. Requests that do not match a
+ * known {@link Endpoint} are not guarded. <p> When combined with a {@link com.github.alexdlaird.component.rest.retry.RetryingRestClient},
+ * wrap this client with the retrying client, so that each attempt is recorded and rejected calls are not retried.
+ */
+public class CircuitBreakingRestClient implements RestClient {
+    /**
+     * The client requests are delegated to.
+     */
+    private final RestClient restClient;
+
+    /**
+     * A breaker for each family of endpoints.
+     */
+    private final Map<Endpoint.Family, CircuitBreaker> circuitBreakers;
+
+    /**
+     * Construct a client with the default {@link CircuitBreakerConfig} for every family.
+     *
+     * @param restClient The client requests are delegated to.
+     */
+    public CircuitBreakingRestClient(final RestClient restClient) {
+        this(restClient, new CircuitBreakerConfig());
+    }
+
+    /**
+     * Construct a client with the same config for every family.
+     *
+     * @param restClient The client requests are delegated to.
+     * @param config     Thresholds and timings for every family.
+     */
+    public CircuitBreakingRestClient(final RestClient restClient, final CircuitBreakerConfig config) {
+        this(restClient, config, Collections.<Endpoint.Family, CircuitBreakerConfig>emptyMap());
+    }
+
+    /**
+     * Construct a client.
+     *
+     * @param restClient    The client requests are delegated to.
+     * @param defaultConfig Thresholds and timings for families without their own config.
+     * @param familyConfigs Thresholds and timings for specific families.
+     */
+    public CircuitBreakingRestClient(final RestClient restClient, final CircuitBreakerConfig defaultConfig,
+                                     final Map<Endpoint.Family, CircuitBreakerConfig> familyConfigs) {
+        assert restClient != null;
+        assert defaultConfig != null;
+        assert familyConfigs != null;
+
+        this.restClient = restClient;
+
+        this.circuitBreakers = new EnumMap<>(Endpoint.Family.class);
+        for (Endpoint.Family family : Endpoint.Family.values()) {
+            final CircuitBreakerConfig config = familyConfigs.get(family);
+            circuitBreakers.put(family, createCircuitBreaker(family, config != null ? config : defaultConfig));
+        }
+    }
+
+    @Override
+    public Response executeGet(final String url, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return execute("GET", url, additionalHeaders,
+                () -> restClient.executeGet(url, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                final Map<String, String> additionalHeaders) {
+        return execute("POST", url, additionalHeaders,
+                () -> restClient.executePost(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return execute("PUT", url, additionalHeaders,
+                () -> restClient.executePut(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executeDelete(final String url, final List<Parameter> parameters,
+                                  final Map<String, String> additionalHeaders) {
+        return execute("DELETE", url, additionalHeaders,
+                () -> restClient.executeDelete(url, parameters, additionalHeaders));
+    }
+
+    private Response execute(final String method, final String url, final Map<String, String> additionalHeaders,
+                             final Supplier<Response> request) {
+        final Endpoint endpoint = Endpoint.resolve(method, url, additionalHeaders);
+        if (endpoint == null) {
+            return request.get();
+        }
+
+        final CircuitBreaker circuitBreaker = circuitBreakers.get(endpoint.getFamily());
+        circuitBreaker.acquirePermission();
+
+        final long start = System.nanoTime();
+        final Response response;
+        try {
+            response = request.get();
+        } catch (RuntimeException ex) {
+            if (TransientFailures.isTransient(ex)) {
+                circuitBreaker.onFailure(System.nanoTime() - start);
+            } else if (TransientFailures.isLocal(ex)) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+            }
+
+            throw ex;
+        }
+
+        if (TransientFailures.isTransientStatus(response.getStatusCode())) {
+            circuitBreaker.onFailure(System.nanoTime() - start);
+        } else {
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+        }
+
+        return response;
+    }
+
+    /**
+     * Override this method if you would like to implement a custom {@link CircuitBreaker}.
+     *
+     * @param family The family of endpoints the breaker guards.
+     * @param config Thresholds and timings for the family.
+     * @return A circuit breaker.
+     */
+    protected CircuitBreaker createCircuitBreaker(final Endpoint.Family family, final CircuitBreakerConfig config) {
+        return new CircuitBreaker(family.name(), config);
+    }
+
+    /**
+     * Get the breaker guarding a family of endpoints, for instance to inspect its state.
+     *
+     * @param family The family of endpoints.
+     * @return The circuit breaker.
+     */
+    public CircuitBreaker getCircuitBreaker(final Endpoint.Family family) {
+        return circuitBreakers.get(family);
+    }
+}
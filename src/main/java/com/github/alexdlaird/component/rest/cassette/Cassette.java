@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.cassette;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Response;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Responses recorded by a {@link CassetteWriter}, read from a memory-mapped cassette file. <p> Only the keys, response
+ * codes and headers are read when the cassette is opened; bodies stay in the mapped file and are decoded when they are
+ * replayed, so a large cassette costs little heap and opens quickly. When a request was recorded more than once, its
+ * responses are replayed in the order they were recorded, starting over after the last one.
+ */
+public class Cassette {
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(Cassette.class));
+
+    /**
+     * The mapped cassette file.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Recorded responses for each key, in the order they were recorded.
+     */
+    private final Map<String, Track> tracks;
+
+    /**
+     * The number of responses in the cassette.
+     */
+    private final int size;
+
+    private Cassette(final ByteBuffer buffer, final Map<String, Track> tracks, final int size) {
+        this.buffer = buffer;
+        this.tracks = tracks;
+        this.size = size;
+    }
+
+    /**
+     * Open a cassette. An incomplete record at the end of the file, left by a recording that was cut short, is
+     * ignored.
+     *
+     * @param path The cassette file.
+     * @return The cassette.
+     * @throws IOException If the file cannot be read or is not a cassette.
+     */
+    public static Cassette open(final Path path) throws IOException {
+        assert path != null;
+
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Cassette " + path + " is too large to map");
+            }
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        final byte[] magic = new byte[CassetteWriter.MAGIC.length];
+        if (buffer.remaining() < magic.length + 4) {
+            throw new IOException(path + " is not a cassette");
+        }
+        buffer.get(magic);
+        if (!Arrays.equals(magic, CassetteWriter.MAGIC)) {
+            throw new IOException(path + " is not a cassette");
+        }
+        final int version = buffer.getInt();
+        if (version != CassetteWriter.VERSION) {
+            throw new IOException("Unsupported cassette version " + version + " in " + path);
+        }
+
+        final Map<String, List<Recording>> recordings = new HashMap<>();
+        int size = 0;
+        while (buffer.hasRemaining()) {
+            final int start = buffer.position();
+            try {
+                final String key = readString(buffer);
+                final int statusCode = buffer.getInt();
+                final int headerCount = buffer.getInt();
+                final Map<String, List<String>> headerFields = new LinkedHashMap<>();
+                for (int i = 0; i < headerCount; ++i) {
+                    final String name = readString(buffer);
+                    headerFields.computeIfAbsent(name, k -> new ArrayList<>(1)).add(readString(buffer));
+                }
+                final int bodyLength = buffer.getInt();
+                final int bodyOffset = buffer.position();
+                if (bodyLength > buffer.remaining()) {
+                    throw new BufferUnderflowException();
+                }
+                if (bodyLength > 0) {
+                    ((Buffer) buffer).position(bodyOffset + bodyLength);
+                }
+
+                recordings.computeIfAbsent(key, k -> new ArrayList<>(1))
+                        .add(new Recording(statusCode, Collections.unmodifiableMap(headerFields), bodyOffset,
+                                bodyLength));
+                ++size;
+            } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException ex) {
+                LOGGER.warning("Ignoring incomplete record at byte " + start + " of cassette " + path);
+                break;
+            }
+        }
+
+        final Map<String, Track> tracks = new HashMap<>(recordings.size() * 2);
+        for (Map.Entry<String, List<Recording>> entry : recordings.entrySet()) {
+            tracks.put(entry.getKey(), new Track(entry.getValue().toArray(new Recording[0])));
+        }
+
+        return new Cassette(buffer, tracks, size);
+    }
+
+    /**
+     * Get the next recorded response for a request.
+     *
+     * @param key      The request key, from {@link CassetteWriter#key}.
+     * @param endpoint The endpoint the request is made against, or null if unknown.
+     * @return The response, or null if the request was not recorded.
+     */
+    public Response next(final String key, final Endpoint endpoint) {
+        final Track track = tracks.get(key);
+        if (track == null) {
+            return null;
+        }
+
+        final Recording recording = track.recordings[Math.floorMod(track.position.getAndIncrement(),
+                track.recordings.length)];
+
+        return new Response(recording.statusCode, body(recording), recording.headerFields, endpoint);
+    }
+
+    /**
+     * Check if a request was recorded.
+     *
+     * @param key The request key, from {@link CassetteWriter#key}.
+     * @return True if the cassette has a response for the request.
+     */
+    public boolean contains(final String key) {
+        return tracks.containsKey(key);
+    }
+
+    /**
+     * Get the number of responses in the cassette.
+     *
+     * @return The number of responses.
+     */
+    public int size() {
+        return size;
+    }
+
+    private String body(final Recording recording) {
+        if (recording.bodyLength == CassetteWriter.NULL_LENGTH) {
+            return null;
+        }
+
+        final ByteBuffer body = buffer.duplicate();
+        ((Buffer) body).limit(recording.bodyOffset + recording.bodyLength).position(recording.bodyOffset);
+
+        return StandardCharsets.UTF_8.decode(body).toString();
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length == CassetteWriter.NULL_LENGTH) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A recorded response, with its body left in the mapped file.
+     */
+    private static class Recording {
+        private final int statusCode;
+
+        private final Map<String, List<String>> headerFields;
+
+        private final int bodyOffset;
+
+        private final int bodyLength;
+
+        private Recording(final int statusCode, final Map<String, List<String>> headerFields, final int bodyOffset,
+                          final int bodyLength) {
+            this.statusCode = statusCode;
+            this.headerFields = headerFields;
+            this.bodyOffset = bodyOffset;
+            this.bodyLength = bodyLength;
+        }
+    }
+
+    /**
+     * The responses recorded for one key, and the position of the next one to replay.
+     */
+    private static class Track {
+        private final Recording[] recordings;
+
+        private final AtomicInteger position = new AtomicInteger();
+
+        private Track(final Recording[] recordings) {
+            this.recordings = recordings;
+        }
+    }
+}
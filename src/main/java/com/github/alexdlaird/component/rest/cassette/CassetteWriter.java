@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.cassette;
+
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Appends recorded responses to a cassette file that a {@link Cassette} can later replay. <p> A cassette starts with
+ * the four bytes <code>FCAS</code> and a format version. Each record that follows is the request key, the response
+ * code, the response headers and the body, with every string written as its length followed by its UTF-8 bytes, so a
+ * record can be read straight out of a mapped file. Records are written whole and flushed, so a cassette cut short by
+ * a crash is still readable up to its last complete record.
+ */
+public class CassetteWriter implements Closeable {
+    /**
+     * Bytes every cassette file starts with.
+     */
+    static final byte[] MAGIC = {'F', 'C', 'A', 'S'};
+
+    /**
+     * Version of the record format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Length written in place of a null string.
+     */
+    static final int NULL_LENGTH = -1;
+
+    /**
+     * The header Finicity uses to continue an MFA session.
+     */
+    static final String MFA_SESSION_HEADER = "MFA-Session";
+
+    /**
+     * Query parameters whose values are hashed in request keys.
+     */
+    public static final Set<String> HASHED_PARAMETERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "username", "search")));
+
+    /**
+     * Number of bytes of the SHA-256 digest kept when hashing a parameter value.
+     */
+    private static final int HASH_BYTES = 12;
+
+    /**
+     * The stream records are appended to.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * Open a cassette for writing, appending to it if it already exists.
+     *
+     * @param path The cassette file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public CassetteWriter(final Path path) throws IOException {
+        assert path != null;
+
+        final boolean exists = Files.exists(path) && Files.size(path) > 0;
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)));
+        if (!exists) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.flush();
+        }
+    }
+
+    /**
+     * Append a response.
+     *
+     * @param key      The key the request is replayed by, from {@link #key(String, String, List, Map)}.
+     * @param response The response, whose headers and body should already have anything sensitive removed.
+     * @throws IOException If the record cannot be written.
+     */
+    public synchronized void write(final String key, final Response response) throws IOException {
+        assert key != null;
+        assert response != null;
+
+        writeString(key);
+        out.writeInt(response.getStatusCode());
+
+        final Map<String, List<String>> headerFields = response.getHeaderFields();
+        int headerCount = 0;
+        if (headerFields != null) {
+            for (Map.Entry<String, List<String>> entry : headerFields.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    headerCount += entry.getValue().size();
+                }
+            }
+        }
+        out.writeInt(headerCount);
+        if (headerCount > 0) {
+            for (Map.Entry<String, List<String>> entry : headerFields.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    for (String value : entry.getValue()) {
+                        writeString(entry.getKey());
+                        writeString(value);
+                    }
+                }
+            }
+        }
+
+        writeString(response.getBody());
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private void writeString(final String string) throws IOException {
+        if (string == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Build the key a request is recorded and replayed by: the method, the URL with its query parameters in order,
+     * and whether the request continues an MFA session. The values of parameters in {@link #HASHED_PARAMETERS}, which
+     * can hold customers' names, are replaced with a hash of the value, so keys still match on replay without the
+     * cassette holding the value.
+     *
+     * @param method            The HTTP method.
+     * @param url               The URL.
+     * @param parameters        The query parameters, or null.
+     * @param additionalHeaders The request headers, or null.
+     * @return The key.
+     */
+    public static String key(final String method, final String url, final List<Parameter> parameters,
+                             final Map<String, String> additionalHeaders) {
+        final StringBuilder stringBuilder = new StringBuilder(method).append(' ').append(url);
+        if (parameters != null) {
+            char separator = '?';
+            for (Parameter parameter : parameters) {
+                stringBuilder.append(separator).append(parameter.getName()).append('=');
+                if (HASHED_PARAMETERS.contains(parameter.getName()) && parameter.getValue() != null) {
+                    stringBuilder.append(hash(parameter.getValue()));
+                } else {
+                    stringBuilder.append(parameter.getValue());
+                }
+                separator = '&';
+            }
+        }
+        if (additionalHeaders != null && additionalHeaders.containsKey(MFA_SESSION_HEADER)) {
+            stringBuilder.append(" MFA");
+        }
+
+        return stringBuilder.toString();
+    }
+
+    private static String hash(final String value) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+
+        final StringBuilder stringBuilder = new StringBuilder("sha256:");
+        for (int i = 0; i < HASH_BYTES; ++i) {
+            stringBuilder.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+                    .append(Character.forDigit(digest[i] & 0xF, 16));
+        }
+
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.cassette;
+
+import com.github.alexdlaird.component.log.LogRedactor;
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link RestClient} that wraps another and records every response it returns to a cassette, which a {@link
+ * ReplayingRestClient} can later serve without a network. <p> Before a response is recorded, the values of elements
+ * that carry credentials or personal details, such as tokens, login answers, names, account numbers and transaction
+ * descriptions, are masked with <code>*</code>, keeping their length so the recorded bodies still parse and are the
+ * same size as the real ones. Query parameters that can hold names are hashed in the request key, see {@link
+ * CassetteWriter#key}. Cookie and authorization headers are dropped and the MFA session header is masked. Failed requests are not
+ * recorded. A response that cannot be recorded is logged and still returned.
+ */
+public class RecordingRestClient implements RestClient {
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(RecordingRestClient.class));
+
+    /**
+     * Elements whose values are masked in recorded bodies.
+     */
+    public static final Set<String> MASKED_ELEMENTS;
+
+    static {
+        final Set<String> maskedElements = new HashSet<>(LogRedactor.CREDENTIAL_ELEMENTS);
+        maskedElements.addAll(Arrays.asList("username", "firstName", "lastName", "number", "subaccountNumber",
+                "signingKey", "description", "memo", "normalizedPayeeName"));
+        MASKED_ELEMENTS = Collections.unmodifiableSet(maskedElements);
+    }
+
+    /**
+     * Headers that are not recorded.
+     */
+    private static final Set<String> DROPPED_HEADERS;
+
+    static {
+        final Set<String> droppedHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        droppedHeaders.addAll(Arrays.asList("Set-Cookie", "Set-Cookie2", "Authorization", "Finicity-App-Token"));
+        DROPPED_HEADERS = Collections.unmodifiableSet(droppedHeaders);
+    }
+
+    /**
+     * The client requests are delegated to.
+     */
+    private final RestClient restClient;
+
+    /**
+     * The cassette responses are recorded to.
+     */
+    private final CassetteWriter cassetteWriter;
+
+    /**
+     * Construct a recording client.
+     *
+     * @param restClient     The client requests are delegated to.
+     * @param cassetteWriter The cassette responses are recorded to.
+     */
+    public RecordingRestClient(final RestClient restClient, final CassetteWriter cassetteWriter) {
+        assert restClient != null;
+        assert cassetteWriter != null;
+
+        this.restClient = restClient;
+        this.cassetteWriter = cassetteWriter;
+    }
+
+    @Override
+    public Response executeGet(final String url, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return record("GET", url, parameters, additionalHeaders,
+                restClient.executeGet(url, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                final Map<String, String> additionalHeaders) {
+        return record("POST", url, parameters, additionalHeaders,
+                restClient.executePost(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return record("PUT", url, parameters, additionalHeaders,
+                restClient.executePut(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executeDelete(final String url, final List<Parameter> parameters,
+                                  final Map<String, String> additionalHeaders) {
+        return record("DELETE", url, parameters, additionalHeaders,
+                restClient.executeDelete(url, parameters, additionalHeaders));
+    }
+
+    private Response record(final String method, final String url, final List<Parameter> parameters,
+                            final Map<String, String> additionalHeaders, final Response response) {
+        final String key = CassetteWriter.key(method, url, parameters, additionalHeaders);
+        try {
+            cassetteWriter.write(key, new Response(response.getStatusCode(),
+                    LogRedactor.mask(response.getBody(), MASKED_ELEMENTS), redact(response.getHeaderFields())));
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, ex, () -> "Could not record response for " + key);
+        }
+
+        return response;
+    }
+
+    private static Map<String, List<String>> redact(final Map<String, List<String>> headerFields) {
+        if (headerFields == null) {
+            return null;
+        }
+
+        final Map<String, List<String>> redacted = new LinkedHashMap<>(headerFields.size() * 2);
+        for (Map.Entry<String, List<String>> entry : headerFields.entrySet()) {
+            final String name = entry.getKey();
+            if (name == null || DROPPED_HEADERS.contains(name)) {
+                continue;
+            }
+
+            if (CassetteWriter.MFA_SESSION_HEADER.equalsIgnoreCase(name) && entry.getValue() != null) {
+                redacted.put(name, Collections.nCopies(entry.getValue().size(), LogRedactor.REDACTED));
+            } else {
+                redacted.put(name, entry.getValue());
+            }
+        }
+
+        return redacted;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.cassette;
+
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link RestClient} that answers every request from a {@link Cassette} and never touches the network, so tests and
+ * benchmarks can run against responses recorded by a {@link RecordingRestClient}. Like the other clients, it is
+ * plugged in through {@link com.github.alexdlaird.DefaultFinicityClient}'s decorator, for instance: <pre>
+ * final Cassette cassette = Cassette.open(path);
+ * DefaultFinicityClient.getInstance(appKey, partnerId, partnerSecret,
+ *         restClient -&gt; new ReplayingRestClient(cassette));
+ * </pre> A request that was not recorded fails with a {@link RestClientException}.
+ */
+public class ReplayingRestClient implements RestClient {
+    /**
+     * The cassette responses are served from.
+     */
+    private final Cassette cassette;
+
+    /**
+     * Construct a replaying client.
+     *
+     * @param cassette The cassette responses are served from.
+     */
+    public ReplayingRestClient(final Cassette cassette) {
+        assert cassette != null;
+
+        this.cassette = cassette;
+    }
+
+    @Override
+    public Response executeGet(final String url, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return replay("GET", url, parameters, additionalHeaders);
+    }
+
+    @Override
+    public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                final Map<String, String> additionalHeaders) {
+        return replay("POST", url, parameters, additionalHeaders);
+    }
+
+    @Override
+    public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return replay("PUT", url, parameters, additionalHeaders);
+    }
+
+    @Override
+    public Response executeDelete(final String url, final List<Parameter> parameters,
+                                  final Map<String, String> additionalHeaders) {
+        return replay("DELETE", url, parameters, additionalHeaders);
+    }
+
+    private Response replay(final String method, final String url, final List<Parameter> parameters,
+                            final Map<String, String> additionalHeaders) {
+        final String key = CassetteWriter.key(method, url, parameters, additionalHeaders);
+        final Response response = cassette.next(key, Endpoint.resolve(method, url, additionalHeaders));
+        if (response == null) {
+            throw new RestClientException("No recorded response for " + key);
+        }
+
+        return response;
+    }
+
+    public Cassette getCassette() {
+        return cassette;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.intercept;
+
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link RestClient} that wraps another and passes every request through an ordered list of {@link Interceptor}s
+ * before it reaches the wrapped client. The first interceptor sees the request first and the response last. <p> The
+ * chain links are built once, when the client is constructed, so dispatching a request allocates only its {@link
+ * Request}. Interceptors are composed alongside the other wrapping clients, for instance: <pre>
+ * DefaultFinicityClient.getInstance(appKey, partnerId, partnerSecret,
+ *         restClient -&gt; new InterceptingRestClient(restClient, tracingInterceptor, cachingInterceptor));
+ * </pre>
+ */
+public class InterceptingRestClient implements RestClient {
+    /**
+     * The client requests are delegated to.
+     */
+    private final RestClient restClient;
+
+    /**
+     * The interceptors, in the order they see requests.
+     */
+    private final List<Interceptor> interceptors;
+
+    /**
+     * The chain starting at the first interceptor.
+     */
+    private final Interceptor.Chain head;
+
+    /**
+     * Construct an intercepting client.
+     *
+     * @param restClient   The client requests are delegated to.
+     * @param interceptors The interceptors, in the order they see requests.
+     */
+    public InterceptingRestClient(final RestClient restClient, final Interceptor... interceptors) {
+        this(restClient, Arrays.asList(interceptors));
+    }
+
+    /**
+     * Construct an intercepting client.
+     *
+     * @param restClient   The client requests are delegated to.
+     * @param interceptors The interceptors, in the order they see requests.
+     */
+    public InterceptingRestClient(final RestClient restClient, final List<Interceptor> interceptors) {
+        assert restClient != null;
+        assert interceptors != null;
+
+        this.restClient = restClient;
+        this.interceptors = Collections.unmodifiableList(Arrays.asList(interceptors.toArray(new Interceptor[0])));
+
+        Interceptor.Chain chain = this::dispatch;
+        for (int i = this.interceptors.size() - 1; i >= 0; --i) {
+            final Interceptor interceptor = this.interceptors.get(i);
+            assert interceptor != null;
+
+            final Interceptor.Chain next = chain;
+            chain = request -> interceptor.intercept(request, next);
+        }
+        this.head = chain;
+    }
+
+    @Override
+    public Response executeGet(final String url, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return head.proceed(new Request(Request.GET, url, null, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                final Map<String, String> additionalHeaders) {
+        return head.proceed(new Request(Request.POST, url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return head.proceed(new Request(Request.PUT, url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executeDelete(final String url, final List<Parameter> parameters,
+                                  final Map<String, String> additionalHeaders) {
+        return head.proceed(new Request(Request.DELETE, url, null, parameters, additionalHeaders));
+    }
+
+    /**
+     * The end of the chain, which executes the request on the wrapped client.
+     */
+    private Response dispatch(final Request request) {
+        switch (request.getMethod()) {
+            case Request.GET:
+                return restClient.executeGet(request.getUrl(), request.getParameters(),
+                        request.getAdditionalHeaders());
+            case Request.POST:
+                return restClient.executePost(request.getUrl(), request.getBody(), request.getParameters(),
+                        request.getAdditionalHeaders());
+            case Request.PUT:
+                return restClient.executePut(request.getUrl(), request.getBody(), request.getParameters(),
+                        request.getAdditionalHeaders());
+            case Request.DELETE:
+                return restClient.executeDelete(request.getUrl(), request.getParameters(),
+                        request.getAdditionalHeaders());
+            default:
+                throw new RestClientException("Unsupported method " + request.getMethod());
+        }
+    }
+
+    public List<Interceptor> getInterceptors() {
+        return interceptors;
+    }
+}
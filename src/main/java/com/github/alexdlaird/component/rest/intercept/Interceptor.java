@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.intercept;
+
+import com.github.alexdlaird.component.rest.Response;
+
+/**
+ * Observes, modifies or short-circuits requests passing through an {@link InterceptingRestClient}. An interceptor may
+ * return a response without calling {@link Chain#proceed(Request)} (for instance, from a cache), call it with a
+ * modified {@link Request}, call it more than once, or inspect and replace the {@link Response} it returns.
+ */
+@FunctionalInterface
+public interface Interceptor {
+    /**
+     * Intercept a request.
+     *
+     * @param request The request.
+     * @param chain   The rest of the chain, ending at the wrapped client.
+     * @return The response.
+     */
+    Response intercept(final Request request, final Chain chain);
+
+    /**
+     * The interceptors after the current one, followed by the wrapped {@link
+     * com.github.alexdlaird.component.rest.RestClient}.
+     */
+    @FunctionalInterface
+    interface Chain {
+        /**
+         * Pass the request to the next interceptor, or to the wrapped client if this is the last one.
+         *
+         * @param request The request.
+         * @return The response.
+         */
+        Response proceed(final Request request);
+    }
+}
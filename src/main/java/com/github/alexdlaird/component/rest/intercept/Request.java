@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.intercept;
+
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Parameter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request passing through an {@link InterceptingRestClient}. Requests are immutable; an {@link Interceptor} that
+ * needs to change one passes a modified copy, for instance from {@link #withHeader(String, String)}, to the {@link
+ * Interceptor.Chain}.
+ */
+public final class Request {
+    public static final String GET = "GET";
+
+    public static final String POST = "POST";
+
+    public static final String PUT = "PUT";
+
+    public static final String DELETE = "DELETE";
+
+    /**
+     * The HTTP method.
+     */
+    private final String method;
+
+    /**
+     * The URL relative to the Finicity base URL.
+     */
+    private final String url;
+
+    /**
+     * The element to be serialized into the request body, or null.
+     */
+    private final Body body;
+
+    /**
+     * Parameters to add to the URL, or null.
+     */
+    private final List<Parameter> parameters;
+
+    /**
+     * Additional headers for the request, or null.
+     */
+    private final Map<String, String> additionalHeaders;
+
+    /**
+     * The resolved endpoint, computed when first needed.
+     */
+    private Endpoint endpoint;
+
+    /**
+     * True once {@link #endpoint} has been resolved, since it may resolve to null.
+     */
+    private boolean resolved;
+
+    /**
+     * Construct a request.
+     *
+     * @param method            The HTTP method.
+     * @param url               The URL relative to the Finicity base URL.
+     * @param body              The element to be serialized into the request body, or null.
+     * @param parameters        Parameters to add to the URL, or null.
+     * @param additionalHeaders Additional headers for the request, or null.
+     */
+    public Request(final String method, final String url, final Body body, final List<Parameter> parameters,
+                   final Map<String, String> additionalHeaders) {
+        assert method != null;
+        assert url != null;
+
+        this.method = method;
+        this.url = url;
+        this.body = body;
+        this.parameters = parameters;
+        this.additionalHeaders = additionalHeaders;
+    }
+
+    /**
+     * Copy this request with a header added, or replaced if it is already present.
+     *
+     * @param name  The header name.
+     * @param value The header value.
+     * @return The new request.
+     */
+    public Request withHeader(final String name, final String value) {
+        assert name != null;
+        assert value != null;
+
+        final Map<String, String> headers = additionalHeaders != null ?
+                new HashMap<>(additionalHeaders) : new HashMap<>(4);
+        headers.put(name, value);
+
+        final Request request = new Request(method, url, body, parameters, Collections.unmodifiableMap(headers));
+        request.endpoint = endpoint;
+        request.resolved = resolved;
+
+        return request;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Body getBody() {
+        return body;
+    }
+
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    public Map<String, String> getAdditionalHeaders() {
+        return additionalHeaders;
+    }
+
+    /**
+     * Get the header value, if the request has one.
+     *
+     * @param name The header name.
+     * @return The header value, or null.
+     */
+    public String getHeader(final String name) {
+        return additionalHeaders != null ? additionalHeaders.get(name) : null;
+    }
+
+    /**
+     * Get the endpoint the request is being made against. This is resolved on first use, so interceptors that do not
+     * need it do not pay for it.
+     *
+     * @return The endpoint, or null if the request does not match a known endpoint.
+     */
+    public Endpoint getEndpoint() {
+        if (!resolved) {
+            endpoint = Endpoint.resolve(method, url, additionalHeaders);
+            resolved = true;
+        }
+
+        return endpoint;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A loss-based {@link ConcurrencyLimit} using additive increase, multiplicative decrease (AIMD). The limit grows by one
+ * each time a request succeeds while the limit is being used, and is cut by the backoff ratio each time a request is
+ * dropped or takes longer than the timeout. This reacts to throttling, but not to latency that rises without failures;
+ * for that, use {@link GradientLimit}.
+ */
+public class AimdLimit implements ConcurrencyLimit {
+    /**
+     * The smallest the limit may become.
+     */
+    private final int minLimit;
+
+    /**
+     * The largest the limit may become.
+     */
+    private final int maxLimit;
+
+    /**
+     * The factor the limit is multiplied by when a request is dropped.
+     */
+    private final double backoffRatio;
+
+    /**
+     * Requests that take longer than this are treated as dropped.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * The current limit.
+     */
+    private volatile int limit;
+
+    /**
+     * Construct an AIMD limit.
+     *
+     * @param initialLimit  The limit to start with.
+     * @param minLimit      The smallest the limit may become.
+     * @param maxLimit      The largest the limit may become.
+     * @param backoffRatio  The factor, between 0.5 and 1, the limit is multiplied by when a request is dropped.
+     * @param timeoutMillis Requests that take longer than this are treated as dropped.
+     */
+    public AimdLimit(final int initialLimit, final int minLimit, final int maxLimit, final double backoffRatio,
+                     final long timeoutMillis) {
+        assert minLimit > 0;
+        assert maxLimit >= minLimit;
+        assert initialLimit >= minLimit && initialLimit <= maxLimit;
+        assert backoffRatio >= 0.5 && backoffRatio < 1;
+
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+        if (dropped || rttNanos > timeoutNanos) {
+            limit = Math.max(minLimit, Math.min(limit - 1, (int) (limit * backoffRatio)));
+        } else if (inFlight * 2 >= limit) {
+            // Only grow while the limit is actually being used, otherwise an idle client would grow without bound
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+/**
+ * An algorithm that decides how many requests may be in flight at once, adjusting the limit from the round-trip time
+ * and outcome of each request.
+ */
+public interface ConcurrencyLimit {
+    /**
+     * The current limit.
+     *
+     * @return The number of requests that may be in flight at once.
+     */
+    int getLimit();
+
+    /**
+     * Update the limit with the result of a request.
+     *
+     * @param rttNanos The round-trip time of the request.
+     * @param inFlight The number of requests that were in flight when the request started, including itself.
+     * @param dropped  True if the request failed in a way that indicates overload, such as a timeout or a 429.
+     */
+    void onSample(final long rttNanos, final int inFlight, final boolean dropped);
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+import com.github.alexdlaird.component.rest.Deadline;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Enforces a {@link ConcurrencyLimit} on the number of requests in flight. <p> A request that arrives when the limit is
+ * reached may wait for a slot, but only if fewer than <code>maxQueued</code> requests are already waiting, and only for
+ * up to <code>maxWaitMillis</code> (or until the {@link Deadline} entered on the calling thread, if sooner). Otherwise
+ * it is shed immediately with a {@link LimitExceededException}, rather than adding to a backlog the API cannot serve.
+ */
+public class ConcurrencyLimiter {
+    /**
+     * The algorithm deciding the limit.
+     */
+    private final ConcurrencyLimit limit;
+
+    /**
+     * The most requests that may wait for a slot.
+     */
+    private final int maxQueued;
+
+    /**
+     * The longest a request may wait for a slot.
+     */
+    private final long maxWaitNanos;
+
+    /**
+     * Guards {@link #inFlight} and {@link #queued}.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when slots are released.
+     */
+    private final Condition released = lock.newCondition();
+
+    /**
+     * Requests permitted.
+     */
+    private final LongAdder acceptedRequests = new LongAdder();
+
+    /**
+     * Requests shed.
+     */
+    private final LongAdder rejectedRequests = new LongAdder();
+
+    /**
+     * Rejection thrown when a request is shed; it carries no stack trace, so it is cheap to reuse.
+     */
+    private final LimitExceededException limitExceededException =
+            new LimitExceededException("Too many requests are in flight, so this request was shed");
+
+    /**
+     * Requests currently in flight.
+     */
+    private int inFlight;
+
+    /**
+     * Requests currently waiting for a slot.
+     */
+    private int queued;
+
+    /**
+     * Construct a limiter that sheds requests as soon as the limit is reached.
+     *
+     * @param limit The algorithm deciding the limit.
+     */
+    public ConcurrencyLimiter(final ConcurrencyLimit limit) {
+        this(limit, 0, 0);
+    }
+
+    /**
+     * Construct a limiter.
+     *
+     * @param limit         The algorithm deciding the limit.
+     * @param maxQueued     The most requests that may wait for a slot.
+     * @param maxWaitMillis The longest a request may wait for a slot.
+     */
+    public ConcurrencyLimiter(final ConcurrencyLimit limit, final int maxQueued, final long maxWaitMillis) {
+        assert limit != null;
+        assert maxQueued >= 0;
+        assert maxWaitMillis >= 0;
+
+        this.limit = limit;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    /**
+     * Acquire a slot for a request, waiting if permitted. The returned permit must be completed exactly once.
+     *
+     * @return The permit for the request.
+     * @throws LimitExceededException The request was shed.
+     */
+    public Permit acquire() {
+        lock.lock();
+        try {
+            if (inFlight < limit.getLimit()) {
+                return permit();
+            }
+            if (queued >= maxQueued || maxWaitNanos == 0) {
+                throw reject();
+            }
+
+            long remaining = maxWaitNanos;
+            final Deadline deadline = Deadline.current();
+            if (deadline != null) {
+                remaining = Math.min(remaining, deadline.remaining(TimeUnit.NANOSECONDS));
+            }
+
+            ++queued;
+            try {
+                while (inFlight >= limit.getLimit()) {
+                    if (remaining <= 0) {
+                        throw reject();
+                    }
+
+                    remaining = released.awaitNanos(remaining);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+
+                throw reject();
+            } finally {
+                --queued;
+            }
+
+            return permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit permit() {
+        acceptedRequests.increment();
+
+        return new Permit(++inFlight);
+    }
+
+    private LimitExceededException reject() {
+        rejectedRequests.increment();
+
+        return limitExceededException;
+    }
+
+    private void release(final Permit permit, final boolean sample, final boolean dropped) {
+        if (sample) {
+            limit.onSample(System.nanoTime() - permit.startNanos, permit.inFlight, dropped);
+        }
+
+        lock.lock();
+        try {
+            --inFlight;
+            // The sample may have raised the limit by more than one, freeing a slot for each waiter
+            final int free = limit.getLimit() - inFlight;
+            if (free > 1) {
+                released.signalAll();
+            } else if (free == 1) {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAcceptedRequests() {
+        return acceptedRequests.sum();
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    /**
+     * A slot held by a request in flight.
+     */
+    public class Permit {
+        /**
+         * Requests in flight when this one started, including itself.
+         */
+        private final int inFlight;
+
+        /**
+         * When the request started.
+         */
+        private final long startNanos = System.nanoTime();
+
+        /**
+         * True once the permit has been completed.
+         */
+        private boolean completed;
+
+        private Permit(final int inFlight) {
+            this.inFlight = inFlight;
+        }
+
+        /**
+         * The request succeeded, so its round-trip time is a valid sample.
+         */
+        public void onSuccess() {
+            complete(true, false);
+        }
+
+        /**
+         * The request failed in a way that indicates overload, such as a timeout or a 429.
+         */
+        public void onDropped() {
+            complete(true, true);
+        }
+
+        /**
+         * The request failed for a reason that says nothing about load, so it is not sampled.
+         */
+        public void onIgnored() {
+            complete(false, false);
+        }
+
+        private void complete(final boolean sample, final boolean dropped) {
+            if (!completed) {
+                completed = true;
+
+                release(this, sample, dropped);
+            }
+        }
+    }
+
+    /**
+     * A request was shed because too many requests are in flight.
+     */
+    public static class LimitExceededException extends RestClient.RestClientException {
+        private static final long serialVersionUID = 1L;
+
+        public LimitExceededException(final String msg) {
+            super(msg);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.github.alexdlaird.component.rest.TransientFailures;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A {@link RestClient} that wraps another and adapts the number of requests it lets through at once, using a {@link
+ * ConcurrencyLimiter}. Each response's round-trip time is sampled by the limiter's {@link ConcurrencyLimit}; transient
+ * failures, such as timeouts and 429s, are sampled as dropped, and failures that never reached the API are not
+ * sampled. <p> To measure the API rather than time spent in other wrappers, this should wrap the {@link
+ * com.github.alexdlaird.component.rest.DefaultRestClient} directly, inside any circuit breaking or retrying client.
+ */
+public class ConcurrencyLimitingRestClient implements RestClient {
+    /**
+     * The client requests are delegated to.
+     */
+    private final RestClient restClient;
+
+    /**
+     * Enforces the limit.
+     */
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Construct a client that limits requests with a {@link GradientLimit}, starting at 20 requests in flight.
+     *
+     * @param restClient The client requests are delegated to.
+     */
+    public ConcurrencyLimitingRestClient(final RestClient restClient) {
+        this(restClient, new ConcurrencyLimiter(new GradientLimit(20, 1, 200), 100, 1000));
+    }
+
+    /**
+     * Construct a client.
+     *
+     * @param restClient         The client requests are delegated to.
+     * @param concurrencyLimiter Enforces the limit, and may be shared with other clients.
+     */
+    public ConcurrencyLimitingRestClient(final RestClient restClient, final ConcurrencyLimiter concurrencyLimiter) {
+        assert restClient != null;
+        assert concurrencyLimiter != null;
+
+        this.restClient = restClient;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public Response executeGet(final String url, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return execute(() -> restClient.executeGet(url, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                final Map<String, String> additionalHeaders) {
+        return execute(() -> restClient.executePost(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return execute(() -> restClient.executePut(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executeDelete(final String url, final List<Parameter> parameters,
+                                  final Map<String, String> additionalHeaders) {
+        return execute(() -> restClient.executeDelete(url, parameters, additionalHeaders));
+    }
+
+    private Response execute(final Supplier<Response> request) {
+        final ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire();
+
+        final Response response;
+        try {
+            response = request.get();
+        } catch (RuntimeException ex) {
+            if (TransientFailures.isTransient(ex)) {
+                permit.onDropped();
+            } else if (TransientFailures.isLocal(ex)) {
+                permit.onIgnored();
+            } else {
+                permit.onSuccess();
+            }
+
+            throw ex;
+        } catch (Error err) {
+            permit.onIgnored();
+
+            throw err;
+        }
+
+        if (TransientFailures.isTransientStatus(response.getStatusCode())) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+
+        return response;
+    }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+}
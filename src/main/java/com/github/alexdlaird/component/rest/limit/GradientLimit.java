@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+/**
+ * A latency-based {@link ConcurrencyLimit}, similar to TCP Vegas. It keeps a long-term average of the round-trip time
+ * as a baseline and compares each new sample to it. When requests start queuing, the round-trip time rises above the
+ * baseline and the limit is reduced in proportion (the gradient); when it is at or below the baseline, the limit grows
+ * by a small allowance of queued requests. Dropped requests cut the limit in half.
+ */
+public class GradientLimit implements ConcurrencyLimit {
+    /**
+     * The smallest the limit may become.
+     */
+    private final int minLimit;
+
+    /**
+     * The largest the limit may become.
+     */
+    private final int maxLimit;
+
+    /**
+     * How much the round-trip time may exceed the baseline before the limit is reduced, for instance 1.5 for 50%.
+     */
+    private final double rttTolerance;
+
+    /**
+     * The weight, between 0 and 1, given to each new limit computed.
+     */
+    private final double smoothing;
+
+    /**
+     * The number of samples the long-term average is computed over.
+     */
+    private final int baselineWindow;
+
+    /**
+     * The current limit, with fractions retained so small adjustments accumulate.
+     */
+    private double estimatedLimit;
+
+    /**
+     * The current limit, as read by callers.
+     */
+    private volatile int limit;
+
+    /**
+     * The long-term average round-trip time, or 0 before the first sample.
+     */
+    private double baselineRttNanos;
+
+    /**
+     * Construct a gradient limit with a 50% round-trip time tolerance.
+     *
+     * @param initialLimit The limit to start with.
+     * @param minLimit     The smallest the limit may become.
+     * @param maxLimit     The largest the limit may become.
+     */
+    public GradientLimit(final int initialLimit, final int minLimit, final int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 1.5, 0.2, 100);
+    }
+
+    /**
+     * Construct a gradient limit.
+     *
+     * @param initialLimit   The limit to start with.
+     * @param minLimit       The smallest the limit may become.
+     * @param maxLimit       The largest the limit may become.
+     * @param rttTolerance   How much the round-trip time may exceed the baseline before the limit is reduced, at
+     *                       least 1.
+     * @param smoothing      The weight, between 0 and 1, given to each new limit computed.
+     * @param baselineWindow The number of samples the long-term average is computed over.
+     */
+    public GradientLimit(final int initialLimit, final int minLimit, final int maxLimit, final double rttTolerance,
+                         final double smoothing, final int baselineWindow) {
+        assert minLimit > 0;
+        assert maxLimit >= minLimit;
+        assert initialLimit >= minLimit && initialLimit <= maxLimit;
+        assert rttTolerance >= 1;
+        assert smoothing > 0 && smoothing <= 1;
+        assert baselineWindow > 0;
+
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.baselineWindow = baselineWindow;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+        if (dropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit / 2);
+            limit = (int) estimatedLimit;
+            return;
+        }
+
+        if (baselineRttNanos == 0) {
+            baselineRttNanos = rttNanos;
+        } else {
+            baselineRttNanos += (rttNanos - baselineRttNanos) / baselineWindow;
+        }
+        if (baselineRttNanos > 2 * rttNanos) {
+            // The baseline is stale, as latency has dropped well below it, so recover quickly
+            baselineRttNanos = 0.95 * baselineRttNanos + 0.05 * rttNanos;
+        }
+
+        if (inFlight < estimatedLimit / 2) {
+            // Requests are not using the limit, so their latency says nothing about whether it is too high
+            return;
+        }
+
+        final double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * baselineRttNanos / rttNanos));
+        final double queueAllowance = Math.sqrt(estimatedLimit);
+        final double newLimit = estimatedLimit * gradient + queueAllowance;
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                (1 - smoothing) * estimatedLimit + smoothing * newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
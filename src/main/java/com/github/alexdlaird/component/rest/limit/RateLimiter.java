@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+import com.github.alexdlaird.component.rest.Deadline;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the rate of requests, for instance to stay under the API's request quota when many threads share one client.
+ * <p> Permits are spaced evenly at <code>permitsPerSecond</code>, but after a quiet period up to <code>burst</code>
+ * permits can be taken at once. A caller waits for its permit for up to <code>maxWaitMillis</code> (or until the
+ * {@link Deadline} entered on the calling thread, if sooner), otherwise a {@link RateLimitExceededException} is thrown
+ * without taking a permit. <p> A limiter is thread-safe, and can be shared between clients to give them one combined
+ * rate.
+ */
+public class RateLimiter {
+    /**
+     * Default number of permits that can be taken at once.
+     */
+    public static final int DEFAULT_BURST = 1;
+
+    /**
+     * Default longest a caller will wait for a permit.
+     */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 60000;
+
+    /**
+     * Thrown when a caller cannot get a permit in time, which is reused as it is thrown often under load.
+     */
+    private static final RateLimitExceededException RATE_LIMIT_EXCEEDED =
+            new RateLimitExceededException("Request rate limit exceeded");
+
+    /**
+     * Time between permits.
+     */
+    private final long intervalNanos;
+
+    /**
+     * How far ahead of schedule a permit may be taken, which allows bursts after a quiet period.
+     */
+    private final long burstNanos;
+
+    /**
+     * Longest a caller will wait for a permit.
+     */
+    private final long maxWaitNanos;
+
+    /**
+     * The time the next permit is scheduled for, in {@link System#nanoTime()}; guarded by this.
+     */
+    private long nextPermitNanos;
+
+    /**
+     * Permits taken.
+     */
+    private final LongAdder acquired = new LongAdder();
+
+    /**
+     * Permits taken after waiting.
+     */
+    private final LongAdder delayed = new LongAdder();
+
+    /**
+     * Callers that gave up waiting.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Construct a limiter that spaces permits evenly, without bursts.
+     *
+     * @param permitsPerSecond The rate of permits.
+     */
+    public RateLimiter(final double permitsPerSecond) {
+        this(permitsPerSecond, DEFAULT_BURST, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Construct a limiter.
+     *
+     * @param permitsPerSecond The rate of permits.
+     * @param burst            The number of permits that can be taken at once after a quiet period.
+     * @param maxWaitMillis    Longest a caller will wait for a permit.
+     */
+    public RateLimiter(final double permitsPerSecond, final int burst, final long maxWaitMillis) {
+        assert permitsPerSecond > 0;
+        assert burst > 0;
+        assert maxWaitMillis >= 0;
+
+        this.intervalNanos = Math.max((long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond), 1);
+        this.burstNanos = (burst - 1) * intervalNanos;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.nextPermitNanos = System.nanoTime() - burstNanos;
+    }
+
+    /**
+     * Take a permit, waiting for it if necessary.
+     *
+     * @throws RateLimitExceededException The permit would not be available in time.
+     */
+    public void acquire() {
+        final long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+
+        delayed.increment();
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+
+            throw new RestClient.RestClientException("Interrupted while waiting for a rate limit permit", ex);
+        }
+    }
+
+    /**
+     * Reserve the next permit.
+     *
+     * @return How long to wait until the permit is due.
+     */
+    private long reserve() {
+        final Deadline deadline = Deadline.current();
+        final long limitNanos = deadline != null ? Math.min(maxWaitNanos, deadline.remaining(TimeUnit.NANOSECONDS)) :
+                maxWaitNanos;
+
+        final long now = System.nanoTime();
+        final long waitNanos;
+        synchronized (this) {
+            final long scheduled = Math.max(nextPermitNanos, now - burstNanos);
+            waitNanos = scheduled - now;
+            if (waitNanos > limitNanos) {
+                rejected.increment();
+
+                throw RATE_LIMIT_EXCEEDED;
+            }
+
+            nextPermitNanos = scheduled + intervalNanos;
+        }
+        acquired.increment();
+
+        return waitNanos;
+    }
+
+    public double getPermitsPerSecond() {
+        return (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    public long getDelayed() {
+        return delayed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * A request was not made because a permit would not be available in time.
+     */
+    public static class RateLimitExceededException extends RestClient.RestClientException {
+        private static final long serialVersionUID = 1L;
+
+        public RateLimitExceededException(final String msg) {
+            super(msg);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
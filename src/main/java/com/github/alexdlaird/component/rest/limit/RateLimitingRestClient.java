@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link RestClient} that wraps another and takes a permit from a {@link RateLimiter} before each request. <p> So
+ * that retries count against the rate too, this should wrap the {@link
+ * com.github.alexdlaird.component.rest.DefaultRestClient DefaultRestClient}, inside any retrying client.
+ */
+public class RateLimitingRestClient implements RestClient {
+    /**
+     * The client requests are delegated to.
+     */
+    private final RestClient restClient;
+
+    /**
+     * Enforces the rate.
+     */
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Construct a client.
+     *
+     * @param restClient  The client requests are delegated to.
+     * @param rateLimiter Enforces the rate, and may be shared with other clients.
+     */
+    public RateLimitingRestClient(final RestClient restClient, final RateLimiter rateLimiter) {
+        assert restClient != null;
+        assert rateLimiter != null;
+
+        this.restClient = restClient;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Response executeGet(final String url, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        rateLimiter.acquire();
+
+        return restClient.executeGet(url, parameters, additionalHeaders);
+    }
+
+    @Override
+    public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                final Map<String, String> additionalHeaders) {
+        rateLimiter.acquire();
+
+        return restClient.executePost(url, body, parameters, additionalHeaders);
+    }
+
+    @Override
+    public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        rateLimiter.acquire();
+
+        return restClient.executePut(url, body, parameters, additionalHeaders);
+    }
+
+    @Override
+    public Response executeDelete(final String url, final List<Parameter> parameters,
+                                  final Map<String, String> additionalHeaders) {
+        rateLimiter.acquire();
+
+        return restClient.executeDelete(url, parameters, additionalHeaders);
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The measurements of one endpoint kept by {@link HistogramMetrics}.
+ */
+public class EndpointMetrics {
+    /**
+     * The lowest status code counted individually. Codes outside the range are counted as 0.
+     */
+    private static final int MIN_STATUS_CODE = 100;
+
+    private static final int MAX_STATUS_CODE = 599;
+
+    /**
+     * The endpoint's method and URL template, like <code>GET /v2/customers/{customerId}/transactions</code>.
+     */
+    private final String name;
+
+    private final LatencyHistogram networkLatency = new LatencyHistogram();
+
+    private final LatencyHistogram decodeLatency = new LatencyHistogram();
+
+    /**
+     * Responses by status code, where index 0 counts requests that received no response.
+     */
+    private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS_CODE - MIN_STATUS_CODE + 2);
+
+    private final LongAdder bytesSent = new LongAdder();
+
+    private final LongAdder bytesReceived = new LongAdder();
+
+    EndpointMetrics(final String name) {
+        this.name = name;
+    }
+
+    void recordExchange(final int statusCode, final long networkNanos, final long requestBytes,
+                        final long responseBytes) {
+        networkLatency.record(networkNanos);
+        statusCounts.incrementAndGet(statusCode >= MIN_STATUS_CODE && statusCode <= MAX_STATUS_CODE ?
+                statusCode - MIN_STATUS_CODE + 1 : 0);
+        bytesSent.add(requestBytes);
+        bytesReceived.add(responseBytes);
+    }
+
+    void recordDecode(final long decodeNanos) {
+        decodeLatency.record(decodeNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the time requests spent on the network, from opening the connection until the response was read.
+     *
+     * @return A snapshot of the latencies.
+     */
+    public HistogramSnapshot getNetworkLatency() {
+        return networkLatency.snapshot();
+    }
+
+    /**
+     * Get the time responses spent being decoded.
+     *
+     * @return A snapshot of the latencies.
+     */
+    public HistogramSnapshot getDecodeLatency() {
+        return decodeLatency.snapshot();
+    }
+
+    /**
+     * Get the number of responses with each status code.
+     *
+     * @return Counts by status code, where 0 counts requests that received no response.
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        final Map<Integer, Long> counts = new TreeMap<>();
+        for (int i = 0; i < statusCounts.length(); ++i) {
+            final long count = statusCounts.get(i);
+            if (count > 0) {
+                counts.put(i == 0 ? 0 : i + MIN_STATUS_CODE - 1, count);
+            }
+        }
+
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointMetrics{name=" + name +
+                ", network=" + getNetworkLatency() +
+                ", decode=" + getDecodeLatency() +
+                ", statusCounts=" + getStatusCounts() +
+                ", bytesSent=" + getBytesSent() +
+                ", bytesReceived=" + getBytesReceived() + "}";
+    }
+}
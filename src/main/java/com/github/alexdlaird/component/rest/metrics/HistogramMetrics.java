@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.metrics;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The default {@link RequestMetrics}, which keeps latency histograms, status code counts and byte counts per {@link
+ * Endpoint}, with no dependencies. <p> Each endpoint's measurements are created the first time it is used, and
+ * recording never locks. Read them with {@link #getEndpointMetrics()}, or export them with {@link PrometheusExporter}.
+ */
+public class HistogramMetrics implements RequestMetrics {
+    /**
+     * The name requests that do not match a known endpoint are recorded under.
+     */
+    public static final String OTHER = "OTHER";
+
+    /**
+     * Each endpoint's measurements, by ordinal, followed by those of requests that do not match a known endpoint.
+     */
+    private final AtomicReferenceArray<EndpointMetrics> endpointMetrics =
+            new AtomicReferenceArray<>(Endpoint.values().length + 1);
+
+    @Override
+    public void recordExchange(final Endpoint endpoint, final int statusCode, final long networkNanos,
+                               final long requestBytes, final long responseBytes) {
+        getOrCreate(endpoint).recordExchange(statusCode, networkNanos, requestBytes, responseBytes);
+    }
+
+    @Override
+    public void recordDecode(final Endpoint endpoint, final long decodeNanos) {
+        getOrCreate(endpoint).recordDecode(decodeNanos);
+    }
+
+    private EndpointMetrics getOrCreate(final Endpoint endpoint) {
+        final int index = endpoint != null ? endpoint.ordinal() : endpointMetrics.length() - 1;
+
+        final EndpointMetrics existing = endpointMetrics.get(index);
+        if (existing != null) {
+            return existing;
+        }
+
+        endpointMetrics.compareAndSet(index, null, new EndpointMetrics(endpoint != null ? endpoint.toString() : OTHER));
+
+        return endpointMetrics.get(index);
+    }
+
+    /**
+     * Get the measurements of an endpoint.
+     *
+     * @param endpoint The endpoint, or null for requests that do not match a known endpoint.
+     * @return The measurements, or null if the endpoint has not been used.
+     */
+    public EndpointMetrics getEndpointMetrics(final Endpoint endpoint) {
+        return endpointMetrics.get(endpoint != null ? endpoint.ordinal() : endpointMetrics.length() - 1);
+    }
+
+    /**
+     * Get the measurements of every endpoint that has been used.
+     *
+     * @return The measurements, by endpoint name.
+     */
+    public Map<String, EndpointMetrics> getEndpointMetrics() {
+        final Map<String, EndpointMetrics> all = new LinkedHashMap<>();
+        for (int i = 0; i < endpointMetrics.length(); ++i) {
+            final EndpointMetrics metrics = endpointMetrics.get(i);
+            if (metrics != null) {
+                all.put(metrics.getName(), metrics);
+            }
+        }
+
+        return Collections.unmodifiableMap(all);
+    }
+}
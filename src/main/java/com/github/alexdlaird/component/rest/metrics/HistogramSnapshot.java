@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The counts of a {@link LatencyHistogram} at a point in time. Values are in nanoseconds.
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+
+    private final long count;
+
+    private final long sum;
+
+    private final long max;
+
+    HistogramSnapshot(final long[] counts, final long sum, final long max) {
+        this.counts = counts;
+        this.sum = sum;
+        this.max = max;
+
+        long count = 0;
+        for (final long bucket : counts) {
+            count += bucket;
+        }
+        this.count = count;
+    }
+
+    /**
+     * Get the value at or below which the given percentage of values fall.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The value, which is never more than the largest value recorded, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        assert percentile >= 0 && percentile <= 100;
+
+        if (count == 0) {
+            return 0;
+        }
+
+        final long target = Math.max((long) Math.ceil(percentile / 100 * count), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(LatencyHistogram.highestValueAt(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Get the value at a percentile, in the given unit.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @param unit       The unit.
+     * @return The value.
+     */
+    public double getValueAtPercentile(final double percentile, final TimeUnit unit) {
+        return (double) getValueAtPercentile(percentile) / unit.toNanos(1);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{count=" + count +
+                ", mean=" + getMean() +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", p999=" + getValueAtPercentile(99.9) +
+                ", max=" + max + "}";
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, with buckets laid out like an HDR histogram: every power of two
+ * is split into 32 linear buckets, so any recorded value is reported within about 3% of its true value, while the
+ * whole range from 1 nanosecond to over an hour fits in about a thousand counters. <p> Recording is a single atomic
+ * increment; reading takes a {@link HistogramSnapshot}, which may be taken while values are being recorded.
+ */
+public class LatencyHistogram {
+    /**
+     * Bits of precision within each power of two.
+     */
+    static final int SUB_BUCKET_BITS = 5;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Largest value tracked precisely, about 73 minutes; larger values are counted in the last bucket.
+     */
+    static final long MAX_TRACKABLE_VALUE = (1L << 42) - 1;
+
+    static final int BUCKETS = indexOf(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a value.
+     *
+     * @param nanos The value, which is treated as 0 if negative.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+
+        counts.incrementAndGet(indexOf(Math.min(value, MAX_TRACKABLE_VALUE)));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Copy the current counts.
+     *
+     * @return A snapshot of the histogram.
+     */
+    public HistogramSnapshot snapshot() {
+        final long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            copy[i] = counts.get(i);
+        }
+
+        return new HistogramSnapshot(copy, sum.sum(), max.get());
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS * 2) {
+            return (int) value;
+        }
+
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Get the largest value counted in a bucket.
+     */
+    static long highestValueAt(final int index) {
+        if (index < SUB_BUCKETS * 2) {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKETS - 1;
+        final long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Writes the measurements of a {@link HistogramMetrics} in the Prometheus text exposition format, to be served from
+ * an application's own metrics endpoint. Latencies are written as summaries in seconds, with the 50th, 90th, 99th and
+ * 99.9th percentiles, and each endpoint is labelled by its method and URL template. <p> To export to another metrics
+ * library, read {@link HistogramMetrics#getEndpointMetrics()} the same way.
+ */
+public class PrometheusExporter {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final HistogramMetrics histogramMetrics;
+
+    /**
+     * Prefix of every metric name.
+     */
+    private final String prefix;
+
+    /**
+     * Construct an exporter with metric names prefixed by <code>finicity_</code>.
+     *
+     * @param histogramMetrics The measurements to export.
+     */
+    public PrometheusExporter(final HistogramMetrics histogramMetrics) {
+        this(histogramMetrics, "finicity_");
+    }
+
+    /**
+     * Construct an exporter.
+     *
+     * @param histogramMetrics The measurements to export.
+     * @param prefix           Prefix of every metric name.
+     */
+    public PrometheusExporter(final HistogramMetrics histogramMetrics, final String prefix) {
+        assert histogramMetrics != null;
+        assert prefix != null;
+
+        this.histogramMetrics = histogramMetrics;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Write the current measurements.
+     *
+     * @param appendable Where to write them.
+     * @throws IOException The measurements could not be written.
+     */
+    public void write(final Appendable appendable) throws IOException {
+        final Map<String, EndpointMetrics> all = histogramMetrics.getEndpointMetrics();
+
+        writeSummaries(appendable, "network_seconds", "Time requests spent on the network.", all, true);
+        writeSummaries(appendable, "decode_seconds", "Time responses spent being decoded.", all, false);
+
+        writeHeader(appendable, "responses_total", "counter", "Responses by status code, where 0 is no response.");
+        for (final EndpointMetrics endpointMetrics : all.values()) {
+            for (final Map.Entry<Integer, Long> entry : endpointMetrics.getStatusCounts().entrySet()) {
+                appendable.append(prefix).append("responses_total{endpoint=\"")
+                        .append(escape(endpointMetrics.getName())).append("\",status=\"")
+                        .append(String.valueOf(entry.getKey())).append("\"} ")
+                        .append(String.valueOf(entry.getValue())).append('\n');
+            }
+        }
+
+        writeHeader(appendable, "sent_bytes_total", "counter", "Bytes sent in request bodies.");
+        for (final EndpointMetrics endpointMetrics : all.values()) {
+            writeSample(appendable, "sent_bytes_total", endpointMetrics.getName(), null,
+                    String.valueOf(endpointMetrics.getBytesSent()));
+        }
+
+        writeHeader(appendable, "received_bytes_total", "counter", "Bytes received in response bodies.");
+        for (final EndpointMetrics endpointMetrics : all.values()) {
+            writeSample(appendable, "received_bytes_total", endpointMetrics.getName(), null,
+                    String.valueOf(endpointMetrics.getBytesReceived()));
+        }
+    }
+
+    /**
+     * Write the current measurements to a string.
+     *
+     * @return The measurements.
+     */
+    public String scrape() {
+        final StringBuilder stringBuilder = new StringBuilder();
+        try {
+            write(stringBuilder);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return stringBuilder.toString();
+    }
+
+    private void writeSummaries(final Appendable appendable, final String name, final String help,
+                                final Map<String, EndpointMetrics> all, final boolean network) throws IOException {
+        writeHeader(appendable, name, "summary", help);
+        for (final EndpointMetrics endpointMetrics : all.values()) {
+            final HistogramSnapshot snapshot = network ? endpointMetrics.getNetworkLatency() :
+                    endpointMetrics.getDecodeLatency();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+
+            for (final double quantile : QUANTILES) {
+                writeSample(appendable, name, endpointMetrics.getName(), String.valueOf(quantile),
+                        String.valueOf(snapshot.getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND));
+            }
+            writeSample(appendable, name + "_sum", endpointMetrics.getName(), null,
+                    String.valueOf(snapshot.getSum() / NANOS_PER_SECOND));
+            writeSample(appendable, name + "_count", endpointMetrics.getName(), null,
+                    String.valueOf(snapshot.getCount()));
+        }
+    }
+
+    private void writeHeader(final Appendable appendable, final String name, final String type, final String help)
+            throws IOException {
+        appendable.append("# HELP ").append(prefix).append(name).append(' ').append(help).append('\n');
+        appendable.append("# TYPE ").append(prefix).append(name).append(' ').append(type).append('\n');
+    }
+
+    private void writeSample(final Appendable appendable, final String name, final String endpoint,
+                             final String quantile, final String value) throws IOException {
+        appendable.append(prefix).append(name).append("{endpoint=\"").append(escape(endpoint)).append('"');
+        if (quantile != null) {
+            appendable.append(",quantile=\"").append(quantile).append('"');
+        }
+        appendable.append("} ").append(value).append('\n');
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
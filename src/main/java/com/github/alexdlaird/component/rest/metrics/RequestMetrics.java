@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.metrics;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+
+/**
+ * Receives a measurement of every request made by a {@link com.github.alexdlaird.component.rest.DefaultRestClient
+ * DefaultRestClient}, and of every response decoded by the {@link com.github.alexdlaird.operation operations}
+ * classes. <p> Implementations are called on the requesting thread, so they must be thread-safe and should return
+ * quickly. {@link HistogramMetrics} is a dependency-free implementation.
+ */
+public interface RequestMetrics {
+    /**
+     * Record a request.
+     *
+     * @param endpoint      The endpoint, or null if the request did not match a known endpoint.
+     * @param statusCode    The response status code, or 0 if no response was received.
+     * @param networkNanos  Time from opening the connection until the response was read in full.
+     * @param requestBytes  Size of the request body.
+     * @param responseBytes Size of the response body, including an error body.
+     */
+    void recordExchange(Endpoint endpoint, int statusCode, long networkNanos, long requestBytes, long responseBytes);
+
+    /**
+     * Record the decoding of a response.
+     *
+     * @param endpoint    The endpoint, or null if unknown.
+     * @param decodeNanos Time spent decoding the response.
+     */
+    void recordDecode(Endpoint endpoint, long decodeNanos);
+}
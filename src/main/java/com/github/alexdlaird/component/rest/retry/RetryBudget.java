@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.retry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A retry budget shared by every request that passes through one or more {@link RetryingRestClient}s, which stops
+ * retries from multiplying load on the API when it is already failing. <p> The budget holds a number of tokens. Each
+ * failed attempt removes one token and each successful request adds back <code>tokenRatio</code> tokens, up to
+ * <code>maxTokens</code>. Retries are only permitted while more than half the tokens remain, so once failures outpace
+ * successes, retries stop until successes refill the budget.
+ */
+public class RetryBudget {
+    /**
+     * Default maximum number of tokens.
+     */
+    public static final int DEFAULT_MAX_TOKENS = 100;
+
+    /**
+     * Default number of tokens a success adds back.
+     */
+    public static final double DEFAULT_TOKEN_RATIO = 0.1;
+
+    /**
+     * Tokens are stored as integers scaled by this factor, so fractional ratios can be tracked atomically.
+     */
+    private static final int SCALE = 1000;
+
+    /**
+     * Maximum number of tokens, scaled.
+     */
+    private final int maxTokens;
+
+    /**
+     * Tokens added back by a success, scaled.
+     */
+    private final int tokenRatio;
+
+    /**
+     * Tokens currently available, scaled.
+     */
+    private final AtomicInteger tokens;
+
+    /**
+     * Construct a budget with the default capacity and ratio.
+     */
+    public RetryBudget() {
+        this(DEFAULT_MAX_TOKENS, DEFAULT_TOKEN_RATIO);
+    }
+
+    /**
+     * Construct a budget.
+     *
+     * @param maxTokens  Maximum number of tokens, which the budget starts with.
+     * @param tokenRatio Number of tokens each successful request adds back.
+     */
+    public RetryBudget(final int maxTokens, final double tokenRatio) {
+        assert maxTokens > 0;
+        assert tokenRatio > 0;
+
+        this.maxTokens = maxTokens * SCALE;
+        this.tokenRatio = (int) (tokenRatio * SCALE);
+        this.tokens = new AtomicInteger(this.maxTokens);
+    }
+
+    /**
+     * Record a successful request.
+     */
+    public void onSuccess() {
+        int current;
+        do {
+            current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(current + tokenRatio, maxTokens)));
+    }
+
+    /**
+     * Record a failed attempt.
+     */
+    public void onFailure() {
+        int current;
+        do {
+            current = tokens.get();
+            if (current <= 0) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.max(current - SCALE, 0)));
+    }
+
+    /**
+     * Check if the budget currently permits a retry.
+     *
+     * @return True if a retry is permitted.
+     */
+    public boolean isRetryPermitted() {
+        return tokens.get() > maxTokens / 2;
+    }
+
+    /**
+     * The number of tokens currently available.
+     *
+     * @return The available tokens.
+     */
+    public double getTokens() {
+        return (double) tokens.get() / SCALE;
+    }
+}
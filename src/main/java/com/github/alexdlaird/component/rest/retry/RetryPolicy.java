@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.retry;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.TransientFailures;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests a {@link RetryingRestClient} may retry, and how long to wait between attempts. <p> A request
+ * is only retried if its {@link Endpoint} is idempotent (for instance, any GET, or a <code>refreshAccount</code>) and
+ * the failure was transient: an I/O error before a response was received, or a 408, 429 or 5xx response. Operations
+ * that create something, like <code>addCustomer</code>, are not retried unless the caller deduplicates them and
+ * declares them as such when constructing the policy. <p> Delays use exponential backoff with full jitter, so a burst
+ * of clients that failed together do not retry together.
+ */
+public class RetryPolicy {
+    /**
+     * Default maximum number of attempts per request, including the first.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * Default delay before the first retry, before jitter is applied.
+     */
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 200;
+
+    /**
+     * Default upper bound for any single delay.
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+
+    /**
+     * Maximum number of attempts per request, including the first.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay before the first retry, before jitter is applied.
+     */
+    private final long baseDelayMillis;
+
+    /**
+     * Upper bound for any single delay.
+     */
+    private final long maxDelayMillis;
+
+    /**
+     * Non-idempotent endpoints the caller has made safe to retry, for instance by deduplicating on their side.
+     */
+    private final Set<Endpoint> deduplicatedEndpoints;
+
+    /**
+     * Construct a policy with the default attempts and delays.
+     */
+    public RetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Construct a policy that only retries idempotent endpoints.
+     *
+     * @param maxAttempts     Maximum number of attempts per request, including the first.
+     * @param baseDelayMillis Delay before the first retry, before jitter is applied.
+     * @param maxDelayMillis  Upper bound for any single delay.
+     */
+    public RetryPolicy(final int maxAttempts, final long baseDelayMillis, final long maxDelayMillis) {
+        this(maxAttempts, baseDelayMillis, maxDelayMillis, Collections.<Endpoint>emptySet());
+    }
+
+    /**
+     * Construct a policy.
+     *
+     * @param maxAttempts           Maximum number of attempts per request, including the first.
+     * @param baseDelayMillis       Delay before the first retry, before jitter is applied.
+     * @param maxDelayMillis        Upper bound for any single delay.
+     * @param deduplicatedEndpoints Non-idempotent endpoints that should be retried anyway, because the caller
+     *                              deduplicates them.
+     */
+    public RetryPolicy(final int maxAttempts, final long baseDelayMillis, final long maxDelayMillis,
+                       final Set<Endpoint> deduplicatedEndpoints) {
+        assert maxAttempts > 0;
+        assert baseDelayMillis >= 0;
+        assert maxDelayMillis >= baseDelayMillis;
+        assert deduplicatedEndpoints != null;
+
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.deduplicatedEndpoints = deduplicatedEndpoints.isEmpty() ?
+                Collections.<Endpoint>emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(deduplicatedEndpoints));
+    }
+
+    /**
+     * Check if a request may be executed more than once.
+     *
+     * @param method   The HTTP method.
+     * @param endpoint The resolved endpoint, or null if the request did not match a known endpoint.
+     * @return True if the request may be retried.
+     */
+    public boolean isRetryable(final String method, final Endpoint endpoint) {
+        if (endpoint != null) {
+            return endpoint.isIdempotent() || deduplicatedEndpoints.contains(endpoint);
+        }
+
+        // Unknown endpoints fall back to the idempotency HTTP itself defines
+        return "GET".equals(method) || "PUT".equals(method) || "DELETE".equals(method);
+    }
+
+    /**
+     * Check if a response status code indicates a failure that may succeed if tried again. Override this method to
+     * change which statuses are retried.
+     *
+     * @param statusCode The HTTP status code.
+     * @return True if the status is transient.
+     */
+    public boolean isTransientStatus(final int statusCode) {
+        return TransientFailures.isTransientStatus(statusCode);
+    }
+
+    /**
+     * Check if a failure may succeed if tried again. Override this method to change which failures are retried.
+     *
+     * @param throwable The failure.
+     * @return True if the failure is transient.
+     */
+    public boolean isTransient(final Throwable throwable) {
+        return TransientFailures.isTransient(throwable);
+    }
+
+    /**
+     * Compute how long to wait before the given retry, using exponential backoff with full jitter.
+     *
+     * @param retry The retry about to be made, starting at 1.
+     * @return The delay in milliseconds, between 0 and the backoff ceiling for this retry.
+     */
+    public long computeDelayMillis(final int retry) {
+        final int shift = Math.min(Math.max(retry - 1, 0), 30);
+        final long ceiling = baseDelayMillis > (maxDelayMillis >> shift) ? maxDelayMillis : baseDelayMillis << shift;
+
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public Set<Endpoint> getDeduplicatedEndpoints() {
+        return deduplicatedEndpoints;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.retry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters kept by a {@link RetryingRestClient}, which can be polled to tune a {@link RetryPolicy} and {@link
+ * RetryBudget} under load. All counters are cumulative from when the client was constructed.
+ */
+public class RetryStatistics {
+    /**
+     * Requests executed, not counting retries.
+     */
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * Retries executed.
+     */
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * Requests that failed at least once, but then succeeded on a retry.
+     */
+    private final LongAdder recovered = new LongAdder();
+
+    /**
+     * Requests that failed on every attempt the {@link RetryPolicy} allowed.
+     */
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * Retries that were not made because the {@link RetryBudget} was depleted.
+     */
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * Transient failures that were not retried because the endpoint is not safe to retry.
+     */
+    private final LongAdder notRetryable = new LongAdder();
+
+    /**
+     * Retries that were not made because they would not have finished before the {@link
+     * com.github.alexdlaird.component.rest.Deadline Deadline}.
+     */
+    private final LongAdder deadlineExceeded = new LongAdder();
+
+    void recordRequest() {
+        requests.increment();
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordRecovered() {
+        recovered.increment();
+    }
+
+    void recordExhausted() {
+        exhausted.increment();
+    }
+
+    void recordThrottled() {
+        throttled.increment();
+    }
+
+    void recordNotRetryable() {
+        notRetryable.increment();
+    }
+
+    void recordDeadlineExceeded() {
+        deadlineExceeded.increment();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getRecovered() {
+        return recovered.sum();
+    }
+
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    public long getNotRetryable() {
+        return notRetryable.sum();
+    }
+
+    public long getDeadlineExceeded() {
+        return deadlineExceeded.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryStatistics{requests=" + getRequests() +
+                ", retries=" + getRetries() +
+                ", recovered=" + getRecovered() +
+                ", exhausted=" + getExhausted() +
+                ", throttled=" + getThrottled() +
+                ", notRetryable=" + getNotRetryable() +
+                ", deadlineExceeded=" + getDeadlineExceeded() + "}";
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.retry;
+
+import com.github.alexdlaird.component.jfr.FlightEvent;
+import com.github.alexdlaird.component.jfr.FlightEventType;
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Deadline;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link RestClient} that wraps another and retries requests that fail transiently. <p> Which requests are retried,
+ * and how long to wait between attempts, is decided by the {@link RetryPolicy}. Every attempt is also reported to a
+ * {@link RetryBudget}, which may be shared between clients, and which stops retries altogether when the API is failing
+ * more than it is succeeding. <p> If a {@link Deadline} is entered on the calling thread, a retry is not attempted if
+ * its delay would outlast the deadline.
+ */
+public class RetryingRestClient implements RestClient {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(RetryingRestClient.class));
+
+    /**
+     * The client requests are delegated to.
+     */
+    private final RestClient restClient;
+
+    /**
+     * Decides what is retried and when.
+     */
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * Limits retries across all requests.
+     */
+    private final RetryBudget retryBudget;
+
+    /**
+     * Counters for this client.
+     */
+    private final RetryStatistics retryStatistics = new RetryStatistics();
+
+    /**
+     * Construct a retrying client with the default {@link RetryPolicy} and its own {@link RetryBudget}.
+     *
+     * @param restClient The client requests are delegated to.
+     */
+    public RetryingRestClient(final RestClient restClient) {
+        this(restClient, new RetryPolicy(), new RetryBudget());
+    }
+
+    /**
+     * Construct a retrying client.
+     *
+     * @param restClient  The client requests are delegated to.
+     * @param retryPolicy Decides what is retried and when.
+     * @param retryBudget Limits retries across all requests, and may be shared with other clients.
+     */
+    public RetryingRestClient(final RestClient restClient, final RetryPolicy retryPolicy,
+                              final RetryBudget retryBudget) {
+        assert restClient != null;
+        assert retryPolicy != null;
+        assert retryBudget != null;
+
+        this.restClient = restClient;
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = retryBudget;
+    }
+
+    @Override
+    public Response executeGet(final String url, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return execute("GET", url, additionalHeaders,
+                () -> restClient.executeGet(url, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                final Map<String, String> additionalHeaders) {
+        return execute("POST", url, additionalHeaders,
+                () -> restClient.executePost(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return execute("PUT", url, additionalHeaders,
+                () -> restClient.executePut(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executeDelete(final String url, final List<Parameter> parameters,
+                                  final Map<String, String> additionalHeaders) {
+        return execute("DELETE", url, additionalHeaders,
+                () -> restClient.executeDelete(url, parameters, additionalHeaders));
+    }
+
+    private Response execute(final String method, final String url, final Map<String, String> additionalHeaders,
+                             final Supplier<Response> request) {
+        final Endpoint endpoint = Endpoint.resolve(method, url, additionalHeaders);
+        final boolean retryable = retryPolicy.isRetryable(method, endpoint);
+
+        retryStatistics.recordRequest();
+
+        int attempt = 1;
+        while (true) {
+            final Response response;
+            try {
+                response = request.get();
+            } catch (RestClientException ex) {
+                if (!retryPolicy.isTransient(ex)) {
+                    throw ex;
+                }
+
+                retryBudget.onFailure();
+                final long delay = computeRetryDelay(retryable, attempt);
+                if (delay < 0) {
+                    throw ex;
+                }
+
+                LOGGER.log(Level.FINE, ex, () -> "Retrying " + method + " " + url + " after a transient failure");
+                backoff(delay, ex, endpoint, ex.getStatusCode() != null ? ex.getStatusCode() : 0, attempt);
+                ++attempt;
+                continue;
+            }
+
+            if (retryPolicy.isTransientStatus(response.getStatusCode())) {
+                retryBudget.onFailure();
+                final long delay = computeRetryDelay(retryable, attempt);
+                if (delay < 0) {
+                    return response;
+                }
+
+                LOGGER.log(Level.FINE, "Retrying {0} {1} after a {2} response",
+                        new Object[]{method, url, response.getStatusCode()});
+                backoff(delay, null, endpoint, response.getStatusCode(), attempt);
+                ++attempt;
+                continue;
+            }
+
+            retryBudget.onSuccess();
+            if (attempt > 1) {
+                retryStatistics.recordRecovered();
+            }
+
+            return response;
+        }
+    }
+
+    /**
+     * Decide if a failed attempt should be retried.
+     *
+     * @return The delay before the retry, or -1 if it should not be retried.
+     */
+    private long computeRetryDelay(final boolean retryable, final int attempt) {
+        if (!retryable) {
+            retryStatistics.recordNotRetryable();
+            return -1;
+        }
+        if (attempt >= retryPolicy.getMaxAttempts()) {
+            retryStatistics.recordExhausted();
+            return -1;
+        }
+        if (!retryBudget.isRetryPermitted()) {
+            retryStatistics.recordThrottled();
+            return -1;
+        }
+
+        final long delay = retryPolicy.computeDelayMillis(attempt);
+        final Deadline deadline = Deadline.current();
+        if (deadline != null && delay >= deadline.remaining(TimeUnit.MILLISECONDS)) {
+            retryStatistics.recordDeadlineExceeded();
+            return -1;
+        }
+
+        return delay;
+    }
+
+    private void backoff(final long delay, final RestClientException cause, final Endpoint endpoint,
+                         final int statusCode, final int attempt) {
+        retryStatistics.recordRetry();
+
+        final FlightEvent event = FlightEvent.begin(FlightEventType.RETRY);
+        try {
+            sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+
+            throw cause != null ? cause : new RestClientException("Interrupted while waiting to retry", ex);
+        } finally {
+            if (event != null) {
+                event.commit(endpoint, statusCode, attempt);
+            }
+        }
+    }
+
+    /**
+     * Override this method if you would like to change how the client waits between attempts.
+     *
+     * @param millis The number of milliseconds to wait.
+     * @throws InterruptedException The thread was interrupted while waiting.
+     */
+    protected void sleep(final long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public RetryStatistics getRetryStatistics() {
+        return retryStatistics;
+    }
+}
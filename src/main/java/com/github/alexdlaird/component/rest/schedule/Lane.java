@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.schedule;
+
+/**
+ * A class of traffic with its own queue in a {@link PriorityScheduler}. <p> Requests are assigned a lane by {@link
+ * PrioritizingRestClient} based on their endpoint, but a lane can also be entered for every request made on the
+ * current thread, for instance around a nightly job: <pre>
+ * try (Lane.Scope ignored = Lane.BATCH.enter()) {
+ *     // Every call made here is scheduled as batch work
+ * }
+ * </pre>
+ */
+public enum Lane {
+    /**
+     * Work a user is waiting on, such as loading accounts or answering MFA. This lane has reserved capacity.
+     */
+    INTERACTIVE,
+    /**
+     * Background work, such as refreshing accounts or backfilling transactions.
+     */
+    BATCH;
+
+    /**
+     * The lane entered on each thread.
+     */
+    private static final ThreadLocal<Lane> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The lane entered on the current thread.
+     *
+     * @return The lane, or null if none is entered.
+     */
+    public static Lane current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Schedule every request made on the current thread in this lane until the returned scope is closed.
+     *
+     * @return The scope, which must be closed on the same thread.
+     */
+    public Scope enter() {
+        final Lane previous = CURRENT.get();
+        CURRENT.set(this);
+
+        return new Scope(previous);
+    }
+
+    /**
+     * A lane entered on the current thread.
+     */
+    public static class Scope implements AutoCloseable {
+        /**
+         * The lane entered before this one, which is restored on close.
+         */
+        private final Lane previous;
+
+        private Scope(final Lane previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.schedule;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters kept by a {@link PriorityScheduler} for one {@link Lane}. Queue depth and requests in flight are current
+ * values; all other counters are cumulative from when the scheduler was constructed.
+ */
+public class LaneStatistics {
+    /**
+     * Requests submitted to the lane.
+     */
+    private final LongAdder submitted = new LongAdder();
+
+    /**
+     * Requests rejected because the lane's queue was full or they waited too long.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Requests granted a slot, whether immediately or after waiting.
+     */
+    private final LongAdder granted = new LongAdder();
+
+    /**
+     * Total time granted requests spent waiting.
+     */
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    /**
+     * Longest time a granted request spent waiting.
+     */
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Requests currently waiting in the lane.
+     */
+    private volatile int queueDepth;
+
+    /**
+     * Requests from the lane currently in flight.
+     */
+    private volatile int inFlight;
+
+    void recordSubmitted() {
+        submitted.increment();
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordGranted(final long waitNanos) {
+        granted.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+    }
+
+    void setQueueDepth(final int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    void setInFlight(final int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getGranted() {
+        return granted.sum();
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * The average time granted requests spent waiting for a slot.
+     *
+     * @return The average wait in milliseconds.
+     */
+    public double getAverageWaitMillis() {
+        final long count = granted.sum();
+
+        return count > 0 ? (double) totalWaitNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+    }
+
+    /**
+     * The longest time a granted request spent waiting for a slot.
+     *
+     * @return The longest wait in milliseconds.
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "LaneStatistics{submitted=" + getSubmitted() +
+                ", rejected=" + getRejected() +
+                ", granted=" + getGranted() +
+                ", queueDepth=" + getQueueDepth() +
+                ", inFlight=" + getInFlight() +
+                ", averageWaitMillis=" + getAverageWaitMillis() +
+                ", maxWaitMillis=" + getMaxWaitMillis() + "}";
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.schedule;
+
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A {@link RestClient} that wraps another and schedules each request in a {@link Lane} of a {@link PriorityScheduler}.
+ * <p> A request uses the lane entered on the calling thread, if any. Otherwise, refreshing all of a customer's accounts
+ * and listing transactions are scheduled as {@link Lane#BATCH}, and everything else as {@link Lane#INTERACTIVE}.
+ */
+public class PrioritizingRestClient implements RestClient {
+    /**
+     * Endpoints scheduled as batch work when no lane is entered.
+     */
+    private static final Set<Endpoint> BATCH_ENDPOINTS = EnumSet.of(Endpoint.REFRESH_ACCOUNTS,
+            Endpoint.GET_TRANSACTIONS, Endpoint.GET_ACCOUNT_TRANSACTIONS);
+
+    /**
+     * The client requests are delegated to.
+     */
+    private final RestClient restClient;
+
+    /**
+     * Shares slots between lanes.
+     */
+    private final PriorityScheduler priorityScheduler;
+
+    /**
+     * Construct a client with its own {@link PriorityScheduler} using the defaults.
+     *
+     * @param restClient The client requests are delegated to.
+     */
+    public PrioritizingRestClient(final RestClient restClient) {
+        this(restClient, new PriorityScheduler());
+    }
+
+    /**
+     * Construct a client.
+     *
+     * @param restClient        The client requests are delegated to.
+     * @param priorityScheduler Shares slots between lanes, and may be shared with other clients.
+     */
+    public PrioritizingRestClient(final RestClient restClient, final PriorityScheduler priorityScheduler) {
+        assert restClient != null;
+        assert priorityScheduler != null;
+
+        this.restClient = restClient;
+        this.priorityScheduler = priorityScheduler;
+    }
+
+    @Override
+    public Response executeGet(final String url, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return execute("GET", url, additionalHeaders,
+                () -> restClient.executeGet(url, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                final Map<String, String> additionalHeaders) {
+        return execute("POST", url, additionalHeaders,
+                () -> restClient.executePost(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                               final Map<String, String> additionalHeaders) {
+        return execute("PUT", url, additionalHeaders,
+                () -> restClient.executePut(url, body, parameters, additionalHeaders));
+    }
+
+    @Override
+    public Response executeDelete(final String url, final List<Parameter> parameters,
+                                  final Map<String, String> additionalHeaders) {
+        return execute("DELETE", url, additionalHeaders,
+                () -> restClient.executeDelete(url, parameters, additionalHeaders));
+    }
+
+    private Response execute(final String method, final String url, final Map<String, String> additionalHeaders,
+                             final Supplier<Response> request) {
+        final Lane current = Lane.current();
+        final Lane lane = current != null ? current : classify(Endpoint.resolve(method, url, additionalHeaders));
+
+        priorityScheduler.acquire(lane);
+        try {
+            return request.get();
+        } finally {
+            priorityScheduler.release(lane);
+        }
+    }
+
+    /**
+     * Override this method if you would like to change which lane requests are scheduled in when no lane is entered on
+     * the calling thread.
+     *
+     * @param endpoint The resolved endpoint, or null if the request did not match a known endpoint.
+     * @return The lane.
+     */
+    protected Lane classify(final Endpoint endpoint) {
+        return endpoint != null && BATCH_ENDPOINTS.contains(endpoint) ? Lane.BATCH : Lane.INTERACTIVE;
+    }
+
+    public PriorityScheduler getPriorityScheduler() {
+        return priorityScheduler;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.schedule;
+
+import com.github.alexdlaird.component.rest.Deadline;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares a fixed number of request slots between {@link Lane}s, so background work cannot starve work a user is
+ * waiting on. <p> Part of the capacity is reserved for {@link Lane#INTERACTIVE}, which {@link Lane#BATCH} can never
+ * use. When both lanes have requests waiting, free slots are handed out by weighted fair queuing: with weights of 4 and
+ * 1, interactive requests get four slots for every one batch request gets, and neither lane is ever starved. A lane that
+ * was idle starts level with the lanes that were busy, rather than catching up on the slots it did not use. <p>
+ * Requests wait for up to <code>maxWaitMillis</code> (or until the {@link Deadline} entered on the calling thread, if
+ * sooner), and are rejected with a {@link LaneRejectedException} if their lane's queue is full or they wait too long.
+ */
+public class PriorityScheduler {
+    /**
+     * Default number of requests in flight at once.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Default number of slots reserved for interactive requests.
+     */
+    public static final int DEFAULT_RESERVED_INTERACTIVE = 4;
+
+    /**
+     * Default weight of the interactive lane.
+     */
+    public static final int DEFAULT_INTERACTIVE_WEIGHT = 4;
+
+    /**
+     * Default weight of the batch lane.
+     */
+    public static final int DEFAULT_BATCH_WEIGHT = 1;
+
+    /**
+     * Default number of requests that may wait in each lane.
+     */
+    public static final int DEFAULT_MAX_QUEUED = 1000;
+
+    /**
+     * Default longest a request may wait for a slot.
+     */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 60000;
+
+    /**
+     * The most requests in flight at once.
+     */
+    private final int capacity;
+
+    /**
+     * Slots only interactive requests may use.
+     */
+    private final int reservedInteractive;
+
+    /**
+     * The most requests that may wait in each lane.
+     */
+    private final int maxQueued;
+
+    /**
+     * The longest a request may wait for a slot.
+     */
+    private final long maxWaitNanos;
+
+    /**
+     * Each lane's weight, indexed by ordinal.
+     */
+    private final int[] weights = new int[Lane.values().length];
+
+    /**
+     * Each lane's virtual time, which advances by the inverse of its weight for every slot it is granted, indexed by
+     * ordinal. The waiting lane with the lowest virtual time is served next.
+     */
+    private final double[] virtualTimes = new double[Lane.values().length];
+
+    /**
+     * Requests from each lane in flight, indexed by ordinal.
+     */
+    private final int[] inFlight = new int[Lane.values().length];
+
+    /**
+     * Each lane's waiting requests.
+     */
+    private final Map<Lane, ArrayDeque<Waiter>> queues = new EnumMap<>(Lane.class);
+
+    /**
+     * Each lane's counters.
+     */
+    private final Map<Lane, LaneStatistics> laneStatistics = new EnumMap<>(Lane.class);
+
+    /**
+     * Guards all scheduling state.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Requests in flight across all lanes.
+     */
+    private int totalInFlight;
+
+    /**
+     * Construct a scheduler with the default capacity, reservation and weights.
+     */
+    public PriorityScheduler() {
+        this(DEFAULT_CAPACITY, DEFAULT_RESERVED_INTERACTIVE, DEFAULT_INTERACTIVE_WEIGHT, DEFAULT_BATCH_WEIGHT,
+                DEFAULT_MAX_QUEUED, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Construct a scheduler.
+     *
+     * @param capacity            The most requests in flight at once.
+     * @param reservedInteractive Slots only interactive requests may use.
+     * @param interactiveWeight   The share of contended slots given to interactive requests.
+     * @param batchWeight         The share of contended slots given to batch requests.
+     * @param maxQueued           The most requests that may wait in each lane.
+     * @param maxWaitMillis       The longest a request may wait for a slot.
+     */
+    public PriorityScheduler(final int capacity, final int reservedInteractive, final int interactiveWeight,
+                             final int batchWeight, final int maxQueued, final long maxWaitMillis) {
+        assert capacity > 0;
+        assert reservedInteractive >= 0 && reservedInteractive < capacity;
+        assert interactiveWeight > 0;
+        assert batchWeight > 0;
+        assert maxQueued >= 0;
+        assert maxWaitMillis >= 0;
+
+        this.capacity = capacity;
+        this.reservedInteractive = reservedInteractive;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+
+        weights[Lane.INTERACTIVE.ordinal()] = interactiveWeight;
+        weights[Lane.BATCH.ordinal()] = batchWeight;
+
+        for (final Lane lane : Lane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            laneStatistics.put(lane, new LaneStatistics());
+        }
+    }
+
+    /**
+     * Acquire a slot for a request, waiting if necessary. Every successful call must be followed by a call to {@link
+     * #release(Lane)} for the same lane.
+     *
+     * @param lane The request's lane.
+     * @throws LaneRejectedException The lane's queue is full, or the request waited too long.
+     */
+    public void acquire(final Lane lane) {
+        final LaneStatistics statistics = laneStatistics.get(lane);
+        final ArrayDeque<Waiter> queue = queues.get(lane);
+
+        lock.lock();
+        try {
+            statistics.recordSubmitted();
+
+            if (queue.isEmpty() && hasCapacity(lane)) {
+                grant(lane, 0);
+                return;
+            }
+            if (queue.size() >= maxQueued) {
+                statistics.recordRejected();
+                throw new LaneRejectedException("The " + lane + " lane's queue is full, so this request was rejected");
+            }
+
+            long remaining = maxWaitNanos;
+            final Deadline deadline = Deadline.current();
+            if (deadline != null) {
+                remaining = Math.min(remaining, deadline.remaining(TimeUnit.NANOSECONDS));
+            }
+
+            if (queue.isEmpty()) {
+                activate(lane);
+            }
+            final Waiter waiter = new Waiter(lock.newCondition());
+            queue.addLast(waiter);
+            statistics.setQueueDepth(queue.size());
+
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        break;
+                    }
+
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (!waiter.granted) {
+                queue.remove(waiter);
+                statistics.setQueueDepth(queue.size());
+                statistics.recordRejected();
+
+                throw new LaneRejectedException("The " + lane + " lane did not get a slot in time, so this request was " +
+                        "rejected");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release a slot acquired with {@link #acquire(Lane)}, handing it to a waiting request if there is one.
+     *
+     * @param lane The lane the slot was acquired for.
+     */
+    public void release(final Lane lane) {
+        lock.lock();
+        try {
+            --totalInFlight;
+            laneStatistics.get(lane).setInFlight(--inFlight[lane.ordinal()]);
+
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasCapacity(final Lane lane) {
+        if (totalInFlight >= capacity) {
+            return false;
+        }
+
+        return lane == Lane.INTERACTIVE || inFlight[lane.ordinal()] < capacity - reservedInteractive;
+    }
+
+    /**
+     * Bring a lane that had no requests waiting level with the lanes that do, so it neither jumps ahead on slots it did
+     * not use while idle, nor falls behind for slots it was granted without contention.
+     */
+    private void activate(final Lane lane) {
+        double minimum = Double.MAX_VALUE;
+        for (final Lane other : Lane.values()) {
+            if (other != lane && !queues.get(other).isEmpty()) {
+                minimum = Math.min(minimum, virtualTimes[other.ordinal()]);
+            }
+        }
+
+        if (minimum != Double.MAX_VALUE) {
+            virtualTimes[lane.ordinal()] = minimum;
+        }
+    }
+
+    private void grant(final Lane lane, final long waitNanos) {
+        ++totalInFlight;
+        virtualTimes[lane.ordinal()] += 1.0 / weights[lane.ordinal()];
+
+        final LaneStatistics statistics = laneStatistics.get(lane);
+        statistics.setInFlight(++inFlight[lane.ordinal()]);
+        statistics.recordGranted(waitNanos);
+    }
+
+    private void dispatch() {
+        while (totalInFlight < capacity) {
+            Lane next = null;
+            for (final Lane lane : Lane.values()) {
+                if (!queues.get(lane).isEmpty() && hasCapacity(lane) &&
+                        (next == null || virtualTimes[lane.ordinal()] < virtualTimes[next.ordinal()])) {
+                    next = lane;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+
+            final ArrayDeque<Waiter> queue = queues.get(next);
+            final Waiter waiter = queue.pollFirst();
+            laneStatistics.get(next).setQueueDepth(queue.size());
+
+            grant(next, System.nanoTime() - waiter.enqueuedNanos);
+            waiter.granted = true;
+            waiter.condition.signal();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getReservedInteractive() {
+        return reservedInteractive;
+    }
+
+    public LaneStatistics getLaneStatistics(final Lane lane) {
+        return laneStatistics.get(lane);
+    }
+
+    /**
+     * A request waiting for a slot.
+     */
+    private static class Waiter {
+        /**
+         * Signalled when the request is granted a slot.
+         */
+        private final Condition condition;
+
+        /**
+         * When the request started waiting.
+         */
+        private final long enqueuedNanos = System.nanoTime();
+
+        /**
+         * True once the request has been granted a slot.
+         */
+        private boolean granted;
+
+        private Waiter(final Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * A request was rejected because its lane's queue was full or it waited too long for a slot.
+     */
+    public static class LaneRejectedException extends RestClient.RestClientException {
+        private static final long serialVersionUID = 1L;
+
+        public LaneRejectedException(final String msg) {
+            super(msg);
+        }
+    }
+}
@@ -24,6 +24,7 @@
 package com.github.alexdlaird.operation;
 
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.log.LogRedactor;
 import com.github.alexdlaird.component.rest.Response;
 import com.github.alexdlaird.component.rest.RestClient;
 import com.github.alexdlaird.type.account.Account;
@@ -67,13 +68,13 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
             if (response.getStatusCode() == 200) {
                 LOGGER.log(Level.FINE, "Parsing Account response");
 
-                return serializer.read(Accounts.class, response.getBody()).getAccounts();
+                return read(Accounts.class, response).getAccounts();
             } else if (response.getStatusCode() == 203) {
                 LOGGER.log(Level.FINE, "Parsing MFA Challenge response");
 
                 return serializeMfaChallenges(response);
             } else {
-                throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+                throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
             }
         } catch (Exception ex) {
             throw new AccountOperations.AccountOperationsException("An error occurred when parsing the accounts response.", ex);
@@ -81,9 +82,9 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
     }
 
     private List<? extends AccountResponse> serializeMfaChallenges(final Response response) throws Exception {
-        final List<MfaChallengeResponse> mfaChallengeResponses = serializer.read(MfaChallenges.class, response.getBody()).getMfaChallenges();
+        final List<MfaChallengeResponse> mfaChallengeResponses = read(MfaChallenges.class, response).getMfaChallenges();
         for (MfaChallengeResponse mfaChallengeResponse : mfaChallengeResponses) {
-            mfaChallengeResponse.setSession(response.getHeaderFields().get("MFA-Session").get(0));
+            mfaChallengeResponse.setSession(response.getHeader("MFA-Session"));
         }
         return mfaChallengeResponses;
     }
@@ -171,7 +172,7 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         try {
-            return serializer.read(Accounts.class, response.getBody()).getAccounts();
+            return read(Accounts.class, response).getAccounts();
         } catch (Exception ex) {
             throw new AccountOperations.AccountOperationsException("An error occurred when parsing the accounts response.", ex);
         }
@@ -220,7 +221,7 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         try {
-            return serializer.read(Accounts.class, response.getBody()).getAccounts();
+            return read(Accounts.class, response).getAccounts();
         } catch (Exception ex) {
             throw new AccountOperations.AccountOperationsException("An error occurred when parsing the accounts response.", ex);
         }
@@ -235,11 +236,11 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Accounts.class, response.getBody()).getAccounts();
+            return read(Accounts.class, response).getAccounts();
         } catch (Exception ex) {
             throw new AccountOperations.AccountOperationsException("An error occurred when parsing the accounts response.", ex);
         }
@@ -255,11 +256,11 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Accounts.class, response.getBody()).getAccounts();
+            return read(Accounts.class, response).getAccounts();
         } catch (Exception ex) {
             throw new AccountOperations.AccountOperationsException("An error occurred when parsing the accounts response.", ex);
         }
@@ -275,11 +276,11 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Account.class, response.getBody());
+            return read(Account.class, response);
         } catch (Exception ex) {
             throw new AccountOperations.AccountOperationsException("An error occurred when parsing the account response.", ex);
         }
@@ -297,7 +298,7 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         if (response.getStatusCode() != 204) {
-            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
     }
 
@@ -311,7 +312,7 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         if (response.getStatusCode() != 204) {
-            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
     }
 
@@ -325,11 +326,11 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(LoginForm.class, response.getBody());
+            return read(LoginForm.class, response);
         } catch (Exception ex) {
             throw new AccountOperations.AccountOperationsException("An error occurred when parsing the login form response.", ex);
         }
@@ -348,7 +349,7 @@ public class DefaultAccountOperations extends DefaultOperations implements Accou
                 null);
 
         if (response.getStatusCode() != 204) {
-            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new AccountOperations.AccountOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
     }
 }
@@ -25,6 +25,7 @@ package com.github.alexdlaird.operation;
 
 import com.github.alexdlaird.component.StringUtils;
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.log.LogRedactor;
 import com.github.alexdlaird.component.rest.Parameter;
 import com.github.alexdlaird.component.rest.Response;
 import com.github.alexdlaird.component.rest.RestClient;
@@ -75,11 +76,11 @@ public class DefaultCustomerOperations extends DefaultOperations implements Cust
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Customers.class, response.getBody()).getCustomers();
+            return read(Customers.class, response).getCustomers();
         } catch (Exception ex) {
             throw new CustomerOperations.CustomerOperationsException("An error occurred when parsing the customers response.", ex);
         }
@@ -94,11 +95,11 @@ public class DefaultCustomerOperations extends DefaultOperations implements Cust
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Customer.class, response.getBody());
+            return read(Customer.class, response);
         } catch (Exception ex) {
             throw new CustomerOperations.CustomerOperationsException("An error occurred when parsing the customer response.", ex);
         }
@@ -114,11 +115,11 @@ public class DefaultCustomerOperations extends DefaultOperations implements Cust
                 null);
 
         if (response.getStatusCode() != 201) {
-            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Customer.class, response.getBody());
+            return read(Customer.class, response);
         } catch (Exception ex) {
             throw new CustomerOperations.CustomerOperationsException("An error occurred when parsing the customer response.", ex);
         }
@@ -134,11 +135,11 @@ public class DefaultCustomerOperations extends DefaultOperations implements Cust
                 null);
 
         if (response.getStatusCode() != 201) {
-            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Customer.class, response.getBody());
+            return read(Customer.class, response);
         } catch (Exception ex) {
             throw new CustomerOperations.CustomerOperationsException("An error occurred when parsing the customer response.", ex);
         }
@@ -154,7 +155,7 @@ public class DefaultCustomerOperations extends DefaultOperations implements Cust
                 null);
 
         if (response.getStatusCode() != 204) {
-            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
     }
 
@@ -167,7 +168,7 @@ public class DefaultCustomerOperations extends DefaultOperations implements Cust
                 null);
 
         if (response.getStatusCode() != 204) {
-            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new CustomerOperations.CustomerOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
     }
 }
@@ -25,12 +25,14 @@ package com.github.alexdlaird.operation;
 
 import com.github.alexdlaird.component.StringUtils;
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.log.LogRedactor;
 import com.github.alexdlaird.component.rest.Parameter;
 import com.github.alexdlaird.component.rest.Response;
 import com.github.alexdlaird.component.rest.RestClient;
 import com.github.alexdlaird.type.institution.Institution;
 import com.github.alexdlaird.type.institution.InstitutionDetails;
 import com.github.alexdlaird.type.institution.Institutions;
+import com.github.alexdlaird.type.institution.LoginField;
 import com.github.alexdlaird.type.institution.LoginForm;
 
 import java.util.ArrayList;
@@ -69,11 +71,13 @@ public class DefaultInstitutionOperations extends DefaultOperations implements I
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new InstitutionOperations.InstitutionOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new InstitutionOperations.InstitutionOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Institutions.class, response.getBody()).getInstitutions();
+            final List<Institution> institutions = read(Institutions.class, response).getInstitutions();
+
+            return institutions != null ? new ArrayList<>(institutions) : null;
         } catch (Exception ex) {
             throw new InstitutionOperations.InstitutionOperationsException("An error occurred when parsing the institutions response.", ex);
         }
@@ -88,11 +92,11 @@ public class DefaultInstitutionOperations extends DefaultOperations implements I
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new InstitutionOperations.InstitutionOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new InstitutionOperations.InstitutionOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Institution.class, response.getBody());
+            return read(Institution.class, response);
         } catch (Exception ex) {
             throw new InstitutionOperations.InstitutionOperationsException("An error occurred when parsing the institution response.", ex);
         }
@@ -107,11 +111,13 @@ public class DefaultInstitutionOperations extends DefaultOperations implements I
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new InstitutionOperations.InstitutionOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new InstitutionOperations.InstitutionOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(InstitutionDetails.class, response.getBody());
+            final InstitutionDetails institutionDetails = read(InstitutionDetails.class, response);
+
+            return new InstitutionDetails(institutionDetails.getInstitution(), copy(institutionDetails.getLoginForm()));
         } catch (Exception ex) {
             throw new InstitutionOperations.InstitutionOperationsException("An error occurred when parsing the institution response.", ex);
         }
@@ -126,13 +132,32 @@ public class DefaultInstitutionOperations extends DefaultOperations implements I
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new InstitutionOperations.InstitutionOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new InstitutionOperations.InstitutionOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(LoginForm.class, response.getBody());
+            return copy(read(LoginForm.class, response));
         } catch (Exception ex) {
             throw new InstitutionOperations.InstitutionOperationsException("An error occurred when parsing the institution response.", ex);
         }
     }
+
+    /**
+     * Copy a login form, so the caller may fill in its values without changing a decoded response that is reused from
+     * a {@link com.github.alexdlaird.component.rest.ResponseCache}.
+     */
+    private static LoginForm copy(final LoginForm loginForm) {
+        if (loginForm == null || loginForm.getLoginField() == null) {
+            return loginForm;
+        }
+
+        final List<LoginField> loginFields = new ArrayList<>(loginForm.getLoginField().size());
+        for (LoginField loginField : loginForm.getLoginField()) {
+            loginFields.add(new LoginField(loginField.getId(), loginField.getName(), loginField.getValue(),
+                    loginField.getDisplayOrder(), loginField.isMask(), loginField.getDescription(),
+                    loginField.getInstructions(), loginField.getValueLengthMin(), loginField.getValueLengthMax()));
+        }
+
+        return new LoginForm(loginFields);
+    }
 }
@@ -25,7 +25,11 @@ package com.github.alexdlaird.operation;
 
 import com.github.alexdlaird.component.FinicityPersister;
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.jfr.FlightEvent;
+import com.github.alexdlaird.component.jfr.FlightEventType;
+import com.github.alexdlaird.component.rest.Response;
 import com.github.alexdlaird.component.rest.RestClient;
+import com.github.alexdlaird.component.rest.metrics.RequestMetrics;
 
 import org.simpleframework.xml.Serializer;
 
@@ -50,6 +54,11 @@ abstract class DefaultOperations {
      */
     private Token token;
 
+    /**
+     * Where the time spent decoding responses is recorded, or null.
+     */
+    private volatile RequestMetrics requestMetrics;
+
     /**
      * Construct a default {@link com.github.alexdlaird.operation operations} instance.
      *
@@ -75,6 +84,59 @@ abstract class DefaultOperations {
         this.token = token;
     }
 
+    /**
+     * Set where the time spent decoding each response is recorded.
+     *
+     * @param requestMetrics Where decoding is measured, or null to stop measuring.
+     */
+    public void setRequestMetrics(final RequestMetrics requestMetrics) {
+        this.requestMetrics = requestMetrics;
+    }
+
+    /**
+     * Decode the body of a response, recording the time it took. A response that was already decoded to the same type,
+     * such as one served again from a {@link com.github.alexdlaird.component.rest.ResponseCache}, is not decoded again.
+     *
+     * @param type     The type to decode.
+     * @param response The response.
+     * @param <T>      The type to decode.
+     * @return The decoded body.
+     * @throws Exception The body could not be decoded.
+     */
+    protected <T> T read(final Class<? extends T> type, final Response response) throws Exception {
+        final T decoded = response.getDecoded(type);
+        if (decoded != null) {
+            return decoded;
+        }
+
+        final FlightEvent event = FlightEvent.begin(FlightEventType.DECODE);
+        final long start = System.nanoTime();
+        try {
+            final T read = serializer.read(type, response.getBody());
+            response.setDecoded(read);
+
+            return read;
+        } finally {
+            recordDecode(response, System.nanoTime() - start);
+            if (event != null) {
+                event.commit(response.getEndpoint(), response.getStatusCode());
+            }
+        }
+    }
+
+    /**
+     * Record the time spent decoding a response that was not decoded by {@link #read(Class, Response)}.
+     *
+     * @param response    The response.
+     * @param decodeNanos The time spent decoding it.
+     */
+    protected void recordDecode(final Response response, final long decodeNanos) {
+        final RequestMetrics requestMetrics = this.requestMetrics;
+        if (requestMetrics != null) {
+            requestMetrics.recordDecode(response.getEndpoint(), decodeNanos);
+        }
+    }
+
     /**
      * Override this method if you would like to implement a custom {@link Serializer}. If so, it is recommended you
      * extend {@link FinicityPersister}, as that properly handles Finicity enums.
@@ -24,6 +24,7 @@
 package com.github.alexdlaird.operation;
 
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.log.LogRedactor;
 import com.github.alexdlaird.component.rest.Response;
 import com.github.alexdlaird.component.rest.RestClient;
 import com.github.alexdlaird.type.partner.Credentials;
@@ -79,11 +80,11 @@ public class DefaultPartnerOperations extends DefaultOperations implements Partn
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new PartnerOperations.PartnerOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new PartnerOperations.PartnerOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(PartnerAccess.class, response.getBody());
+            return read(PartnerAccess.class, response);
         } catch (Exception ex) {
             throw new PartnerOperations.PartnerOperationsException("An error occurred when parsing the authentication response.", ex);
         }
@@ -99,7 +100,7 @@ public class DefaultPartnerOperations extends DefaultOperations implements Partn
                 null);
 
         if (response.getStatusCode() != 204) {
-            throw new PartnerOperations.PartnerOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new PartnerOperations.PartnerOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
     }
 }
@@ -23,12 +23,18 @@
 
 package com.github.alexdlaird.operation;
 
+import com.github.alexdlaird.component.StringPool;
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.jfr.FlightEvent;
+import com.github.alexdlaird.component.jfr.FlightEventType;
+import com.github.alexdlaird.component.log.LogRedactor;
 import com.github.alexdlaird.component.rest.Parameter;
 import com.github.alexdlaird.component.rest.Response;
 import com.github.alexdlaird.component.rest.RestClient;
 import com.github.alexdlaird.type.Sort;
 import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionBatch;
+import com.github.alexdlaird.type.transaction.TransactionBatchDecoder;
 import com.github.alexdlaird.type.transaction.Transactions;
 
 import java.util.ArrayList;
@@ -38,6 +44,11 @@ import java.util.List;
  * Default implementation of {@link TransactionOperations}.
  */
 public class DefaultTransactionOperations extends DefaultOperations implements TransactionOperations {
+    /**
+     * Decoder for parsing responses into a {@link TransactionBatch}.
+     */
+    private final TransactionBatchDecoder transactionBatchDecoder;
+
     /**
      * Construct a client for Transaction operations.
      *
@@ -47,6 +58,18 @@ public class DefaultTransactionOperations extends DefaultOperations implements T
      */
     public DefaultTransactionOperations(final RestClient restClient, final String appKey, final Token token) {
         super(restClient, appKey, token);
+
+        this.transactionBatchDecoder = createTransactionBatchDecoder();
+    }
+
+    /**
+     * Override this method if you would like to implement a custom {@link TransactionBatchDecoder}. By default,
+     * repetitive values are deduplicated through a {@link StringPool} owned by this client.
+     *
+     * @return A {@link TransactionBatchDecoder} instance.
+     */
+    protected TransactionBatchDecoder createTransactionBatchDecoder() {
+        return new TransactionBatchDecoder(new StringPool());
     }
 
     @Override
@@ -57,32 +80,16 @@ public class DefaultTransactionOperations extends DefaultOperations implements T
         assert fromDate != null;
         assert toDate != null;
 
-        final List<Parameter> parameters = new ArrayList<>();
-        parameters.add(new Parameter("fromDate", fromDate.toString()));
-        parameters.add(new Parameter("toDate", toDate.toString()));
-        if (start != null) {
-            parameters.add(new Parameter("start", start.toString()));
-        }
-        if (limit != null) {
-            parameters.add(new Parameter("limit", limit.toString()));
-        }
-        if (sort != null) {
-            parameters.add(new Parameter("sort", sort.toString()));
-        }
-        if (includePending != null) {
-            parameters.add(new Parameter("includePending", includePending.toString()));
-        }
-
         final Response response = restClient.executeGet("/v2/customers/" + customerId + "/transactions",
-                parameters,
+                getTransactionsParameters(fromDate, toDate, start, limit, sort, includePending),
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new TransactionOperations.TransactionOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new TransactionOperations.TransactionOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Transactions.class, response.getBody()).getTransactions();
+            return read(Transactions.class, response).getTransactions();
         } catch (Exception ex) {
             throw new TransactionOperations.TransactionOperationsException("An error occurred when parsing the transactions response.", ex);
         }
@@ -98,6 +105,56 @@ public class DefaultTransactionOperations extends DefaultOperations implements T
         assert fromDate != null;
         assert toDate != null;
 
+        final Response response = restClient.executeGet("/v2/customers/" + customerId + "/accounts/" + accountId + "/transactions",
+                getTransactionsParameters(fromDate, toDate, start, limit, sort, includePending),
+                null);
+
+        if (response.getStatusCode() != 200) {
+            throw new TransactionOperations.TransactionOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
+        }
+
+        try {
+            return read(Transactions.class, response).getTransactions();
+        } catch (Exception ex) {
+            throw new TransactionOperations.TransactionOperationsException("An error occurred when parsing the transactions response.", ex);
+        }
+    }
+
+    @Override
+    public TransactionBatch getTransactionBatch(final String customerId, final Long fromDate, final Long toDate,
+                                                final Integer start, final Integer limit, final Sort sort,
+                                                final Boolean includePending) {
+        assert customerId != null;
+        assert fromDate != null;
+        assert toDate != null;
+
+        final Response response = restClient.executeGet("/v2/customers/" + customerId + "/transactions",
+                getTransactionsParameters(fromDate, toDate, start, limit, sort, includePending),
+                null);
+
+        return readTransactionBatch(response);
+    }
+
+    @Override
+    public TransactionBatch getAccountTransactionBatch(final String customerId, final String accountId,
+                                                       final Long fromDate, final Long toDate, final Integer start,
+                                                       final Integer limit, final Sort sort,
+                                                       final Boolean includePending) {
+        assert customerId != null;
+        assert accountId != null;
+        assert fromDate != null;
+        assert toDate != null;
+
+        final Response response = restClient.executeGet("/v2/customers/" + customerId + "/accounts/" + accountId + "/transactions",
+                getTransactionsParameters(fromDate, toDate, start, limit, sort, includePending),
+                null);
+
+        return readTransactionBatch(response);
+    }
+
+    private List<Parameter> getTransactionsParameters(final Long fromDate, final Long toDate, final Integer start,
+                                                      final Integer limit, final Sort sort,
+                                                      final Boolean includePending) {
         final List<Parameter> parameters = new ArrayList<>();
         parameters.add(new Parameter("fromDate", fromDate.toString()));
         parameters.add(new Parameter("toDate", toDate.toString()));
@@ -114,18 +171,28 @@ public class DefaultTransactionOperations extends DefaultOperations implements T
             parameters.add(new Parameter("includePending", includePending.toString()));
         }
 
-        final Response response = restClient.executeGet("/v2/customers/" + customerId + "/accounts/" + accountId + "/transactions",
-                parameters,
-                null);
+        return parameters;
+    }
 
+    private TransactionBatch readTransactionBatch(final Response response) {
         if (response.getStatusCode() != 200) {
-            throw new TransactionOperations.TransactionOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new TransactionOperations.TransactionOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
+        final FlightEvent event = FlightEvent.begin(FlightEventType.DECODE);
+        final long start = System.nanoTime();
         try {
-            return serializer.read(Transactions.class, response.getBody()).getTransactions();
+            final TransactionBatch transactionBatch = transactionBatchDecoder.decode(response.getBody());
+            transactionBatch.trimToSize();
+
+            return transactionBatch;
         } catch (Exception ex) {
             throw new TransactionOperations.TransactionOperationsException("An error occurred when parsing the transactions response.", ex);
+        } finally {
+            recordDecode(response, System.nanoTime() - start);
+            if (event != null) {
+                event.commit(response.getEndpoint(), response.getStatusCode());
+            }
         }
     }
 
@@ -139,11 +206,11 @@ public class DefaultTransactionOperations extends DefaultOperations implements T
                 null);
 
         if (response.getStatusCode() != 200) {
-            throw new TransactionOperations.TransactionOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new TransactionOperations.TransactionOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Transaction.class, response.getBody());
+            return read(Transaction.class, response);
         } catch (Exception ex) {
             throw new TransactionOperations.TransactionOperationsException("An error occurred when parsing the transaction response.", ex);
         }
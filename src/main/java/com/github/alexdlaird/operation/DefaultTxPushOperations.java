@@ -24,6 +24,7 @@
 package com.github.alexdlaird.operation;
 
 import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.log.LogRedactor;
 import com.github.alexdlaird.component.rest.Response;
 import com.github.alexdlaird.component.rest.RestClient;
 import com.github.alexdlaird.type.transaction.Transaction;
@@ -59,11 +60,11 @@ public class DefaultTxPushOperations extends DefaultOperations implements TxPush
                 null);
 
         if (response.getStatusCode() != 201) {
-            throw new TxPushOperations.TxPushOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new TxPushOperations.TxPushOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Subscriptions.class, response.getBody()).getSubscriptions();
+            return read(Subscriptions.class, response).getSubscriptions();
         } catch (Exception ex) {
             throw new TransactionOperations.TransactionOperationsException("An error occurred when parsing the subscriptions response.", ex);
         }
@@ -79,7 +80,7 @@ public class DefaultTxPushOperations extends DefaultOperations implements TxPush
                 null);
 
         if (response.getStatusCode() != 204) {
-            throw new TxPushOperations.TxPushOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new TxPushOperations.TxPushOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
     }
 
@@ -93,7 +94,7 @@ public class DefaultTxPushOperations extends DefaultOperations implements TxPush
                 null);
 
         if (response.getStatusCode() != 204) {
-            throw new TxPushOperations.TxPushOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new TxPushOperations.TxPushOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
     }
 
@@ -109,11 +110,11 @@ public class DefaultTxPushOperations extends DefaultOperations implements TxPush
                 null);
 
         if (response.getStatusCode() != 201) {
-            throw new TxPushOperations.TxPushOperationsException("Invalid response: " + response.getStatusCode() + ", " + response.getBody());
+            throw new TxPushOperations.TxPushOperationsException("Invalid response: " + response.getStatusCode() + ", " + LogRedactor.abbreviate(response.getBody()));
         }
 
         try {
-            return serializer.read(Transaction.class, response.getBody());
+            return read(Transaction.class, response);
         } catch (Exception ex) {
             throw new TransactionOperations.TransactionOperationsException("An error occurred when parsing the transaction response.", ex);
         }
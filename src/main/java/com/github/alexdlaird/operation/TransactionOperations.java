@@ -26,7 +26,9 @@ package com.github.alexdlaird.operation;
 import com.github.alexdlaird.exception.FinicityException;
 import com.github.alexdlaird.type.Sort;
 import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionBatch;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -72,6 +74,55 @@ public interface TransactionOperations {
      */
     List<Transaction> getAccountTransactions(String customerId, String accountId, Long fromDate, Long toDate, Integer start, Integer limit, Sort sort, Boolean includePending);
 
+    /**
+     * Get all transactions available for this customer within the given date range, across all accounts, decoded
+     * straight into a compact {@link TransactionBatch}. This is otherwise the same as {@link #getTransactions}, and is
+     * better suited to holding large numbers of transactions in memory. By default, the page is fetched with {@link
+     * #getTransactions} and copied into a batch; implementations that can decode into a batch directly should override
+     * this. <p> Success: HTTP 200 (OK)
+     *
+     * @param customerId     (required) ID of the customer
+     * @param fromDate       (required) Query: Starting point for the date range
+     * @param toDate         (required) Query: Ending point for the date range (maximum range is 190 days)
+     * @param start          Query: Starting index for this page of results (default is 1)
+     * @param limit          Query: Maximum number of entries for this page of results (default and max is 1000)
+     * @param sort           Query: Sort order: desc or asc. Default is desc for descending order (newest transactions
+     *                       are on page 1); also allows asc for ascending order (oldest transactions are on page 1).
+     * @param includePending Query: 'true' to include pending transactions
+     * @return A batch of transactions matching the query.
+     * @throws FinicityException An error occurred when interaction with the API
+     */
+    default TransactionBatch getTransactionBatch(String customerId, Long fromDate, Long toDate, Integer start, Integer limit, Sort sort, Boolean includePending) {
+        final List<Transaction> transactions = getTransactions(customerId, fromDate, toDate, start, limit, sort, includePending);
+
+        return TransactionBatch.of(transactions != null ? transactions : Collections.emptyList());
+    }
+
+    /**
+     * Get all transactions available for this customer account within the given date range, decoded straight into a
+     * compact {@link TransactionBatch}. This is otherwise the same as {@link #getAccountTransactions}, and is better
+     * suited to holding large numbers of transactions in memory. By default, the page is fetched with {@link
+     * #getAccountTransactions} and copied into a batch; implementations that can decode into a batch directly should
+     * override this. <p> Success: HTTP 200 (OK)
+     *
+     * @param customerId     (required) ID of the customer
+     * @param accountId      (required) ID of the account
+     * @param fromDate       (required) Query: Starting point for the date range
+     * @param toDate         (required) Query: Ending point for the date range (maximum range is 190 days)
+     * @param start          Query: Starting index for this page of results (default is 1)
+     * @param limit          Query: Maximum number of entries for this page of results (default and max is 1000)
+     * @param sort           Query: Sort order: desc or asc. Default is desc for descending order (newest transactions
+     *                       are on page 1); also allows asc for ascending order (oldest transactions are on page 1).
+     * @param includePending Query: 'true' to include pending transactions
+     * @return A batch of transactions matching the query.
+     * @throws FinicityException An error occurred when interaction with the API
+     */
+    default TransactionBatch getAccountTransactionBatch(String customerId, String accountId, Long fromDate, Long toDate, Integer start, Integer limit, Sort sort, Boolean includePending) {
+        final List<Transaction> transactions = getAccountTransactions(customerId, accountId, fromDate, toDate, start, limit, sort, includePending);
+
+        return TransactionBatch.of(transactions != null ? transactions : Collections.emptyList());
+    }
+
     /**
      * Get details for the specified transaction. See <a href="https://finicity.zendesk.com/hc/en-us/articles/201703569-Handling-Dates-and-Times">Handling
      * Dates and Times</a> to understand how timestamps are used in this API. <p> Success: HTTP 200 (OK)
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.store;
+
+import com.github.alexdlaird.type.transaction.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The segments, index and coverage of one account in a {@link TransactionStore}. <p> Records are appended to the last
+ * segment until it would exceed the segment size, then a new segment is started. Every record is listed in an in-memory
+ * index sorted by date, which is rebuilt on open by reading only each record's header from the mapped segments; a
+ * record left incomplete by a crash is truncated.
+ */
+final class AccountLog implements Closeable {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(AccountLog.class));
+
+    /**
+     * The directory the account's files are kept in.
+     */
+    private final Path directory;
+
+    /**
+     * The prefix of the account's file names.
+     */
+    private final String prefix;
+
+    /**
+     * The size at which a new segment is started.
+     */
+    private final int segmentBytes;
+
+    /**
+     * The account's segments, oldest first.
+     */
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * The ranges that have been fetched in full.
+     */
+    private final CoveredRanges coveredRanges = new CoveredRanges();
+
+    /**
+     * Each record's indexed date, in ascending order.
+     */
+    private long[] dates = new long[64];
+
+    /**
+     * Each record's segment, in the high 32 bits, and offset within it, in the low 32 bits, matching {@link #dates}.
+     */
+    private long[] locations = new long[64];
+
+    /**
+     * The number of records indexed.
+     */
+    private int size;
+
+    AccountLog(final Path directory, final String prefix, final int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentBytes = segmentBytes;
+
+        Files.createDirectories(directory);
+
+        final List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "-*.seg")) {
+            for (final Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+
+        for (final Path path : paths) {
+            final Segment segment = new Segment(path);
+            segments.add(segment);
+            indexSegment(segments.size() - 1, segment);
+        }
+
+        loadCoverage();
+    }
+
+    synchronized void append(final List<Transaction> transactions) throws IOException {
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        for (final Transaction transaction : transactions) {
+            final byte[] record = TransactionCodec.encode(transaction);
+            if (segment == null || (segment.size > 0 && segment.size + record.length > segmentBytes)) {
+                if (segment != null) {
+                    segment.channel.force(false);
+                }
+
+                segment = new Segment(directory.resolve(String.format("%s-%06d.seg", prefix, segments.size() + 1)));
+                segments.add(segment);
+            }
+
+            final int offset = segment.append(record);
+            index(TransactionCodec.getIndexedDate(transaction), segments.size() - 1, offset);
+        }
+
+        if (segment != null) {
+            segment.channel.force(false);
+        }
+    }
+
+    synchronized List<Transaction> query(final long fromDate, final long toDate) throws IOException {
+        final List<Transaction> transactions = new ArrayList<>();
+        for (int i = lowerBound(fromDate); i < size && dates[i] <= toDate; ++i) {
+            final Segment segment = segments.get((int) (locations[i] >>> 32));
+            transactions.add(TransactionCodec.decode(segment.map(), (int) locations[i]));
+        }
+
+        return transactions;
+    }
+
+    synchronized int count(final long fromDate, final long toDate) {
+        int i = lowerBound(fromDate);
+        final int first = i;
+        while (i < size && dates[i] <= toDate) {
+            ++i;
+        }
+
+        return i - first;
+    }
+
+    synchronized List<long[]> getUncovered(final long fromDate, final long toDate) {
+        return coveredRanges.getUncovered(fromDate, toDate);
+    }
+
+    synchronized void markCovered(final long fromDate, final long toDate) throws IOException {
+        coveredRanges.add(fromDate, toDate);
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < coveredRanges.size(); ++i) {
+            stringBuilder.append(coveredRanges.getStart(i)).append(',').append(coveredRanges.getEnd(i)).append('\n');
+        }
+
+        final Path path = directory.resolve(prefix + ".coverage");
+        final Path temporary = directory.resolve(prefix + ".coverage.tmp");
+        Files.write(temporary, stringBuilder.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (final Segment segment : segments) {
+            segment.channel.close();
+        }
+        segments.clear();
+        size = 0;
+    }
+
+    private void loadCoverage() throws IOException {
+        final Path path = directory.resolve(prefix + ".coverage");
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        for (final String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            final int comma = line.indexOf(',');
+            if (comma > 0) {
+                coveredRanges.add(Long.parseLong(line.substring(0, comma)), Long.parseLong(line.substring(comma + 1)));
+            }
+        }
+    }
+
+    private void indexSegment(final int segmentIndex, final Segment segment) throws IOException {
+        final ByteBuffer buffer = segment.map();
+
+        int offset = 0;
+        while (offset + TransactionCodec.HEADER_BYTES <= segment.size) {
+            final int length = buffer.getInt(offset);
+            if (length < TransactionCodec.HEADER_BYTES - 4 || offset + 4 + length > segment.size) {
+                break;
+            }
+
+            index(buffer.getLong(offset + 4), segmentIndex, offset);
+            offset += 4 + length;
+        }
+
+        if (offset < segment.size) {
+            LOGGER.log(Level.WARNING, "Truncating an incomplete record at {0} of {1}",
+                    new Object[]{offset, segment.path});
+
+            segment.truncate(offset);
+        }
+    }
+
+    private void index(final long date, final int segmentIndex, final int offset) {
+        if (size == dates.length) {
+            dates = Arrays.copyOf(dates, size * 2);
+            locations = Arrays.copyOf(locations, size * 2);
+        }
+
+        // Records usually arrive in date order, so this is almost always an append
+        int i = size;
+        if (i > 0 && dates[i - 1] > date) {
+            i = upperBound(date);
+            System.arraycopy(dates, i, dates, i + 1, size - i);
+            System.arraycopy(locations, i, locations, i + 1, size - i);
+        }
+
+        dates[i] = date;
+        locations[i] = ((long) segmentIndex << 32) | (offset & 0xFFFFFFFFL);
+        ++size;
+    }
+
+    private int lowerBound(final long date) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (dates[mid] < date) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private int upperBound(final long date) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (dates[mid] <= date) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * A segment file, which is appended to through its channel and read through a read-only mapping.
+     */
+    private static final class Segment {
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private int size;
+
+        private MappedByteBuffer mapped;
+
+        private Segment(final Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.size = (int) channel.size();
+        }
+
+        private int append(final byte[] record) throws IOException {
+            final int offset = size;
+
+            final ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            size += record.length;
+
+            return offset;
+        }
+
+        /**
+         * Map the segment, remapping it if it has grown since it was last mapped.
+         */
+        private ByteBuffer map() throws IOException {
+            if (mapped == null || mapped.capacity() < size) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            return mapped;
+        }
+
+        private void truncate(final int newSize) throws IOException {
+            channel.truncate(newSize);
+            size = newSize;
+            mapped = null;
+        }
+    }
+}
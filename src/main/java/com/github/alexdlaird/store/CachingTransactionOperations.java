@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.store;
+
+import com.github.alexdlaird.operation.TransactionOperations;
+import com.github.alexdlaird.type.Sort;
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionBatch;
+import com.github.alexdlaird.type.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TransactionOperations} that serves <code>getAccountTransactions</code> from a {@link TransactionStore}, and
+ * only asks Finicity for the date ranges the store does not yet cover. <p> Recent transactions may still change, so
+ * only ranges older than the settle window are stored; the settle window is always fetched from Finicity, which is
+ * also where pending transactions come from. Paging and sorting are applied to the combined result, as Finicity would
+ * apply them, and the combined result is kept briefly after the first page so that following pages of the same query
+ * are served from it instead of fetching and merging the range again. Other operations are passed straight through.
+ */
+public class CachingTransactionOperations implements TransactionOperations {
+    /**
+     * Default age after which transactions are assumed not to change.
+     */
+    public static final long DEFAULT_SETTLE_SECONDS = TimeUnit.DAYS.toSeconds(7);
+
+    /**
+     * The most transactions the API returns per page.
+     */
+    private static final int PAGE_LIMIT = 1000;
+
+    /**
+     * How long a combined result is kept for following pages of the same query.
+     */
+    private static final long MERGE_SECONDS = 60;
+
+    /**
+     * The most combined results kept for following pages at once.
+     */
+    private static final int MAX_MERGES = 64;
+
+    /**
+     * Operations uncovered ranges are fetched with.
+     */
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * Where fetched transactions are kept.
+     */
+    private final TransactionStore transactionStore;
+
+    /**
+     * Age after which transactions are assumed not to change.
+     */
+    private final long settleSeconds;
+
+    /**
+     * Locks uncovered ranges are fetched under, by customer and account ID.
+     */
+    private final Map<String, Object> fillLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Combined results of queries that still have pages left, keyed by query, in least-recently-used order.
+     */
+    private final Map<String, Merge> merges = new LinkedHashMap<String, Merge>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Merge> eldest) {
+            return size() > MAX_MERGES;
+        }
+    };
+
+    /**
+     * Construct operations with the default settle window.
+     *
+     * @param transactionOperations Operations uncovered ranges are fetched with.
+     * @param transactionStore      Where fetched transactions are kept.
+     */
+    public CachingTransactionOperations(final TransactionOperations transactionOperations,
+                                        final TransactionStore transactionStore) {
+        this(transactionOperations, transactionStore, DEFAULT_SETTLE_SECONDS);
+    }
+
+    /**
+     * Construct operations.
+     *
+     * @param transactionOperations Operations uncovered ranges are fetched with.
+     * @param transactionStore      Where fetched transactions are kept.
+     * @param settleSeconds         Age after which transactions are assumed not to change.
+     */
+    public CachingTransactionOperations(final TransactionOperations transactionOperations,
+                                        final TransactionStore transactionStore, final long settleSeconds) {
+        assert transactionOperations != null;
+        assert transactionStore != null;
+        assert settleSeconds >= 0;
+
+        this.transactionOperations = transactionOperations;
+        this.transactionStore = transactionStore;
+        this.settleSeconds = settleSeconds;
+    }
+
+    @Override
+    public List<Transaction> getTransactions(final String customerId, final Long fromDate, final Long toDate,
+                                             final Integer start, final Integer limit, final Sort sort,
+                                             final Boolean includePending) {
+        return transactionOperations.getTransactions(customerId, fromDate, toDate, start, limit, sort,
+                includePending);
+    }
+
+    @Override
+    public List<Transaction> getAccountTransactions(final String customerId, final String accountId,
+                                                    final Long fromDate, final Long toDate, final Integer start,
+                                                    final Integer limit, final Sort sort,
+                                                    final Boolean includePending) {
+        assert customerId != null;
+        assert accountId != null;
+        assert fromDate != null;
+        assert toDate != null;
+
+        final String key = customerId + "/" + accountId + "/" + fromDate + "/" + toDate + "/" + sort + "/" +
+                includePending;
+        final long now = currentTimeSeconds();
+        final int first = Math.max(start != null ? start : 1, 1) - 1;
+
+        Merge merge = null;
+        if (first > 0) {
+            synchronized (merges) {
+                merge = merges.get(key);
+            }
+        }
+        if (merge == null || now - merge.mergedAt > MERGE_SECONDS) {
+            merge = new Merge(merge(customerId, accountId, fromDate, toDate, sort, includePending, now), now);
+        }
+
+        final List<Transaction> sorted = merge.transactions;
+        final int last = Math.min(first + (limit != null ? limit : PAGE_LIMIT), sorted.size());
+
+        synchronized (merges) {
+            if (last < sorted.size()) {
+                merges.put(key, merge);
+            } else {
+                merges.remove(key);
+            }
+        }
+
+        return first < last ? new ArrayList<>(sorted.subList(first, last)) : Collections.<Transaction>emptyList();
+    }
+
+    @Override
+    public TransactionBatch getTransactionBatch(final String customerId, final Long fromDate, final Long toDate,
+                                                final Integer start, final Integer limit, final Sort sort,
+                                                final Boolean includePending) {
+        return transactionOperations.getTransactionBatch(customerId, fromDate, toDate, start, limit, sort,
+                includePending);
+    }
+
+    @Override
+    public TransactionBatch getAccountTransactionBatch(final String customerId, final String accountId,
+                                                       final Long fromDate, final Long toDate, final Integer start,
+                                                       final Integer limit, final Sort sort,
+                                                       final Boolean includePending) {
+        return TransactionBatch.of(getAccountTransactions(customerId, accountId, fromDate, toDate, start, limit, sort,
+                includePending));
+    }
+
+    @Override
+    public Transaction getTransaction(final String customerId, final String transactionId) {
+        return transactionOperations.getTransaction(customerId, transactionId);
+    }
+
+    private List<Transaction> merge(final String customerId, final String accountId, final long fromDate,
+                                    final long toDate, final Sort sort, final Boolean includePending, final long now) {
+        final long settledBefore = now - settleSeconds;
+        final Map<String, Transaction> transactions = new LinkedHashMap<>();
+
+        if (fromDate <= settledBefore) {
+            final long settledTo = Math.min(toDate, settledBefore);
+            // Only one query fills an account at a time, and coverage is checked under the lock, so a range missing for
+            // concurrent queries is fetched and appended once
+            synchronized (fillLocks.computeIfAbsent(customerId + "/" + accountId, key -> new Object())) {
+                for (final long[] range : transactionStore.getUncoveredRanges(customerId, accountId, fromDate,
+                        settledTo)) {
+                    final List<Transaction> fetched = new ArrayList<>();
+                    for (final Transaction transaction : fetchAll(customerId, accountId, range[0], range[1], false)) {
+                        if (transaction.getStatus() != TransactionStatus.PENDING) {
+                            fetched.add(transaction);
+                        }
+                    }
+
+                    transactionStore.append(customerId, accountId, fetched);
+                    transactionStore.markCovered(customerId, accountId, range[0], range[1]);
+                }
+            }
+
+            for (final Transaction transaction : transactionStore.query(customerId, accountId, fromDate, settledTo)) {
+                transactions.put(transaction.getId(), transaction);
+            }
+        }
+        if (toDate > settledBefore) {
+            for (final Transaction transaction : fetchAll(customerId, accountId, Math.max(fromDate, settledBefore + 1),
+                    toDate, includePending != null && includePending)) {
+                transactions.put(transaction.getId(), transaction);
+            }
+        }
+
+        final List<Transaction> sorted = new ArrayList<>(transactions.values());
+        final Comparator<Transaction> byDate = Comparator.comparingLong(CachingTransactionOperations::getSortDate);
+        sorted.sort(sort == Sort.ASC ? byDate : byDate.reversed());
+
+        return sorted;
+    }
+
+    private List<Transaction> fetchAll(final String customerId, final String accountId, final long fromDate,
+                                       final long toDate, final boolean includePending) {
+        final List<Transaction> transactions = new ArrayList<>();
+
+        int start = 1;
+        List<Transaction> page;
+        do {
+            page = transactionOperations.getAccountTransactions(customerId, accountId, fromDate, toDate, start,
+                    PAGE_LIMIT, Sort.ASC, includePending);
+            if (page == null) {
+                break;
+            }
+
+            transactions.addAll(page);
+            start += page.size();
+        } while (page.size() >= PAGE_LIMIT);
+
+        return transactions;
+    }
+
+    /**
+     * Finicity sorts by transaction date.
+     */
+    private static long getSortDate(final Transaction transaction) {
+        return transaction.getTransactionDate() != null ? transaction.getTransactionDate() :
+                TransactionCodec.getIndexedDate(transaction);
+    }
+
+    /**
+     * The combined, sorted result of a query, kept for its following pages.
+     */
+    private static class Merge {
+        /**
+         * The combined transactions, in the order they are paged through.
+         */
+        private final List<Transaction> transactions;
+
+        /**
+         * When the transactions were combined, in seconds since the epoch.
+         */
+        private final long mergedAt;
+
+        private Merge(final List<Transaction> transactions, final long mergedAt) {
+            this.transactions = transactions;
+            this.mergedAt = mergedAt;
+        }
+    }
+
+    /**
+     * Override this method if you would like to change the clock the settle window is measured with.
+     *
+     * @return The current time, in seconds since the epoch.
+     */
+    protected long currentTimeSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The date ranges of an account that have been fetched in full, kept as sorted, disjoint, inclusive ranges.
+ */
+final class CoveredRanges {
+    /**
+     * Range starts, in ascending order.
+     */
+    private final List<Long> starts = new ArrayList<>();
+
+    /**
+     * Range ends, matching {@link #starts}.
+     */
+    private final List<Long> ends = new ArrayList<>();
+
+    /**
+     * Mark a range as covered, merging it with any ranges it overlaps or touches.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to   The end of the range, inclusive.
+     */
+    void add(long from, long to) {
+        if (from > to) {
+            return;
+        }
+
+        int i = 0;
+        while (i < starts.size() && ends.get(i) < from - 1) {
+            ++i;
+        }
+        while (i < starts.size() && starts.get(i) <= to + 1) {
+            from = Math.min(from, starts.remove(i));
+            to = Math.max(to, ends.remove(i));
+        }
+
+        starts.add(i, from);
+        ends.add(i, to);
+    }
+
+    /**
+     * Find the parts of a range that are not covered.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to   The end of the range, inclusive.
+     * @return The uncovered ranges, in ascending order, each as a start and end.
+     */
+    List<long[]> getUncovered(final long from, final long to) {
+        final List<long[]> uncovered = new ArrayList<>();
+
+        long next = from;
+        for (int i = 0; i < starts.size() && next <= to; ++i) {
+            if (ends.get(i) < next) {
+                continue;
+            }
+            if (starts.get(i) > next) {
+                uncovered.add(new long[]{next, Math.min(starts.get(i) - 1, to)});
+            }
+            next = ends.get(i) + 1;
+        }
+        if (next <= to) {
+            uncovered.add(new long[]{next, to});
+        }
+
+        return uncovered;
+    }
+
+    int size() {
+        return starts.size();
+    }
+
+    long getStart(final int index) {
+        return starts.get(index);
+    }
+
+    long getEnd(final int index) {
+        return ends.get(index);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.store;
+
+import com.github.alexdlaird.type.transaction.Categorization;
+import com.github.alexdlaird.type.transaction.Subaccount;
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes {@link Transaction}s as the binary records kept in segment files. <p> Each record is its length, followed by
+ * the date it is indexed by, so a segment can be indexed, and a range scanned, without decoding anything else. Then
+ * come a bitmask of which numeric fields are present, the numeric fields that are, and every string, as a UTF-8 byte
+ * count (or -1 for null) and its bytes.
+ */
+final class TransactionCodec {
+    /**
+     * Bytes before a record's body: its length and its indexed date.
+     */
+    static final int HEADER_BYTES = 4 + 8;
+
+    private static final int POSTED_DATE = 1;
+    private static final int CREATED_DATE = 1 << 1;
+    private static final int TRANSACTION_DATE = 1 << 2;
+    private static final int AMOUNT = 1 << 3;
+    private static final int BONUS_AMOUNT = 1 << 4;
+    private static final int ESCROW_AMOUNT = 1 << 5;
+    private static final int FEE_AMOUNT = 1 << 6;
+    private static final int INTEREST_AMOUNT = 1 << 7;
+    private static final int PRINCIPAL_AMOUNT = 1 << 8;
+    private static final int UNIT_QUANTITY = 1 << 9;
+    private static final int UNIT_VALUE = 1 << 10;
+    private static final int STATUS = 1 << 11;
+    private static final int SUBACCOUNT = 1 << 12;
+    private static final int CATEGORIZATION = 1 << 13;
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private TransactionCodec() {
+    }
+
+    /**
+     * The date a transaction is indexed by: its posted date or, failing that, its transaction date.
+     *
+     * @param transaction The transaction.
+     * @return The date, in seconds since the epoch.
+     */
+    static long getIndexedDate(final Transaction transaction) {
+        if (transaction.getPostedDate() != null && transaction.getPostedDate() > 0) {
+            return transaction.getPostedDate();
+        }
+
+        return transaction.getTransactionDate() != null ? transaction.getTransactionDate() : 0;
+    }
+
+    /**
+     * Encode a transaction as a record, including its header.
+     *
+     * @param transaction The transaction.
+     * @return The record.
+     */
+    static byte[] encode(final Transaction transaction) {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream)) {
+            out.writeInt(0);
+            out.writeLong(getIndexedDate(transaction));
+
+            int flags = 0;
+            flags |= transaction.getPostedDate() != null ? POSTED_DATE : 0;
+            flags |= transaction.getCreatedDate() != null ? CREATED_DATE : 0;
+            flags |= transaction.getTransactionDate() != null ? TRANSACTION_DATE : 0;
+            flags |= transaction.getAmount() != null ? AMOUNT : 0;
+            flags |= transaction.getBonusAmount() != null ? BONUS_AMOUNT : 0;
+            flags |= transaction.getEscrowAmount() != null ? ESCROW_AMOUNT : 0;
+            flags |= transaction.getFeeAmount() != null ? FEE_AMOUNT : 0;
+            flags |= transaction.getInterestAmount() != null ? INTEREST_AMOUNT : 0;
+            flags |= transaction.getPrincipalAmount() != null ? PRINCIPAL_AMOUNT : 0;
+            flags |= transaction.getUnitQuantity() != null ? UNIT_QUANTITY : 0;
+            flags |= transaction.getUnitValue() != null ? UNIT_VALUE : 0;
+            flags |= transaction.getStatus() != null ? STATUS : 0;
+            flags |= transaction.getSubaccount() != null ? SUBACCOUNT : 0;
+            flags |= transaction.getCategorization() != null ? CATEGORIZATION : 0;
+            out.writeShort(flags);
+
+            writeLong(out, transaction.getPostedDate());
+            writeLong(out, transaction.getCreatedDate());
+            writeLong(out, transaction.getTransactionDate());
+            writeDouble(out, transaction.getAmount());
+            writeDouble(out, transaction.getBonusAmount());
+            writeDouble(out, transaction.getEscrowAmount());
+            writeDouble(out, transaction.getFeeAmount());
+            writeDouble(out, transaction.getInterestAmount());
+            writeDouble(out, transaction.getPrincipalAmount());
+            writeDouble(out, transaction.getUnitQuantity());
+            writeDouble(out, transaction.getUnitValue());
+            if (transaction.getStatus() != null) {
+                out.writeByte(transaction.getStatus().ordinal());
+            }
+
+            writeString(out, transaction.getAccountId());
+            writeString(out, transaction.getCheckNum());
+            writeString(out, transaction.getCustomerId());
+            writeString(out, transaction.getDescription());
+            writeString(out, transaction.getId());
+            writeString(out, transaction.getInstitutionTransactionId());
+            writeString(out, transaction.getMemo());
+            writeString(out, transaction.getType());
+            if (transaction.getSubaccount() != null) {
+                writeString(out, transaction.getSubaccount().getName());
+                writeString(out, transaction.getSubaccount().getNumber());
+            }
+            if (transaction.getCategorization() != null) {
+                writeString(out, transaction.getCategorization().getNormalizedPayeeName());
+                writeString(out, transaction.getCategorization().getCategory());
+                writeString(out, transaction.getCategorization().getScheduleC());
+                writeString(out, transaction.getCategorization().getSic());
+            }
+        } catch (IOException ex) {
+            // Writing to memory does not throw
+            throw new IllegalStateException(ex);
+        }
+
+        final byte[] record = byteArrayOutputStream.toByteArray();
+        ByteBuffer.wrap(record).putInt(0, record.length - 4);
+
+        return record;
+    }
+
+    /**
+     * Decode the record at the given offset of a buffer.
+     *
+     * @param buffer The buffer, which is not modified.
+     * @param offset The offset of the record's header.
+     * @return The transaction.
+     */
+    static Transaction decode(final ByteBuffer buffer, final int offset) {
+        final Cursor cursor = new Cursor(buffer, offset + HEADER_BYTES);
+        final int flags = cursor.readShort();
+
+        final Long postedDate = (flags & POSTED_DATE) != 0 ? cursor.readLong() : null;
+        final Long createdDate = (flags & CREATED_DATE) != 0 ? cursor.readLong() : null;
+        final Long transactionDate = (flags & TRANSACTION_DATE) != 0 ? cursor.readLong() : null;
+        final Double amount = (flags & AMOUNT) != 0 ? cursor.readDouble() : null;
+        final Double bonusAmount = (flags & BONUS_AMOUNT) != 0 ? cursor.readDouble() : null;
+        final Double escrowAmount = (flags & ESCROW_AMOUNT) != 0 ? cursor.readDouble() : null;
+        final Double feeAmount = (flags & FEE_AMOUNT) != 0 ? cursor.readDouble() : null;
+        final Double interestAmount = (flags & INTEREST_AMOUNT) != 0 ? cursor.readDouble() : null;
+        final Double principalAmount = (flags & PRINCIPAL_AMOUNT) != 0 ? cursor.readDouble() : null;
+        final Double unitQuantity = (flags & UNIT_QUANTITY) != 0 ? cursor.readDouble() : null;
+        final Double unitValue = (flags & UNIT_VALUE) != 0 ? cursor.readDouble() : null;
+        final TransactionStatus status = (flags & STATUS) != 0 ? STATUSES[cursor.readByte()] : null;
+
+        final String accountId = cursor.readString();
+        final String checkNum = cursor.readString();
+        final String customerId = cursor.readString();
+        final String description = cursor.readString();
+        final String id = cursor.readString();
+        final String institutionTransactionId = cursor.readString();
+        final String memo = cursor.readString();
+        final String type = cursor.readString();
+        final Subaccount subaccount = (flags & SUBACCOUNT) != 0 ?
+                new Subaccount(cursor.readString(), cursor.readString()) : null;
+        final Categorization categorization = (flags & CATEGORIZATION) != 0 ?
+                new Categorization(cursor.readString(), cursor.readString(), cursor.readString(), cursor.readString())
+                : null;
+
+        return new Transaction(accountId, amount, bonusAmount, checkNum, createdDate, customerId, description,
+                escrowAmount, feeAmount, id, institutionTransactionId, interestAmount, memo, postedDate,
+                principalAmount, status, subaccount, transactionDate, type, unitQuantity, unitValue, categorization);
+    }
+
+    private static void writeLong(final DataOutputStream out, final Long value) throws IOException {
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeDouble(final DataOutputStream out, final Double value) throws IOException {
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads fields from its own view of a buffer, so the shared buffer's position is never changed.
+     */
+    private static final class Cursor {
+        private final ByteBuffer buffer;
+
+        private Cursor(final ByteBuffer buffer, final int position) {
+            this.buffer = buffer.duplicate();
+            this.buffer.position(position);
+        }
+
+        private byte readByte() {
+            return buffer.get();
+        }
+
+        private int readShort() {
+            return buffer.getShort() & 0xFFFF;
+        }
+
+        private long readLong() {
+            return buffer.getLong();
+        }
+
+        private double readDouble() {
+            return buffer.getDouble();
+        }
+
+        private String readString() {
+            final int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
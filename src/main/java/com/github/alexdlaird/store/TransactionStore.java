@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.store;
+
+import com.github.alexdlaird.component.StringUtils;
+import com.github.alexdlaird.exception.FinicityException;
+import com.github.alexdlaird.type.transaction.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A local store of {@link Transaction}s, kept in compact binary segment files under a directory per customer, and
+ * indexed by customer, account and posted date. <p> Segments are memory-mapped for reading, so a range query reads only
+ * the index and the records in range. The store also records which date ranges of each account have been fetched in
+ * full, so {@link CachingTransactionOperations} only needs to fetch the rest. <p> Accounts are opened on first use and
+ * kept open until the store is closed. Each account may be used from many threads, but a directory must only be used
+ * by one store at a time.
+ */
+public class TransactionStore implements Closeable {
+    /**
+     * Default size at which a new segment is started.
+     */
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * The directory the store is kept in.
+     */
+    private final Path directory;
+
+    /**
+     * The size at which a new segment is started.
+     */
+    private final int segmentBytes;
+
+    /**
+     * Each open account, keyed by customer and account ID.
+     */
+    private final Map<String, AccountLog> accountLogs = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a store with the default segment size.
+     *
+     * @param directory The directory the store is kept in, which is created if it does not exist.
+     */
+    public TransactionStore(final Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Construct a store.
+     *
+     * @param directory    The directory the store is kept in, which is created if it does not exist.
+     * @param segmentBytes The size at which a new segment is started.
+     */
+    public TransactionStore(final Path directory, final int segmentBytes) {
+        assert directory != null;
+        assert segmentBytes > 0;
+
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Append transactions to an account. Appending does not mark any range as covered.
+     *
+     * @param customerId   ID of the customer.
+     * @param accountId    ID of the account.
+     * @param transactions The transactions.
+     */
+    public void append(final String customerId, final String accountId, final List<Transaction> transactions) {
+        try {
+            getAccountLog(customerId, accountId).append(transactions);
+        } catch (IOException ex) {
+            throw new TransactionStoreException("An error occurred when appending transactions.", ex);
+        }
+    }
+
+    /**
+     * Get the stored transactions of an account with an indexed date in the given range. A transaction is indexed by
+     * its posted date or, if it has none, its transaction date.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     * @param fromDate   The start of the range, inclusive, in seconds since the epoch.
+     * @param toDate     The end of the range, inclusive, in seconds since the epoch.
+     * @return The transactions, in ascending order of date.
+     */
+    public List<Transaction> query(final String customerId, final String accountId, final long fromDate,
+                                   final long toDate) {
+        try {
+            return getAccountLog(customerId, accountId).query(fromDate, toDate);
+        } catch (IOException ex) {
+            throw new TransactionStoreException("An error occurred when reading transactions.", ex);
+        }
+    }
+
+    /**
+     * Count the stored transactions of an account with an indexed date in the given range, without reading them.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     * @param fromDate   The start of the range, inclusive, in seconds since the epoch.
+     * @param toDate     The end of the range, inclusive, in seconds since the epoch.
+     * @return The number of transactions.
+     */
+    public int count(final String customerId, final String accountId, final long fromDate, final long toDate) {
+        return getAccountLog(customerId, accountId).count(fromDate, toDate);
+    }
+
+    /**
+     * Find the parts of a date range of an account that have not been fetched in full.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     * @param fromDate   The start of the range, inclusive, in seconds since the epoch.
+     * @param toDate     The end of the range, inclusive, in seconds since the epoch.
+     * @return The uncovered ranges, in ascending order, each as an inclusive start and end.
+     */
+    public List<long[]> getUncoveredRanges(final String customerId, final String accountId, final long fromDate,
+                                           final long toDate) {
+        return getAccountLog(customerId, accountId).getUncovered(fromDate, toDate);
+    }
+
+    /**
+     * Record that every transaction of an account in a date range has been appended.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     * @param fromDate   The start of the range, inclusive, in seconds since the epoch.
+     * @param toDate     The end of the range, inclusive, in seconds since the epoch.
+     */
+    public void markCovered(final String customerId, final String accountId, final long fromDate, final long toDate) {
+        try {
+            getAccountLog(customerId, accountId).markCovered(fromDate, toDate);
+        } catch (IOException ex) {
+            throw new TransactionStoreException("An error occurred when saving the covered ranges.", ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final AccountLog accountLog : accountLogs.values()) {
+            accountLog.close();
+        }
+        accountLogs.clear();
+    }
+
+    private AccountLog getAccountLog(final String customerId, final String accountId) {
+        assert customerId != null;
+        assert accountId != null;
+
+        return accountLogs.computeIfAbsent(customerId + "/" + accountId, key -> {
+            try {
+                return new AccountLog(directory.resolve(StringUtils.toFileName(customerId)),
+                        StringUtils.toFileName(accountId), segmentBytes);
+            } catch (IOException ex) {
+                throw new TransactionStoreException("An error occurred when opening the store for account " +
+                        accountId + ".", ex);
+            }
+        });
+    }
+
+    /**
+     * An error occurred when reading or writing the store.
+     */
+    public static class TransactionStoreException extends FinicityException {
+        private static final long serialVersionUID = 1L;
+
+        public TransactionStoreException(String msg, Exception cause) {
+            super(msg, cause);
+        }
+    }
+}
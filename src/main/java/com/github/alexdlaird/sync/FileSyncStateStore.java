@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import com.github.alexdlaird.component.FinicityPersister;
+import com.github.alexdlaird.component.StringUtils;
+
+import org.simpleframework.xml.Serializer;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A {@link SyncStateStore} that keeps the state of each account in its own XML file, under a directory per customer.
+ * Files are replaced atomically, so a crash while saving leaves the previous state intact.
+ */
+public class FileSyncStateStore implements SyncStateStore {
+    /**
+     * Serializer for reading and writing state.
+     */
+    private final Serializer serializer = new FinicityPersister();
+
+    /**
+     * The directory state is kept under.
+     */
+    private final Path directory;
+
+    /**
+     * Construct a store.
+     *
+     * @param directory The directory state is kept under, which is created if it does not exist.
+     */
+    public FileSyncStateStore(final Path directory) {
+        assert directory != null;
+
+        this.directory = directory;
+    }
+
+    @Override
+    public SyncState load(final String customerId, final String accountId) {
+        final File file = getPath(customerId, accountId).toFile();
+        if (!file.exists()) {
+            return null;
+        }
+
+        try {
+            return serializer.read(SyncState.class, file);
+        } catch (Exception ex) {
+            throw new SyncStateStoreException("An error occurred when loading the sync state from " + file, ex);
+        }
+    }
+
+    @Override
+    public void save(final String customerId, final String accountId, final SyncState syncState) {
+        final Path path = getPath(customerId, accountId);
+
+        try {
+            Files.createDirectories(path.getParent());
+
+            final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            serializer.write(syncState, temporary.toFile());
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception ex) {
+            throw new SyncStateStoreException("An error occurred when saving the sync state to " + path, ex);
+        }
+    }
+
+    private Path getPath(final String customerId, final String accountId) {
+        return directory.resolve(StringUtils.toFileName(customerId)).resolve(StringUtils.toFileName(accountId) +
+                ".xml");
+    }
+}
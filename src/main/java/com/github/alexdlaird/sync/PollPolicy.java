@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides when a {@link RefreshOrchestrator} next checks whether a refresh has finished. <p> The policy learns how long
+ * refreshes usually take at each institution, as a moving average, and first checks just as a refresh is expected to
+ * finish. Past that, or for an institution it has not seen yet, it backs off exponentially, so slow refreshes are not
+ * polled aggressively. Delays are jittered, so refreshes started together are not checked together.
+ */
+public class PollPolicy {
+    /**
+     * Default delay before the first check at an institution with no history.
+     */
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 5000;
+
+    /**
+     * Default upper bound for any single delay.
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 60000;
+
+    /**
+     * Default longest a refresh is waited for.
+     */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 10 * 60 * 1000;
+
+    /**
+     * How much each delay grows by once a refresh is overdue.
+     */
+    private static final double MULTIPLIER = 1.5;
+
+    /**
+     * Weight of the latest duration in each institution's moving average.
+     */
+    private static final double ALPHA = 0.2;
+
+    /**
+     * Delay before the first check at an institution with no history.
+     */
+    private final long initialDelayMillis;
+
+    /**
+     * Upper bound for any single delay.
+     */
+    private final long maxDelayMillis;
+
+    /**
+     * Longest a refresh is waited for.
+     */
+    private final long maxWaitMillis;
+
+    /**
+     * The average time a refresh takes, by institution ID.
+     */
+    private final ConcurrentMap<String, Double> expectedMillis = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a policy with the default delays.
+     */
+    public PollPolicy() {
+        this(DEFAULT_INITIAL_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Construct a policy.
+     *
+     * @param initialDelayMillis Delay before the first check at an institution with no history.
+     * @param maxDelayMillis     Upper bound for any single delay.
+     * @param maxWaitMillis      Longest a refresh is waited for.
+     */
+    public PollPolicy(final long initialDelayMillis, final long maxDelayMillis, final long maxWaitMillis) {
+        assert initialDelayMillis > 0;
+        assert maxDelayMillis >= initialDelayMillis;
+        assert maxWaitMillis > 0;
+
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Compute how long to wait before the next check.
+     *
+     * @param institutionId The institution being refreshed, or null if not known.
+     * @param polls         The number of checks made so far.
+     * @param elapsedMillis How long ago the refresh started.
+     * @return The delay in milliseconds.
+     */
+    public long computeDelayMillis(final String institutionId, final int polls, final long elapsedMillis) {
+        final Double expected = institutionId != null ? expectedMillis.get(institutionId) : null;
+
+        final double delay;
+        if (expected != null && elapsedMillis < expected) {
+            delay = expected - elapsedMillis;
+        } else {
+            delay = initialDelayMillis * Math.pow(MULTIPLIER, Math.min(polls, 30));
+        }
+
+        // Up to 10% of jitter either way
+        final double jittered = delay * (0.9 + ThreadLocalRandom.current().nextDouble() * 0.2);
+
+        return Math.max(Math.min((long) jittered, maxDelayMillis), initialDelayMillis / 10);
+    }
+
+    /**
+     * Record how long a refresh took.
+     *
+     * @param institutionId The institution refreshed.
+     * @param elapsedMillis How long the refresh took.
+     */
+    public void recordCompletion(final String institutionId, final long elapsedMillis) {
+        if (institutionId == null) {
+            return;
+        }
+
+        expectedMillis.merge(institutionId, (double) elapsedMillis,
+                (previous, latest) -> previous + ALPHA * (latest - previous));
+    }
+
+    /**
+     * Get how long a refresh usually takes at an institution.
+     *
+     * @param institutionId The institution ID.
+     * @return The average in milliseconds, or -1 if no refresh has been seen.
+     */
+    public long getExpectedMillis(final String institutionId) {
+        final Double expected = expectedMillis.get(institutionId);
+
+        return expected != null ? Math.round(expected) : -1;
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import com.github.alexdlaird.exception.FinicityException;
+import com.github.alexdlaird.operation.AccountOperations;
+import com.github.alexdlaird.type.account.Account;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Refreshes accounts in the background and completes a future for each when its fresh data is ready. <p> A refresh of
+ * one account starts a non-interactive refresh of every account the customer has, so requests for any of a customer's
+ * accounts while a refresh is in progress share it, rather than starting another. The orchestrator then polls the
+ * customer's accounts, once per check for all of them, until each account has aggregated since the refresh was
+ * requested, using a {@link PollPolicy} to decide when. <p> An account that refreshed recently enough is returned
+ * without refreshing it again. A refresh that fails at the institution, or takes longer than the policy allows,
+ * completes its future with a {@link RefreshException}.
+ */
+public class RefreshOrchestrator implements Closeable {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(RefreshOrchestrator.class));
+
+    /**
+     * Default age below which an account's last refresh is fresh enough.
+     */
+    public static final long DEFAULT_FRESHNESS_SECONDS = 60;
+
+    /**
+     * Numbers the threads of all orchestrators.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * Account operations refreshes are made with.
+     */
+    private final AccountOperations accountOperations;
+
+    /**
+     * Decides when to check on refreshes.
+     */
+    private final PollPolicy pollPolicy;
+
+    /**
+     * Runs refreshes and checks.
+     */
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * True if the executor was created by, and so is shut down by, this orchestrator.
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * Age below which an account's last refresh is fresh enough.
+     */
+    private final long freshnessSeconds;
+
+    /**
+     * Refreshes in progress, by customer ID; guarded by this.
+     */
+    private final Map<String, CustomerRefresh> refreshes = new HashMap<>();
+
+    /**
+     * Each account last refreshed by this orchestrator, by account ID.
+     */
+    private final ConcurrentMap<String, Account> refreshedAccounts = new ConcurrentHashMap<>();
+
+    /**
+     * Refreshes requested of the API.
+     */
+    private final LongAdder refreshCalls = new LongAdder();
+
+    /**
+     * Checks made of the API.
+     */
+    private final LongAdder pollCalls = new LongAdder();
+
+    /**
+     * Requests that shared a refresh already in progress, or a recent one.
+     */
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Construct an orchestrator with the default {@link PollPolicy} and its own threads.
+     *
+     * @param accountOperations Account operations refreshes are made with.
+     */
+    public RefreshOrchestrator(final AccountOperations accountOperations) {
+        this(accountOperations, new PollPolicy(), Executors.newScheduledThreadPool(4, runnable -> {
+            final Thread thread = new Thread(runnable, "finicity-refresh-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }), DEFAULT_FRESHNESS_SECONDS, true);
+    }
+
+    /**
+     * Construct an orchestrator.
+     *
+     * @param accountOperations        Account operations refreshes are made with.
+     * @param pollPolicy               Decides when to check on refreshes.
+     * @param scheduledExecutorService Runs refreshes and checks, which block while calling the API.
+     * @param freshnessSeconds         Age below which an account's last refresh is fresh enough not to refresh again.
+     */
+    public RefreshOrchestrator(final AccountOperations accountOperations, final PollPolicy pollPolicy,
+                               final ScheduledExecutorService scheduledExecutorService, final long freshnessSeconds) {
+        this(accountOperations, pollPolicy, scheduledExecutorService, freshnessSeconds, false);
+    }
+
+    private RefreshOrchestrator(final AccountOperations accountOperations, final PollPolicy pollPolicy,
+                                final ScheduledExecutorService scheduledExecutorService, final long freshnessSeconds,
+                                final boolean ownsExecutor) {
+        assert accountOperations != null;
+        assert pollPolicy != null;
+        assert scheduledExecutorService != null;
+        assert freshnessSeconds >= 0;
+
+        this.accountOperations = accountOperations;
+        this.pollPolicy = pollPolicy;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.freshnessSeconds = freshnessSeconds;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Refresh an account, unless it was refreshed recently enough.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     * @return A future completed with the account once it has fresh data.
+     */
+    public CompletableFuture<Account> refreshAccount(final String customerId, final String accountId) {
+        assert customerId != null;
+        assert accountId != null;
+
+        final Account recent = refreshedAccounts.get(accountId);
+        if (recent != null && recent.getAggregationSuccessDate() != null &&
+                currentTimeSeconds() - recent.getAggregationSuccessDate() < freshnessSeconds) {
+            coalesced.increment();
+
+            return CompletableFuture.completedFuture(recent);
+        }
+
+        final CustomerRefresh started;
+        final CompletableFuture<Account> future;
+        synchronized (this) {
+            final CustomerRefresh existing = refreshes.get(customerId);
+            if (existing != null) {
+                coalesced.increment();
+
+                return existing.pending.computeIfAbsent(accountId, key -> new CompletableFuture<>());
+            }
+
+            started = new CustomerRefresh(customerId, currentTimeSeconds());
+            future = new CompletableFuture<>();
+            started.pending.put(accountId, future);
+            refreshes.put(customerId, started);
+        }
+
+        submit(started, () -> start(started), 0);
+
+        return future;
+    }
+
+    private void start(final CustomerRefresh customerRefresh) {
+        refreshCalls.increment();
+
+        final List<Account> accounts;
+        try {
+            accounts = accountOperations.refreshAccounts(customerRefresh.customerId);
+        } catch (RuntimeException ex) {
+            fail(customerRefresh, ex);
+            return;
+        }
+
+        resolve(customerRefresh, accounts, false);
+    }
+
+    private void poll(final CustomerRefresh customerRefresh) {
+        pollCalls.increment();
+        ++customerRefresh.polls;
+
+        final List<Account> accounts;
+        try {
+            accounts = accountOperations.getAccounts(customerRefresh.customerId);
+        } catch (RuntimeException ex) {
+            // A failed check is not a failed refresh, so try again later, unless out of time
+            LOGGER.log(Level.FINE, ex, () -> "Failed to check on the refresh of customer " + customerRefresh.customerId);
+            resolve(customerRefresh, null, false);
+            return;
+        }
+
+        resolve(customerRefresh, accounts, true);
+    }
+
+    /**
+     * Complete the futures of every account that has aggregated since the refresh was requested, then schedule the
+     * next check if any are left.
+     */
+    private void resolve(final CustomerRefresh customerRefresh, final List<Account> accounts, final boolean complete) {
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - customerRefresh.startNanos);
+        final Map<CompletableFuture<Account>, Object> outcomes = new HashMap<>();
+        String institutionId = null;
+        final boolean pending;
+
+        synchronized (this) {
+            if (accounts != null) {
+                for (final Account account : accounts) {
+                    final CompletableFuture<Account> future = customerRefresh.pending.get(account.getId());
+                    if (account.getInstitutionId() != null) {
+                        customerRefresh.institutionIds.put(account.getId(), account.getInstitutionId());
+                    }
+                    if (future == null) {
+                        continue;
+                    }
+
+                    final Object outcome = getOutcome(account, customerRefresh.requestedAtSeconds);
+                    if (outcome != null) {
+                        customerRefresh.pending.remove(account.getId());
+                        outcomes.put(future, outcome);
+                        pollPolicy.recordCompletion(account.getInstitutionId(), elapsedMillis);
+                    } else if (institutionId == null) {
+                        institutionId = account.getInstitutionId();
+                    }
+                }
+
+                if (complete) {
+                    // The customer's full list of accounts was returned, so any still pending do not exist
+                    final List<String> missing = new ArrayList<>(customerRefresh.pending.keySet());
+                    for (final Account account : accounts) {
+                        missing.remove(account.getId());
+                    }
+                    for (final String accountId : missing) {
+                        outcomes.put(customerRefresh.pending.remove(accountId), new RefreshException(
+                                "Account " + accountId + " was not found for customer " + customerRefresh.customerId,
+                                null));
+                    }
+                }
+            }
+
+            if (!customerRefresh.pending.isEmpty() && elapsedMillis >= pollPolicy.getMaxWaitMillis()) {
+                for (final CompletableFuture<Account> future : customerRefresh.pending.values()) {
+                    outcomes.put(future, new RefreshException("Refresh of customer " + customerRefresh.customerId +
+                            " did not finish within " + pollPolicy.getMaxWaitMillis() + " ms", null));
+                }
+                customerRefresh.pending.clear();
+            }
+            pending = !customerRefresh.pending.isEmpty();
+            if (!pending) {
+                refreshes.remove(customerRefresh.customerId);
+            } else if (institutionId == null) {
+                institutionId = customerRefresh.institutionIds.get(customerRefresh.pending.keySet().iterator().next());
+            }
+        }
+
+        // Futures are completed outside the lock, as they may run callers' callbacks
+        for (final Map.Entry<CompletableFuture<Account>, Object> entry : outcomes.entrySet()) {
+            if (entry.getValue() instanceof Account) {
+                final Account account = (Account) entry.getValue();
+                refreshedAccounts.put(account.getId(), account);
+                entry.getKey().complete(account);
+            } else {
+                entry.getKey().completeExceptionally((Throwable) entry.getValue());
+            }
+        }
+
+        if (pending) {
+            final long delay = pollPolicy.computeDelayMillis(institutionId, customerRefresh.polls, elapsedMillis);
+            submit(customerRefresh, () -> poll(customerRefresh), delay);
+        }
+    }
+
+    /**
+     * Decide if an account has finished aggregating since a refresh was requested.
+     *
+     * @return The account if it succeeded, a {@link RefreshException} if it failed, or null if it is still going.
+     */
+    private Object getOutcome(final Account account, final long requestedAtSeconds) {
+        if (account.getAggregationSuccessDate() != null && account.getAggregationSuccessDate() >= requestedAtSeconds) {
+            return account;
+        }
+
+        final Integer statusCode = account.getAggregationStatusCode();
+        if (account.getAggregationAttemptDate() != null && account.getAggregationAttemptDate() >= requestedAtSeconds &&
+                statusCode != null && statusCode != 0) {
+            return new RefreshException("Refresh of account " + account.getId() + " failed with aggregation status " +
+                    "code " + statusCode, statusCode);
+        }
+
+        return null;
+    }
+
+    private void fail(final CustomerRefresh customerRefresh, final RuntimeException cause) {
+        final List<CompletableFuture<Account>> futures;
+        synchronized (this) {
+            futures = new ArrayList<>(customerRefresh.pending.values());
+            customerRefresh.pending.clear();
+            refreshes.remove(customerRefresh.customerId);
+        }
+
+        for (final CompletableFuture<Account> future : futures) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    private void submit(final CustomerRefresh customerRefresh, final Runnable task, final long delayMillis) {
+        try {
+            scheduledExecutorService.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            fail(customerRefresh, ex);
+        }
+    }
+
+    /**
+     * Override this method if you would like to change how the orchestrator tells the time, for instance in tests.
+     *
+     * @return The current time in seconds since the epoch.
+     */
+    protected long currentTimeSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    public PollPolicy getPollPolicy() {
+        return pollPolicy;
+    }
+
+    public long getRefreshCalls() {
+        return refreshCalls.sum();
+    }
+
+    public long getPollCalls() {
+        return pollCalls.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Stop the orchestrator's own threads, if it created them. Refreshes still in progress are not waited for.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+
+    /**
+     * A refresh of one customer's accounts.
+     */
+    private static final class CustomerRefresh {
+        private final String customerId;
+        private final long requestedAtSeconds;
+        private final long startNanos = System.nanoTime();
+        private final Map<String, CompletableFuture<Account>> pending = new HashMap<>();
+        private final Map<String, String> institutionIds = new HashMap<>();
+        private int polls;
+
+        private CustomerRefresh(final String customerId, final long requestedAtSeconds) {
+            this.customerId = customerId;
+            this.requestedAtSeconds = requestedAtSeconds;
+        }
+    }
+
+    /**
+     * A refresh failed at the institution, or did not finish in time.
+     */
+    public static class RefreshException extends FinicityException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The account's aggregation status code, or null if the refresh did not finish.
+         */
+        private final Integer aggregationStatusCode;
+
+        public RefreshException(final String message, final Integer aggregationStatusCode) {
+            super(message);
+
+            this.aggregationStatusCode = aggregationStatusCode;
+        }
+
+        public Integer getAggregationStatusCode() {
+            return aggregationStatusCode;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import com.github.alexdlaird.type.transaction.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The transactions that changed in one account since its last sync.
+ */
+public class SyncResult {
+    /**
+     * ID of the customer.
+     */
+    private final String customerId;
+
+    /**
+     * ID of the account.
+     */
+    private final String accountId;
+
+    /**
+     * Transactions seen for the first time.
+     */
+    private final List<Transaction> inserted = new ArrayList<>();
+
+    /**
+     * Transactions seen before, whose details have since changed.
+     */
+    private final List<Transaction> updated = new ArrayList<>();
+
+    /**
+     * Transactions seen before as pending, which have since posted.
+     */
+    private final List<Transaction> posted = new ArrayList<>();
+
+    /**
+     * Transactions returned by the API that were already seen, unchanged.
+     */
+    private int unchanged;
+
+    /**
+     * Pages requested from the API.
+     */
+    private int requests;
+
+    SyncResult(final String customerId, final String accountId) {
+        this.customerId = customerId;
+        this.accountId = accountId;
+    }
+
+    void recordUnchanged() {
+        ++unchanged;
+    }
+
+    void recordRequest() {
+        ++requests;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public List<Transaction> getInserted() {
+        return inserted;
+    }
+
+    public List<Transaction> getUpdated() {
+        return updated;
+    }
+
+    public List<Transaction> getPosted() {
+        return posted;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    /**
+     * Check if anything changed.
+     *
+     * @return True if any transaction was inserted, updated or posted.
+     */
+    public boolean hasChanges() {
+        return !inserted.isEmpty() || !updated.isEmpty() || !posted.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SyncResult{customerId=" + customerId +
+                ", accountId=" + accountId +
+                ", inserted=" + inserted.size() +
+                ", updated=" + updated.size() +
+                ", posted=" + posted.size() +
+                ", unchanged=" + unchanged +
+                ", requests=" + requests + "}";
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import org.simpleframework.xml.Attribute;
+import org.simpleframework.xml.ElementList;
+import org.simpleframework.xml.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a {@link TransactionSync} has already seen of one account: the high-water mark of the posted dates of its
+ * transactions, and the transactions recent enough to be returned again inside the overlap window, so they can be
+ * deduplicated.
+ */
+@Root(name = "syncState", strict = false)
+public class SyncState {
+    @Attribute
+    private long postedWatermark;
+
+    @ElementList(inline = true, required = false, empty = false)
+    private List<SeenTransaction> seenTransactions = new ArrayList<>();
+
+    public SyncState() {
+    }
+
+    public SyncState(final long postedWatermark, final List<SeenTransaction> seenTransactions) {
+        this.postedWatermark = postedWatermark;
+        this.seenTransactions = seenTransactions;
+    }
+
+    /**
+     * The latest posted date seen, in seconds since the epoch.
+     *
+     * @return The posted date high-water mark.
+     */
+    public long getPostedWatermark() {
+        return postedWatermark;
+    }
+
+    public List<SeenTransaction> getSeenTransactions() {
+        return seenTransactions != null ? seenTransactions : new ArrayList<>();
+    }
+
+    /**
+     * A transaction that has already been reported.
+     */
+    @Root(name = "transaction", strict = false)
+    public static class SeenTransaction {
+        @Attribute
+        private String id;
+
+        @Attribute
+        private long date;
+
+        @Attribute
+        private int fingerprint;
+
+        @Attribute
+        private boolean pending;
+
+        public SeenTransaction() {
+        }
+
+        public SeenTransaction(final String id, final long date, final int fingerprint, final boolean pending) {
+            this.id = id;
+            this.date = date;
+            this.fingerprint = fingerprint;
+            this.pending = pending;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * The transaction's posted date or, if it is pending, its transaction date.
+         *
+         * @return The date, in seconds since the epoch.
+         */
+        public long getDate() {
+            return date;
+        }
+
+        /**
+         * A hash of the fields that may change after a transaction is first reported.
+         *
+         * @return The fingerprint.
+         */
+        public int getFingerprint() {
+            return fingerprint;
+        }
+
+        public boolean isPending() {
+            return pending;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import com.github.alexdlaird.exception.FinicityException;
+
+/**
+ * Where a {@link TransactionSync} keeps the {@link SyncState} of each account between runs.
+ */
+public interface SyncStateStore {
+    /**
+     * Load the state of an account.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     * @return The state, or null if the account has never been synced.
+     */
+    SyncState load(String customerId, String accountId);
+
+    /**
+     * Save the state of an account, replacing any previous state.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     * @param syncState  The state.
+     */
+    void save(String customerId, String accountId, SyncState syncState);
+
+    /**
+     * An error occurred when loading or saving sync state.
+     */
+    class SyncStateStoreException extends FinicityException {
+        private static final long serialVersionUID = 1L;
+
+        public SyncStateStoreException(String msg, Exception cause) {
+            super(msg, cause);
+        }
+    }
+}
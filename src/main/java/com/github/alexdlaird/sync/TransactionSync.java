@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import com.github.alexdlaird.operation.TransactionOperations;
+import com.github.alexdlaird.type.Sort;
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches only the transactions of an account that are new or changed since it was last synced. <p> Each account has a
+ * {@link SyncState} holding the latest posted date seen. A sync requests transactions from that high-water mark, less a
+ * small overlap window to catch transactions that post late or are backdated, or from the oldest transaction still
+ * pending, if that is earlier. Transactions the overlap returns again are deduplicated by <code>id</code>, and each
+ * remaining one is reported as inserted, updated, or posted (pending to posted). State is only saved once every page
+ * has been fetched, so a failed sync is simply repeated next time. <p> Finicity often posts a pending transaction
+ * under a new <code>id</code>, or drops it, so a pending transaction is forgotten once a sync covering its date no
+ * longer returns it, and no pending transaction holds the window open for more than {@link
+ * #MAX_PENDING_SECONDS}. <p> The first sync of an account looks back {@link
+ * #DEFAULT_INITIAL_LOOKBACK_SECONDS}. Long gaps between syncs are split into requests that respect the API's maximum
+ * date range.
+ */
+public class TransactionSync {
+    /**
+     * Default overlap with the previous sync.
+     */
+    public static final long DEFAULT_OVERLAP_SECONDS = TimeUnit.DAYS.toSeconds(3);
+
+    /**
+     * Default history fetched the first time an account is synced.
+     */
+    public static final long DEFAULT_INITIAL_LOOKBACK_SECONDS = TimeUnit.DAYS.toSeconds(180);
+
+    /**
+     * The longest a pending transaction keeps the start of the window from advancing.
+     */
+    public static final long MAX_PENDING_SECONDS = TimeUnit.DAYS.toSeconds(30);
+
+    /**
+     * The widest date range requested at once, inside the API's maximum of 190 days.
+     */
+    private static final long MAX_RANGE_SECONDS = TimeUnit.DAYS.toSeconds(180);
+
+    /**
+     * The most transactions the API returns per page.
+     */
+    private static final int PAGE_LIMIT = 1000;
+
+    /**
+     * Operations transactions are fetched with.
+     */
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * Where each account's state is kept between syncs.
+     */
+    private final SyncStateStore syncStateStore;
+
+    /**
+     * Overlap with the previous sync.
+     */
+    private final long overlapSeconds;
+
+    /**
+     * History fetched the first time an account is synced.
+     */
+    private final long initialLookbackSeconds;
+
+    /**
+     * Construct a sync with the default overlap and initial lookback.
+     *
+     * @param transactionOperations Operations transactions are fetched with.
+     * @param syncStateStore        Where each account's state is kept between syncs.
+     */
+    public TransactionSync(final TransactionOperations transactionOperations, final SyncStateStore syncStateStore) {
+        this(transactionOperations, syncStateStore, DEFAULT_OVERLAP_SECONDS, DEFAULT_INITIAL_LOOKBACK_SECONDS);
+    }
+
+    /**
+     * Construct a sync.
+     *
+     * @param transactionOperations  Operations transactions are fetched with.
+     * @param syncStateStore         Where each account's state is kept between syncs.
+     * @param overlapSeconds         Overlap with the previous sync.
+     * @param initialLookbackSeconds History fetched the first time an account is synced.
+     */
+    public TransactionSync(final TransactionOperations transactionOperations, final SyncStateStore syncStateStore,
+                           final long overlapSeconds, final long initialLookbackSeconds) {
+        assert transactionOperations != null;
+        assert syncStateStore != null;
+        assert overlapSeconds >= 0;
+        assert initialLookbackSeconds > 0;
+
+        this.transactionOperations = transactionOperations;
+        this.syncStateStore = syncStateStore;
+        this.overlapSeconds = overlapSeconds;
+        this.initialLookbackSeconds = initialLookbackSeconds;
+    }
+
+    /**
+     * Fetch the transactions of an account that are new or changed since its last sync, and advance its state.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     * @return The changes.
+     */
+    public SyncResult syncAccount(final String customerId, final String accountId) {
+        assert customerId != null;
+        assert accountId != null;
+
+        final SyncState syncState = syncStateStore.load(customerId, accountId);
+        final Map<String, SyncState.SeenTransaction> seen = new HashMap<>();
+        long postedWatermark = 0;
+        if (syncState != null) {
+            postedWatermark = syncState.getPostedWatermark();
+            for (final SyncState.SeenTransaction seenTransaction : syncState.getSeenTransactions()) {
+                seen.put(seenTransaction.getId(), seenTransaction);
+            }
+        }
+
+        final long now = currentTimeSeconds();
+        final long fromDate = syncState != null ? computeFromDate(postedWatermark, seen.values(), now) :
+                now - initialLookbackSeconds;
+        final SyncResult syncResult = new SyncResult(customerId, accountId);
+        final Set<String> returned = new HashSet<>();
+
+        for (long rangeStart = fromDate; rangeStart < now; rangeStart += MAX_RANGE_SECONDS) {
+            final long rangeEnd = Math.min(rangeStart + MAX_RANGE_SECONDS, now);
+
+            int start = 1;
+            List<Transaction> page;
+            do {
+                page = transactionOperations.getAccountTransactions(customerId, accountId, rangeStart, rangeEnd,
+                        start, PAGE_LIMIT, Sort.ASC, true);
+                syncResult.recordRequest();
+                if (page == null) {
+                    break;
+                }
+
+                for (final Transaction transaction : page) {
+                    if (transaction.getId() == null) {
+                        continue;
+                    }
+
+                    classify(transaction, seen, syncResult);
+                    returned.add(transaction.getId());
+
+                    postedWatermark = Math.max(postedWatermark, !isPending(transaction) ? getDate(transaction) : 0);
+                }
+
+                start += page.size();
+            } while (page.size() >= PAGE_LIMIT);
+        }
+
+        // Every pending transaction's date was inside the window just fetched, so one that was not returned has posted
+        // under a new id or been dropped
+        final long pendingFrom = now - MAX_PENDING_SECONDS;
+        final List<SyncState.SeenTransaction> retained = new ArrayList<>();
+        for (final SyncState.SeenTransaction seenTransaction : seen.values()) {
+            if (seenTransaction.isPending() && returned.contains(seenTransaction.getId())
+                    && seenTransaction.getDate() >= pendingFrom) {
+                retained.add(seenTransaction);
+            }
+        }
+        // Only posted transactions the next sync could return again need to be remembered, and the pending
+        // transactions kept may hold its window open well before the watermark
+        final long retainFrom = computeFromDate(postedWatermark, retained, now);
+        for (final SyncState.SeenTransaction seenTransaction : seen.values()) {
+            if (!seenTransaction.isPending() && seenTransaction.getDate() >= retainFrom) {
+                retained.add(seenTransaction);
+            }
+        }
+        syncStateStore.save(customerId, accountId, new SyncState(postedWatermark, retained));
+
+        return syncResult;
+    }
+
+    /**
+     * The date a sync starts at: the posted watermark, or the date of the oldest pending transaction that is not too
+     * old to still post, whichever is earlier, less the overlap.
+     */
+    private long computeFromDate(final long postedWatermark,
+                                 final Collection<SyncState.SeenTransaction> seenTransactions, final long now) {
+        long fromDate = postedWatermark;
+        final long pendingFrom = now - MAX_PENDING_SECONDS;
+        for (final SyncState.SeenTransaction seenTransaction : seenTransactions) {
+            if (seenTransaction.isPending() && seenTransaction.getDate() >= pendingFrom) {
+                fromDate = Math.min(fromDate, seenTransaction.getDate());
+            }
+        }
+
+        return Math.min(Math.max(fromDate - overlapSeconds, 0), now - 1);
+    }
+
+    private void classify(final Transaction transaction, final Map<String, SyncState.SeenTransaction> seen,
+                          final SyncResult syncResult) {
+        final boolean pending = isPending(transaction);
+        final int fingerprint = fingerprint(transaction);
+        final SyncState.SeenTransaction previous = seen.put(transaction.getId(),
+                new SyncState.SeenTransaction(transaction.getId(), getDate(transaction), fingerprint, pending));
+
+        if (previous == null) {
+            syncResult.getInserted().add(transaction);
+        } else if (previous.isPending() && !pending) {
+            syncResult.getPosted().add(transaction);
+        } else if (previous.getFingerprint() != fingerprint) {
+            syncResult.getUpdated().add(transaction);
+        } else {
+            syncResult.recordUnchanged();
+        }
+    }
+
+    private static boolean isPending(final Transaction transaction) {
+        return transaction.getStatus() == TransactionStatus.PENDING;
+    }
+
+    /**
+     * The date a transaction is filtered by: its posted date, or its transaction date until it posts.
+     */
+    private static long getDate(final Transaction transaction) {
+        if (transaction.getPostedDate() != null && transaction.getPostedDate() > 0) {
+            return transaction.getPostedDate();
+        } else if (transaction.getTransactionDate() != null) {
+            return transaction.getTransactionDate();
+        } else {
+            return transaction.getCreatedDate() != null ? transaction.getCreatedDate() : 0;
+        }
+    }
+
+    /**
+     * Override this method if you would like to change which fields of a transaction are compared to detect updates.
+     *
+     * @param transaction The transaction.
+     * @return A hash of the fields that may change after a transaction is first reported.
+     */
+    protected int fingerprint(final Transaction transaction) {
+        return Objects.hash(transaction.getAmount(), transaction.getStatus(), transaction.getPostedDate(),
+                transaction.getTransactionDate(), transaction.getDescription(), transaction.getMemo(),
+                transaction.getType(), transaction.getCheckNum(),
+                transaction.getCategorization() != null ? transaction.getCategorization().getCategory() : null);
+    }
+
+    /**
+     * Override this method if you would like to change the sync's clock.
+     *
+     * @return The current time, in seconds since the epoch.
+     */
+    protected long currentTimeSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+}
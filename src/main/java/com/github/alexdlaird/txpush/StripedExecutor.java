@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs tasks on a fixed number of lanes, each with a single thread, choosing the lane by a key. Tasks with the same
+ * key run one at a time in the order they were submitted, while tasks with different keys run in parallel. <p> Each
+ * lane has a bounded queue, and submitting to a full lane blocks, which slows the submitter down to the pace of the
+ * busiest lane rather than letting work pile up.
+ */
+public class StripedExecutor implements Closeable {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(StripedExecutor.class));
+
+    /**
+     * Default number of tasks that can wait on each lane.
+     */
+    public static final int DEFAULT_LANE_CAPACITY = 1024;
+
+    /**
+     * Numbers the threads of all executors.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private static final Runnable STOP = () -> {
+    };
+
+    private final List<BlockingQueue<Runnable>> lanes;
+
+    private final Thread[] threads;
+
+    private volatile boolean closed;
+
+    /**
+     * Construct an executor with the default lane capacity.
+     *
+     * @param stripes Number of lanes.
+     */
+    public StripedExecutor(final int stripes) {
+        this(stripes, DEFAULT_LANE_CAPACITY);
+    }
+
+    /**
+     * Construct an executor.
+     *
+     * @param stripes      Number of lanes.
+     * @param laneCapacity Number of tasks that can wait on each lane.
+     */
+    public StripedExecutor(final int stripes, final int laneCapacity) {
+        assert stripes > 0;
+        assert laneCapacity > 0;
+
+        this.lanes = new ArrayList<>(stripes);
+        this.threads = new Thread[stripes];
+        for (int i = 0; i < stripes; ++i) {
+            final BlockingQueue<Runnable> lane = new ArrayBlockingQueue<>(laneCapacity);
+            lanes.add(lane);
+            threads[i] = new Thread(() -> run(lane), "finicity-striped-" + THREAD_NUMBER.incrementAndGet());
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Run a task after every task previously submitted with the same key.
+     *
+     * @param key      The key, like an account ID.
+     * @param runnable The task.
+     * @throws InterruptedException The thread was interrupted while waiting for room on the lane.
+     */
+    public void execute(final Object key, final Runnable runnable) throws InterruptedException {
+        assert runnable != null;
+
+        if (closed) {
+            throw new RejectedExecutionException("The executor is closed");
+        }
+
+        final int hash = key != null ? key.hashCode() : 0;
+        lanes.get(((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % lanes.size()).put(runnable);
+    }
+
+    private void run(final BlockingQueue<Runnable> lane) {
+        while (true) {
+            final Runnable runnable;
+            try {
+                runnable = lane.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (runnable == STOP) {
+                return;
+            }
+
+            try {
+                runnable.run();
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "A task failed", ex);
+            }
+        }
+    }
+
+    /**
+     * Wait for every task submitted so far to finish.
+     *
+     * @param timeout How long to wait.
+     * @param unit    The unit of the timeout.
+     * @return True if every task finished, false if the timeout elapsed first.
+     * @throws InterruptedException The thread was interrupted while waiting.
+     */
+    public boolean awaitQuiescence(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final CountDownLatch latch = new CountDownLatch(lanes.size());
+        for (final BlockingQueue<Runnable> lane : lanes) {
+            if (!lane.offer(latch::countDown, timeout, unit)) {
+                return false;
+            }
+        }
+
+        return latch.await(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+    }
+
+    public int getStripes() {
+        return lanes.size();
+    }
+
+    /**
+     * Stop the lanes once the tasks already submitted have run, waiting for room on any full lane. Tasks can no longer
+     * be submitted. If the thread is interrupted while waiting, the lanes are stopped right away, as by {@link
+     * #shutdownNow()}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (final BlockingQueue<Runnable> lane : lanes) {
+            try {
+                lane.put(STOP);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                shutdownNow();
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stop the lanes right away, discarding the tasks that have not started. Tasks can no longer be submitted.
+     *
+     * @return The tasks that were discarded.
+     */
+    public List<Runnable> shutdownNow() {
+        closed = true;
+        final List<Runnable> discarded = new ArrayList<>();
+        for (int i = 0; i < lanes.size(); ++i) {
+            lanes.get(i).drainTo(discarded);
+            threads[i].interrupt();
+        }
+        discarded.removeIf(runnable -> runnable == STOP);
+
+        return discarded;
+    }
+}
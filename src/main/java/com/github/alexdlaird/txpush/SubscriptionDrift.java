@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The difference between the accounts a customer should have TxPush notifications for and the subscriptions recorded in
+ * a {@link SubscriptionRegistry}.
+ */
+public class SubscriptionDrift {
+    private final String customerId;
+
+    /**
+     * Accounts that should have subscriptions, but have none recorded.
+     */
+    private final Set<String> missing;
+
+    /**
+     * Accounts that have subscriptions recorded, but should not.
+     */
+    private final Set<String> stale;
+
+    /**
+     * Accounts whose recorded subscriptions send notifications to a different callback URL.
+     */
+    private final Set<String> changed;
+
+    public SubscriptionDrift(final String customerId, final Set<String> missing, final Set<String> stale,
+                             final Set<String> changed) {
+        this.customerId = customerId;
+        this.missing = Collections.unmodifiableSet(missing);
+        this.stale = Collections.unmodifiableSet(stale);
+        this.changed = Collections.unmodifiableSet(changed);
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public Set<String> getMissing() {
+        return missing;
+    }
+
+    public Set<String> getStale() {
+        return stale;
+    }
+
+    public Set<String> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Check if the recorded subscriptions already match.
+     *
+     * @return True if nothing needs to be enabled or disabled.
+     */
+    public boolean isEmpty() {
+        return missing.isEmpty() && stale.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriptionDrift{customerId=" + customerId +
+                ", missing=" + missing +
+                ", stale=" + stale +
+                ", changed=" + changed + "}";
+    }
+}
@@ -0,0 +1,566 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import com.github.alexdlaird.exception.FinicityException;
+import com.github.alexdlaird.type.tx_push.Subscription;
+import com.github.alexdlaird.type.tx_push.SubscriptionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A local record of every TxPush {@link Subscription}, including the IDs and signing keys the API only returns when
+ * notifications are enabled. <p> Subscriptions are indexed by subscription ID, by account ID and by customer ID, so a
+ * {@link TxPushReceiver} finds an account's signing keys with a single lookup. Reads never lock; writes are serialized.
+ * <p> If constructed with a file, every change is appended to it as a line and forced to disk before the change is
+ * visible, and the file is replayed when the registry is opened. A line left incomplete by a crash is truncated. The
+ * file is compacted on open once it holds many more lines than there are accounts. The file holds signing keys, so
+ * where the file system supports POSIX permissions it is only readable and writable by its owner. A file must only be
+ * used by one registry at a time.
+ */
+public class SubscriptionRegistry implements Closeable {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(SubscriptionRegistry.class));
+
+    private static final char PUT = 'P';
+
+    private static final char REMOVE_ACCOUNT = 'R';
+
+    private static final char REMOVE_SUBSCRIPTION = 'D';
+
+    /**
+     * Permissions of the file, which holds signing keys.
+     */
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+
+    /**
+     * The file changes are appended to, or null if the registry is only kept in memory.
+     */
+    private final Path path;
+
+    /**
+     * The open file, or null.
+     */
+    private FileChannel channel;
+
+    /**
+     * Each subscription, by subscription ID.
+     */
+    private final Map<String, Subscription> subscriptionsById = new ConcurrentHashMap<>();
+
+    /**
+     * Each account's subscriptions, by account ID.
+     */
+    private final Map<String, AccountSubscriptions> subscriptionsByAccountId = new ConcurrentHashMap<>();
+
+    /**
+     * Each customer's account IDs, by customer ID.
+     */
+    private final Map<String, Set<String>> accountIdsByCustomerId = new ConcurrentHashMap<>();
+
+    /**
+     * Lines in the file.
+     */
+    private int lines;
+
+    /**
+     * Construct a registry that is only kept in memory.
+     */
+    public SubscriptionRegistry() {
+        this.path = null;
+    }
+
+    /**
+     * Construct a registry kept in a file.
+     *
+     * @param path The file, which is created if it does not exist.
+     */
+    public SubscriptionRegistry(final Path path) {
+        assert path != null;
+
+        this.path = path;
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (Files.exists(path)) {
+                load();
+            }
+            if (lines > subscriptionsByAccountId.size() * 2 + 64) {
+                compact();
+            }
+
+            createOwnerOnly(path);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new SubscriptionRegistryException("An error occurred when opening the subscription registry at " +
+                    path, ex);
+        }
+    }
+
+    /**
+     * Record the subscriptions of an account, replacing any recorded before.
+     *
+     * @param customerId    ID of the customer.
+     * @param accountId     ID of the account.
+     * @param subscriptions The subscriptions returned when notifications were enabled for the account.
+     */
+    public synchronized void put(final String customerId, final String accountId,
+                                 final List<Subscription> subscriptions) {
+        assert customerId != null;
+        assert accountId != null;
+        assert subscriptions != null;
+
+        final StringBuilder line = new StringBuilder().append(PUT);
+        appendField(line, customerId);
+        appendField(line, accountId);
+        for (final Subscription subscription : subscriptions) {
+            appendField(line, subscription.getId());
+            appendField(line, subscription.getType() != null ? subscription.getType().name() : null);
+            appendField(line, subscription.getCallbackUrl());
+            appendField(line, subscription.getSigningKey());
+        }
+        write(line);
+
+        applyPut(customerId, accountId, subscriptions);
+    }
+
+    /**
+     * Forget every subscription of an account, for instance after notifications were disabled for it.
+     *
+     * @param accountId ID of the account.
+     */
+    public synchronized void removeAccount(final String accountId) {
+        if (!subscriptionsByAccountId.containsKey(accountId)) {
+            return;
+        }
+
+        final StringBuilder line = new StringBuilder().append(REMOVE_ACCOUNT);
+        appendField(line, accountId);
+        write(line);
+
+        applyRemoveAccount(accountId);
+    }
+
+    /**
+     * Forget a subscription, for instance after it was deleted.
+     *
+     * @param subscriptionId ID of the subscription.
+     */
+    public synchronized void removeSubscription(final String subscriptionId) {
+        if (!subscriptionsById.containsKey(subscriptionId)) {
+            return;
+        }
+
+        final StringBuilder line = new StringBuilder().append(REMOVE_SUBSCRIPTION);
+        appendField(line, subscriptionId);
+        write(line);
+
+        applyRemoveSubscription(subscriptionId);
+    }
+
+    /**
+     * Get a subscription.
+     *
+     * @param subscriptionId ID of the subscription.
+     * @return The subscription, or null if none is recorded.
+     */
+    public Subscription getSubscription(final String subscriptionId) {
+        return subscriptionsById.get(subscriptionId);
+    }
+
+    /**
+     * Get the subscriptions of an account.
+     *
+     * @param accountId ID of the account.
+     * @return The subscriptions, which is empty if none are recorded.
+     */
+    public List<Subscription> getSubscriptions(final String accountId) {
+        final AccountSubscriptions accountSubscriptions = subscriptionsByAccountId.get(accountId);
+
+        return accountSubscriptions != null ? accountSubscriptions.subscriptions : Collections.emptyList();
+    }
+
+    /**
+     * Get the signing keys of an account's subscriptions.
+     *
+     * @param accountId ID of the account.
+     * @return The distinct signing keys, which is empty if none are recorded.
+     */
+    public List<String> getSigningKeys(final String accountId) {
+        final AccountSubscriptions accountSubscriptions = subscriptionsByAccountId.get(accountId);
+
+        return accountSubscriptions != null ? accountSubscriptions.signingKeys : Collections.emptyList();
+    }
+
+    /**
+     * Get the customer an account's subscriptions were recorded for.
+     *
+     * @param accountId ID of the account.
+     * @return The customer ID, or null if none are recorded.
+     */
+    public String getCustomerId(final String accountId) {
+        final AccountSubscriptions accountSubscriptions = subscriptionsByAccountId.get(accountId);
+
+        return accountSubscriptions != null ? accountSubscriptions.customerId : null;
+    }
+
+    /**
+     * Get the accounts of a customer with recorded subscriptions.
+     *
+     * @param customerId ID of the customer.
+     * @return The account IDs.
+     */
+    public Set<String> getAccountIds(final String customerId) {
+        final Set<String> accountIds = accountIdsByCustomerId.get(customerId);
+
+        return accountIds != null ? Collections.unmodifiableSet(accountIds) : Collections.emptySet();
+    }
+
+    public Set<String> getCustomerIds() {
+        return Collections.unmodifiableSet(accountIdsByCustomerId.keySet());
+    }
+
+    /**
+     * Get the number of accounts with recorded subscriptions.
+     *
+     * @return The number of accounts.
+     */
+    public int size() {
+        return subscriptionsByAccountId.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void applyPut(final String customerId, final String accountId, final List<Subscription> subscriptions) {
+        applyRemoveAccount(accountId);
+
+        final List<Subscription> recorded = new ArrayList<>();
+        for (final Subscription subscription : subscriptions) {
+            final Subscription copy = new Subscription(subscription.getId(), accountId, subscription.getType(),
+                    subscription.getCallbackUrl(), subscription.getSigningKey());
+            recorded.add(copy);
+            if (copy.getId() != null) {
+                subscriptionsById.put(copy.getId(), copy);
+            }
+        }
+
+        subscriptionsByAccountId.put(accountId, new AccountSubscriptions(customerId, recorded));
+        accountIdsByCustomerId.computeIfAbsent(customerId, key -> ConcurrentHashMap.newKeySet()).add(accountId);
+    }
+
+    private void applyRemoveAccount(final String accountId) {
+        final AccountSubscriptions removed = subscriptionsByAccountId.remove(accountId);
+        if (removed == null) {
+            return;
+        }
+
+        for (final Subscription subscription : removed.subscriptions) {
+            if (subscription.getId() != null) {
+                subscriptionsById.remove(subscription.getId());
+            }
+        }
+
+        final Set<String> accountIds = accountIdsByCustomerId.get(removed.customerId);
+        if (accountIds != null) {
+            accountIds.remove(accountId);
+            if (accountIds.isEmpty()) {
+                accountIdsByCustomerId.remove(removed.customerId);
+            }
+        }
+    }
+
+    private void applyRemoveSubscription(final String subscriptionId) {
+        final Subscription removed = subscriptionsById.get(subscriptionId);
+        if (removed == null) {
+            return;
+        }
+
+        final AccountSubscriptions accountSubscriptions = subscriptionsByAccountId.get(removed.getAccountId());
+        final List<Subscription> remaining = new ArrayList<>();
+        for (final Subscription subscription : accountSubscriptions.subscriptions) {
+            if (!subscriptionId.equals(subscription.getId())) {
+                remaining.add(subscription);
+            }
+        }
+
+        if (remaining.isEmpty()) {
+            applyRemoveAccount(removed.getAccountId());
+        } else {
+            subscriptionsById.remove(subscriptionId);
+            subscriptionsByAccountId.put(removed.getAccountId(),
+                    new AccountSubscriptions(accountSubscriptions.customerId, remaining));
+        }
+    }
+
+    private void load() throws IOException {
+        final String contents = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+
+        int start = 0;
+        int end;
+        while ((end = contents.indexOf('\n', start)) >= 0) {
+            replay(contents.substring(start, end));
+            ++lines;
+            start = end + 1;
+        }
+
+        if (start < contents.length()) {
+            LOGGER.log(Level.WARNING, "Truncating an incomplete line at the end of {0}", path);
+
+            try (FileChannel truncating = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                truncating.truncate(contents.substring(0, start).getBytes(StandardCharsets.UTF_8).length);
+            }
+        }
+    }
+
+    private void replay(final String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+
+        final List<String> fields = splitFields(line);
+        if (fields == null) {
+            LOGGER.log(Level.WARNING, "Ignoring a malformed line in {0}", path);
+            return;
+        }
+
+        switch (line.charAt(0)) {
+            case PUT:
+                if (fields.size() < 2 || (fields.size() - 2) % 4 != 0) {
+                    LOGGER.log(Level.WARNING, "Ignoring a malformed line in {0}", path);
+                    return;
+                }
+
+                final List<Subscription> subscriptions = new ArrayList<>();
+                for (int i = 2; i < fields.size(); i += 4) {
+                    subscriptions.add(new Subscription(fields.get(i), fields.get(1),
+                            fields.get(i + 1) != null ? SubscriptionType.valueOf(fields.get(i + 1)) : null,
+                            fields.get(i + 2), fields.get(i + 3)));
+                }
+                applyPut(fields.get(0), fields.get(1), subscriptions);
+                break;
+            case REMOVE_ACCOUNT:
+                applyRemoveAccount(fields.get(0));
+                break;
+            case REMOVE_SUBSCRIPTION:
+                applyRemoveSubscription(fields.get(0));
+                break;
+            default:
+                LOGGER.log(Level.WARNING, "Ignoring an unknown line in {0}", path);
+        }
+    }
+
+    private void compact() throws IOException {
+        final StringBuilder contents = new StringBuilder();
+        for (final Map.Entry<String, AccountSubscriptions> entry : subscriptionsByAccountId.entrySet()) {
+            contents.append(PUT);
+            appendField(contents, entry.getValue().customerId);
+            appendField(contents, entry.getKey());
+            for (final Subscription subscription : entry.getValue().subscriptions) {
+                appendField(contents, subscription.getId());
+                appendField(contents, subscription.getType() != null ? subscription.getType().name() : null);
+                appendField(contents, subscription.getCallbackUrl());
+                appendField(contents, subscription.getSigningKey());
+            }
+            contents.append('\n');
+        }
+
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        createOwnerOnly(temporary);
+        Files.write(temporary, contents.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lines = subscriptionsByAccountId.size();
+    }
+
+    /**
+     * Create a file readable and writable only by its owner, or restrict an existing one, where POSIX permissions are
+     * supported.
+     */
+    private static void createOwnerOnly(final Path file) throws IOException {
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            if (Files.exists(file)) {
+                Files.setPosixFilePermissions(file, OWNER_ONLY);
+            } else {
+                Files.createFile(file, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            }
+        } else if (!Files.exists(file)) {
+            Files.createFile(file);
+        }
+    }
+
+    private void write(final StringBuilder line) {
+        if (path == null) {
+            return;
+        }
+        if (channel == null) {
+            throw new SubscriptionRegistryException("The subscription registry at " + path + " is closed", null);
+        }
+
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(line.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            ++lines;
+        } catch (IOException ex) {
+            throw new SubscriptionRegistryException("An error occurred when writing to the subscription registry at " +
+                    path, ex);
+        }
+    }
+
+    /**
+     * Append a tab and a field, escaping backslashes, tabs and line breaks, and writing null as a lone backslash.
+     */
+    private static void appendField(final StringBuilder line, final String value) {
+        line.append('\t');
+        if (value == null) {
+            line.append('\\');
+            return;
+        }
+
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    /**
+     * Split the fields following a line's operation.
+     *
+     * @return The fields, or null if the line is malformed.
+     */
+    private static List<String> splitFields(final String line) {
+        final List<String> fields = new ArrayList<>();
+        int i = 1;
+        while (i < line.length()) {
+            if (line.charAt(i) != '\t') {
+                return null;
+            }
+            ++i;
+
+            if (i < line.length() && line.charAt(i) == '\\' && (i + 1 == line.length() || line.charAt(i + 1) == '\t')) {
+                fields.add(null);
+                ++i;
+                continue;
+            }
+
+            final StringBuilder field = new StringBuilder();
+            while (i < line.length() && line.charAt(i) != '\t') {
+                char c = line.charAt(i++);
+                if (c == '\\') {
+                    if (i == line.length()) {
+                        return null;
+                    }
+                    final char escaped = line.charAt(i++);
+                    c = escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped;
+                }
+                field.append(c);
+            }
+            fields.add(field.toString());
+        }
+
+        return fields.isEmpty() ? null : fields;
+    }
+
+    /**
+     * The subscriptions of one account, which are replaced rather than changed, so they can be read without locking.
+     */
+    private static final class AccountSubscriptions {
+        private final String customerId;
+
+        private final List<Subscription> subscriptions;
+
+        private final List<String> signingKeys;
+
+        private AccountSubscriptions(final String customerId, final List<Subscription> subscriptions) {
+            this.customerId = customerId;
+            this.subscriptions = Collections.unmodifiableList(subscriptions);
+
+            final Set<String> distinct = new LinkedHashSet<>();
+            for (final Subscription subscription : subscriptions) {
+                if (subscription.getSigningKey() != null) {
+                    distinct.add(subscription.getSigningKey());
+                }
+            }
+            this.signingKeys = Collections.unmodifiableList(new ArrayList<>(distinct));
+        }
+    }
+
+    /**
+     * An error occurred when reading or writing the subscription registry.
+     */
+    public static class SubscriptionRegistryException extends FinicityException {
+        private static final long serialVersionUID = 1L;
+
+        public SubscriptionRegistryException(String msg, Exception cause) {
+            super(msg, cause);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import com.github.alexdlaird.type.account.Account;
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.tx_push.TxPushEvent;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recognizes TxPush events that were already seen within a time window, so redelivered pushes are not applied twice.
+ * <p> An event is identified by its class, type and the ID of its transaction or account, along with the fields a
+ * modification changes (status, dates and amounts), so a later modification of the same transaction is not mistaken
+ * for a redelivery. Each identity is kept as a 64-bit fingerprint, so two different events are mistaken for each other
+ * with negligible probability. <p> Fingerprints are spread across stripes, each guarded by its own lock, holding two
+ * generations of open-addressed <code>long</code> tables. When a generation is older than half the window it is
+ * retired, so an event is remembered for at least half the window and at most the whole of it. A generation starts
+ * with room for the configured capacity, and one that fills up sooner grows, so a burst is remembered in full; the
+ * next generation starts at the configured capacity again.
+ */
+public class TxPushDeduplicator {
+    /**
+     * Default time an event is remembered for.
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Default number of events a generation has room for before it grows.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int STRIPES = 16;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Age, in nanoseconds, at which a generation is retired.
+     */
+    private final long generationNanos;
+
+    private final Stripe[] stripes;
+
+    /**
+     * Construct a deduplicator with the default window and capacity.
+     */
+    public TxPushDeduplicator() {
+        this(DEFAULT_WINDOW_MILLIS, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct a deduplicator.
+     *
+     * @param windowMillis Time an event is remembered for.
+     * @param capacity     Number of events a generation has room for before it grows, across all stripes.
+     */
+    public TxPushDeduplicator(final long windowMillis, final int capacity) {
+        assert windowMillis > 0;
+        assert capacity >= STRIPES;
+
+        this.generationNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis) / 2;
+        this.stripes = new Stripe[STRIPES];
+        // Tables are kept at most three quarters full
+        final int tableSize = Integer.highestOneBit(Math.max((capacity / STRIPES) * 4 / 3, 2) - 1) << 1;
+        for (int i = 0; i < STRIPES; ++i) {
+            stripes[i] = new Stripe(tableSize);
+        }
+    }
+
+    /**
+     * Record an event, and check if it was already seen.
+     *
+     * @param txPushEvent The event.
+     * @return True if the event is new, false if it is a duplicate.
+     */
+    public boolean markSeen(final TxPushEvent txPushEvent) {
+        final long fingerprint = fingerprint(txPushEvent);
+
+        return stripes[(int) (fingerprint >>> 60) & (STRIPES - 1)].add(fingerprint, nanoTime(), generationNanos);
+    }
+
+    /**
+     * Override this method if you would like to change the clock generations are aged by.
+     *
+     * @return The current time in nanoseconds.
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Compute the fingerprint of an event.
+     *
+     * @param txPushEvent The event.
+     * @return A fingerprint, which is never 0.
+     */
+    static long fingerprint(final TxPushEvent txPushEvent) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, Objects.toString(txPushEvent.getEventClass()));
+        hash = mix(hash, Objects.toString(txPushEvent.getType()));
+
+        final Transaction transaction = txPushEvent.getTransaction();
+        if (transaction != null) {
+            hash = mix(hash, transaction.getId());
+            hash = mix(hash, transaction.getAccountId());
+            hash = mix(hash, Objects.toString(transaction.getStatus(), null));
+            hash = mix(hash, Objects.toString(transaction.getPostedDate(), null));
+            hash = mix(hash, Objects.toString(transaction.getAmount(), null));
+        }
+        final Account account = txPushEvent.getAccount();
+        if (account != null) {
+            hash = mix(hash, account.getId());
+            hash = mix(hash, Objects.toString(account.getBalance(), null));
+            hash = mix(hash, Objects.toString(account.getBalanceDate(), null));
+        }
+
+        // Finish by spreading the bits, since the top bits pick the stripe
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+
+        return hash != 0 ? hash : 1;
+    }
+
+    private static long mix(long hash, final String value) {
+        if (value == null) {
+            return (hash ^ 0xff) * FNV_PRIME;
+        }
+
+        for (int i = 0; i < value.length(); ++i) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+
+        // Separate values, so "ab","c" and "a","bc" differ
+        return (hash ^ 0xfe) * FNV_PRIME;
+    }
+
+    private static final class Stripe {
+        /**
+         * Size a generation's table starts at.
+         */
+        private final int tableSize;
+
+        private long[] current;
+
+        private long[] previous;
+
+        private int size;
+
+        private long generationStart = Long.MIN_VALUE;
+
+        private Stripe(final int tableSize) {
+            this.tableSize = tableSize;
+            this.current = new long[tableSize];
+            this.previous = new long[tableSize];
+        }
+
+        synchronized boolean add(final long fingerprint, final long now, final long generationNanos) {
+            if (generationStart == Long.MIN_VALUE) {
+                generationStart = now;
+            } else if (now - generationStart >= generationNanos * 2) {
+                // Both generations have expired
+                previous = clear(previous);
+                current = clear(current);
+                size = 0;
+                generationStart = now;
+            } else if (now - generationStart >= generationNanos) {
+                retire(now);
+            }
+
+            if (contains(previous, fingerprint) || contains(current, fingerprint)) {
+                return false;
+            }
+
+            // Tables are kept at most three quarters full
+            if (size >= current.length * 3 / 4) {
+                grow();
+            }
+            insert(current, fingerprint);
+            ++size;
+
+            return true;
+        }
+
+        private void retire(final long now) {
+            final long[] retired = previous;
+            previous = current;
+            current = clear(retired);
+            size = 0;
+            generationStart = now;
+        }
+
+        /**
+         * Empty a table, going back to the starting size if it grew.
+         */
+        private long[] clear(final long[] table) {
+            if (table.length != tableSize) {
+                return new long[tableSize];
+            }
+
+            Arrays.fill(table, 0);
+
+            return table;
+        }
+
+        private void grow() {
+            final long[] grown = new long[current.length * 2];
+            for (final long fingerprint : current) {
+                if (fingerprint != 0) {
+                    insert(grown, fingerprint);
+                }
+            }
+            current = grown;
+        }
+
+        private static void insert(final long[] table, final long fingerprint) {
+            final int mask = table.length - 1;
+            int index = (int) fingerprint & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = fingerprint;
+        }
+
+        private static boolean contains(final long[] table, final long fingerprint) {
+            final int mask = table.length - 1;
+            int index = (int) fingerprint & mask;
+            while (table[index] != 0) {
+                if (table[index] == fingerprint) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import com.github.alexdlaird.type.tx_push.TxPushEvent;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers TxPush events to a handler exactly once within a window, and in order for each account. <p> Events are
+ * checked against a {@link TxPushDeduplicator}, so redelivered pushes are dropped, and the rest are run on a {@link
+ * StripedExecutor} keyed by account ID, so events for one account are handled one at a time in the order they arrived,
+ * while different accounts are handled in parallel. <p> Events are marked as seen when they are dispatched, so a
+ * handler that fails should retry on its own, since the same event pushed again will be dropped as a duplicate.
+ */
+public class TxPushPipeline implements Closeable {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(TxPushPipeline.class));
+
+    /**
+     * Default number of accounts handled in parallel.
+     */
+    public static final int DEFAULT_STRIPES = 8;
+
+    /**
+     * Default number of events taken from a receiver at a time.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final Consumer<TxPushEvent> handler;
+
+    private final TxPushDeduplicator txPushDeduplicator;
+
+    private final StripedExecutor stripedExecutor;
+
+    private final LongAdder dispatched = new LongAdder();
+
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * Thread taking events from a receiver, or null if not connected.
+     */
+    private volatile Thread pump;
+
+    /**
+     * Construct a pipeline with the default window and parallelism.
+     *
+     * @param handler Handles each event.
+     */
+    public TxPushPipeline(final Consumer<TxPushEvent> handler) {
+        this(handler, new TxPushDeduplicator(), new StripedExecutor(DEFAULT_STRIPES));
+    }
+
+    /**
+     * Construct a pipeline.
+     *
+     * @param handler            Handles each event.
+     * @param txPushDeduplicator Recognizes redelivered events.
+     * @param stripedExecutor    Runs the handler, and is closed with the pipeline.
+     */
+    public TxPushPipeline(final Consumer<TxPushEvent> handler, final TxPushDeduplicator txPushDeduplicator,
+                          final StripedExecutor stripedExecutor) {
+        assert handler != null;
+        assert txPushDeduplicator != null;
+        assert stripedExecutor != null;
+
+        this.handler = handler;
+        this.txPushDeduplicator = txPushDeduplicator;
+        this.stripedExecutor = stripedExecutor;
+    }
+
+    /**
+     * Dispatch events to the handler, dropping duplicates. This blocks if the lane of an event's account is full.
+     *
+     * @param txPushEvents The events, in the order they arrived.
+     * @return The number of events dispatched.
+     * @throws InterruptedException The thread was interrupted while waiting for room on a lane.
+     */
+    public int accept(final Collection<TxPushEvent> txPushEvents) throws InterruptedException {
+        int count = 0;
+        for (final TxPushEvent txPushEvent : txPushEvents) {
+            if (!txPushDeduplicator.markSeen(txPushEvent)) {
+                duplicates.increment();
+                continue;
+            }
+
+            stripedExecutor.execute(getAccountId(txPushEvent), () -> handler.accept(txPushEvent));
+            dispatched.increment();
+            ++count;
+        }
+
+        return count;
+    }
+
+    /**
+     * Start a thread that takes events from a receiver and dispatches them, until the pipeline is closed.
+     *
+     * @param txPushReceiver The receiver.
+     */
+    public synchronized void connect(final TxPushReceiver txPushReceiver) {
+        assert txPushReceiver != null;
+        assert pump == null;
+
+        final Thread thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    final List<TxPushEvent> batch = txPushReceiver.takeBatch(DEFAULT_BATCH_SIZE, 1000);
+                    accept(batch);
+                } catch (InterruptedException ex) {
+                    return;
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.WARNING, "Failed to dispatch TxPush events", ex);
+                }
+            }
+        }, "finicity-txpush-pipeline");
+        thread.setDaemon(true);
+        thread.start();
+        pump = thread;
+    }
+
+    private static String getAccountId(final TxPushEvent txPushEvent) {
+        if (txPushEvent.getTransaction() != null && txPushEvent.getTransaction().getAccountId() != null) {
+            return txPushEvent.getTransaction().getAccountId();
+        }
+
+        return txPushEvent.getAccount() != null ? txPushEvent.getAccount().getId() : null;
+    }
+
+    public StripedExecutor getStripedExecutor() {
+        return stripedExecutor;
+    }
+
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    /**
+     * Stop taking events from the receiver, and stop the lanes once the events already dispatched have been handled.
+     */
+    @Override
+    public void close() {
+        final Thread thread = pump;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        stripedExecutor.close();
+    }
+}
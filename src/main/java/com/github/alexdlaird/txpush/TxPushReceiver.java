@@ -0,0 +1,559 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import com.github.alexdlaird.component.FinicityPersister;
+import com.github.alexdlaird.type.tx_push.Subscription;
+import com.github.alexdlaird.type.tx_push.TxPushEvent;
+import com.github.alexdlaird.type.tx_push.TxPushEvents;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.simpleframework.xml.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Receives TxPush notifications, verifies them, and queues their events to be taken in micro-batches. <p> Each push
+ * is signed with the <code>signingKey</code> of the subscription it was sent for. Register each subscription's key
+ * under its account ID, and register the subscription's <code>callbackUrl</code> as the receiver's path followed by the
+ * account ID, for instance <code>https://example.com/txpush/2001</code>, so the key is found with one lookup. Any
+ * other path, including one with more segments, is answered with a 404. Keys can also be looked up in a {@link
+ * SubscriptionRegistry}. The signature is the hex HMAC-SHA256 of the body, sent in the {@link
+ * #DEFAULT_SIGNATURE_HEADER} header. <p> A push
+ * is answered as soon as it has been verified, parsed and queued; it is never held while events are processed. When
+ * the queue is full, the whole push is refused with a 503, rather than queued in part, so Finicity sends it again
+ * later. Consumers call {@link #takeBatch(int, long)} to take whatever events have arrived, up to a batch size. <p> The
+ * receiver runs on the JDK's {@link HttpServer}, but another server can be used by passing each push to {@link
+ * #receive(String, String, byte[])}.
+ */
+public class TxPushReceiver implements Closeable {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(String.valueOf(TxPushReceiver.class));
+
+    /**
+     * Default header the signature is sent in.
+     */
+    public static final String DEFAULT_SIGNATURE_HEADER = "X-Finicity-Signature";
+
+    /**
+     * Default number of events that can be queued.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * Default size of the largest body accepted.
+     */
+    public static final int DEFAULT_MAX_BODY_BYTES = 1024 * 1024;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * Numbers the threads of all receivers.
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * The path pushes are received on.
+     */
+    private final String path;
+
+    /**
+     * The header the signature is sent in.
+     */
+    private final String signatureHeader;
+
+    /**
+     * Number of events that can be queued.
+     */
+    private final int capacity;
+
+    /**
+     * Size of the largest body accepted.
+     */
+    private final int maxBodyBytes;
+
+    /**
+     * Each subscription's signing key, by account ID.
+     */
+    private final Map<String, String> signingKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Subscriptions whose signing keys are also accepted, or null.
+     */
+    private final SubscriptionRegistry subscriptionRegistry;
+
+    /**
+     * Events waiting to be taken.
+     */
+    private final LinkedBlockingQueue<TxPushEvent> events = new LinkedBlockingQueue<>();
+
+    /**
+     * Events queued or reserved for queueing, which never exceeds {@link #capacity}.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Serializer for parsing pushes.
+     */
+    private final Serializer serializer;
+
+    /**
+     * The server, or null if pushes are passed in by another server.
+     */
+    private final HttpServer httpServer;
+
+    /**
+     * The server's threads, or null.
+     */
+    private final ExecutorService executorService;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder unauthorized = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    /**
+     * Construct a receiver without a server, which is passed each push by {@link #receive(String, String, byte[])}.
+     *
+     * @param path The path pushes are received on.
+     */
+    public TxPushReceiver(final String path) {
+        this(null, path, DEFAULT_SIGNATURE_HEADER, DEFAULT_CAPACITY, DEFAULT_MAX_BODY_BYTES, 0);
+    }
+
+    /**
+     * Construct a receiver on a JDK {@link HttpServer}, which is started by {@link #start()}.
+     *
+     * @param address The address to listen on.
+     * @param path    The path pushes are received on, like <code>/txpush</code>.
+     * @throws IOException The server could not be bound.
+     */
+    public TxPushReceiver(final InetSocketAddress address, final String path) throws IOException {
+        this(address, path, null);
+    }
+
+    /**
+     * Construct a receiver on a JDK {@link HttpServer}, which is started by {@link #start()}, and which accepts the
+     * signing keys of every subscription in a registry.
+     *
+     * @param address              The address to listen on.
+     * @param path                 The path pushes are received on, like <code>/txpush</code>.
+     * @param subscriptionRegistry The registry signing keys are looked up in, or null.
+     * @throws IOException The server could not be bound.
+     */
+    public TxPushReceiver(final InetSocketAddress address, final String path,
+                          final SubscriptionRegistry subscriptionRegistry) throws IOException {
+        this(HttpServer.create(address, 0), path, DEFAULT_SIGNATURE_HEADER, DEFAULT_CAPACITY, DEFAULT_MAX_BODY_BYTES,
+                4, subscriptionRegistry);
+    }
+
+    /**
+     * Construct a receiver.
+     *
+     * @param httpServer      The server to receive pushes on, which must not have been started, or null.
+     * @param path            The path pushes are received on.
+     * @param signatureHeader The header the signature is sent in.
+     * @param capacity        Number of events that can be queued.
+     * @param maxBodyBytes    Size of the largest body accepted.
+     * @param threads         Number of threads the server handles pushes on.
+     */
+    public TxPushReceiver(final HttpServer httpServer, final String path, final String signatureHeader,
+                          final int capacity, final int maxBodyBytes, final int threads) {
+        this(httpServer, path, signatureHeader, capacity, maxBodyBytes, threads, null);
+    }
+
+    /**
+     * Construct a receiver.
+     *
+     * @param httpServer           The server to receive pushes on, which must not have been started, or null.
+     * @param path                 The path pushes are received on.
+     * @param signatureHeader      The header the signature is sent in.
+     * @param capacity             Number of events that can be queued.
+     * @param maxBodyBytes         Size of the largest body accepted.
+     * @param threads              Number of threads the server handles pushes on.
+     * @param subscriptionRegistry The registry signing keys are looked up in, or null.
+     */
+    public TxPushReceiver(final HttpServer httpServer, final String path, final String signatureHeader,
+                          final int capacity, final int maxBodyBytes, final int threads,
+                          final SubscriptionRegistry subscriptionRegistry) {
+        assert path != null && path.startsWith("/");
+        assert signatureHeader != null;
+        assert capacity > 0;
+        assert maxBodyBytes > 0;
+        assert httpServer == null || threads > 0;
+
+        this.path = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        this.signatureHeader = signatureHeader;
+        this.capacity = capacity;
+        this.maxBodyBytes = maxBodyBytes;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.serializer = createSerializer();
+        this.httpServer = httpServer;
+
+        if (httpServer != null) {
+            executorService = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "finicity-txpush-" + THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+            httpServer.setExecutor(executorService);
+            httpServer.createContext(this.path.isEmpty() ? "/" : this.path, this::handle);
+        } else {
+            executorService = null;
+        }
+    }
+
+    /**
+     * Override this method if you would like to implement a custom {@link Serializer}. If so, it is recommended you
+     * extend {@link FinicityPersister}, as that properly handles Finicity enums.
+     *
+     * @return A {@link FinicityPersister} instance of a {@link Serializer}.
+     */
+    protected FinicityPersister createSerializer() {
+        return new FinicityPersister();
+    }
+
+    /**
+     * Register a subscription's signing key.
+     *
+     * @param subscription A subscription returned when enabling TxPush notifications.
+     */
+    public void register(final Subscription subscription) {
+        registerSigningKey(subscription.getAccountId(), subscription.getSigningKey());
+    }
+
+    /**
+     * Register the signing key of an account's subscription.
+     *
+     * @param accountId  The account ID, which is the last segment of the subscription's <code>callbackUrl</code>.
+     * @param signingKey The signing key.
+     */
+    public void registerSigningKey(final String accountId, final String signingKey) {
+        assert accountId != null;
+        assert signingKey != null;
+
+        signingKeys.put(accountId, signingKey);
+    }
+
+    /**
+     * Stop accepting pushes for an account.
+     *
+     * @param accountId The account ID.
+     */
+    public void unregister(final String accountId) {
+        signingKeys.remove(accountId);
+    }
+
+    public void start() {
+        if (httpServer != null) {
+            httpServer.start();
+        }
+    }
+
+    private void handle(final HttpExchange httpExchange) throws IOException {
+        try {
+            // Contexts match by prefix, so only the path followed by a single account ID segment is accepted
+            final String accountId = getAccountId(httpExchange.getRequestURI().getPath());
+            final int statusCode;
+            if (accountId == null) {
+                statusCode = 404;
+            } else if (!"POST".equals(httpExchange.getRequestMethod())) {
+                statusCode = 405;
+            } else {
+                final byte[] body = readBody(httpExchange.getRequestBody());
+                if (body == null) {
+                    statusCode = 413;
+                } else {
+                    statusCode = receive(accountId, httpExchange.getRequestHeaders().getFirst(signatureHeader), body);
+                }
+            }
+
+            httpExchange.sendResponseHeaders(statusCode, -1);
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    private String getAccountId(final String requestPath) {
+        if (requestPath == null || !requestPath.startsWith(path + "/")) {
+            return null;
+        }
+
+        final String accountId = requestPath.substring(path.length() + 1);
+
+        return !accountId.isEmpty() && accountId.indexOf('/') < 0 ? accountId : null;
+    }
+
+    private byte[] readBody(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            if (byteArrayOutputStream.size() + read > maxBodyBytes) {
+                return null;
+            }
+            byteArrayOutputStream.write(buffer, 0, read);
+        }
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * Verify, parse and queue a push.
+     *
+     * @param accountId The account ID the push was sent for, from the last segment of its URL, or null if the URL has
+     *                  none, in which case the push is refused, since only that account's keys are tried.
+     * @param signature The hex signature sent with the push.
+     * @param body      The body of the push.
+     * @return The HTTP status to respond with: 200 if the push was queued, 401 if its signature was not valid, 400 if
+     * it could not be parsed, or 503 if the queue is too full to take it.
+     */
+    public int receive(final String accountId, final String signature, final byte[] body) {
+        if (!verify(accountId, signature, body)) {
+            unauthorized.increment();
+            LOGGER.log(Level.FINE, "Refused a TxPush notification with an invalid signature for account {0}", accountId);
+
+            return 401;
+        }
+
+        final List<TxPushEvent> pushed;
+        try {
+            pushed = parse(new String(body, StandardCharsets.UTF_8));
+        } catch (Exception ex) {
+            malformed.increment();
+            LOGGER.log(Level.WARNING, "Refused a TxPush notification that could not be parsed", ex);
+
+            return 400;
+        }
+
+        // Reserve room for every event first, so a push is never queued in part
+        if (queued.addAndGet(pushed.size()) > capacity) {
+            queued.addAndGet(-pushed.size());
+            refused.increment();
+
+            return 503;
+        }
+        events.addAll(pushed);
+        accepted.increment();
+        received.add(pushed.size());
+
+        return 200;
+    }
+
+    private boolean verify(final String accountId, final String signature, final byte[] body) {
+        if (accountId == null || signature == null) {
+            return false;
+        }
+
+        final byte[] expected = decodeHex(signature.trim());
+        if (expected == null) {
+            return false;
+        }
+
+        final String signingKey = signingKeys.get(accountId);
+        if (signingKey != null && MessageDigest.isEqual(expected, sign(signingKey, body))) {
+            return true;
+        }
+
+        return subscriptionRegistry != null &&
+                verifyAny(subscriptionRegistry.getSigningKeys(accountId), expected, body);
+    }
+
+    private static boolean verifyAny(final Collection<String> signingKeys, final byte[] expected, final byte[] body) {
+        for (final String signingKey : signingKeys) {
+            if (MessageDigest.isEqual(expected, sign(signingKey, body))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Compute the signature of a body.
+     *
+     * @param signingKey The signing key.
+     * @param body       The body.
+     * @return The HMAC-SHA256 of the body.
+     */
+    static byte[] sign(final String signingKey, final byte[] body) {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+    }
+
+    private static byte[] decodeHex(final String hex) {
+        if (hex.length() % 2 != 0) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            final int high = Character.digit(hex.charAt(i * 2), 16);
+            final int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+
+        return bytes;
+    }
+
+    private List<TxPushEvent> parse(final String body) throws Exception {
+        if ("events".equals(getRootName(body))) {
+            final List<TxPushEvent> pushed = serializer.read(TxPushEvents.class, body).getEvents();
+
+            return pushed != null ? pushed : Collections.<TxPushEvent>emptyList();
+        }
+
+        return Collections.singletonList(serializer.read(TxPushEvent.class, body));
+    }
+
+    private static String getRootName(final String body) {
+        int start = body.indexOf('<');
+        while (start >= 0 && start + 1 < body.length() && (body.charAt(start + 1) == '?' ||
+                body.charAt(start + 1) == '!')) {
+            start = body.indexOf('<', start + 1);
+        }
+        if (start < 0) {
+            return null;
+        }
+
+        int end = start + 1;
+        while (end < body.length() && !Character.isWhitespace(body.charAt(end)) && body.charAt(end) != '>' &&
+                body.charAt(end) != '/') {
+            ++end;
+        }
+
+        return body.substring(start + 1, end);
+    }
+
+    /**
+     * Take the events that have arrived, waiting for at least one.
+     *
+     * @param maxEvents     The most events to take.
+     * @param maxWaitMillis Longest to wait for an event to arrive.
+     * @return The events, in the order they arrived, which is empty if none arrived in time.
+     * @throws InterruptedException The thread was interrupted while waiting.
+     */
+    public List<TxPushEvent> takeBatch(final int maxEvents, final long maxWaitMillis) throws InterruptedException {
+        assert maxEvents > 0;
+
+        final List<TxPushEvent> batch = new ArrayList<>();
+        final TxPushEvent first = events.poll(maxWaitMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+
+        batch.add(first);
+        events.drainTo(batch, maxEvents - 1);
+        queued.addAndGet(-batch.size());
+
+        return batch;
+    }
+
+    /**
+     * Get the number of events waiting to be taken.
+     *
+     * @return The number of events.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Get the port the server is listening on.
+     *
+     * @return The port, or -1 if the receiver has no server.
+     */
+    public int getPort() {
+        return httpServer != null ? httpServer.getAddress().getPort() : -1;
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getUnauthorized() {
+        return unauthorized.sum();
+    }
+
+    public long getMalformed() {
+        return malformed.sum();
+    }
+
+    public long getRefused() {
+        return refused.sum();
+    }
+
+    public long getReceivedEvents() {
+        return received.sum();
+    }
+
+    /**
+     * Stop the server, if any. Events already queued can still be taken.
+     */
+    @Override
+    public void close() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import com.github.alexdlaird.FinicityClient;
+import com.github.alexdlaird.bulk.BulkOperations;
+import com.github.alexdlaird.bulk.BulkResults;
+import com.github.alexdlaird.operation.TxPushOperations;
+import com.github.alexdlaird.type.tx_push.Subscription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Enables and disables TxPush notifications for many accounts at once, recording every {@link Subscription} in a
+ * {@link SubscriptionRegistry}. <p> Customers are processed in parallel by {@link BulkOperations}, and each customer's
+ * accounts in turn, so one customer that fails does not stop the rest. {@link #reconcile(Map, Function)} compares the
+ * accounts that should have notifications against the registry, and only enables or disables the difference.
+ */
+public class TxPushSubscriptions {
+    /**
+     * The client operations are made with.
+     */
+    private final FinicityClient finicityClient;
+
+    /**
+     * Where subscriptions are recorded.
+     */
+    private final SubscriptionRegistry subscriptionRegistry;
+
+    /**
+     * Runs operations for many customers.
+     */
+    private final BulkOperations bulkOperations;
+
+    /**
+     * Construct a facade that processes the default number of customers at once.
+     *
+     * @param finicityClient       The client operations are made with.
+     * @param subscriptionRegistry Where subscriptions are recorded.
+     */
+    public TxPushSubscriptions(final FinicityClient finicityClient, final SubscriptionRegistry subscriptionRegistry) {
+        this(finicityClient, subscriptionRegistry, BulkOperations.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Construct a facade.
+     *
+     * @param finicityClient       The client operations are made with.
+     * @param subscriptionRegistry Where subscriptions are recorded.
+     * @param parallelism          Number of customers processed at once.
+     */
+    public TxPushSubscriptions(final FinicityClient finicityClient, final SubscriptionRegistry subscriptionRegistry,
+                               final int parallelism) {
+        assert finicityClient != null;
+        assert subscriptionRegistry != null;
+
+        this.finicityClient = finicityClient;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.bulkOperations = new BulkOperations(finicityClient, parallelism);
+    }
+
+    /**
+     * Enable notifications for an account, and record its subscriptions.
+     *
+     * @param customerId  ID of the customer.
+     * @param accountId   ID of the account.
+     * @param callbackUrl The URL notifications are sent to.
+     * @return The subscriptions.
+     */
+    public List<Subscription> enable(final String customerId, final String accountId, final String callbackUrl) {
+        final List<Subscription> subscriptions = getTxPushOperations().enableTxPushNotifications(customerId,
+                accountId, new Subscription(null, null, null, callbackUrl, null));
+        subscriptionRegistry.put(customerId, accountId,
+                subscriptions != null ? subscriptions : Collections.<Subscription>emptyList());
+
+        return subscriptions;
+    }
+
+    /**
+     * Disable notifications for an account, and forget its subscriptions.
+     *
+     * @param customerId ID of the customer.
+     * @param accountId  ID of the account.
+     */
+    public void disable(final String customerId, final String accountId) {
+        getTxPushOperations().disableTxPushNotifications(customerId, accountId);
+        subscriptionRegistry.removeAccount(accountId);
+    }
+
+    /**
+     * Enable notifications for many accounts.
+     *
+     * @param accountIdsByCustomerId The account IDs to enable, by customer ID.
+     * @param callbackUrl            The URL notifications are sent to, given an account ID.
+     * @return Each customer's new subscriptions, as the customer completes.
+     */
+    public BulkResults<List<Subscription>> enableAll(final Map<String, ? extends Collection<String>>
+                                                             accountIdsByCustomerId,
+                                                     final Function<String, String> callbackUrl) {
+        return bulkOperations.execute(accountIdsByCustomerId.keySet(), customerId -> {
+            final List<Subscription> subscriptions = new ArrayList<>();
+            for (final String accountId : accountIdsByCustomerId.get(customerId)) {
+                final List<Subscription> enabled = enable(customerId, accountId, callbackUrl.apply(accountId));
+                if (enabled != null) {
+                    subscriptions.addAll(enabled);
+                }
+            }
+
+            return subscriptions;
+        });
+    }
+
+    /**
+     * Disable notifications for every recorded account of many customers.
+     *
+     * @param customerIds The customer IDs.
+     * @return The number of accounts disabled for each customer, as the customer completes.
+     */
+    public BulkResults<Integer> disableAll(final Collection<String> customerIds) {
+        return bulkOperations.execute(customerIds, customerId -> {
+            int disabled = 0;
+            for (final String accountId : new ArrayList<>(subscriptionRegistry.getAccountIds(customerId))) {
+                disable(customerId, accountId);
+                ++disabled;
+            }
+
+            return disabled;
+        });
+    }
+
+    /**
+     * Compare the accounts a customer should have notifications for against the registry, without calling the API.
+     *
+     * @param customerId  ID of the customer.
+     * @param accountIds  The account IDs that should have notifications.
+     * @param callbackUrl The URL notifications should be sent to, given an account ID.
+     * @return The drift, which is empty if the registry already matches.
+     */
+    public SubscriptionDrift findDrift(final String customerId, final Collection<String> accountIds,
+                                       final Function<String, String> callbackUrl) {
+        final Set<String> missing = new LinkedHashSet<>();
+        final Set<String> changed = new LinkedHashSet<>();
+        for (final String accountId : accountIds) {
+            final List<Subscription> subscriptions = subscriptionRegistry.getSubscriptions(accountId);
+            if (subscriptions.isEmpty() || !customerId.equals(subscriptionRegistry.getCustomerId(accountId))) {
+                missing.add(accountId);
+                continue;
+            }
+
+            final String expected = callbackUrl.apply(accountId);
+            for (final Subscription subscription : subscriptions) {
+                if (!expected.equals(subscription.getCallbackUrl())) {
+                    changed.add(accountId);
+                    break;
+                }
+            }
+        }
+
+        final Set<String> stale = new LinkedHashSet<>(subscriptionRegistry.getAccountIds(customerId));
+        stale.removeAll(accountIds);
+
+        return new SubscriptionDrift(customerId, missing, stale, changed);
+    }
+
+    /**
+     * Bring the notifications of many customers in line with the accounts that should have them. Stale accounts are
+     * disabled, accounts with a changed callback URL are disabled and enabled again, and missing accounts are enabled;
+     * accounts whose subscriptions already match are not touched.
+     *
+     * @param accountIdsByCustomerId The account IDs that should have notifications, by customer ID.
+     * @param callbackUrl            The URL notifications should be sent to, given an account ID.
+     * @return The drift found for each customer, as the customer is reconciled.
+     */
+    public BulkResults<SubscriptionDrift> reconcile(final Map<String, ? extends Collection<String>>
+                                                            accountIdsByCustomerId,
+                                                    final Function<String, String> callbackUrl) {
+        return bulkOperations.execute(accountIdsByCustomerId.keySet(), customerId -> {
+            final SubscriptionDrift subscriptionDrift = findDrift(customerId, accountIdsByCustomerId.get(customerId),
+                    callbackUrl);
+
+            for (final String accountId : subscriptionDrift.getStale()) {
+                disable(customerId, accountId);
+            }
+            for (final String accountId : subscriptionDrift.getChanged()) {
+                disable(customerId, accountId);
+                enable(customerId, accountId, callbackUrl.apply(accountId));
+            }
+            for (final String accountId : subscriptionDrift.getMissing()) {
+                enable(customerId, accountId, callbackUrl.apply(accountId));
+            }
+
+            return subscriptionDrift;
+        });
+    }
+
+    private TxPushOperations getTxPushOperations() {
+        return finicityClient.getTxPushOperations();
+    }
+
+    public SubscriptionRegistry getSubscriptionRegistry() {
+        return subscriptionRegistry;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An immutable amount of money held as a <code>long</code> number of minor units (cents), which, unlike a
+ * <code>Double</code>, adds up exactly however many amounts are aggregated. <p> Amounts can be parsed straight from
+ * the text of a response, including from a parser's <code>char[]</code> buffer, without an intermediate
+ * <code>Double</code>, <code>String</code> or {@link BigDecimal}. Digits beyond the minor unit are rounded half away
+ * from zero. To aggregate large numbers of amounts without allocating, work with minor units directly, for instance
+ * through a {@link MoneySummary}.
+ */
+public final class Money implements Comparable<Money> {
+    /**
+     * The number of minor units in one unit of currency.
+     */
+    public static final int MINOR_UNITS = 100;
+
+    /**
+     * The number of digits of a minor unit.
+     */
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * The amount in minor units.
+     */
+    private final long minorUnits;
+
+    private Money(final long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Get an amount from a number of minor units.
+     *
+     * @param minorUnits The amount in cents.
+     * @return The amount.
+     */
+    public static Money ofMinorUnits(final long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Get an amount from a <code>Double</code>, for instance one of the amounts on a {@link
+     * com.github.alexdlaird.type.transaction.Transaction Transaction}, rounded to the nearest minor unit.
+     *
+     * @param value The amount in units of currency, or null.
+     * @return The amount, or null if the value was null.
+     */
+    public static Money valueOf(final Double value) {
+        if (value == null) {
+            return null;
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new NumberFormatException("Not a finite amount: " + value);
+        }
+
+        return ofMinorUnits(Math.round(value * MINOR_UNITS));
+    }
+
+    /**
+     * Parse an amount, like <code>-828.9</code>.
+     *
+     * @param text The amount in units of currency.
+     * @return The amount.
+     * @throws NumberFormatException The text is not a number, or is out of range.
+     */
+    public static Money parse(final CharSequence text) {
+        return ofMinorUnits(parseMinorUnits(text));
+    }
+
+    /**
+     * Parse an amount into minor units, without allocating.
+     *
+     * @param text The amount in units of currency.
+     * @return The amount in cents.
+     * @throws NumberFormatException The text is not a number, or is out of range.
+     */
+    public static long parseMinorUnits(final CharSequence text) {
+        assert text != null;
+
+        return parseMinorUnits(null, text, 0, text.length());
+    }
+
+    /**
+     * Parse an amount held in a character array into minor units, without allocating.
+     *
+     * @param chars  The array.
+     * @param offset The offset of the first character.
+     * @param length The number of characters.
+     * @return The amount in cents.
+     * @throws NumberFormatException The text is not a number, or is out of range.
+     */
+    public static long parseMinorUnits(final char[] chars, final int offset, final int length) {
+        assert chars != null;
+
+        return parseMinorUnits(chars, null, offset, length);
+    }
+
+    private static long parseMinorUnits(final char[] chars, final CharSequence text, final int offset,
+                                        final int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && Character.isWhitespace(charAt(chars, text, start))) {
+            ++start;
+        }
+        while (end > start && Character.isWhitespace(charAt(chars, text, end - 1))) {
+            --end;
+        }
+
+        boolean negative = false;
+        if (start < end && (charAt(chars, text, start) == '-' || charAt(chars, text, start) == '+')) {
+            negative = charAt(chars, text, start) == '-';
+            ++start;
+        }
+
+        long units = 0;
+        // -1 until the decimal point is seen, then the number of fraction digits read
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        boolean digits = false;
+        try {
+            for (int i = start; i < end; ++i) {
+                final char c = charAt(chars, text, i);
+                if (c >= '0' && c <= '9') {
+                    digits = true;
+                    if (fractionDigits < 0) {
+                        units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                    } else if (fractionDigits < SCALE) {
+                        units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                        ++fractionDigits;
+                    } else if (fractionDigits == SCALE) {
+                        roundUp = c >= '5';
+                        ++fractionDigits;
+                    }
+                } else if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else if ((c == 'e' || c == 'E') && digits) {
+                    // Exponents are rare enough in responses not to be worth parsing without allocating
+                    return parseExponent(chars, text, offset, length);
+                } else {
+                    throw new NumberFormatException("Not an amount: " + toString(chars, text, offset, length));
+                }
+            }
+            if (!digits) {
+                throw new NumberFormatException("Not an amount: " + toString(chars, text, offset, length));
+            }
+
+            for (int i = Math.max(fractionDigits, 0); i < SCALE; ++i) {
+                units = Math.multiplyExact(units, 10);
+            }
+            if (roundUp) {
+                units = Math.addExact(units, 1);
+            }
+        } catch (ArithmeticException ex) {
+            throw new NumberFormatException("Amount out of range: " + toString(chars, text, offset, length));
+        }
+
+        return negative ? -units : units;
+    }
+
+    private static long parseExponent(final char[] chars, final CharSequence text, final int offset,
+                                      final int length) {
+        final String value = toString(chars, text, offset, length);
+        try {
+            return new BigDecimal(value.trim()).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new NumberFormatException("Amount out of range: " + value);
+        }
+    }
+
+    private static char charAt(final char[] chars, final CharSequence text, final int index) {
+        return chars != null ? chars[index] : text.charAt(index);
+    }
+
+    private static String toString(final char[] chars, final CharSequence text, final int offset, final int length) {
+        return chars != null ? new String(chars, offset, length) : text.subSequence(offset, offset + length).toString();
+    }
+
+    public Money plus(final Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(final Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinorUnits(Math.negateExact(minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(final Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return this == o || o instanceof Money && minorUnits == ((Money) o).minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
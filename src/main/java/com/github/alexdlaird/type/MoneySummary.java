@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Summarizes amounts given in minor units, without allocating per amount, and without the silent overflow of a
+ * {@link java.util.LongSummaryStatistics}: a sum that does not fit in a <code>long</code> throws an {@link
+ * ArithmeticException}. <p> Summaries are not thread-safe, but can be built per thread and then combined.
+ */
+public class MoneySummary implements LongConsumer {
+    private long count;
+
+    private long sum;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Add an amount.
+     *
+     * @param minorUnits The amount in cents.
+     */
+    @Override
+    public void accept(final long minorUnits) {
+        sum = Math.addExact(sum, minorUnits);
+        min = Math.min(min, minorUnits);
+        max = Math.max(max, minorUnits);
+        ++count;
+    }
+
+    /**
+     * Add the amounts of another summary to this one.
+     *
+     * @param other The other summary.
+     * @return This summary.
+     */
+    public MoneySummary combine(final MoneySummary other) {
+        sum = Math.addExact(sum, other.sum);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        count += other.count;
+
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSumMinorUnits() {
+        return sum;
+    }
+
+    /**
+     * Get the smallest amount.
+     *
+     * @return The smallest amount in cents, or 0 if there are none.
+     */
+    public long getMinMinorUnits() {
+        return count > 0 ? min : 0;
+    }
+
+    /**
+     * Get the largest amount.
+     *
+     * @return The largest amount in cents, or 0 if there are none.
+     */
+    public long getMaxMinorUnits() {
+        return count > 0 ? max : 0;
+    }
+
+    public Money getSum() {
+        return Money.ofMinorUnits(sum);
+    }
+
+    /**
+     * Get the smallest amount.
+     *
+     * @return The smallest amount, or null if there are none.
+     */
+    public Money getMin() {
+        return count > 0 ? Money.ofMinorUnits(min) : null;
+    }
+
+    /**
+     * Get the largest amount.
+     *
+     * @return The largest amount, or null if there are none.
+     */
+    public Money getMax() {
+        return count > 0 ? Money.ofMinorUnits(max) : null;
+    }
+
+    /**
+     * Get the mean amount.
+     *
+     * @return The mean amount in cents, or 0 if there are none.
+     */
+    public double getAverageMinorUnits() {
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "MoneySummary{count=" + count +
+                ", sum=" + getSum() +
+                ", min=" + getMin() +
+                ", max=" + getMax() + "}";
+    }
+}
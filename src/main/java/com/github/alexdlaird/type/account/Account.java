@@ -24,6 +24,7 @@
 package com.github.alexdlaird.type.account;
 
 import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.type.Money;
 
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.Root;
@@ -124,6 +125,18 @@ public class Account implements AccountResponse, Body {
         return balance;
     }
 
+    /**
+     * Get the balance as an exact number of minor units. It is parsed, as a {@link
+     * com.github.alexdlaird.component.MoneyTransform MoneyTransform} would, from the shortest decimal text that reads
+     * back as {@link #getBalance()}, which is the text Finicity sent for any balance of up to 15 significant digits,
+     * so no binary rounding error is carried into it.
+     *
+     * @return The balance, or null if there is none.
+     */
+    public Money getBalanceMoney() {
+        return balance != null ? Money.parse(Double.toString(balance)) : null;
+    }
+
     public Integer getAggregationStatusCode() {
         return aggregationStatusCode;
     }
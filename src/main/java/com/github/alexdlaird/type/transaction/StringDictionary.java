@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type.transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each distinct string a small integer code, so a column of repetitive strings can be held as an
+ * <code>int[]</code> with each string stored once.
+ */
+final class StringDictionary {
+    /**
+     * The code of a null string.
+     */
+    static final int NULL_CODE = -1;
+
+    /**
+     * Each string's code.
+     */
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /**
+     * Each code's string.
+     */
+    private final List<String> values = new ArrayList<>();
+
+    int encode(final String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+
+        final Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        values.add(value);
+        codes.put(value, values.size() - 1);
+
+        return values.size() - 1;
+    }
+
+    String decode(final int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    /**
+     * Find the code of a string, without adding it.
+     *
+     * @param value The string.
+     * @return The code, or {@link #NULL_CODE} if the string is not in the dictionary.
+     */
+    int find(final String value) {
+        final Integer code = codes.get(value);
+
+        return code != null ? code : NULL_CODE;
+    }
+
+    int size() {
+        return values.size();
+    }
+}
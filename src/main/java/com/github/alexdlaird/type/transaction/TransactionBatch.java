@@ -0,0 +1,810 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type.transaction;
+
+import com.github.alexdlaird.type.Money;
+import com.github.alexdlaird.type.MoneySummary;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * A compact, column-oriented batch of transactions, for holding large numbers of them in memory. <p> Dates are held in
+ * <code>long[]</code> columns and amounts as <code>long</code> minor units (cents), rather than as boxed objects.
+ * Repetitive strings, such as account IDs, types and categories, are dictionary-encoded, so each distinct value is
+ * stored once. Fields that are rarely anything other than zero or absent, like <code>bonusAmount</code> and
+ * <code>subaccount</code>, are kept aside only for the rows that have them. <p> {@link #get(int)} and {@link #asList()}
+ * return lightweight views that extend {@link Transaction}, so a batch can be passed to code written for a
+ * <code>List&lt;Transaction&gt;</code>. A batch is not thread-safe while rows are being added. <p> Amounts are held to
+ * the nearest cent, which is the precision Finicity reports them in.
+ */
+public class TransactionBatch {
+    /**
+     * The number of minor units in one unit of currency.
+     */
+    public static final int MINOR_UNITS = Money.MINOR_UNITS;
+
+    static final int POSTED_DATE = 1;
+    static final int CREATED_DATE = 1 << 1;
+    static final int TRANSACTION_DATE = 1 << 2;
+    static final int AMOUNT = 1 << 3;
+    static final int BONUS_AMOUNT = 1 << 4;
+    static final int ESCROW_AMOUNT = 1 << 5;
+    static final int FEE_AMOUNT = 1 << 6;
+    static final int INTEREST_AMOUNT = 1 << 7;
+    static final int PRINCIPAL_AMOUNT = 1 << 8;
+    static final int UNIT_QUANTITY = 1 << 9;
+    static final int UNIT_VALUE = 1 << 10;
+    static final int CATEGORIZATION = 1 << 11;
+    static final int SUBACCOUNT = 1 << 12;
+
+    /**
+     * The status column's value for a transaction with no status.
+     */
+    private static final byte NULL_STATUS = -1;
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final StringDictionary accountIdDictionary = new StringDictionary();
+    private final StringDictionary customerIdDictionary = new StringDictionary();
+    private final StringDictionary typeDictionary = new StringDictionary();
+    private final StringDictionary payeeDictionary = new StringDictionary();
+    private final StringDictionary categoryDictionary = new StringDictionary();
+    private final StringDictionary scheduleCDictionary = new StringDictionary();
+    private final StringDictionary sicDictionary = new StringDictionary();
+
+    /**
+     * Which nullable fields each row has, as a bitmask.
+     */
+    private int[] presence;
+
+    private String[] ids;
+    private String[] descriptions;
+    private String[] memos;
+    private String[] institutionTransactionIds;
+    private int[] accountIds;
+    private int[] customerIds;
+    private int[] types;
+    private int[] payees;
+    private int[] categories;
+    private int[] scheduleCs;
+    private int[] sics;
+    private long[] postedDates;
+    private long[] createdDates;
+    private long[] transactionDates;
+    private long[] amounts;
+    private byte[] statuses;
+
+    /**
+     * Rarely used fields, for the rows that have them; null for all other rows.
+     */
+    private Extras[] extras;
+
+    /**
+     * The number of rows.
+     */
+    private int size;
+
+    /**
+     * Reused by {@link #add(Transaction)} to hold a row's values before they are appended.
+     */
+    private final Row scratchRow = new Row();
+
+    /**
+     * Construct an empty batch.
+     */
+    public TransactionBatch() {
+        this(16);
+    }
+
+    /**
+     * Construct an empty batch with room for the given number of rows before it must grow.
+     *
+     * @param initialCapacity The initial number of rows.
+     */
+    public TransactionBatch(final int initialCapacity) {
+        assert initialCapacity > 0;
+
+        presence = new int[initialCapacity];
+        ids = new String[initialCapacity];
+        descriptions = new String[initialCapacity];
+        memos = new String[initialCapacity];
+        institutionTransactionIds = new String[initialCapacity];
+        accountIds = new int[initialCapacity];
+        customerIds = new int[initialCapacity];
+        types = new int[initialCapacity];
+        payees = new int[initialCapacity];
+        categories = new int[initialCapacity];
+        scheduleCs = new int[initialCapacity];
+        sics = new int[initialCapacity];
+        postedDates = new long[initialCapacity];
+        createdDates = new long[initialCapacity];
+        transactionDates = new long[initialCapacity];
+        amounts = new long[initialCapacity];
+        statuses = new byte[initialCapacity];
+        extras = new Extras[initialCapacity];
+    }
+
+    /**
+     * Construct a batch holding the given transactions.
+     *
+     * @param transactions The transactions.
+     * @return The batch.
+     */
+    public static TransactionBatch of(final List<Transaction> transactions) {
+        final TransactionBatch transactionBatch = new TransactionBatch(Math.max(transactions.size(), 1));
+        for (final Transaction transaction : transactions) {
+            transactionBatch.add(transaction);
+        }
+
+        return transactionBatch;
+    }
+
+    /**
+     * Add a transaction as a new row.
+     *
+     * @param transaction The transaction.
+     */
+    public void add(final Transaction transaction) {
+        final Row row = scratchRow;
+        row.reset();
+
+        row.id = transaction.getId();
+        row.accountId = transaction.getAccountId();
+        row.customerId = transaction.getCustomerId();
+        row.description = transaction.getDescription();
+        row.memo = transaction.getMemo();
+        row.institutionTransactionId = transaction.getInstitutionTransactionId();
+        row.type = transaction.getType();
+        row.checkNum = transaction.getCheckNum();
+        row.status = transaction.getStatus();
+        if (transaction.getPostedDate() != null) {
+            row.postedDate = transaction.getPostedDate();
+            row.presence |= POSTED_DATE;
+        }
+        if (transaction.getCreatedDate() != null) {
+            row.createdDate = transaction.getCreatedDate();
+            row.presence |= CREATED_DATE;
+        }
+        if (transaction.getTransactionDate() != null) {
+            row.transactionDate = transaction.getTransactionDate();
+            row.presence |= TRANSACTION_DATE;
+        }
+        if (transaction.getAmount() != null) {
+            row.amount = Money.valueOf(transaction.getAmount()).getMinorUnits();
+            row.presence |= AMOUNT;
+        }
+        row.setExtra(BONUS_AMOUNT, transaction.getBonusAmount());
+        row.setExtra(ESCROW_AMOUNT, transaction.getEscrowAmount());
+        row.setExtra(FEE_AMOUNT, transaction.getFeeAmount());
+        row.setExtra(INTEREST_AMOUNT, transaction.getInterestAmount());
+        row.setExtra(PRINCIPAL_AMOUNT, transaction.getPrincipalAmount());
+        row.setExtra(UNIT_QUANTITY, transaction.getUnitQuantity());
+        row.setExtra(UNIT_VALUE, transaction.getUnitValue());
+        if (transaction.getSubaccount() != null) {
+            row.subaccountName = transaction.getSubaccount().getName();
+            row.subaccountNumber = transaction.getSubaccount().getNumber();
+            row.presence |= SUBACCOUNT;
+        }
+        if (transaction.getCategorization() != null) {
+            row.normalizedPayeeName = transaction.getCategorization().getNormalizedPayeeName();
+            row.category = transaction.getCategorization().getCategory();
+            row.scheduleC = transaction.getCategorization().getScheduleC();
+            row.sic = transaction.getCategorization().getSic();
+            row.presence |= CATEGORIZATION;
+        }
+
+        append(row);
+    }
+
+    /**
+     * Add a row from a buffer a decoder has filled. The buffer may be reset and reused afterwards.
+     *
+     * @param row The row's values.
+     */
+    void append(final Row row) {
+        if (size == ids.length) {
+            grow();
+        }
+
+        presence[size] = row.presence;
+        ids[size] = row.id;
+        descriptions[size] = row.description;
+        memos[size] = row.memo;
+        institutionTransactionIds[size] = row.institutionTransactionId;
+        accountIds[size] = accountIdDictionary.encode(row.accountId);
+        customerIds[size] = customerIdDictionary.encode(row.customerId);
+        types[size] = typeDictionary.encode(row.type);
+        payees[size] = payeeDictionary.encode(row.normalizedPayeeName);
+        categories[size] = categoryDictionary.encode(row.category);
+        scheduleCs[size] = scheduleCDictionary.encode(row.scheduleC);
+        sics[size] = sicDictionary.encode(row.sic);
+        postedDates[size] = row.postedDate;
+        createdDates[size] = row.createdDate;
+        transactionDates[size] = row.transactionDate;
+        amounts[size] = row.amount;
+        statuses[size] = row.status != null ? (byte) row.status.ordinal() : NULL_STATUS;
+        extras[size] = row.createExtras();
+
+        ++size;
+    }
+
+    private void grow() {
+        final int capacity = ids.length * 2;
+
+        presence = Arrays.copyOf(presence, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        memos = Arrays.copyOf(memos, capacity);
+        institutionTransactionIds = Arrays.copyOf(institutionTransactionIds, capacity);
+        accountIds = Arrays.copyOf(accountIds, capacity);
+        customerIds = Arrays.copyOf(customerIds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        payees = Arrays.copyOf(payees, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        scheduleCs = Arrays.copyOf(scheduleCs, capacity);
+        sics = Arrays.copyOf(sics, capacity);
+        postedDates = Arrays.copyOf(postedDates, capacity);
+        createdDates = Arrays.copyOf(createdDates, capacity);
+        transactionDates = Arrays.copyOf(transactionDates, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        extras = Arrays.copyOf(extras, capacity);
+    }
+
+    /**
+     * Release any unused capacity, once no more rows will be added.
+     */
+    public void trimToSize() {
+        if (ids.length == size || size == 0) {
+            return;
+        }
+
+        presence = Arrays.copyOf(presence, size);
+        ids = Arrays.copyOf(ids, size);
+        descriptions = Arrays.copyOf(descriptions, size);
+        memos = Arrays.copyOf(memos, size);
+        institutionTransactionIds = Arrays.copyOf(institutionTransactionIds, size);
+        accountIds = Arrays.copyOf(accountIds, size);
+        customerIds = Arrays.copyOf(customerIds, size);
+        types = Arrays.copyOf(types, size);
+        payees = Arrays.copyOf(payees, size);
+        categories = Arrays.copyOf(categories, size);
+        scheduleCs = Arrays.copyOf(scheduleCs, size);
+        sics = Arrays.copyOf(sics, size);
+        postedDates = Arrays.copyOf(postedDates, size);
+        createdDates = Arrays.copyOf(createdDates, size);
+        transactionDates = Arrays.copyOf(transactionDates, size);
+        amounts = Arrays.copyOf(amounts, size);
+        statuses = Arrays.copyOf(statuses, size);
+        extras = Arrays.copyOf(extras, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get a view of a row.
+     *
+     * @param row The row.
+     * @return A transaction backed by the batch.
+     */
+    public Transaction get(final int row) {
+        checkRow(row);
+
+        return new View(row);
+    }
+
+    /**
+     * Get a view of every row, for code written for a <code>List&lt;Transaction&gt;</code>. The list is backed by the
+     * batch, and reflects rows added later.
+     *
+     * @return A list of transactions backed by the batch.
+     */
+    public List<Transaction> asList() {
+        return new AbstractList<Transaction>() {
+            @Override
+            public Transaction get(final int index) {
+                return TransactionBatch.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public String getId(final int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    public String getAccountId(final int row) {
+        checkRow(row);
+        return accountIdDictionary.decode(accountIds[row]);
+    }
+
+    public String getType(final int row) {
+        checkRow(row);
+        return typeDictionary.decode(types[row]);
+    }
+
+    public String getCategory(final int row) {
+        checkRow(row);
+        return categoryDictionary.decode(categories[row]);
+    }
+
+    public TransactionStatus getStatus(final int row) {
+        checkRow(row);
+        return statuses[row] != NULL_STATUS ? STATUSES[statuses[row]] : null;
+    }
+
+    public boolean hasPostedDate(final int row) {
+        checkRow(row);
+        return (presence[row] & POSTED_DATE) != 0;
+    }
+
+    /**
+     * Get a row's posted date.
+     *
+     * @param row The row.
+     * @return The posted date in seconds since the epoch, or 0 if the row has none.
+     */
+    public long getPostedDate(final int row) {
+        checkRow(row);
+        return postedDates[row];
+    }
+
+    public boolean hasTransactionDate(final int row) {
+        checkRow(row);
+        return (presence[row] & TRANSACTION_DATE) != 0;
+    }
+
+    /**
+     * Get a row's transaction date.
+     *
+     * @param row The row.
+     * @return The transaction date in seconds since the epoch, or 0 if the row has none.
+     */
+    public long getTransactionDate(final int row) {
+        checkRow(row);
+        return transactionDates[row];
+    }
+
+    public boolean hasAmount(final int row) {
+        checkRow(row);
+        return (presence[row] & AMOUNT) != 0;
+    }
+
+    /**
+     * Get a row's amount in minor units, without boxing.
+     *
+     * @param row The row.
+     * @return The amount in cents, or 0 if the row has none.
+     */
+    public long getAmountMinorUnits(final int row) {
+        checkRow(row);
+        return amounts[row];
+    }
+
+    /**
+     * Get a row's amount.
+     *
+     * @param row The row.
+     * @return The amount, or null if the row has none.
+     */
+    public Money getMoneyAmount(final int row) {
+        checkRow(row);
+        return (presence[row] & AMOUNT) != 0 ? Money.ofMinorUnits(amounts[row]) : null;
+    }
+
+    /**
+     * Sum the amounts of every row, exactly.
+     *
+     * @return The sum.
+     * @throws ArithmeticException The sum does not fit in a <code>long</code> of minor units.
+     */
+    public Money sumAmounts() {
+        long sum = 0;
+        for (int row = 0; row < size; ++row) {
+            sum = Math.addExact(sum, amounts[row]);
+        }
+
+        return Money.ofMinorUnits(sum);
+    }
+
+    /**
+     * Summarize the amounts of every row that has one.
+     *
+     * @return The summary.
+     */
+    public MoneySummary summarizeAmounts() {
+        return summarizeAmounts(row -> true);
+    }
+
+    /**
+     * Summarize the amounts of the rows that match a filter, for instance those of one account, using {@link
+     * #findAccountIdCode(String)} and {@link #getAccountIdCode(int)}, without creating a view of any row.
+     *
+     * @param filter Tests a row number.
+     * @return The summary.
+     */
+    public MoneySummary summarizeAmounts(final IntPredicate filter) {
+        final MoneySummary moneySummary = new MoneySummary();
+        for (int row = 0; row < size; ++row) {
+            if ((presence[row] & AMOUNT) != 0 && filter.test(row)) {
+                moneySummary.accept(amounts[row]);
+            }
+        }
+
+        return moneySummary;
+    }
+
+    /**
+     * Find the dictionary code of an account ID, for comparing against {@link #getAccountIdCode(int)} without decoding
+     * every row.
+     *
+     * @param accountId The account ID.
+     * @return The code, or -1 if no row has the account ID.
+     */
+    public int findAccountIdCode(final String accountId) {
+        return accountIdDictionary.find(accountId);
+    }
+
+    public int getAccountIdCode(final int row) {
+        checkRow(row);
+        return accountIds[row];
+    }
+
+    /**
+     * Get the account ID a dictionary code stands for.
+     *
+     * @param code A code, from 0 up to {@link #getAccountIdCodeCount()}.
+     * @return The account ID.
+     */
+    public String getAccountIdForCode(final int code) {
+        return accountIdDictionary.decode(code);
+    }
+
+    public int getAccountIdCodeCount() {
+        return accountIdDictionary.size();
+    }
+
+    /**
+     * Find the dictionary code of a category, for comparing against {@link #getCategoryCode(int)} without decoding
+     * every row.
+     *
+     * @param category The category.
+     * @return The code, or -1 if no row has the category.
+     */
+    public int findCategoryCode(final String category) {
+        return categoryDictionary.find(category);
+    }
+
+    public int getCategoryCode(final int row) {
+        checkRow(row);
+        return categories[row];
+    }
+
+    /**
+     * Get the category a dictionary code stands for.
+     *
+     * @param code A code, from 0 up to {@link #getCategoryCodeCount()}.
+     * @return The category.
+     */
+    public String getCategoryForCode(final int code) {
+        return categoryDictionary.decode(code);
+    }
+
+    public int getCategoryCodeCount() {
+        return categoryDictionary.size();
+    }
+
+    private void checkRow(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is not in a batch of " + size);
+        }
+    }
+
+    private Double getExtra(final int row, final int field, final double value) {
+        return (presence[row] & field) != 0 ? value : null;
+    }
+
+    /**
+     * A transaction backed by one row of the batch.
+     */
+    private final class View extends Transaction {
+        private final int row;
+
+        private View(final int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String getAccountId() {
+            return accountIdDictionary.decode(accountIds[row]);
+        }
+
+        @Override
+        public Double getAmount() {
+            return (presence[row] & AMOUNT) != 0 ? (double) amounts[row] / MINOR_UNITS : null;
+        }
+
+        @Override
+        public Double getBonusAmount() {
+            return getExtra(row, BONUS_AMOUNT, extras[row] != null ? extras[row].bonusAmount : 0);
+        }
+
+        @Override
+        public String getCheckNum() {
+            return extras[row] != null ? extras[row].checkNum : null;
+        }
+
+        @Override
+        public Long getCreatedDate() {
+            return (presence[row] & CREATED_DATE) != 0 ? createdDates[row] : null;
+        }
+
+        @Override
+        public String getCustomerId() {
+            return customerIdDictionary.decode(customerIds[row]);
+        }
+
+        @Override
+        public String getDescription() {
+            return descriptions[row];
+        }
+
+        @Override
+        public Double getEscrowAmount() {
+            return getExtra(row, ESCROW_AMOUNT, extras[row] != null ? extras[row].escrowAmount : 0);
+        }
+
+        @Override
+        public Double getFeeAmount() {
+            return getExtra(row, FEE_AMOUNT, extras[row] != null ? extras[row].feeAmount : 0);
+        }
+
+        @Override
+        public String getId() {
+            return ids[row];
+        }
+
+        @Override
+        public String getInstitutionTransactionId() {
+            return institutionTransactionIds[row];
+        }
+
+        @Override
+        public Double getInterestAmount() {
+            return getExtra(row, INTEREST_AMOUNT, extras[row] != null ? extras[row].interestAmount : 0);
+        }
+
+        @Override
+        public String getMemo() {
+            return memos[row];
+        }
+
+        @Override
+        public Long getPostedDate() {
+            return (presence[row] & POSTED_DATE) != 0 ? postedDates[row] : null;
+        }
+
+        @Override
+        public Double getPrincipalAmount() {
+            return getExtra(row, PRINCIPAL_AMOUNT, extras[row] != null ? extras[row].principalAmount : 0);
+        }
+
+        @Override
+        public TransactionStatus getStatus() {
+            return statuses[row] != NULL_STATUS ? STATUSES[statuses[row]] : null;
+        }
+
+        @Override
+        public Subaccount getSubaccount() {
+            if ((presence[row] & SUBACCOUNT) == 0) {
+                return null;
+            }
+
+            return extras[row] != null ? new Subaccount(extras[row].subaccountName, extras[row].subaccountNumber) :
+                    new Subaccount(null, null);
+        }
+
+        @Override
+        public Long getTransactionDate() {
+            return (presence[row] & TRANSACTION_DATE) != 0 ? transactionDates[row] : null;
+        }
+
+        @Override
+        public String getType() {
+            return typeDictionary.decode(types[row]);
+        }
+
+        @Override
+        public Double getUnitQuantity() {
+            return getExtra(row, UNIT_QUANTITY, extras[row] != null ? extras[row].unitQuantity : 0);
+        }
+
+        @Override
+        public Double getUnitValue() {
+            return getExtra(row, UNIT_VALUE, extras[row] != null ? extras[row].unitValue : 0);
+        }
+
+        @Override
+        public Categorization getCategorization() {
+            if ((presence[row] & CATEGORIZATION) == 0) {
+                return null;
+            }
+
+            return new Categorization(payeeDictionary.decode(payees[row]), categoryDictionary.decode(categories[row]),
+                    scheduleCDictionary.decode(scheduleCs[row]), sicDictionary.decode(sics[row]));
+        }
+    }
+
+    /**
+     * A row's rarely used fields.
+     */
+    private static final class Extras {
+        private double bonusAmount;
+        private double escrowAmount;
+        private double feeAmount;
+        private double interestAmount;
+        private double principalAmount;
+        private double unitQuantity;
+        private double unitValue;
+        private String checkNum;
+        private String subaccountName;
+        private String subaccountNumber;
+    }
+
+    /**
+     * A reusable buffer for one row's values, which a decoder fills before calling {@link #append(Row)}.
+     */
+    static final class Row {
+        int presence;
+        String id;
+        String accountId;
+        String customerId;
+        String description;
+        String memo;
+        String institutionTransactionId;
+        String type;
+        String checkNum;
+        String normalizedPayeeName;
+        String category;
+        String scheduleC;
+        String sic;
+        String subaccountName;
+        String subaccountNumber;
+        TransactionStatus status;
+        long postedDate;
+        long createdDate;
+        long transactionDate;
+        long amount;
+        double bonusAmount;
+        double escrowAmount;
+        double feeAmount;
+        double interestAmount;
+        double principalAmount;
+        double unitQuantity;
+        double unitValue;
+
+        void reset() {
+            presence = 0;
+            id = null;
+            accountId = null;
+            customerId = null;
+            description = null;
+            memo = null;
+            institutionTransactionId = null;
+            type = null;
+            checkNum = null;
+            normalizedPayeeName = null;
+            category = null;
+            scheduleC = null;
+            sic = null;
+            subaccountName = null;
+            subaccountNumber = null;
+            status = null;
+            postedDate = 0;
+            createdDate = 0;
+            transactionDate = 0;
+            amount = 0;
+            bonusAmount = 0;
+            escrowAmount = 0;
+            feeAmount = 0;
+            interestAmount = 0;
+            principalAmount = 0;
+            unitQuantity = 0;
+            unitValue = 0;
+        }
+
+        void setExtra(final int field, final Double value) {
+            if (value == null) {
+                return;
+            }
+
+            presence |= field;
+            setExtra(field, (double) value);
+        }
+
+        void setExtra(final int field, final double value) {
+            presence |= field;
+            switch (field) {
+                case BONUS_AMOUNT:
+                    bonusAmount = value;
+                    break;
+                case ESCROW_AMOUNT:
+                    escrowAmount = value;
+                    break;
+                case FEE_AMOUNT:
+                    feeAmount = value;
+                    break;
+                case INTEREST_AMOUNT:
+                    interestAmount = value;
+                    break;
+                case PRINCIPAL_AMOUNT:
+                    principalAmount = value;
+                    break;
+                case UNIT_QUANTITY:
+                    unitQuantity = value;
+                    break;
+                case UNIT_VALUE:
+                    unitValue = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Not an extra field: " + field);
+            }
+        }
+
+        /**
+         * Move the rarely used fields aside, if the row has any that are not zero or absent.
+         */
+        private Extras createExtras() {
+            if (bonusAmount == 0 && escrowAmount == 0 && feeAmount == 0 && interestAmount == 0 &&
+                    principalAmount == 0 && unitQuantity == 0 && unitValue == 0 && checkNum == null &&
+                    subaccountName == null && subaccountNumber == null) {
+                return null;
+            }
+
+            final Extras extras = new Extras();
+            extras.bonusAmount = bonusAmount;
+            extras.escrowAmount = escrowAmount;
+            extras.feeAmount = feeAmount;
+            extras.interestAmount = interestAmount;
+            extras.principalAmount = principalAmount;
+            extras.unitQuantity = unitQuantity;
+            extras.unitValue = unitValue;
+            extras.checkNum = checkNum;
+            extras.subaccountName = subaccountName;
+            extras.subaccountNumber = subaccountNumber;
+
+            return extras;
+        }
+    }
+}
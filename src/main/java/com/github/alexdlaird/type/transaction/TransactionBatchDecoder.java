@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type.transaction;
+
+import com.github.alexdlaird.component.StringPool;
+import com.github.alexdlaird.type.Money;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Decodes a Finicity transactions response straight into a {@link TransactionBatch}, without creating a {@link
+ * Transaction} per row. Elements the batch does not hold are skipped. <p> If constructed with a {@link StringPool},
+ * repetitive values, like descriptions, types and categories, are read straight from the parser's buffer into the
+ * pool, so a value seen before is neither allocated again nor retained twice. <p> A decoder is thread-safe and can be
+ * shared.
+ */
+public class TransactionBatchDecoder {
+    /**
+     * Creates the stream readers responses are parsed with.
+     */
+    private final XMLInputFactory xmlInputFactory;
+
+    /**
+     * The pool repetitive values are deduplicated through, or null.
+     */
+    private final StringPool stringPool;
+
+    /**
+     * Construct a decoder that does not deduplicate values.
+     */
+    public TransactionBatchDecoder() {
+        this(null);
+    }
+
+    /**
+     * Construct a decoder.
+     *
+     * @param stringPool The pool repetitive values are deduplicated through, which may be shared, or null.
+     */
+    public TransactionBatchDecoder(final StringPool stringPool) {
+        this.stringPool = stringPool;
+
+        xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // Deliver each element's text as one event, so it can be pooled without being copied first
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * Decode a response into a new batch.
+     *
+     * @param xml A <code>transactions</code> or <code>transaction</code> document.
+     * @return The batch.
+     * @throws XMLStreamException The document could not be parsed.
+     */
+    public TransactionBatch decode(final String xml) throws XMLStreamException {
+        final TransactionBatch transactionBatch = new TransactionBatch();
+        decode(new StringReader(xml), transactionBatch);
+
+        return transactionBatch;
+    }
+
+    /**
+     * Decode a response, appending its transactions to a batch, for instance to gather every page of a query into one
+     * batch.
+     *
+     * @param reader           A <code>transactions</code> or <code>transaction</code> document.
+     * @param transactionBatch The batch to append to.
+     * @throws XMLStreamException The document could not be parsed.
+     */
+    public void decode(final Reader reader, final TransactionBatch transactionBatch) throws XMLStreamException {
+        final XMLStreamReader xmlStreamReader = xmlInputFactory.createXMLStreamReader(reader);
+        try {
+            final TransactionBatch.Row row = new TransactionBatch.Row();
+            String parent = null;
+
+            while (xmlStreamReader.hasNext()) {
+                final int event = xmlStreamReader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    final String name = xmlStreamReader.getLocalName();
+                    if ("transaction".equals(name)) {
+                        transactionBatch.append(row);
+                    } else if (name.equals(parent)) {
+                        parent = null;
+                    }
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    final String name = xmlStreamReader.getLocalName();
+                    if ("transaction".equals(name)) {
+                        row.reset();
+                        parent = null;
+                    } else if ("subaccount".equals(name)) {
+                        row.presence |= TransactionBatch.SUBACCOUNT;
+                        parent = name;
+                    } else if ("categorization".equals(name)) {
+                        row.presence |= TransactionBatch.CATEGORIZATION;
+                        parent = name;
+                    } else if (!"transactions".equals(name)) {
+                        readField(row, parent, name, xmlStreamReader);
+                    }
+                }
+            }
+        } finally {
+            xmlStreamReader.close();
+        }
+    }
+
+    private void readField(final TransactionBatch.Row row, final String parent, final String name,
+                           final XMLStreamReader xmlStreamReader) throws XMLStreamException {
+        if ("subaccount".equals(parent)) {
+            if ("name".equals(name)) {
+                row.subaccountName = readRepeatedString(xmlStreamReader);
+            } else if ("number".equals(name)) {
+                row.subaccountNumber = readString(xmlStreamReader);
+            } else {
+                skip(xmlStreamReader);
+            }
+            return;
+        }
+        if ("categorization".equals(parent)) {
+            if ("normalizedPayeeName".equals(name)) {
+                row.normalizedPayeeName = readRepeatedString(xmlStreamReader);
+            } else if ("category".equals(name)) {
+                row.category = readRepeatedString(xmlStreamReader);
+            } else if ("scheduleC".equals(name)) {
+                row.scheduleC = readRepeatedString(xmlStreamReader);
+            } else if ("sic".equals(name)) {
+                row.sic = readRepeatedString(xmlStreamReader);
+            } else {
+                skip(xmlStreamReader);
+            }
+            return;
+        }
+
+        switch (name) {
+            case "id":
+                row.id = readString(xmlStreamReader);
+                break;
+            case "accountId":
+                row.accountId = readRepeatedString(xmlStreamReader);
+                break;
+            case "customerId":
+                row.customerId = readRepeatedString(xmlStreamReader);
+                break;
+            case "description":
+                row.description = readRepeatedString(xmlStreamReader);
+                break;
+            case "memo":
+                row.memo = readRepeatedString(xmlStreamReader);
+                break;
+            case "institutionTransactionId":
+                row.institutionTransactionId = readString(xmlStreamReader);
+                break;
+            case "type":
+                row.type = readRepeatedString(xmlStreamReader);
+                break;
+            case "checkNum":
+                row.checkNum = readString(xmlStreamReader);
+                break;
+            case "status":
+                row.status = readStatus(xmlStreamReader.getElementText());
+                break;
+            case "postedDate":
+                row.postedDate = Long.parseLong(xmlStreamReader.getElementText().trim());
+                row.presence |= TransactionBatch.POSTED_DATE;
+                break;
+            case "createdDate":
+                row.createdDate = Long.parseLong(xmlStreamReader.getElementText().trim());
+                row.presence |= TransactionBatch.CREATED_DATE;
+                break;
+            case "transactionDate":
+                row.transactionDate = Long.parseLong(xmlStreamReader.getElementText().trim());
+                row.presence |= TransactionBatch.TRANSACTION_DATE;
+                break;
+            case "amount":
+                row.amount = readMinorUnits(xmlStreamReader);
+                row.presence |= TransactionBatch.AMOUNT;
+                break;
+            case "bonusAmount":
+                row.setExtra(TransactionBatch.BONUS_AMOUNT, readDouble(xmlStreamReader));
+                break;
+            case "escrowAmount":
+                row.setExtra(TransactionBatch.ESCROW_AMOUNT, readDouble(xmlStreamReader));
+                break;
+            case "feeAmount":
+                row.setExtra(TransactionBatch.FEE_AMOUNT, readDouble(xmlStreamReader));
+                break;
+            case "interestAmount":
+                row.setExtra(TransactionBatch.INTEREST_AMOUNT, readDouble(xmlStreamReader));
+                break;
+            case "principalAmount":
+                row.setExtra(TransactionBatch.PRINCIPAL_AMOUNT, readDouble(xmlStreamReader));
+                break;
+            case "unitQuantity":
+                row.setExtra(TransactionBatch.UNIT_QUANTITY, readDouble(xmlStreamReader));
+                break;
+            case "unitValue":
+                row.setExtra(TransactionBatch.UNIT_VALUE, readDouble(xmlStreamReader));
+                break;
+            default:
+                skip(xmlStreamReader);
+        }
+    }
+
+    /**
+     * Override this method if you would like to change how string values are read.
+     *
+     * @param xmlStreamReader The reader, positioned at the start of a text-only element.
+     * @return The element's text.
+     * @throws XMLStreamException The document could not be parsed.
+     */
+    protected String readString(final XMLStreamReader xmlStreamReader) throws XMLStreamException {
+        return xmlStreamReader.getElementText();
+    }
+
+    /**
+     * Override this method if you would like to change how values that repeat across transactions, like account IDs,
+     * descriptions and categories, are read.
+     *
+     * @param xmlStreamReader The reader, positioned at the start of a text-only element.
+     * @return The element's text, deduplicated if the decoder has a {@link StringPool}.
+     * @throws XMLStreamException The document could not be parsed.
+     */
+    protected String readRepeatedString(final XMLStreamReader xmlStreamReader) throws XMLStreamException {
+        if (stringPool == null) {
+            return readString(xmlStreamReader);
+        }
+
+        String value = null;
+        StringBuilder stringBuilder = null;
+        while (true) {
+            final int event = xmlStreamReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("Expected text only, but found an element", xmlStreamReader.getLocation());
+            }
+            if (!xmlStreamReader.isCharacters() && event != XMLStreamConstants.CDATA) {
+                continue;
+            }
+
+            final char[] chars = xmlStreamReader.getTextCharacters();
+            final int start = xmlStreamReader.getTextStart();
+            final int length = xmlStreamReader.getTextLength();
+            if (value == null) {
+                value = stringPool.intern(chars, start, length);
+            } else {
+                // Text split by a comment or processing instruction is rare, so is not worth avoiding a copy for
+                if (stringBuilder == null) {
+                    stringBuilder = new StringBuilder(value);
+                }
+                stringBuilder.append(chars, start, length);
+            }
+        }
+
+        if (stringBuilder != null) {
+            return stringPool.intern(stringBuilder.toString());
+        }
+
+        return value != null ? value : stringPool.intern("");
+    }
+
+    /**
+     * Parse an amount straight from the parser's buffer into minor units, without creating a <code>String</code> or
+     * <code>Double</code>.
+     */
+    private static long readMinorUnits(final XMLStreamReader xmlStreamReader) throws XMLStreamException {
+        long minorUnits = 0;
+        boolean read = false;
+        while (true) {
+            final int event = xmlStreamReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("Expected text only, but found an element", xmlStreamReader.getLocation());
+            }
+            if ((!xmlStreamReader.isCharacters() && event != XMLStreamConstants.CDATA) ||
+                    xmlStreamReader.isWhiteSpace()) {
+                continue;
+            }
+            if (read) {
+                throw new XMLStreamException("Expected one amount, but found text split by markup",
+                        xmlStreamReader.getLocation());
+            }
+
+            try {
+                minorUnits = Money.parseMinorUnits(xmlStreamReader.getTextCharacters(),
+                        xmlStreamReader.getTextStart(), xmlStreamReader.getTextLength());
+            } catch (NumberFormatException ex) {
+                throw new XMLStreamException(ex.getMessage(), xmlStreamReader.getLocation(), ex);
+            }
+            read = true;
+        }
+
+        if (!read) {
+            throw new XMLStreamException("Expected an amount, but found none", xmlStreamReader.getLocation());
+        }
+
+        return minorUnits;
+    }
+
+    private static double readDouble(final XMLStreamReader xmlStreamReader) throws XMLStreamException {
+        return Double.parseDouble(xmlStreamReader.getElementText().trim());
+    }
+
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    private static TransactionStatus readStatus(final String value) {
+        for (final TransactionStatus status : TransactionStatus.values()) {
+            if (status.toString().equals(value)) {
+                return status;
+            }
+        }
+
+        return null;
+    }
+
+    private static void skip(final XMLStreamReader xmlStreamReader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = xmlStreamReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                ++depth;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --depth;
+            }
+        }
+    }
+}
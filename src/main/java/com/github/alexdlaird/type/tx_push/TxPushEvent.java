@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type.tx_push;
+
+import com.github.alexdlaird.type.account.Account;
+import com.github.alexdlaird.type.transaction.Transaction;
+
+import org.simpleframework.xml.Element;
+import org.simpleframework.xml.Root;
+
+@Root(name = "event", strict = false)
+public class TxPushEvent {
+    @Element(name = "class", required = false)
+    private SubscriptionType eventClass;
+
+    @Element(required = false)
+    private TxPushEventType type;
+
+    @Element(required = false)
+    private Account account;
+
+    @Element(required = false)
+    private Transaction transaction;
+
+    public TxPushEvent() {
+    }
+
+    public TxPushEvent(final SubscriptionType eventClass, final TxPushEventType type, final Account account,
+                       final Transaction transaction) {
+        this.eventClass = eventClass;
+        this.type = type;
+        this.account = account;
+        this.transaction = transaction;
+    }
+
+    public SubscriptionType getEventClass() {
+        return eventClass;
+    }
+
+    public TxPushEventType getType() {
+        return type;
+    }
+
+    public Account getAccount() {
+        return account;
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.analytics;
+
+import com.github.alexdlaird.type.Money;
+import com.github.alexdlaird.type.transaction.Transaction;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+public class BalanceHistoryTest {
+
+    private static final long START = 1483228800L;
+
+    @Test
+    public void testBalancesMatchWalkingTransactions() {
+        final Random random = new Random(3);
+        final BalanceHistory balanceHistory = new BalanceHistory("a");
+        final List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 5000; ++i) {
+            // Mostly in order, with some arriving late, as they would from a sync
+            final long date = START + i * 3600L - (random.nextInt(10) == 0 ? random.nextInt(30 * 86400) : 0);
+            final Transaction transaction = givenTransaction(String.valueOf(i), (random.nextInt(20000) - 10000) / 100.0,
+                    date);
+            transactions.add(transaction);
+            balanceHistory.put(transaction);
+        }
+        final long balanceDate = START + 2500 * 3600L;
+        balanceHistory.setKnownBalance(Money.parse("1234.56"), balanceDate);
+
+        for (int i = 0; i < 500; ++i) {
+            final long date = START - 86400 + random.nextInt(5000 * 3600 + 2 * 86400);
+            assertEquals(walk(transactions, Money.parse("1234.56"), balanceDate, date), balanceHistory.getBalance(date));
+        }
+    }
+
+    @Test
+    public void testUpdatesAndRemovals() {
+        final BalanceHistory balanceHistory = new BalanceHistory("a");
+        assertNull(balanceHistory.getBalance(START));
+
+        balanceHistory.put(givenTransaction("1", -10.0, START + 100));
+        balanceHistory.put(givenTransaction("2", -20.0, START + 200));
+        balanceHistory.put(givenTransaction("3", -30.0, null));
+        balanceHistory.setKnownBalance(Money.parse("100.00"), START + 1000);
+
+        assertEquals(2, balanceHistory.size());
+        assertEquals(Money.parse("130.00"), balanceHistory.getBalance(START));
+        assertEquals(Money.parse("120.00"), balanceHistory.getBalance(START + 100));
+
+        // Pending transaction posts, an amount changes and one is deleted
+        balanceHistory.put(givenTransaction("3", -30.0, START + 150));
+        balanceHistory.put(givenTransaction("1", -15.0, START + 100));
+        assertTrue(balanceHistory.remove("2"));
+        assertFalse(balanceHistory.remove("2"));
+
+        assertEquals(2, balanceHistory.size());
+        assertEquals(Money.parse("145.00"), balanceHistory.getBalance(START));
+        assertEquals(Money.parse("130.00"), balanceHistory.getBalance(START + 100));
+        assertEquals(Money.parse("100.00"), balanceHistory.getBalance(START + 150));
+        assertEquals(Money.parse("100.00"), balanceHistory.getBalance(START + 5000));
+
+        final SortedMap<LocalDate, Money> dailyBalances = balanceHistory.getDailyBalances(LocalDate.of(2016, 12, 31),
+                LocalDate.of(2017, 1, 1), ZoneOffset.UTC);
+        assertEquals(Money.parse("145.00"), dailyBalances.get(LocalDate.of(2016, 12, 31)));
+        assertEquals(Money.parse("100.00"), dailyBalances.get(LocalDate.of(2017, 1, 1)));
+    }
+
+    private Money walk(final List<Transaction> transactions, final Money balance, final long balanceDate,
+                       final long date) {
+        long minorUnits = balance.getMinorUnits();
+        for (final Transaction transaction : transactions) {
+            final long amount = Money.valueOf(transaction.getAmount()).getMinorUnits();
+            if (transaction.getPostedDate() > date && transaction.getPostedDate() <= balanceDate) {
+                minorUnits -= amount;
+            } else if (transaction.getPostedDate() <= date && transaction.getPostedDate() > balanceDate) {
+                minorUnits += amount;
+            }
+        }
+
+        return Money.ofMinorUnits(minorUnits);
+    }
+
+    private Transaction givenTransaction(final String id, final double amount, final Long postedDate) {
+        return new Transaction("a", amount, null, null, null, "c", "Description", null, null, id, null, null, null,
+                postedDate, null, null, null, postedDate != null ? postedDate : START, "debit", null, null, null);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.analytics;
+
+import com.github.alexdlaird.type.Money;
+import com.github.alexdlaird.type.transaction.Categorization;
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionBatch;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class TransactionAnalyticsTest {
+
+    private static final ZoneId ZONE_ID = ZoneId.of("America/Chicago");
+
+    @Test
+    public void testParallelTotalsMatchSequentialTotals() {
+        final List<Transaction> transactions = givenTransactions(50000);
+        final TransactionAnalytics transactionAnalytics = new TransactionAnalytics(new ForkJoinPool(4), ZONE_ID, 1000);
+
+        final TransactionAggregates transactionAggregates = transactionAnalytics.aggregate(transactions);
+
+        final Map<String, CashFlow> byCategory = new HashMap<>();
+        final Map<String, CashFlow> byAccountId = new HashMap<>();
+        final SortedMap<YearMonth, CashFlow> byMonth = new TreeMap<>();
+        final Map<String, SortedMap<YearMonth, CashFlow>> byAccountIdAndMonth = new HashMap<>();
+        final CashFlow total = new CashFlow();
+        for (final Transaction transaction : transactions) {
+            final long amount = Money.valueOf(transaction.getAmount()).getMinorUnits();
+            final Long date = transaction.getPostedDate() != null ? transaction.getPostedDate() :
+                    transaction.getTransactionDate();
+
+            total.accept(amount);
+            byCategory.computeIfAbsent(transaction.getCategorization() != null ?
+                    transaction.getCategorization().getCategory() : null, key -> new CashFlow()).accept(amount);
+            byAccountId.computeIfAbsent(transaction.getAccountId(), key -> new CashFlow()).accept(amount);
+            byMonth.computeIfAbsent(YearMonth.from(Instant.ofEpochSecond(date).atZone(ZONE_ID)),
+                    key -> new CashFlow()).accept(amount);
+            byAccountIdAndMonth.computeIfAbsent(transaction.getAccountId(), key -> new TreeMap<>())
+                    .computeIfAbsent(YearMonth.from(Instant.ofEpochSecond(date).atZone(ZONE_ID)),
+                            key -> new CashFlow()).accept(amount);
+        }
+
+        assertEquals(total, transactionAggregates.getTotal());
+        assertEquals(byCategory, transactionAggregates.getByCategory());
+        assertEquals(byAccountId, transactionAggregates.getByAccountId());
+        assertEquals(byMonth, transactionAggregates.getByMonth());
+        for (final Map.Entry<String, SortedMap<YearMonth, CashFlow>> entry : byAccountIdAndMonth.entrySet()) {
+            assertEquals(entry.getValue(), transactionAggregates.getByMonth(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testManyAccountsOverManyMonths() {
+        // A dense grid of 100,000 accounts by 36 months would take over 80 MB for every task
+        final Random random = new Random(7);
+        final List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 100000; ++i) {
+            transactions.add(givenTransaction(String.valueOf(i), 1.0, 1420070400L + random.nextInt(3 * 365 * 86400),
+                    null));
+        }
+        final TransactionAnalytics transactionAnalytics = new TransactionAnalytics(new ForkJoinPool(4), ZONE_ID, 1000);
+
+        final TransactionAggregates transactionAggregates = transactionAnalytics.aggregate(transactions);
+
+        assertEquals(100000, transactionAggregates.getTotal().getCount());
+        assertEquals(100000, transactionAggregates.getByAccountId().size());
+        assertEquals(1, transactionAggregates.getByMonth("99999").size());
+    }
+
+    @Test
+    public void testShardsMergeIntoWhole() {
+        final List<Transaction> transactions = givenTransactions(20000);
+        final TransactionAnalytics transactionAnalytics = new TransactionAnalytics(new ForkJoinPool(2), ZONE_ID, 500);
+
+        final TransactionAggregates whole = transactionAnalytics.aggregate(transactions);
+        final TransactionAggregates merged = transactionAnalytics.aggregate(transactions.subList(0, 7000))
+                .merge(transactionAnalytics.aggregate(transactions.subList(7000, 20000).stream()));
+
+        assertEquals(whole.getTotal(), merged.getTotal());
+        assertEquals(whole.getByCategory(), merged.getByCategory());
+        assertEquals(whole.getByAccountId(), merged.getByAccountId());
+        assertEquals(whole.getByMonth(), merged.getByMonth());
+        assertEquals(whole.getByMonth("2001"), merged.getByMonth("2001"));
+    }
+
+    @Test
+    public void testRunningBalances() {
+        final List<Transaction> transactions = new ArrayList<>();
+        transactions.add(givenTransaction("a", 1000.0, 1483228800L, "Income"));
+        transactions.add(givenTransaction("a", -250.5, 1484006400L, "Groceries"));
+        transactions.add(givenTransaction("a", -99.99, 1488326400L, null));
+        transactions.add(givenTransaction("b", -5.0, 1488326400L, "Groceries"));
+
+        final TransactionAggregates transactionAggregates = new TransactionAnalytics()
+                .aggregate(TransactionBatch.of(transactions));
+        final SortedMap<YearMonth, Money> runningBalances = transactionAggregates.getRunningBalances("a",
+                Money.parse("100.00"));
+
+        assertEquals(2, runningBalances.size());
+        assertEquals(Money.parse("849.50"), runningBalances.get(YearMonth.of(2017, 1)));
+        assertEquals(Money.parse("749.51"), runningBalances.get(YearMonth.of(2017, 3)));
+        assertEquals(Money.parse("-255.50"), transactionAggregates.getByCategory().get("Groceries").getOutflow());
+        assertEquals(1, transactionAggregates.getByCategory().get(null).getCount());
+    }
+
+    private List<Transaction> givenTransactions(final int count) {
+        final Random random = new Random(7);
+        final String[] categories = {"Restaurants", "Groceries", "Gas", "Income", null};
+
+        final List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            transactions.add(givenTransaction(String.valueOf(2000 + random.nextInt(12)),
+                    (random.nextInt(200000) - 100000) / 100.0, 1420070400L + random.nextInt(3 * 365 * 86400),
+                    categories[random.nextInt(categories.length)]));
+        }
+
+        return transactions;
+    }
+
+    private Transaction givenTransaction(final String accountId, final double amount, final long date,
+                                         final String category) {
+        return new Transaction(accountId, amount, null, null, null, "c", "Description", null, null, null, null, null,
+                null, date, null, null, null, date, "debit", null, null,
+                category != null ? new Categorization(null, category, null, null) : null);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.bulk;
+
+import com.github.alexdlaird.FinicityClient;
+import com.github.alexdlaird.component.rest.schedule.Lane;
+import com.github.alexdlaird.operation.AccountOperations;
+import com.github.alexdlaird.type.account.Account;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkOperationsTest {
+
+    private FinicityClient finicityClient;
+
+    @Before
+    public void setUp() {
+        finicityClient = mock(FinicityClient.class);
+    }
+
+    @Test
+    public void testFailuresAreIsolatedPerCustomer() {
+        final AccountOperations accountOperations = mock(AccountOperations.class);
+        when(finicityClient.getAccountOperations()).thenReturn(accountOperations);
+        final List<String> customerIds = IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.toList());
+        for (final String customerId : customerIds) {
+            if ("13".equals(customerId)) {
+                when(accountOperations.getAccounts(customerId)).thenThrow(new IllegalStateException("Bad customer"));
+            } else {
+                when(accountOperations.getAccounts(customerId)).thenReturn(Collections.singletonList(new Account()));
+            }
+        }
+
+        final BulkResults<List<Account>> bulkResults = new BulkOperations(finicityClient, 4).getAccounts(customerIds);
+        final List<CustomerResult<List<Account>>> results;
+        try (Stream<CustomerResult<List<Account>>> stream = bulkResults.stream()) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(100, results.size());
+        assertEquals(1, results.stream().filter(result -> !result.isSuccess()).count());
+        assertEquals("13", results.stream().filter(result -> !result.isSuccess()).findFirst().get().getCustomerId());
+        assertEquals(99, bulkResults.getProgress().getSucceeded());
+        assertEquals(1, bulkResults.getProgress().getFailed());
+        assertEquals(1.0, bulkResults.getProgress().getFractionCompleted());
+        assertTrue(bulkResults.getProgress().isFinished());
+        // The operations are fetched for every customer, so a token refresh during a long run is picked up
+        verify(finicityClient, times(100)).getAccountOperations();
+    }
+
+    @Test
+    public void testParallelismIsBoundedAndBatchLaneIsEntered() {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final AtomicInteger batchLane = new AtomicInteger();
+
+        final BulkResults<String> bulkResults = new BulkOperations(finicityClient, 3).execute(
+                IntStream.range(0, 60).mapToObj(String::valueOf), customerId -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    if (Lane.current() == Lane.BATCH) {
+                        batchLane.incrementAndGet();
+                    }
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inFlight.decrementAndGet();
+
+                    return customerId;
+                });
+
+        assertEquals(60, bulkResults.stream().count());
+        assertTrue(maxInFlight.get() <= 3);
+        assertEquals(60, batchLane.get());
+        assertEquals(-1, bulkResults.getProgress().getTotal());
+    }
+
+    @Test
+    public void testClosingStopsTheRun() throws InterruptedException {
+        final AtomicInteger calls = new AtomicInteger();
+        final BulkResults<String> bulkResults = new BulkOperations(finicityClient, 2).execute(
+                IntStream.range(0, 100000).mapToObj(String::valueOf), customerId -> {
+                    calls.incrementAndGet();
+                    return customerId;
+                });
+
+        try (Stream<CustomerResult<String>> stream = bulkResults.stream()) {
+            assertEquals(10, stream.limit(10).count());
+        }
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!bulkResults.getProgress().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(bulkResults.getProgress().isFinished());
+        assertFalse(calls.get() > 1000);
+    }
+}
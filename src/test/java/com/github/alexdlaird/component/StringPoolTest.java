@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component;
+
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.Transactions;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotSame;
+import static junit.framework.TestCase.assertSame;
+
+public class StringPoolTest {
+
+    @Test
+    public void testEqualValuesShareOneCopy() {
+        final StringPool stringPool = new StringPool(16, 8);
+        final String first = stringPool.intern(new String("debit"));
+        final char[] chars = "xxdebitxx".toCharArray();
+
+        assertSame(first, stringPool.intern(new String("debit")));
+        assertSame(first, stringPool.intern(chars, 2, 5));
+        assertEquals(2, stringPool.getHits());
+        assertEquals(1, stringPool.getMisses());
+    }
+
+    @Test
+    public void testLongValuesAreNotPooled() {
+        final StringPool stringPool = new StringPool(16, 4);
+        final String value = new String("credit");
+
+        assertSame(value, stringPool.intern(value));
+        assertNotSame(value, stringPool.intern(new String("credit")));
+        assertEquals("credit", stringPool.intern("credit".toCharArray(), 0, 6));
+    }
+
+    @Test
+    public void testCapacityIsBounded() {
+        final StringPool stringPool = new StringPool(100, 16);
+
+        for (int i = 0; i < 10000; ++i) {
+            assertEquals("MERCHANT " + i, stringPool.intern("MERCHANT " + i));
+        }
+
+        assertEquals(128, stringPool.getCapacity());
+        assertEquals(10000, stringPool.getMisses());
+    }
+
+    @Test
+    public void testPooledPersisterSharesRepeatedFields() throws Exception {
+        final FinicityPersister finicityPersister = new FinicityPersister(new StringPool());
+        final List<Transaction> transactions = finicityPersister.read(Transactions.class,
+                "<transactions>" +
+                        "<transaction><id>1</id><accountId>2001</accountId><type>debit</type></transaction>" +
+                        "<transaction><id>2</id><accountId>2001</accountId><type>debit</type></transaction>" +
+                        "</transactions>").getTransactions();
+
+        assertEquals(2, transactions.size());
+        assertSame(transactions.get(0).getAccountId(), transactions.get(1).getAccountId());
+        assertSame(transactions.get(0).getType(), transactions.get(1).getType());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.jfr;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class FlightEventTest {
+
+    @Test
+    public void testEventsAreOnlyCreatedWhileRecording() throws Exception {
+        assertNull(FlightEvent.begin(FlightEventType.DECODE));
+
+        final Class<?> recordingClass = givenFlightRecorder();
+        final Object recording = recordingClass.getConstructor().newInstance();
+        final Path file = Files.createTempFile("finicity", ".jfr");
+        try {
+            recordingClass.getMethod("start").invoke(recording);
+            assertTrue(FlightEvent.isRecording());
+
+            FlightEvent.begin(FlightEventType.BODY_READ).end().commit(Endpoint.GET_CUSTOMER, 200);
+            FlightEvent.begin(FlightEventType.RETRY).commit(Endpoint.GET_ACCOUNTS, 503, 2);
+
+            recordingClass.getMethod("stop").invoke(recording);
+            assertFalse(FlightEvent.isRecording());
+            assertNull(FlightEvent.begin(FlightEventType.DECODE));
+
+            recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+            final List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                    .getMethod("readAllEvents", Path.class).invoke(null, file);
+
+            int found = 0;
+            for (final Object event : events) {
+                final Object eventType = event.getClass().getMethod("getEventType").invoke(event);
+                final String name = (String) eventType.getClass().getMethod("getName").invoke(eventType);
+                if ("com.github.alexdlaird.BodyRead".equals(name)) {
+                    assertEquals(Endpoint.GET_CUSTOMER.toString(), getValue(event, "endpoint"));
+                    assertEquals(200, getValue(event, "status"));
+                    ++found;
+                } else if ("com.github.alexdlaird.Retry".equals(name)) {
+                    assertEquals(Endpoint.GET_ACCOUNTS.toString(), getValue(event, "endpoint"));
+                    assertEquals(503, getValue(event, "status"));
+                    assertEquals(2, getValue(event, "attempt"));
+                    ++found;
+                }
+            }
+            assertEquals(2, found);
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Class<?> givenFlightRecorder() throws Exception {
+        final Class<?> recordingClass;
+        try {
+            recordingClass = Class.forName("jdk.jfr.Recording");
+        } catch (ClassNotFoundException ex) {
+            assumeTrue(false);
+            return null;
+        }
+        assumeTrue((Boolean) Class.forName("jdk.jfr.FlightRecorder").getMethod("isAvailable").invoke(null));
+
+        return recordingClass;
+    }
+
+    private Object getValue(final Object event, final String field) throws Exception {
+        return event.getClass().getMethod("getValue", String.class).invoke(event, field);
+    }
+}
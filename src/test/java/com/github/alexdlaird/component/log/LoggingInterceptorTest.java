@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.log;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.github.alexdlaird.component.rest.intercept.Request;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+public class LoggingInterceptorTest {
+
+    private final Logger logger = Logger.getLogger(LoggingInterceptorTest.class.getName());
+
+    private final List<LogRecord> records = new ArrayList<>();
+
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(final LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Before
+    public void setUp() {
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.FINE);
+        logger.addHandler(handler);
+    }
+
+    @After
+    public void tearDown() {
+        logger.removeHandler(handler);
+    }
+
+    @Test
+    public void testRedactsAndTruncates() {
+        final String body = "<credentials><partnerId>1</partnerId><partnerSecret>hunter2</partnerSecret>"
+                + "<token/></credentials>";
+
+        assertEquals("<credentials><partnerId>1</partnerId><partnerSecret>***</partnerSecret><token/></credentials>",
+                LogRedactor.abbreviate(body));
+        assertEquals("<credentials>... (84 more characters)", LogRedactor.abbreviate(body, 13));
+        assertEquals("<answer>***... (9 more characters)", LogRedactor.abbreviate("<answer>Rex</answer>", 8));
+    }
+
+    @Test
+    public void testSamplesSuccessfulRequestsPerEndpoint() {
+        final LoggingInterceptor loggingInterceptor = new LoggingInterceptor(logger, Level.FINE, 64);
+        loggingInterceptor.setSampleRate(Endpoint.GET_CUSTOMER, 3);
+        loggingInterceptor.setSampleRate(Endpoint.GET_INSTITUTIONS, 0);
+        final Response ok = new Response(200, "<customer/>", Collections.emptyMap());
+
+        for (int i = 0; i < 6; ++i) {
+            assertSame(ok, loggingInterceptor.intercept(get("/v1/customers/1"), request -> ok));
+            loggingInterceptor.intercept(get("/v1/institutions"), request -> ok);
+        }
+        loggingInterceptor.intercept(get("/v1/customers"), request -> ok);
+
+        assertEquals(3, records.size());
+        assertEquals("finicity.request method=GET endpoint=\"GET /v1/customers/{customerId}\" status=200 durationMs=0",
+                records.get(0).getMessage().replaceAll("durationMs=\\d+", "durationMs=0"));
+        assertTrue(records.get(2).getMessage().contains("endpoint=\"GET /v1/customers\""));
+    }
+
+    @Test
+    public void testAlwaysLogsFailures() {
+        final LoggingInterceptor loggingInterceptor = new LoggingInterceptor(logger, Level.FINE, 64);
+        loggingInterceptor.setSampleRate(0);
+        final RestClient.RestClientException failure = new RestClient.RestClientException("Refused", 503, null);
+
+        loggingInterceptor.intercept(get("/v1/customers/1"),
+                request -> new Response(401, "<error><token>abc</token></error>", Collections.emptyMap()));
+        try {
+            loggingInterceptor.intercept(get("/v1/customers/1"), request -> {
+                throw failure;
+            });
+            fail("RestClientException should have been thrown");
+        } catch (RestClient.RestClientException ex) {
+            assertSame(failure, ex);
+        }
+
+        assertEquals(2, records.size());
+        assertTrue(records.get(0).getMessage().endsWith("detail=\"<error><token>***</token></error>\""));
+        assertTrue(records.get(1).getMessage().contains("status=503"));
+        assertSame(failure, records.get(1).getThrown());
+    }
+
+    @Test
+    public void testLogsDetailOfWrappedFailure() {
+        final LoggingInterceptor loggingInterceptor = new LoggingInterceptor(logger, Level.FINE, 64);
+        final RestClient.RestClientException httpFailure = new RestClient.RestClientException("Rest client error",
+                500, new RestClient.RestClientException("An error occurred (500): <token>abc</token>", 500,
+                new IOException("Server returned HTTP response code: 500")));
+        final RestClient.RestClientException connectFailure = new RestClient.RestClientException("Rest client error",
+                new ConnectException("Connection refused"));
+
+        for (final RestClient.RestClientException failure : Arrays.asList(httpFailure, connectFailure)) {
+            try {
+                loggingInterceptor.intercept(get("/v1/customers/1"), request -> {
+                    throw failure;
+                });
+                fail("RestClientException should have been thrown");
+            } catch (RestClient.RestClientException ignored) {
+            }
+        }
+
+        assertEquals(2, records.size());
+        assertTrue(records.get(0).getMessage().endsWith("detail=\"An error occurred (500): <token>***</token>\""));
+        assertTrue(records.get(1).getMessage().endsWith("detail=\"Connection refused\""));
+    }
+
+    @Test
+    public void testDoesNothingWhenDisabled() {
+        logger.setLevel(Level.INFO);
+        final LoggingInterceptor loggingInterceptor = new LoggingInterceptor(logger, Level.FINE, 64);
+
+        loggingInterceptor.intercept(get("/v1/customers/1"),
+                request -> new Response(500, "", Collections.emptyMap()));
+
+        assertEquals(0, records.size());
+    }
+
+    private static Request get(final String url) {
+        return new Request(Request.GET, url, null, null, null);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest;
+
+import com.github.alexdlaird.DefaultFinicityClient;
+import com.github.alexdlaird.FinicityClient;
+import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.type.institution.Institution;
+import com.github.alexdlaird.type.institution.LoginForm;
+import com.github.alexdlaird.stub.FinicityStubServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotSame;
+import static junit.framework.TestCase.assertSame;
+
+public class ResponseCacheTest {
+
+    private FinicityStubServer stub;
+
+    private DefaultRestClient restClient;
+
+    @Before
+    public void setUp() throws IOException {
+        stub = new FinicityStubServer();
+        restClient = new DefaultRestClient("appKey", "UTF-8", "application/xml", stub.getBaseUrl());
+        restClient.refreshToken(new Token("token", Long.MAX_VALUE));
+    }
+
+    @After
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    public void testServesFreshResponsesWithoutRequest() {
+        final ResponseCache responseCache = new ResponseCache();
+        restClient.setResponseCache(responseCache);
+
+        final Response response = restClient.executeGet("/v1/institutions/101", null, null);
+        response.setDecoded("decoded");
+
+        assertSame(response, restClient.executeGet("/v1/institutions/101", null, null));
+        assertEquals("decoded", restClient.executeGet("/v1/institutions/101", null, null).getDecoded(String.class));
+        assertEquals(1, stub.getRequestCount(Endpoint.GET_INSTITUTION));
+        assertEquals(2, responseCache.getHitCount());
+        assertEquals(1, responseCache.getMissCount());
+
+        restClient.executeGet("/v1/customers/1001", null, null);
+        restClient.executeGet("/v1/customers/1001", null, null);
+        assertEquals(2, stub.getRequestCount(Endpoint.GET_CUSTOMER));
+        assertEquals(1, responseCache.size());
+    }
+
+    @Test
+    public void testRevalidatesStaleResponses() {
+        final ResponseCache responseCache = new ResponseCache(16, 0, ResponseCache.DEFAULT_ENDPOINTS);
+        restClient.setResponseCache(responseCache);
+        stub.setValidators(true);
+
+        final Response response = restClient.executeGet("/v1/institutions", null, null);
+
+        assertEquals(200, response.getStatusCode());
+        assertSame(response, restClient.executeGet("/v1/institutions", null, null));
+        assertSame(response, restClient.executeGet("/v1/institutions", null, null));
+        assertEquals(3, stub.getRequestCount(Endpoint.GET_INSTITUTIONS));
+        assertEquals(2, stub.getNotModifiedCount());
+        assertEquals(2, responseCache.getRevalidatedCount());
+
+        stub.setInstitutionCount(5);
+        final Response changed = restClient.executeGet("/v1/institutions", null, null);
+
+        assertNotSame(response, changed);
+        assertSame(changed, restClient.executeGet("/v1/institutions", null, null));
+    }
+
+    @Test
+    public void testHonorsCacheControl() {
+        final ResponseCache responseCache = new ResponseCache();
+        restClient.setResponseCache(responseCache);
+
+        stub.setCacheControl("no-store");
+        restClient.executeGet("/v1/institutions/101/details", null, null);
+        restClient.executeGet("/v1/institutions/101/details", null, null);
+
+        assertEquals(2, stub.getRequestCount(Endpoint.GET_INSTITUTION_DETAILS));
+        assertEquals(0, responseCache.size());
+
+        stub.setCacheControl("no-cache");
+        stub.setValidators(true);
+        restClient.executeGet("/v1/institutions/101/loginForm", null, null);
+        restClient.executeGet("/v1/institutions/101/loginForm", null, null);
+
+        assertEquals(2, stub.getRequestCount(Endpoint.GET_INSTITUTION_LOGIN_FORM));
+        assertEquals(1, stub.getNotModifiedCount());
+
+        stub.setCacheControl("private, max-age=3600");
+        restClient.executeGet("/v1/institutions/102", null, null);
+        restClient.executeGet("/v1/institutions/102", null, null);
+
+        assertEquals(1, stub.getRequestCount(Endpoint.GET_INSTITUTION));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        final ResponseCache responseCache = new ResponseCache(2, ResponseCache.DEFAULT_TTL_MILLIS,
+                Endpoint.GET_INSTITUTION);
+        restClient.setResponseCache(responseCache);
+
+        restClient.executeGet("/v1/institutions/101", null, null);
+        restClient.executeGet("/v1/institutions/102", null, null);
+        restClient.executeGet("/v1/institutions/101", null, null);
+        restClient.executeGet("/v1/institutions/103", null, null);
+        restClient.executeGet("/v1/institutions/101", null, null);
+        restClient.executeGet("/v1/institutions/102", null, null);
+
+        assertEquals(2, responseCache.size());
+        assertEquals(4, stub.getRequestCount(Endpoint.GET_INSTITUTION));
+        assertEquals(2, responseCache.getHitCount());
+    }
+
+    @Test
+    public void testCallersCannotChangeCachedResults() {
+        final ResponseCache responseCache = new ResponseCache();
+        final FinicityClient finicityClient = DefaultFinicityClient.getInstance("appKey", "partnerId",
+                "partnerSecret", stub.getBaseUrl(), restClient -> {
+                    restClient.setResponseCache(responseCache);
+                    return restClient;
+                });
+
+        final LoginForm loginForm = finicityClient.getInstitutionOperations().getInstitutionLoginForm("101");
+        loginForm.getLoginField().get(0).setValue("hunter2");
+        loginForm.getLoginField().clear();
+        final List<Institution> institutions = finicityClient.getInstitutionOperations()
+                .getInstitutions(null, null, null);
+        institutions.clear();
+
+        final LoginForm cached = finicityClient.getInstitutionOperations().getInstitutionLoginForm("101");
+        assertFalse(cached.getLoginField().isEmpty());
+        assertFalse("hunter2".equals(cached.getLoginField().get(0).getValue()));
+        assertFalse(finicityClient.getInstitutionOperations().getInstitutions(null, null, null).isEmpty());
+        assertEquals(1, stub.getRequestCount(Endpoint.GET_INSTITUTION_LOGIN_FORM));
+        assertEquals(1, stub.getRequestCount(Endpoint.GET_INSTITUTIONS));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.breaker;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(2000);
+
+    private final CircuitBreakerConfig config = new CircuitBreakerConfig(0.5, 0.5, 1000, 10, 4, 5000, 2);
+
+    private long now = 0;
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("TEST", config) {
+        @Override
+        protected long currentTimeNanos() {
+            return now;
+        }
+    };
+
+    @Test
+    public void testOpensWhenFailureRateIsReached() {
+        givenCalls(2, false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        givenCalls(2, true, FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1, circuitBreaker.getRejectedCalls());
+    }
+
+    @Test
+    public void testOpensWhenSlowCallRateIsReached() {
+        givenCalls(2, false, FAST);
+        givenCalls(2, false, SLOW);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenProbesCloseTheCircuit() {
+        givenCalls(4, true, FAST);
+        now += TimeUnit.MILLISECONDS.toNanos(5000);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        // Only two probes are permitted
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0.0, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    public void testFailedProbeReopensTheCircuit() {
+        givenCalls(4, true, FAST);
+        now += TimeUnit.MILLISECONDS.toNanos(5000);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onFailure(FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(2, circuitBreaker.getOpenedCount());
+    }
+
+    private void givenCalls(final int count, final boolean fail, final long durationNanos) {
+        for (int i = 0; i < count; ++i) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            if (fail) {
+                circuitBreaker.onFailure(durationNanos);
+            } else {
+                circuitBreaker.onSuccess(durationNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.cassette;
+
+import com.github.alexdlaird.component.rest.Body;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Parameter;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+public class CassetteTest {
+
+    private Path path;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final RestClient restClient = new RestClient() {
+        @Override
+        public Response executeGet(final String url, final List<Parameter> parameters,
+                                   final Map<String, String> additionalHeaders) {
+            final Map<String, List<String>> headerFields = new HashMap<>();
+            headerFields.put(null, Collections.singletonList("HTTP/1.1 200 OK"));
+            headerFields.put("Content-Type", Collections.singletonList("application/xml"));
+            headerFields.put("Set-Cookie", Collections.singletonList("session=abc"));
+
+            return new Response(200, "<customer><id>1</id><username>jdoe</username><firstName>Jane</firstName>"
+                    + "<lastName>Doé</lastName><call>" + calls.incrementAndGet() + "</call></customer>", headerFields);
+        }
+
+        @Override
+        public Response executePost(final String url, final Body body, final List<Parameter> parameters,
+                                    final Map<String, String> additionalHeaders) {
+            calls.incrementAndGet();
+
+            return new Response(203, "<accounts/>",
+                    Collections.singletonMap("MFA-Session", Collections.singletonList("abc123")));
+        }
+
+        @Override
+        public Response executePut(final String url, final Body body, final List<Parameter> parameters,
+                                   final Map<String, String> additionalHeaders) {
+            calls.incrementAndGet();
+
+            return new Response(204, null, Collections.emptyMap());
+        }
+
+        @Override
+        public Response executeDelete(final String url, final List<Parameter> parameters,
+                                      final Map<String, String> additionalHeaders) {
+            throw new RestClientException("Not found", 404, null);
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        path = Files.createTempFile("finicity", ".cassette");
+        Files.delete(path);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testRecordAndReplay() throws IOException {
+        final List<Parameter> parameters = Collections.singletonList(new Parameter("start", "1"));
+        try (CassetteWriter cassetteWriter = new CassetteWriter(path)) {
+            final RecordingRestClient recordingRestClient = new RecordingRestClient(restClient, cassetteWriter);
+
+            final Response response = recordingRestClient.executeGet("/v1/customers/1", parameters, null);
+            assertTrue(response.getBody().contains("<username>jdoe</username>"));
+            recordingRestClient.executeGet("/v1/customers/1", parameters, null);
+            recordingRestClient.executePost("/v1/customers/1/institutions/2/accounts/addall/mfa", null, null,
+                    Collections.singletonMap("MFA-Session", "abc123"));
+            recordingRestClient.executePut("/v1/customers/1", null, null, null);
+            try {
+                recordingRestClient.executeDelete("/v1/customers/1", null, null);
+                fail("RestClientException should have been thrown");
+            } catch (RestClient.RestClientException ignored) {
+            }
+        }
+
+        final Cassette cassette = Cassette.open(path);
+        final ReplayingRestClient replayingRestClient = new ReplayingRestClient(cassette);
+        calls.set(0);
+
+        assertEquals(4, cassette.size());
+        final Response first = replayingRestClient.executeGet("/v1/customers/1", parameters, null);
+        assertEquals(200, first.getStatusCode());
+        assertEquals(Endpoint.GET_CUSTOMER, first.getEndpoint());
+        assertEquals("<customer><id>1</id><username>****</username><firstName>****</firstName>"
+                + "<lastName>***</lastName><call>1</call></customer>", first.getBody());
+        assertEquals("application/xml", first.getHeader("Content-Type"));
+        assertNull(first.getHeader("Set-Cookie"));
+        assertTrue(replayingRestClient.executeGet("/v1/customers/1", parameters, null).getBody()
+                .contains("<call>2</call>"));
+        assertTrue(replayingRestClient.executeGet("/v1/customers/1", parameters, null).getBody()
+                .contains("<call>1</call>"));
+
+        final Response mfa = replayingRestClient.executePost("/v1/customers/1/institutions/2/accounts/addall/mfa",
+                null, null, Collections.singletonMap("MFA-Session", "xyz"));
+        assertEquals(203, mfa.getStatusCode());
+        assertEquals("***", mfa.getHeader("MFA-Session"));
+        assertNull(replayingRestClient.executePut("/v1/customers/1", null, null, null).getBody());
+        assertFalse(cassette.contains(CassetteWriter.key("DELETE", "/v1/customers/1", null, null)));
+        assertEquals(0, calls.get());
+
+        try {
+            replayingRestClient.executeGet("/v1/customers/1", null, null);
+            fail("RestClientException should have been thrown");
+        } catch (RestClient.RestClientException ex) {
+            assertEquals("No recorded response for GET /v1/customers/1", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testHashesSensitiveParameters() throws IOException {
+        final List<Parameter> parameters = Arrays.asList(new Parameter("username", "jdoe"),
+                new Parameter("start", "1"));
+        try (CassetteWriter cassetteWriter = new CassetteWriter(path)) {
+            new RecordingRestClient(restClient, cassetteWriter).executeGet("/v1/customers", parameters, null);
+        }
+
+        final String key = CassetteWriter.key("GET", "/v1/customers", parameters, null);
+        assertFalse(key.contains("jdoe"));
+        assertTrue(key.endsWith("&start=1"));
+        assertFalse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8).contains("jdoe"));
+        assertEquals(200, new ReplayingRestClient(Cassette.open(path)).executeGet("/v1/customers",
+                Arrays.asList(new Parameter("username", "jdoe"), new Parameter("start", "1")), null).getStatusCode());
+    }
+
+    @Test
+    public void testIgnoresIncompleteRecord() throws IOException {
+        try (CassetteWriter cassetteWriter = new CassetteWriter(path)) {
+            new RecordingRestClient(restClient, cassetteWriter).executeGet("/v1/customers/1", null, null);
+        }
+        try (CassetteWriter cassetteWriter = new CassetteWriter(path)) {
+            new RecordingRestClient(restClient, cassetteWriter).executePut("/v1/customers/1", null, null, null);
+        }
+        final byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 2), StandardOpenOption.TRUNCATE_EXISTING);
+
+        final Cassette cassette = Cassette.open(path);
+
+        assertEquals(1, cassette.size());
+        assertTrue(cassette.contains(CassetteWriter.key("GET", "/v1/customers/1", null, null)));
+        assertFalse(cassette.contains(CassetteWriter.key("PUT", "/v1/customers/1", null, null)));
+    }
+}
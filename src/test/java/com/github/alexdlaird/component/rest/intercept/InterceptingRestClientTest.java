@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.intercept;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.github.alexdlaird.type.customer.Customer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InterceptingRestClientTest {
+
+    private final Response ok = new Response(200, "<customer/>", Collections.emptyMap());
+
+    private RestClient delegate;
+
+    @Before
+    public void setUp() {
+        delegate = mock(RestClient.class);
+    }
+
+    @Test
+    public void testInterceptorsRunInOrderAndMayModifyRequest() {
+        final List<String> calls = new ArrayList<>();
+        when(delegate.executePost(anyString(), any(), any(), any())).thenReturn(ok);
+        final InterceptingRestClient restClient = new InterceptingRestClient(delegate,
+                (request, chain) -> {
+                    calls.add("first " + request.getEndpoint());
+                    final Response response = chain.proceed(request.withHeader("X-Trace", "abc"));
+                    calls.add("first done");
+                    return response;
+                },
+                (request, chain) -> {
+                    calls.add("second " + request.getHeader("X-Trace"));
+                    return chain.proceed(request);
+                });
+        final Customer customer = new Customer();
+
+        assertSame(ok, restClient.executePost("/v1/customers/active", customer, null, null));
+
+        assertEquals(3, calls.size());
+        assertEquals("first " + Endpoint.ADD_CUSTOMER, calls.get(0));
+        assertEquals("second abc", calls.get(1));
+        assertEquals("first done", calls.get(2));
+        verify(delegate).executePost(eq("/v1/customers/active"), eq(customer), any(),
+                eq(Collections.singletonMap("X-Trace", "abc")));
+    }
+
+    @Test
+    public void testInterceptorMayShortCircuit() {
+        final Response cached = new Response(200, "<cached/>", Collections.emptyMap());
+        final InterceptingRestClient restClient = new InterceptingRestClient(delegate,
+                (request, chain) -> Request.GET.equals(request.getMethod()) ? cached : chain.proceed(request));
+
+        assertSame(cached, restClient.executeGet("/v1/institutions", null, null));
+
+        verify(delegate, never()).executeGet(anyString(), any(), any());
+    }
+
+    @Test
+    public void testInterceptorMayProceedMoreThanOnce() {
+        final Response unavailable = new Response(503, "", Collections.emptyMap());
+        when(delegate.executeDelete(anyString(), any(), any())).thenReturn(unavailable).thenReturn(ok);
+        final InterceptingRestClient restClient = new InterceptingRestClient(delegate,
+                (request, chain) -> {
+                    final Response response = chain.proceed(request);
+                    return response.getStatusCode() == 503 ? chain.proceed(request) : response;
+                },
+                (request, chain) -> chain.proceed(request));
+
+        assertSame(ok, restClient.executeDelete("/v1/customers/1", null, null));
+
+        verify(delegate, times(2)).executeDelete(eq("/v1/customers/1"), any(), anyMapOf(String.class, String.class));
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+import com.github.alexdlaird.component.rest.DefaultRestClient;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Drives more load than a local stub server can serve, and checks that each limit settles near the stub's capacity. The
+ * stub serves a few requests at once, queues a few more, and throttles anything beyond that with a 429, so an
+ * unlimited client would keep every one of its threads in flight.
+ */
+public class ConcurrencyLimiterSimulationTest {
+
+    private static final int SERVER_CAPACITY = 4;
+
+    private static final int SERVER_QUEUE_LIMIT = 8;
+
+    private static final long SERVICE_TIME_MILLIS = 20;
+
+    private static final int CLIENT_THREADS = 32;
+
+    private static final long RUN_MILLIS = 3000;
+
+    private final Semaphore processing = new Semaphore(SERVER_CAPACITY);
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    @Before
+    public void setUp() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testRaisedLimitWakesEveryWaiter() throws InterruptedException {
+        final AtomicInteger limit = new AtomicInteger(1);
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(new ConcurrencyLimit() {
+            @Override
+            public int getLimit() {
+                return limit.get();
+            }
+
+            @Override
+            public void onSample(final long rttNanos, final int inFlight, final boolean dropped) {
+                limit.set(4);
+            }
+        }, 3, 10000);
+        final ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire();
+        final CountDownLatch acquired = new CountDownLatch(3);
+        final ExecutorService waiters = Executors.newFixedThreadPool(3);
+        for (int i = 0; i < 3; ++i) {
+            waiters.execute(() -> {
+                concurrencyLimiter.acquire();
+                acquired.countDown();
+            });
+        }
+        while (concurrencyLimiter.getQueued() < 3) {
+            Thread.sleep(1);
+        }
+
+        permit.onSuccess();
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiters.shutdown();
+    }
+
+    @Test
+    public void testAimdLimitConvergesNearCapacity() throws InterruptedException {
+        final double limit = simulate(new AimdLimit(1, 1, 200, 0.9, 1000));
+
+        assertTrue("AIMD limit settled at " + limit, limit >= 4 && limit <= 20);
+    }
+
+    @Test
+    public void testGradientLimitConvergesNearCapacity() throws InterruptedException {
+        final double limit = simulate(new GradientLimit(64, 1, 200));
+
+        assertTrue("Gradient limit settled at " + limit, limit >= 4 && limit <= 20);
+    }
+
+    /**
+     * Run the clients against the stub.
+     *
+     * @return The average limit over the second half of the run.
+     */
+    private double simulate(final ConcurrencyLimit concurrencyLimit) throws InterruptedException {
+        final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(concurrencyLimit, CLIENT_THREADS, 1000);
+        final RestClient restClient = new ConcurrencyLimitingRestClient(
+                new DefaultRestClient("appKey", "UTF-8", "application/xml",
+                        "http://127.0.0.1:" + server.getAddress().getPort()), concurrencyLimiter);
+
+        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+        final ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        for (int i = 0; i < CLIENT_THREADS; ++i) {
+            clients.execute(() -> {
+                while (System.nanoTime() < end) {
+                    try {
+                        restClient.executeGet("/v1/institutions", null, null);
+                    } catch (RestClient.RestClientException ignored) {
+                    }
+                }
+            });
+        }
+
+        long total = 0;
+        int samples = 0;
+        while (System.nanoTime() < end) {
+            Thread.sleep(50);
+
+            if (end - System.nanoTime() < TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS / 2)) {
+                total += concurrencyLimiter.getLimit();
+                ++samples;
+            }
+        }
+
+        clients.shutdown();
+        clients.awaitTermination(10, TimeUnit.SECONDS);
+
+        return samples > 0 ? (double) total / samples : concurrencyLimiter.getLimit();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        int status = 200;
+        if (waiting.incrementAndGet() > SERVER_CAPACITY + SERVER_QUEUE_LIMIT) {
+            status = 429;
+        } else {
+            try {
+                processing.acquire();
+                try {
+                    Thread.sleep(SERVICE_TIME_MILLIS);
+                } finally {
+                    processing.release();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                status = 503;
+            }
+        }
+        waiting.decrementAndGet();
+
+        final byte[] body = (status == 200 ? "<institutions/>" : "<error/>").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.limit;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testBurstThenReject() {
+        final RateLimiter rateLimiter = new RateLimiter(1, 5, 0);
+
+        for (int i = 0; i < 5; ++i) {
+            rateLimiter.acquire();
+        }
+        try {
+            rateLimiter.acquire();
+            fail("Expected a RateLimitExceededException");
+        } catch (RateLimiter.RateLimitExceededException ignored) {
+        }
+
+        assertEquals(5, rateLimiter.getAcquired());
+        assertEquals(1, rateLimiter.getRejected());
+    }
+
+    @Test
+    public void testPermitsAreSpaced() {
+        final RateLimiter rateLimiter = new RateLimiter(50);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < 11; ++i) {
+            rateLimiter.acquire();
+        }
+        final long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        // The first permit is free, and each of the next ten is 20 ms after the last
+        assertTrue(elapsedMillis >= 195);
+        assertEquals(10, rateLimiter.getDelayed());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.metrics;
+
+import com.github.alexdlaird.component.rest.DefaultRestClient;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+public class HistogramMetricsTest {
+
+    @Test
+    public void testPercentilesAreWithinPrecision() {
+        final LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (int i = 1; i <= 100000; ++i) {
+            latencyHistogram.record(i * 1000L);
+        }
+        latencyHistogram.record(-5);
+
+        final HistogramSnapshot snapshot = latencyHistogram.snapshot();
+
+        assertEquals(100001, snapshot.getCount());
+        assertEquals(100000000L, snapshot.getMax());
+        for (final double percentile : new double[]{50, 90, 99, 99.9}) {
+            final double expected = percentile * 1000 * 1000;
+            final long actual = snapshot.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + actual, Math.abs(actual - expected) <= expected * 0.035);
+        }
+        assertEquals(0, snapshot.getValueAtPercentile(0));
+        assertEquals(100000000L, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (int i = 0; i < 10000; ++i) {
+            final long value = ThreadLocalRandom.current().nextLong(LatencyHistogram.MAX_TRACKABLE_VALUE);
+            final int index = LatencyHistogram.indexOf(value);
+
+            assertTrue(value <= LatencyHistogram.highestValueAt(index));
+            assertTrue(index == 0 || value > LatencyHistogram.highestValueAt(index - 1));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(LatencyHistogram.MAX_TRACKABLE_VALUE));
+    }
+
+    @Test
+    public void testRequestsAreRecordedPerEndpoint() throws Exception {
+        final String body = "<institutions/>";
+        final HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/v1/institutions", httpExchange -> {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            httpExchange.sendResponseHeaders(httpExchange.getRequestURI().getPath().endsWith("/1") ? 404 : 200,
+                    bytes.length);
+            try (OutputStream outputStream = httpExchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        });
+        httpServer.start();
+
+        final HistogramMetrics histogramMetrics = new HistogramMetrics();
+        try {
+            final DefaultRestClient restClient = new DefaultRestClient("appKey", "UTF-8", "application/xml",
+                    "http://127.0.0.1:" + httpServer.getAddress().getPort());
+            restClient.setRequestMetrics(histogramMetrics);
+
+            restClient.executeGet("/v1/institutions", null, null);
+            restClient.executeGet("/v1/institutions", null, null);
+            try {
+                restClient.executeGet("/v1/institutions/1", null, null);
+                fail("Expected a RestClientException");
+            } catch (RestClient.RestClientException ignored) {
+            }
+        } finally {
+            httpServer.stop(0);
+        }
+        histogramMetrics.recordDecode(Endpoint.GET_INSTITUTIONS, 1500);
+
+        final EndpointMetrics institutions = histogramMetrics.getEndpointMetrics(Endpoint.GET_INSTITUTIONS);
+        assertEquals(2, institutions.getNetworkLatency().getCount());
+        assertEquals(Long.valueOf(2), institutions.getStatusCounts().get(200));
+        assertEquals(body.length() * 2, institutions.getBytesReceived());
+        assertEquals(0, institutions.getBytesSent());
+        assertEquals(1, institutions.getDecodeLatency().getCount());
+        assertEquals(Long.valueOf(1),
+                histogramMetrics.getEndpointMetrics(Endpoint.GET_INSTITUTION).getStatusCounts().get(404));
+        assertNull(histogramMetrics.getEndpointMetrics(Endpoint.GET_CUSTOMERS));
+
+        final String scrape = new PrometheusExporter(histogramMetrics).scrape();
+        assertTrue(scrape, scrape.contains(
+                "finicity_responses_total{endpoint=\"GET /v1/institutions\",status=\"200\"} 2\n"));
+        assertTrue(scrape, scrape.contains(
+                "finicity_network_seconds_count{endpoint=\"GET /v1/institutions/{institutionId}\"} 1\n"));
+        assertTrue(scrape, scrape.contains(
+                "finicity_decode_seconds{endpoint=\"GET /v1/institutions\",quantile=\"0.99\"}"));
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.retry;
+
+import com.github.alexdlaird.component.Token;
+import com.github.alexdlaird.component.rest.Deadline;
+import com.github.alexdlaird.component.rest.DefaultRestClient;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.Response;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.github.alexdlaird.stub.FinicityStubServer;
+import com.github.alexdlaird.type.customer.Customer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RetryingRestClientTest {
+
+    private final Response ok = new Response(200, "<customer/>", Collections.emptyMap());
+
+    private RestClient delegate;
+
+    @Before
+    public void setUp() {
+        delegate = mock(RestClient.class);
+    }
+
+    @Test
+    public void testTransientGetFailureIsRetried() {
+        when(delegate.executeGet(anyString(), any(), any()))
+                .thenThrow(timeout())
+                .thenThrow(new RestClient.RestClientException("Unavailable", 503, null))
+                .thenReturn(ok);
+        final RetryingRestClient restClient = givenRetryingRestClient(new RetryPolicy(), new RetryBudget());
+
+        assertSame(ok, restClient.executeGet("/v1/customers/1", null, null));
+
+        verify(delegate, times(3)).executeGet(anyString(), any(), any());
+        assertEquals(2, restClient.getRetryStatistics().getRetries());
+        assertEquals(1, restClient.getRetryStatistics().getRecovered());
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() {
+        when(delegate.executeGet(anyString(), any(), any()))
+                .thenThrow(new RestClient.RestClientException("Not found", 404, null));
+        final RetryingRestClient restClient = givenRetryingRestClient(new RetryPolicy(), new RetryBudget());
+
+        try {
+            restClient.executeGet("/v1/customers/1", null, null);
+            fail("Expected a RestClientException");
+        } catch (RestClient.RestClientException ignored) {
+        }
+
+        verify(delegate, times(1)).executeGet(anyString(), any(), any());
+    }
+
+    @Test
+    public void testAddCustomerIsNotRetriedUnlessDeduplicated() {
+        when(delegate.executePost(anyString(), any(), any(), any())).thenThrow(timeout());
+        final RetryingRestClient restClient = givenRetryingRestClient(new RetryPolicy(), new RetryBudget());
+
+        try {
+            restClient.executePost("/v1/customers/active", new Customer(), null, null);
+            fail("Expected a RestClientException");
+        } catch (RestClient.RestClientException ignored) {
+        }
+
+        verify(delegate, times(1)).executePost(anyString(), any(), any(), any());
+        assertEquals(1, restClient.getRetryStatistics().getNotRetryable());
+
+        final RetryPolicy deduplicating = new RetryPolicy(3, 0, 0, EnumSet.of(Endpoint.ADD_CUSTOMER));
+        assertTrue(deduplicating.isRetryable("POST", Endpoint.resolve("POST", "/v1/customers/active", null)));
+    }
+
+    @Test
+    public void testRefreshAccountIsRetryableButMfaAnswerIsNot() {
+        final RetryPolicy retryPolicy = new RetryPolicy();
+
+        assertTrue(retryPolicy.isRetryable("POST", Endpoint.resolve("POST", "/v1/customers/1/accounts/2", null)));
+        assertFalse(retryPolicy.isRetryable("POST", Endpoint.resolve("POST", "/v1/customers/1/accounts/2",
+                Collections.singletonMap("MFA-Session", "session"))));
+    }
+
+    @Test
+    public void testAttemptsAreBoundedPerRequest() {
+        when(delegate.executeGet(anyString(), any(), any())).thenThrow(timeout());
+        final RetryingRestClient restClient = givenRetryingRestClient(new RetryPolicy(4, 0, 0), new RetryBudget());
+
+        try {
+            restClient.executeGet("/v1/institutions", null, null);
+            fail("Expected a RestClientException");
+        } catch (RestClient.RestClientException ignored) {
+        }
+
+        verify(delegate, times(4)).executeGet(anyString(), any(), any());
+        assertEquals(1, restClient.getRetryStatistics().getExhausted());
+    }
+
+    @Test
+    public void testDepletedBudgetStopsRetries() {
+        when(delegate.executeGet(anyString(), any(), any())).thenThrow(timeout());
+        final RetryBudget retryBudget = new RetryBudget(4, 0.1);
+        final RetryingRestClient restClient = givenRetryingRestClient(new RetryPolicy(10, 0, 0), retryBudget);
+
+        try {
+            restClient.executeGet("/v1/institutions", null, null);
+            fail("Expected a RestClientException");
+        } catch (RestClient.RestClientException ignored) {
+        }
+
+        // Four tokens allow one retry before the budget falls to half
+        verify(delegate, times(2)).executeGet(anyString(), any(), any());
+        assertEquals(1, restClient.getRetryStatistics().getThrottled());
+        assertFalse(retryBudget.isRetryPermitted());
+    }
+
+    @Test
+    public void testRetryIsNotAttemptedPastDeadline() {
+        when(delegate.executeGet(anyString(), any(), any())).thenThrow(timeout());
+        final RetryPolicy retryPolicy = new RetryPolicy() {
+            @Override
+            public long computeDelayMillis(final int retry) {
+                return 60000;
+            }
+        };
+        final RetryingRestClient restClient = givenRetryingRestClient(retryPolicy, new RetryBudget());
+
+        try (Deadline.Scope ignored = Deadline.after(1, TimeUnit.SECONDS).enter()) {
+            restClient.executeGet("/v1/institutions", null, null);
+            fail("Expected a RestClientException");
+        } catch (RestClient.RestClientException ignored) {
+        }
+
+        verify(delegate, times(1)).executeGet(anyString(), any(), any());
+        assertEquals(1, restClient.getRetryStatistics().getDeadlineExceeded());
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    public void testDelayIsBoundedByBackoffCeiling() {
+        final RetryPolicy retryPolicy = new RetryPolicy(10, 100, 1000);
+
+        for (int i = 0; i < 100; ++i) {
+            assertTrue(retryPolicy.computeDelayMillis(1) <= 100);
+            assertTrue(retryPolicy.computeDelayMillis(3) <= 400);
+            assertTrue(retryPolicy.computeDelayMillis(40) <= 1000);
+        }
+    }
+
+    private RestClient.RestClientException timeout() {
+        return new RestClient.RestClientException("Rest client error", new SocketTimeoutException("Read timed out"));
+    }
+
+    @Test
+    public void testStatusOfDefaultRestClientFailureIsKept() throws IOException {
+        try (FinicityStubServer stub = new FinicityStubServer()) {
+            stub.setErrorRate(1.0, 503);
+            final DefaultRestClient defaultRestClient = new DefaultRestClient("appKey", "UTF-8", "application/xml",
+                    stub.getBaseUrl());
+            defaultRestClient.refreshToken(new Token("token", Long.MAX_VALUE));
+            delegate = defaultRestClient;
+            final RetryingRestClient restClient = givenRetryingRestClient(new RetryPolicy(3, 0, 0), new RetryBudget());
+
+            try {
+                restClient.executeGet("/v1/customers/1", null, null);
+                fail("Expected a RestClientException");
+            } catch (RestClient.RestClientException ex) {
+                assertEquals(503, (int) ex.getStatusCode());
+            }
+
+            assertEquals(3, stub.getRequestCount(Endpoint.GET_CUSTOMER));
+            assertEquals(2, restClient.getRetryStatistics().getRetries());
+        }
+    }
+
+    private RetryingRestClient givenRetryingRestClient(final RetryPolicy retryPolicy, final RetryBudget retryBudget) {
+        return new RetryingRestClient(delegate, retryPolicy, retryBudget) {
+            @Override
+            protected void sleep(final long millis) {
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.component.rest.schedule;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+public class PrioritySchedulerTest {
+
+    @Test
+    public void testBatchCannotUseReservedCapacity() {
+        final PriorityScheduler priorityScheduler = new PriorityScheduler(4, 1, 4, 1, 10, 0);
+
+        for (int i = 0; i < 3; ++i) {
+            priorityScheduler.acquire(Lane.BATCH);
+        }
+        try {
+            priorityScheduler.acquire(Lane.BATCH);
+            fail("Expected a LaneRejectedException");
+        } catch (PriorityScheduler.LaneRejectedException ignored) {
+        }
+        priorityScheduler.acquire(Lane.INTERACTIVE);
+
+        assertEquals(3, priorityScheduler.getLaneStatistics(Lane.BATCH).getInFlight());
+        assertEquals(1, priorityScheduler.getLaneStatistics(Lane.BATCH).getRejected());
+        assertEquals(1, priorityScheduler.getLaneStatistics(Lane.INTERACTIVE).getInFlight());
+    }
+
+    @Test
+    public void testContendedSlotsAreSharedByWeight() throws InterruptedException {
+        final PriorityScheduler priorityScheduler = new PriorityScheduler(1, 0, 3, 1, 10, 10000);
+        final List<Lane> grants = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = new ArrayList<>();
+
+        priorityScheduler.acquire(Lane.INTERACTIVE);
+        for (int i = 0; i < 10; ++i) {
+            final Lane lane = i < 4 ? Lane.BATCH : Lane.INTERACTIVE;
+            final Thread thread = new Thread(() -> {
+                priorityScheduler.acquire(lane);
+                grants.add(lane);
+                priorityScheduler.release(lane);
+            });
+            thread.start();
+            threads.add(thread);
+
+            // Queue every batch request before any interactive one
+            awaitQueueDepth(priorityScheduler, lane, i < 4 ? i + 1 : i - 3);
+        }
+        priorityScheduler.release(Lane.INTERACTIVE);
+        for (final Thread thread : threads) {
+            thread.join(10000);
+        }
+
+        final Lane i = Lane.INTERACTIVE;
+        final Lane b = Lane.BATCH;
+        assertEquals(Arrays.asList(i, b, i, i, i, b, i, i, b, b), grants);
+        assertTrue(priorityScheduler.getLaneStatistics(Lane.BATCH).getMaxWaitMillis() > 0);
+        assertEquals(0, priorityScheduler.getLaneStatistics(Lane.BATCH).getQueueDepth());
+    }
+
+    @Test
+    public void testFullQueueIsRejected() {
+        final PriorityScheduler priorityScheduler = new PriorityScheduler(1, 0, 4, 1, 0, 1000);
+
+        priorityScheduler.acquire(Lane.BATCH);
+        try {
+            priorityScheduler.acquire(Lane.BATCH);
+            fail("Expected a LaneRejectedException");
+        } catch (PriorityScheduler.LaneRejectedException ignored) {
+        }
+
+        assertEquals(2, priorityScheduler.getLaneStatistics(Lane.BATCH).getSubmitted());
+        assertEquals(1, priorityScheduler.getLaneStatistics(Lane.BATCH).getRejected());
+    }
+
+    private void awaitQueueDepth(final PriorityScheduler priorityScheduler, final Lane lane, final int queueDepth)
+            throws InterruptedException {
+        for (int i = 0; i < 1000 && priorityScheduler.getLaneStatistics(lane).getQueueDepth() < queueDepth; ++i) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.store;
+
+import com.github.alexdlaird.operation.TransactionOperations;
+import com.github.alexdlaird.type.Sort;
+import com.github.alexdlaird.type.transaction.Categorization;
+import com.github.alexdlaird.type.transaction.Subaccount;
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionStatus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TransactionStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRangeQueryAcrossSegmentsAndReopen() throws IOException {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            // Out of order, so the index must sort on insert
+            transactions.add(transaction(String.valueOf(i), (i * 37) % 100));
+        }
+
+        try (TransactionStore transactionStore = new TransactionStore(directory, 1024)) {
+            transactionStore.append("c", "a", transactions);
+
+            assertEquals(11, transactionStore.count("c", "a", 10, 20));
+        }
+
+        try (TransactionStore transactionStore = new TransactionStore(directory, 1024)) {
+            final List<Transaction> range = transactionStore.query("c", "a", 10, 20);
+
+            assertEquals(11, range.size());
+            assertEquals(10L, (long) range.get(0).getPostedDate());
+            assertEquals(20L, (long) range.get(10).getPostedDate());
+            assertEquals("Coffee", range.get(0).getDescription());
+            assertEquals(TransactionStatus.ACTIVE, range.get(0).getStatus());
+            assertEquals("Food", range.get(0).getCategorization().getCategory());
+            assertEquals("Savings", range.get(0).getSubaccount().getName());
+            assertNull(range.get(0).getMemo());
+            assertEquals(0, transactionStore.count("c", "b", 0, 100));
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsTruncated() throws IOException {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        try (TransactionStore transactionStore = new TransactionStore(directory)) {
+            transactionStore.append("c", "a", Arrays.asList(transaction("1", 1), transaction("2", 2)));
+        }
+        try (OutputStream outputStream = Files.newOutputStream(directory.resolve("c").resolve("a-000001.seg"),
+                StandardOpenOption.APPEND)) {
+            outputStream.write(new byte[]{0, 0, 1, 0, 0, 0});
+        }
+
+        try (TransactionStore transactionStore = new TransactionStore(directory)) {
+            assertEquals(2, transactionStore.count("c", "a", 0, 10));
+
+            transactionStore.append("c", "a", Arrays.asList(transaction("3", 3)));
+            assertEquals(3, transactionStore.query("c", "a", 0, 10).size());
+        }
+    }
+
+    @Test
+    public void testOnlyUncoveredRangesAreFetched() throws IOException {
+        final TransactionOperations transactionOperations = mock(TransactionOperations.class);
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), anyBoolean()))
+                .thenReturn(Arrays.asList(transaction("1", 100), transaction("2", 150)))
+                .thenReturn(Arrays.asList(transaction("3", 250)));
+
+        try (TransactionStore transactionStore = new TransactionStore(temporaryFolder.getRoot().toPath())) {
+            final CachingTransactionOperations cachingTransactionOperations =
+                    new CachingTransactionOperations(transactionOperations, transactionStore, 0) {
+                        @Override
+                        protected long currentTimeSeconds() {
+                            return 1000;
+                        }
+                    };
+
+            assertEquals(2, cachingTransactionOperations.getAccountTransactions("c", "a", 100L, 200L, null, null,
+                    null, false).size());
+            final List<Transaction> transactions = cachingTransactionOperations.getAccountTransactions("c", "a", 50L,
+                    300L, 1, 2, Sort.ASC, false);
+
+            assertEquals(Arrays.asList("1", "2"), Arrays.asList(transactions.get(0).getId(),
+                    transactions.get(1).getId()));
+            verify(transactionOperations, times(1)).getAccountTransactions("c", "a", 100L, 200L, 1, 1000, Sort.ASC,
+                    false);
+            verify(transactionOperations, times(1)).getAccountTransactions("c", "a", 50L, 99L, 1, 1000, Sort.ASC,
+                    false);
+            verify(transactionOperations, times(1)).getAccountTransactions("c", "a", 201L, 300L, 1, 1000, Sort.ASC,
+                    false);
+            assertEquals(0, transactionStore.getUncoveredRanges("c", "a", 50, 300).size());
+        }
+    }
+
+    @Test
+    public void testSimilarIdsAreStoredSeparately() throws IOException {
+        try (TransactionStore transactionStore = new TransactionStore(temporaryFolder.getRoot().toPath())) {
+            transactionStore.append("c", "a.b", Arrays.asList(transaction("1", 1)));
+            transactionStore.append("c", "a_b", Arrays.asList(transaction("2", 2), transaction("3", 3)));
+            transactionStore.append("c", "A_b", Arrays.asList(transaction("4", 4)));
+
+            assertEquals(1, transactionStore.count("c", "a.b", 0, 10));
+            assertEquals(2, transactionStore.count("c", "a_b", 0, 10));
+            assertEquals(1, transactionStore.count("c", "A_b", 0, 10));
+        }
+    }
+
+    @Test
+    public void testPagesAreMergedOnce() throws IOException {
+        final List<Transaction> fetched = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            fetched.add(transaction(String.valueOf(i), 100 + i));
+        }
+        final TransactionOperations transactionOperations = mock(TransactionOperations.class);
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), anyBoolean()))
+                .thenReturn(fetched);
+
+        try (TransactionStore transactionStore = new TransactionStore(temporaryFolder.getRoot().toPath())) {
+            final CachingTransactionOperations cachingTransactionOperations =
+                    new CachingTransactionOperations(transactionOperations, transactionStore, 100) {
+                        @Override
+                        protected long currentTimeSeconds() {
+                            return 200;
+                        }
+                    };
+
+            final List<String> ids = new ArrayList<>();
+            for (int start = 1; start <= 5; start += 2) {
+                for (final Transaction transaction : cachingTransactionOperations.getAccountTransactions("c", "a",
+                        50L, 150L, start, 2, Sort.ASC, false)) {
+                    ids.add(transaction.getId());
+                }
+            }
+
+            assertEquals(Arrays.asList("0", "1", "2", "3", "4"), ids);
+            verify(transactionOperations, times(1)).getAccountTransactions("c", "a", 50L, 100L, 1, 1000, Sort.ASC,
+                    false);
+            verify(transactionOperations, times(1)).getAccountTransactions("c", "a", 101L, 150L, 1, 1000, Sort.ASC,
+                    false);
+        }
+    }
+
+    @Test
+    public void testConcurrentQueriesFillARangeOnce() throws Exception {
+        final TransactionOperations transactionOperations = mock(TransactionOperations.class);
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), anyBoolean()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(100);
+
+                    return Arrays.asList(transaction("1", 100), transaction("2", 150));
+                });
+
+        try (TransactionStore transactionStore = new TransactionStore(temporaryFolder.getRoot().toPath())) {
+            final CachingTransactionOperations cachingTransactionOperations =
+                    new CachingTransactionOperations(transactionOperations, transactionStore, 0) {
+                        @Override
+                        protected long currentTimeSeconds() {
+                            return 1000;
+                        }
+                    };
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 2; ++i) {
+                threads.add(new Thread(() -> cachingTransactionOperations.getAccountTransactions("c", "a", 100L, 200L,
+                        null, null, null, false)));
+            }
+            for (final Thread thread : threads) {
+                thread.start();
+            }
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+
+            verify(transactionOperations, times(1)).getAccountTransactions("c", "a", 100L, 200L, 1, 1000, Sort.ASC,
+                    false);
+            assertEquals(2, transactionStore.count("c", "a", 100, 200));
+        }
+    }
+
+    private Transaction transaction(final String id, final long postedDate) {
+        return new Transaction("a", -4.5, null, null, postedDate, "c", "Coffee", null, null, id, null, null, null,
+                postedDate, null, TransactionStatus.ACTIVE, new Subaccount("Savings", null), postedDate, "debit",
+                null, null, new Categorization("Cafe", "Food", null, null));
+    }
+}
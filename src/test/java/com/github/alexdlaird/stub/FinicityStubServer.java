@@ -0,0 +1,735 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.stub;
+
+import com.github.alexdlaird.component.rest.Endpoint;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An in-process stand-in for Finicity's API, so that the client can be tested and load tested without credentials or
+ * a network. It serves every {@link Endpoint} used by the Operations clients: partner authentication, customers,
+ * institutions, accounts (including 203 MFA challenges, continued with the <code>MFA-Session</code> header),
+ * transactions with <code>start</code>/<code>limit</code> paging, and TxPush. <p> Responses are generated rather than
+ * stored, so the data is consistent between calls without the stub keeping state: a customer always has {@link
+ * #setAccountsPerCustomer(int)} accounts, and an account always has {@link #setTransactionsPerAccount(int)}
+ * transactions spread evenly over the requested dates. <p> Institution responses can carry <code>ETag</code>,
+ * <code>Last-Modified</code> and <code>Cache-Control</code> headers, in which case conditional requests are answered
+ * with <code>304 Not Modified</code>, see {@link #setValidators(boolean)}. <p> Latency, injected errors, dropped connections and payload
+ * sizes can be changed while the server is running, for instance: <pre>
+ * try (FinicityStubServer stub = new FinicityStubServer()) {
+ *     stub.setLatency(20, 10);
+ *     stub.setErrorRate(0.01, 503);
+ *     FinicityClient finicityClient = DefaultFinicityClient.getInstance("appKey", "partnerId", "partnerSecret",
+ *             stub.getBaseUrl(), null);
+ * }
+ * </pre>
+ */
+public class FinicityStubServer implements AutoCloseable {
+    /**
+     * All endpoints, indexed by ordinal.
+     */
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+
+    /**
+     * Finicity's default page size.
+     */
+    private static final int DEFAULT_LIMIT = 25;
+
+    /**
+     * Finicity's largest page size.
+     */
+    private static final int MAX_LIMIT = 1000;
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer httpServer;
+
+    /**
+     * The threads requests are handled on.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * Requests served, per endpoint, with the last index used for requests that did not match one.
+     */
+    private final AtomicLongArray requestCounts = new AtomicLongArray(ENDPOINTS.length + 1);
+
+    /**
+     * Requests answered with an injected error.
+     */
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    /**
+     * Requests answered with <code>304 Not Modified</code>.
+     */
+    private final AtomicLong notModified = new AtomicLong();
+
+    /**
+     * The <code>Last-Modified</code> date of every institution resource.
+     */
+    private final String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+            ZonedDateTime.now(ZoneOffset.UTC).withNano(0));
+
+    /**
+     * Requests whose connections were dropped.
+     */
+    private final AtomicLong droppedConnections = new AtomicLong();
+
+    /**
+     * Source of tokens, customer IDs and MFA sessions.
+     */
+    private final AtomicLong sequence = new AtomicLong(1000);
+
+    private volatile long latencyMillis;
+
+    private volatile long latencyJitterMillis;
+
+    private volatile double errorRate;
+
+    private volatile int errorStatusCode = 503;
+
+    private volatile double dropRate;
+
+    private volatile double mfaRate;
+
+    private volatile int customerCount = 100;
+
+    private volatile int institutionCount = 100;
+
+    private volatile int accountsPerCustomer = 3;
+
+    private volatile int transactionsPerAccount = 250;
+
+    private volatile int descriptionLength = 24;
+
+    private volatile boolean validators;
+
+    private volatile String cacheControl;
+
+    /**
+     * Construct and start a stub listening on an ephemeral port of the loopback address.
+     *
+     * @throws IOException The server could not be started.
+     */
+    public FinicityStubServer() throws IOException {
+        this(0);
+    }
+
+    /**
+     * Construct and start a stub listening on the loopback address.
+     *
+     * @param port The port to listen on, or 0 for an ephemeral port.
+     * @throws IOException The server could not be started.
+     */
+    public FinicityStubServer(final int port) throws IOException {
+        executorService = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "finicity-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        httpServer.createContext("/", this::handle);
+        httpServer.setExecutor(executorService);
+        httpServer.start();
+    }
+
+    /**
+     * Get the base URL to give a {@link com.github.alexdlaird.DefaultFinicityClient DefaultFinicityClient} or {@link
+     * com.github.alexdlaird.component.rest.DefaultRestClient DefaultRestClient}.
+     *
+     * @return The base URL, without a trailing slash.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Delay every response.
+     *
+     * @param latencyMillis       The minimum delay.
+     * @param latencyJitterMillis The most that is randomly added to the minimum delay.
+     */
+    public void setLatency(final long latencyMillis, final long latencyJitterMillis) {
+        assert latencyMillis >= 0;
+        assert latencyJitterMillis >= 0;
+
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+    }
+
+    /**
+     * Answer a fraction of requests with an error instead of their usual response.
+     *
+     * @param errorRate       The fraction of requests, from 0 to 1.
+     * @param errorStatusCode The status code of the error.
+     */
+    public void setErrorRate(final double errorRate, final int errorStatusCode) {
+        assert errorRate >= 0 && errorRate <= 1;
+
+        this.errorRate = errorRate;
+        this.errorStatusCode = errorStatusCode;
+    }
+
+    /**
+     * Close the connection of a fraction of requests without a response.
+     *
+     * @param dropRate The fraction of requests, from 0 to 1.
+     */
+    public void setDropRate(final double dropRate) {
+        assert dropRate >= 0 && dropRate <= 1;
+
+        this.dropRate = dropRate;
+    }
+
+    /**
+     * Answer a fraction of requests to add, discover or refresh accounts with a 203 MFA challenge. Answering the
+     * challenge always succeeds.
+     *
+     * @param mfaRate The fraction of requests, from 0 to 1.
+     */
+    public void setMfaRate(final double mfaRate) {
+        assert mfaRate >= 0 && mfaRate <= 1;
+
+        this.mfaRate = mfaRate;
+    }
+
+    public void setCustomerCount(final int customerCount) {
+        this.customerCount = customerCount;
+    }
+
+    public void setInstitutionCount(final int institutionCount) {
+        this.institutionCount = institutionCount;
+    }
+
+    public void setAccountsPerCustomer(final int accountsPerCustomer) {
+        this.accountsPerCustomer = accountsPerCustomer;
+    }
+
+    public void setTransactionsPerAccount(final int transactionsPerAccount) {
+        this.transactionsPerAccount = transactionsPerAccount;
+    }
+
+    /**
+     * Set the length of each transaction's description, which is most of the size of a transactions page.
+     *
+     * @param descriptionLength The number of characters.
+     */
+    public void setDescriptionLength(final int descriptionLength) {
+        this.descriptionLength = descriptionLength;
+    }
+
+    /**
+     * Send <code>ETag</code> and <code>Last-Modified</code> headers with institution responses, and answer requests
+     * whose <code>If-None-Match</code> or <code>If-Modified-Since</code> header still matches with <code>304 Not
+     * Modified</code>.
+     *
+     * @param validators True to send and honor validators.
+     */
+    public void setValidators(final boolean validators) {
+        this.validators = validators;
+    }
+
+    /**
+     * Set the <code>Cache-Control</code> header sent with institution responses.
+     *
+     * @param cacheControl The header value, or null to not send the header.
+     */
+    public void setCacheControl(final String cacheControl) {
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * Get the number of requests served for an endpoint.
+     *
+     * @param endpoint The endpoint, or null for requests that did not match one.
+     * @return The number of requests.
+     */
+    public long getRequestCount(final Endpoint endpoint) {
+        return requestCounts.get(endpoint != null ? endpoint.ordinal() : ENDPOINTS.length);
+    }
+
+    /**
+     * Get the number of requests served for every endpoint.
+     *
+     * @return The number of requests.
+     */
+    public long getRequestCount() {
+        long requestCount = 0;
+        for (int i = 0; i < requestCounts.length(); ++i) {
+            requestCount += requestCounts.get(i);
+        }
+
+        return requestCount;
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    public long getDroppedConnections() {
+        return droppedConnections.get();
+    }
+
+    public long getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executorService.shutdownNow();
+    }
+
+    private void handle(final HttpExchange httpExchange) throws IOException {
+        try {
+            drain(httpExchange.getRequestBody());
+
+            final String path = httpExchange.getRequestURI().getRawPath();
+            final Map<String, String> headers = httpExchange.getRequestHeaders().containsKey("MFA-Session") ?
+                    Collections.singletonMap("MFA-Session", httpExchange.getRequestHeaders().getFirst("MFA-Session")) :
+                    null;
+            final Endpoint endpoint = Endpoint.resolve(httpExchange.getRequestMethod(), path, headers);
+            requestCounts.incrementAndGet(endpoint != null ? endpoint.ordinal() : ENDPOINTS.length);
+
+            delay();
+
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (dropRate > 0 && random.nextDouble() < dropRate) {
+                droppedConnections.incrementAndGet();
+                return;
+            }
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                send(httpExchange, errorStatusCode, error(errorStatusCode, "Injected failure"));
+                return;
+            }
+            if (endpoint == null) {
+                send(httpExchange, 404, error(404, "No endpoint matches " + path));
+                return;
+            }
+            if (httpExchange.getRequestHeaders().getFirst("Finicity-App-Key") == null ||
+                    (endpoint != Endpoint.PARTNER_AUTHENTICATION &&
+                            httpExchange.getRequestHeaders().getFirst("Finicity-App-Token") == null)) {
+                send(httpExchange, 401, error(401, "Missing credentials"));
+                return;
+            }
+
+            respond(httpExchange, endpoint, path.split("/"), parameters(httpExchange.getRequestURI().getRawQuery()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    private void respond(final HttpExchange httpExchange, final Endpoint endpoint, final String[] segments,
+                         final Map<String, String> parameters) throws IOException {
+        // Segments of "/v1/customers/{customerId}/accounts/{accountId}" are "", "v1", "customers", "{customerId}", ...
+        switch (endpoint) {
+            case PARTNER_AUTHENTICATION:
+                send(httpExchange, 200, "<access><token>STUB" + sequence.incrementAndGet() + "</token></access>");
+                break;
+            case GET_INSTITUTIONS:
+                sendInstitutions(httpExchange, parameters);
+                break;
+            case GET_INSTITUTION:
+                sendInstitutionResource(httpExchange, appendInstitution(new StringBuilder(), segments[3]).toString());
+                break;
+            case GET_INSTITUTION_DETAILS:
+                sendInstitutionResource(httpExchange, appendLoginForm(appendInstitution(
+                        new StringBuilder("<institutionDetails>"), segments[3]), segments[3])
+                        .append("</institutionDetails>").toString());
+                break;
+            case GET_INSTITUTION_LOGIN_FORM:
+                sendInstitutionResource(httpExchange, appendLoginForm(new StringBuilder(), segments[3]).toString());
+                break;
+            case GET_ACCOUNT_LOGIN_FORM:
+                send(httpExchange, 200, appendLoginForm(new StringBuilder(), segments[3]).toString());
+                break;
+            case GET_CUSTOMERS:
+                sendCustomers(httpExchange, parameters);
+                break;
+            case GET_CUSTOMER:
+                send(httpExchange, 200, appendCustomer(new StringBuilder(), segments[3]).toString());
+                break;
+            case ADD_TESTING_CUSTOMER:
+            case ADD_CUSTOMER:
+                send(httpExchange, 201, appendCustomer(new StringBuilder(),
+                        String.valueOf(sequence.incrementAndGet())).toString());
+                break;
+            case ADD_ALL_ACCOUNTS:
+            case DISCOVER_ACCOUNTS:
+            case REFRESH_ACCOUNT:
+                if (mfaRate > 0 && ThreadLocalRandom.current().nextDouble() < mfaRate) {
+                    sendMfaChallenge(httpExchange);
+                } else {
+                    sendAccounts(httpExchange, segments[3]);
+                }
+                break;
+            case ADD_ALL_ACCOUNTS_MFA:
+            case DISCOVER_ACCOUNTS_MFA:
+            case REFRESH_ACCOUNT_MFA:
+            case ACTIVATE_ACCOUNTS:
+            case REFRESH_ACCOUNTS:
+            case GET_ACCOUNTS:
+            case GET_INSTITUTION_ACCOUNTS:
+                sendAccounts(httpExchange, segments[3]);
+                break;
+            case GET_ACCOUNT:
+                send(httpExchange, 200, appendAccount(new StringBuilder(), segments[3],
+                        accountIndex(segments[5])).toString());
+                break;
+            case GET_TRANSACTIONS:
+                sendTransactions(httpExchange, segments[3], null, parameters);
+                break;
+            case GET_ACCOUNT_TRANSACTIONS:
+                sendTransactions(httpExchange, segments[3], segments[5], parameters);
+                break;
+            case GET_TRANSACTION:
+                send(httpExchange, 200, appendTransaction(new StringBuilder(), segments[3], segments[3] + "01",
+                        parseLong(segments[5], 0), System.currentTimeMillis() / 1000).toString());
+                break;
+            case ENABLE_TXPUSH_NOTIFICATIONS:
+                send(httpExchange, 201, "<subscriptions>"
+                        + subscription(sequence.incrementAndGet(), segments[5], "account")
+                        + subscription(sequence.incrementAndGet(), segments[5], "transaction")
+                        + "</subscriptions>");
+                break;
+            case ADD_TRANSACTION_FOR_TESTING_ACCOUNT:
+                send(httpExchange, 201, appendTransaction(new StringBuilder(), segments[3], segments[5],
+                        sequence.incrementAndGet(), System.currentTimeMillis() / 1000).toString());
+                break;
+            default:
+                // Every other endpoint modifies or deletes something, and Finicity answers with no content
+                send(httpExchange, 204, null);
+        }
+    }
+
+    private void sendInstitutions(final HttpExchange httpExchange, final Map<String, String> parameters)
+            throws IOException {
+        final int found = institutionCount;
+        final int start = start(parameters);
+        final int end = Math.min(found, start - 1 + limit(parameters));
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        appendPage(stringBuilder, "institutions", found, Math.max(0, end - start + 1), end < found);
+        for (int i = start; i <= end; ++i) {
+            appendInstitution(stringBuilder, String.valueOf(10000 + i));
+        }
+        stringBuilder.append("</institutions>");
+
+        sendInstitutionResource(httpExchange, stringBuilder.toString());
+    }
+
+    private void sendInstitutionResource(final HttpExchange httpExchange, final String body) throws IOException {
+        final String cacheControl = this.cacheControl;
+        if (cacheControl != null) {
+            httpExchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        }
+        if (!validators) {
+            send(httpExchange, 200, body);
+            return;
+        }
+
+        final String etag = "\"" + Integer.toHexString(body.hashCode()) + "-" + body.length() + "\"";
+        httpExchange.getResponseHeaders().set("ETag", etag);
+        httpExchange.getResponseHeaders().set("Last-Modified", lastModified);
+
+        final String ifNoneMatch = httpExchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null ? ifNoneMatch.equals(etag) :
+                lastModified.equals(httpExchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+            notModified.incrementAndGet();
+            send(httpExchange, 304, null);
+        } else {
+            send(httpExchange, 200, body);
+        }
+    }
+
+    private void sendCustomers(final HttpExchange httpExchange, final Map<String, String> parameters)
+            throws IOException {
+        final int found = customerCount;
+        final int start = start(parameters);
+        final int end = Math.min(found, start - 1 + limit(parameters));
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        appendPage(stringBuilder, "customers", found, Math.max(0, end - start + 1), end < found);
+        for (int i = start; i <= end; ++i) {
+            appendCustomer(stringBuilder, String.valueOf(1000 + i));
+        }
+        stringBuilder.append("</customers>");
+
+        send(httpExchange, 200, stringBuilder.toString());
+    }
+
+    private void sendAccounts(final HttpExchange httpExchange, final String customerId) throws IOException {
+        final int found = accountsPerCustomer;
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        appendPage(stringBuilder, "accounts", found, found, false);
+        for (int i = 1; i <= found; ++i) {
+            appendAccount(stringBuilder, customerId, i);
+        }
+        stringBuilder.append("</accounts>");
+
+        send(httpExchange, 200, stringBuilder.toString());
+    }
+
+    private void sendMfaChallenge(final HttpExchange httpExchange) throws IOException {
+        httpExchange.getResponseHeaders().set("MFA-Session", "STUB-MFA-" + sequence.incrementAndGet());
+        send(httpExchange, 203, "<mfaChallenges><questions>"
+                + "<question><text>What is the name of your first pet?</text></question>"
+                + "<question><text>Which high school did you attend?</text>"
+                + "<choice value=\"Jefferson\">Jefferson</choice><choice value=\"Wilson\">Wilson</choice></question>"
+                + "</questions></mfaChallenges>");
+    }
+
+    /**
+     * Send a page of transactions. Each account's transactions are spread evenly between <code>fromDate</code> and
+     * <code>toDate</code>, and customer-wide requests list every account's transactions in turn.
+     */
+    private void sendTransactions(final HttpExchange httpExchange, final String customerId, final String accountId,
+                                  final Map<String, String> parameters) throws IOException {
+        final int perAccount = transactionsPerAccount;
+        final int accounts = accountId != null ? 1 : accountsPerCustomer;
+        final int found = perAccount * accounts;
+        final int start = start(parameters);
+        final int end = Math.min(found, start - 1 + limit(parameters));
+        final long toDate = parseLong(parameters.get("toDate"), System.currentTimeMillis() / 1000);
+        final long fromDate = Math.min(toDate, parseLong(parameters.get("fromDate"), toDate - 90 * 24 * 60 * 60));
+        final boolean descending = "desc".equalsIgnoreCase(parameters.get("sort"));
+
+        final StringBuilder stringBuilder = new StringBuilder(256 + Math.max(0, end - start + 1)
+                * (400 + descriptionLength));
+        appendPage(stringBuilder, "transactions", found, Math.max(0, end - start + 1), end < found);
+        for (int i = start; i <= end; ++i) {
+            final int index = descending ? found - i : i - 1;
+            final int account = accountId != null ? accountIndex(accountId) : index / perAccount + 1;
+            final int position = index % perAccount;
+            final long postedDate = perAccount > 1 ?
+                    fromDate + (toDate - fromDate) * position / (perAccount - 1) : toDate;
+
+            appendTransaction(stringBuilder, customerId, accountId != null ? accountId : accountId(customerId, account),
+                    (long) account * 1000000 + position, postedDate);
+        }
+        stringBuilder.append("</transactions>");
+
+        send(httpExchange, 200, stringBuilder.toString());
+    }
+
+    private static void appendPage(final StringBuilder stringBuilder, final String name, final int found,
+                                   final int displaying, final boolean moreAvailable) {
+        stringBuilder.append('<').append(name)
+                .append(" found=\"").append(found)
+                .append("\" displaying=\"").append(displaying)
+                .append("\" moreAvailable=\"").append(moreAvailable).append("\">");
+    }
+
+    private static StringBuilder appendInstitution(final StringBuilder stringBuilder, final String institutionId) {
+        return stringBuilder.append("<institution>")
+                .append("<id>").append(parseLong(institutionId, 0)).append("</id>")
+                .append("<name>Stub Bank ").append(institutionId).append("</name>")
+                .append("<accountTypeDescription>Banking</accountTypeDescription>")
+                .append("<urlHomeApp>https://bank").append(institutionId).append(".example.com/</urlHomeApp>")
+                .append("<currency>USD</currency>")
+                .append("<address><city>Springfield</city><state>IL</state><country>USA</country></address>")
+                .append("</institution>");
+    }
+
+    private static StringBuilder appendLoginForm(final StringBuilder stringBuilder, final String id) {
+        return stringBuilder.append("<loginForm>")
+                .append("<loginField><id>").append(id).append("001</id><name>Banking Userid</name>")
+                .append("<displayOrder>1</displayOrder><mask>false</mask></loginField>")
+                .append("<loginField><id>").append(id).append("002</id><name>Banking Password</name>")
+                .append("<displayOrder>2</displayOrder><mask>true</mask></loginField>")
+                .append("</loginForm>");
+    }
+
+    private static StringBuilder appendCustomer(final StringBuilder stringBuilder, final String customerId) {
+        return stringBuilder.append("<customer>")
+                .append("<id>").append(customerId).append("</id>")
+                .append("<username>customer").append(customerId).append("</username>")
+                .append("<firstName>Stub</firstName>")
+                .append("<lastName>Customer").append(customerId).append("</lastName>")
+                .append("<type>testing</type>")
+                .append("<createdDate>1420070400</createdDate>")
+                .append("</customer>");
+    }
+
+    private static StringBuilder appendAccount(final StringBuilder stringBuilder, final String customerId,
+                                               final int account) {
+        return stringBuilder.append("<account>")
+                .append("<id>").append(accountId(customerId, account)).append("</id>")
+                .append("<number>80000").append(account).append("</number>")
+                .append("<name>Account ").append(account).append("</name>")
+                .append("<type>").append(account % 2 == 1 ? "checking" : "savings").append("</type>")
+                .append("<status>active</status>")
+                .append("<balance>").append(1000 * account).append(".25</balance>")
+                .append("<aggregationStatusCode>0</aggregationStatusCode>")
+                .append("<customerId>").append(customerId).append("</customerId>")
+                .append("<institutionId>101732</institutionId>")
+                .append("<aggregationSuccessDate>").append(System.currentTimeMillis() / 1000)
+                .append("</aggregationSuccessDate>")
+                .append("<createdDate>1420070400</createdDate>")
+                .append("</account>");
+    }
+
+    private StringBuilder appendTransaction(final StringBuilder stringBuilder, final String customerId,
+                                            final String accountId, final long transactionId,
+                                            final long postedDate) {
+        stringBuilder.append("<transaction>")
+                .append("<id>").append(transactionId).append("</id>")
+                .append("<accountId>").append(accountId).append("</accountId>")
+                .append("<customerId>").append(customerId).append("</customerId>")
+                .append("<amount>-").append(transactionId % 500).append('.').append(transactionId % 90 + 10)
+                .append("</amount>")
+                .append("<description>");
+        final int length = descriptionLength;
+        for (int i = 0; i < length; ++i) {
+            stringBuilder.append((char) ('A' + (transactionId + i) % 26));
+        }
+
+        return stringBuilder.append("</description>")
+                .append("<status>active</status>")
+                .append("<postedDate>").append(postedDate).append("</postedDate>")
+                .append("<transactionDate>").append(postedDate).append("</transactionDate>")
+                .append("<createdDate>").append(postedDate).append("</createdDate>")
+                .append("<categorization><category>Shopping</category></categorization>")
+                .append("</transaction>");
+    }
+
+    private static String subscription(final long subscriptionId, final String accountId, final String type) {
+        return "<subscription><id>" + subscriptionId + "</id><accountId>" + accountId + "</accountId>"
+                + "<type>" + type + "</type><callbackUrl>https://example.com/txpush</callbackUrl>"
+                + "<signingKey>STUBSIGNINGKEY" + subscriptionId + "</signingKey></subscription>";
+    }
+
+    private static String error(final int code, final String message) {
+        return "<error><code>" + code + "</code><message>" + message + "</message></error>";
+    }
+
+    /**
+     * Account IDs are the customer ID followed by the account's two digit index, so an account can be traced back to
+     * its customer without the stub keeping state.
+     */
+    private static String accountId(final String customerId, final int account) {
+        return customerId + (account < 10 ? "0" : "") + account;
+    }
+
+    private static int accountIndex(final String accountId) {
+        return accountId.length() > 2 ? (int) parseLong(accountId.substring(accountId.length() - 2), 1) : 1;
+    }
+
+    private static int start(final Map<String, String> parameters) {
+        return (int) Math.max(1, parseLong(parameters.get("start"), 1));
+    }
+
+    private static int limit(final Map<String, String> parameters) {
+        return (int) Math.min(MAX_LIMIT, Math.max(1, parseLong(parameters.get("limit"), DEFAULT_LIMIT)));
+    }
+
+    private static long parseLong(final String value, final long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    private static Map<String, String> parameters(final String query) throws UnsupportedEncodingException {
+        if (query == null || query.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> parameters = new HashMap<>();
+        for (String pair : query.split("&")) {
+            final int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+                        URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+            }
+        }
+
+        return parameters;
+    }
+
+    private void delay() throws InterruptedException {
+        final long latencyMillis = this.latencyMillis;
+        final long latencyJitterMillis = this.latencyJitterMillis;
+        if (latencyMillis > 0 || latencyJitterMillis > 0) {
+            final long jitter = latencyJitterMillis > 0 ?
+                    ThreadLocalRandom.current().nextLong(latencyJitterMillis + 1) : 0;
+            TimeUnit.MILLISECONDS.sleep(latencyMillis + jitter);
+        }
+    }
+
+    private static void drain(final InputStream inputStream) throws IOException {
+        final byte[] buffer = new byte[4096];
+        while (inputStream.read(buffer) >= 0) {
+            // Finicity reads the whole request before answering
+        }
+    }
+
+    private static void send(final HttpExchange httpExchange, final int statusCode, final String body)
+            throws IOException {
+        httpExchange.getResponseHeaders().set("Content-Type", "application/xml");
+        if (body == null) {
+            httpExchange.sendResponseHeaders(statusCode, -1);
+            return;
+        }
+
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        httpExchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream outputStream = httpExchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
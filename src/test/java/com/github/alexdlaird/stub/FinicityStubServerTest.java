@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.stub;
+
+import com.github.alexdlaird.DefaultFinicityClient;
+import com.github.alexdlaird.component.rest.Endpoint;
+import com.github.alexdlaird.component.rest.RestClient;
+import com.github.alexdlaird.type.Sort;
+import com.github.alexdlaird.type.account.Account;
+import com.github.alexdlaird.type.account.AccountLoginForm;
+import com.github.alexdlaird.type.account.AccountMfaChallenge;
+import com.github.alexdlaird.type.account.AccountResponse;
+import com.github.alexdlaird.type.account.MfaChallengeRequest;
+import com.github.alexdlaird.type.account.MfaChallengeResponse;
+import com.github.alexdlaird.type.customer.Customer;
+import com.github.alexdlaird.type.institution.LoginForm;
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.tx_push.Subscription;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+public class FinicityStubServerTest {
+
+    private FinicityStubServer stub;
+
+    private DefaultFinicityClient finicityClient;
+
+    @Before
+    public void setUp() throws IOException {
+        stub = new FinicityStubServer();
+        finicityClient = DefaultFinicityClient.getInstance("appKey", "partnerId", "partnerSecret", stub.getBaseUrl(),
+                null);
+    }
+
+    @After
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    public void testCustomersAndInstitutions() {
+        stub.setCustomerCount(30);
+
+        final List<Customer> customers = finicityClient.getCustomerOperations().getCustomers(null, null, 26, 10, null);
+        final Customer customer = finicityClient.getCustomerOperations().addTestingCustomer(new Customer());
+
+        assertEquals(5, customers.size());
+        assertEquals("1026", customers.get(0).getId());
+        assertEquals(customer.getId(), finicityClient.getCustomerOperations().getCustomer(customer.getId()).getId());
+        assertEquals(2, finicityClient.getInstitutionOperations().getInstitutionDetails("101732").getLoginForm()
+                .getLoginField().size());
+        assertEquals(1, stub.getRequestCount(Endpoint.PARTNER_AUTHENTICATION));
+    }
+
+    @Test
+    public void testAccountsWithMfa() {
+        stub.setMfaRate(1);
+        final AccountLoginForm accountLoginForm = new AccountLoginForm(new LoginForm(Collections.emptyList()));
+
+        final List<? extends AccountResponse> challenges = finicityClient.getAccountOperations()
+                .addAllAccounts("1001", "101732", accountLoginForm);
+        final MfaChallengeResponse challenge = (MfaChallengeResponse) challenges.get(0);
+        final List<? extends AccountResponse> accounts = finicityClient.getAccountOperations()
+                .addAllAccountsMfa(challenge.getSession(), "1001", "101732", new AccountMfaChallenge(
+                        Collections.singletonList(new MfaChallengeRequest(challenge.getQuestions()))));
+
+        assertEquals(2, challenge.getQuestions().size());
+        assertTrue(challenge.getSession().startsWith("STUB-MFA-"));
+        assertEquals(3, accounts.size());
+        assertEquals("100101", ((Account) accounts.get(0)).getId());
+    }
+
+    @Test
+    public void testTransactionsArePaged() {
+        stub.setTransactionsPerAccount(120);
+        final List<Transaction> transactions = new ArrayList<>();
+
+        List<Transaction> page;
+        do {
+            page = finicityClient.getTransactionOperations().getAccountTransactions("1001", "100102", 1000L, 2000L,
+                    transactions.size() + 1, 50, Sort.ASC, true);
+            transactions.addAll(page);
+        } while (page.size() == 50);
+
+        assertEquals(120, transactions.size());
+        assertEquals(3, stub.getRequestCount(Endpoint.GET_ACCOUNT_TRANSACTIONS));
+        assertEquals(Long.valueOf(1000), transactions.get(0).getPostedDate());
+        assertEquals(Long.valueOf(2000), transactions.get(119).getPostedDate());
+    }
+
+    @Test
+    public void testTxPush() {
+        final List<Subscription> subscriptions = finicityClient.getTxPushOperations()
+                .enableTxPushNotifications("1001", "100101",
+                        new Subscription(null, null, null, "https://example.com/txpush", null));
+
+        finicityClient.getTxPushOperations().deleteTxPushSubscription("1001", subscriptions.get(0).getId());
+
+        assertEquals(2, subscriptions.size());
+        assertEquals("100101", subscriptions.get(1).getAccountId());
+        assertEquals(1, stub.getRequestCount(Endpoint.DELETE_TXPUSH_SUBSCRIPTION));
+    }
+
+    @Test(expected = RestClient.RestClientException.class)
+    public void testInjectedErrors() {
+        stub.setErrorRate(1, 503);
+
+        try {
+            finicityClient.getCustomerOperations().getCustomer("1001");
+        } finally {
+            assertEquals(1, stub.getInjectedErrors());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import com.github.alexdlaird.operation.AccountOperations;
+import com.github.alexdlaird.type.account.Account;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RefreshOrchestratorTest {
+
+    private static final long NOW = 1500000000L;
+
+    private AccountOperations accountOperations;
+
+    private ScheduledExecutorService scheduledExecutorService;
+
+    private RefreshOrchestrator refreshOrchestrator;
+
+    @Before
+    public void setUp() {
+        accountOperations = mock(AccountOperations.class);
+        scheduledExecutorService = Executors.newScheduledThreadPool(2);
+        refreshOrchestrator = new RefreshOrchestrator(accountOperations, new PollPolicy(10, 50, 5000),
+                scheduledExecutorService, 60) {
+            @Override
+            protected long currentTimeSeconds() {
+                return NOW;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    @Test
+    public void testRequestsForOneCustomerShareARefresh() throws Exception {
+        when(accountOperations.refreshAccounts("c")).thenReturn(Arrays.asList(
+                givenAccount("a", NOW - 3600, NOW - 3600, 0), givenAccount("b", NOW - 3600, NOW - 3600, 0)));
+        when(accountOperations.getAccounts("c"))
+                .thenReturn(Arrays.asList(
+                        givenAccount("a", NOW - 3600, NOW - 3600, 0), givenAccount("b", NOW - 3600, NOW - 3600, 0)))
+                .thenReturn(Arrays.asList(
+                        givenAccount("a", NOW + 20, NOW + 20, 0), givenAccount("b", NOW - 3600, NOW + 25, 185)));
+
+        final CompletableFuture<Account> first = refreshOrchestrator.refreshAccount("c", "a");
+        final CompletableFuture<Account> second = refreshOrchestrator.refreshAccount("c", "a");
+        final CompletableFuture<Account> other = refreshOrchestrator.refreshAccount("c", "b");
+
+        assertSame(first, second);
+        assertEquals(Long.valueOf(NOW + 20), first.get(5, TimeUnit.SECONDS).getAggregationSuccessDate());
+        try {
+            other.get(5, TimeUnit.SECONDS);
+            fail("Expected a RefreshException");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof RefreshOrchestrator.RefreshException);
+            assertEquals(Integer.valueOf(185),
+                    ((RefreshOrchestrator.RefreshException) ex.getCause()).getAggregationStatusCode());
+        }
+
+        verify(accountOperations, times(1)).refreshAccounts("c");
+        assertEquals(2, refreshOrchestrator.getPollCalls());
+        assertEquals(2, refreshOrchestrator.getCoalesced());
+
+        // Fresh enough to be returned without refreshing again
+        assertEquals(Long.valueOf(NOW + 20), refreshOrchestrator.refreshAccount("c", "a").get()
+                .getAggregationSuccessDate());
+        verify(accountOperations, times(1)).refreshAccounts("c");
+    }
+
+    @Test
+    public void testRefreshThatCompletesImmediatelyIsNotPolled() throws Exception {
+        when(accountOperations.refreshAccounts("c")).thenReturn(Arrays.asList(givenAccount("a", NOW, NOW, 0)));
+
+        assertEquals("a", refreshOrchestrator.refreshAccount("c", "a").get(5, TimeUnit.SECONDS).getId());
+        assertEquals(0, refreshOrchestrator.getPollCalls());
+    }
+
+    @Test
+    public void testRefreshFailureFailsEveryWaitingAccount() throws Exception {
+        when(accountOperations.refreshAccounts("c")).thenThrow(new IllegalStateException("Unavailable"));
+
+        try {
+            refreshOrchestrator.refreshAccount("c", "a").get(5, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private Account givenAccount(final String id, final long aggregationSuccessDate, final long aggregationAttemptDate,
+                                 final int aggregationStatusCode) {
+        return new Account(id, null, null, null, null, null, aggregationStatusCode, "c", "101732", null,
+                aggregationSuccessDate, aggregationAttemptDate, null, null, null);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.sync;
+
+import com.github.alexdlaird.operation.TransactionOperations;
+import com.github.alexdlaird.type.Sort;
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionStatus;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TransactionSyncTest {
+
+    private static final long DAY = TimeUnit.DAYS.toSeconds(1);
+
+    private static final long NOW = 1500000000L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TransactionOperations transactionOperations;
+
+    @Before
+    public void setUp() {
+        transactionOperations = mock(TransactionOperations.class);
+    }
+
+    @Test
+    public void testChangesAreClassifiedAndDuplicatesSkipped() {
+        final TransactionSync transactionSync = givenTransactionSync(new InMemorySyncStateStore());
+        final Transaction coffee = transaction("1", -4.5, NOW - 5 * DAY, TransactionStatus.ACTIVE);
+        final Transaction rent = transaction("2", -1200.0, NOW - DAY, TransactionStatus.PENDING);
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), eq(true)))
+                .thenReturn(Arrays.asList(coffee, rent))
+                .thenReturn(Arrays.asList(coffee,
+                        transaction("2", -1200.0, NOW, TransactionStatus.ACTIVE),
+                        transaction("3", 20.0, NOW, TransactionStatus.ACTIVE),
+                        transaction("1", -5.5, NOW - 5 * DAY, TransactionStatus.ACTIVE)));
+
+        final SyncResult first = transactionSync.syncAccount("c", "a");
+        final SyncResult second = transactionSync.syncAccount("c", "a");
+
+        assertEquals(2, first.getInserted().size());
+        assertEquals("3", second.getInserted().get(0).getId());
+        assertEquals("2", second.getPosted().get(0).getId());
+        assertEquals(1, second.getPosted().size());
+        assertEquals(-5.5, second.getUpdated().get(0).getAmount());
+        assertEquals(1, second.getUnchanged());
+    }
+
+    @Test
+    public void testNextSyncStartsAtWatermarkLessOverlap() {
+        final TransactionSync transactionSync = givenTransactionSync(new InMemorySyncStateStore());
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), eq(true)))
+                .thenReturn(Arrays.asList(transaction("1", -4.5, NOW - 10 * DAY, TransactionStatus.ACTIVE)));
+
+        transactionSync.syncAccount("c", "a");
+        transactionSync.syncAccount("c", "a");
+
+        verify(transactionOperations).getAccountTransactions("c", "a", NOW - TransactionSync.DEFAULT_INITIAL_LOOKBACK_SECONDS,
+                NOW, 1, 1000, Sort.ASC, true);
+        verify(transactionOperations, times(1)).getAccountTransactions("c", "a", NOW - 13 * DAY, NOW, 1, 1000,
+                Sort.ASC, true);
+    }
+
+    @Test
+    public void testPendingTransactionNoLongerReturnedIsForgotten() {
+        final TransactionSync transactionSync = givenTransactionSync(new InMemorySyncStateStore());
+        final Transaction coffee = transaction("1", -4.5, NOW - 10 * DAY, TransactionStatus.ACTIVE);
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), eq(true)))
+                .thenReturn(Arrays.asList(coffee, transaction("2", -9.0, NOW - 20 * DAY, TransactionStatus.PENDING)))
+                .thenReturn(Arrays.asList(coffee));
+
+        transactionSync.syncAccount("c", "a");
+        transactionSync.syncAccount("c", "a");
+        transactionSync.syncAccount("c", "a");
+
+        verify(transactionOperations, times(1)).getAccountTransactions("c", "a", NOW - 23 * DAY, NOW, 1, 1000,
+                Sort.ASC, true);
+        verify(transactionOperations, times(1)).getAccountTransactions("c", "a", NOW - 13 * DAY, NOW, 1, 1000,
+                Sort.ASC, true);
+    }
+
+    @Test
+    public void testStalePendingTransactionDoesNotHoldWindowOpen() {
+        final TransactionSync transactionSync = givenTransactionSync(new InMemorySyncStateStore());
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), eq(true)))
+                .thenReturn(Arrays.asList(transaction("1", -4.5, NOW - 10 * DAY, TransactionStatus.ACTIVE),
+                        transaction("2", -9.0, NOW - 60 * DAY, TransactionStatus.PENDING)));
+
+        transactionSync.syncAccount("c", "a");
+        transactionSync.syncAccount("c", "a");
+
+        verify(transactionOperations, times(1)).getAccountTransactions("c", "a", NOW - 13 * DAY, NOW, 1, 1000,
+                Sort.ASC, true);
+    }
+
+    @Test
+    public void testPendingTransactionHoldingWindowOpenDoesNotReinsertPosted() {
+        final TransactionSync transactionSync = givenTransactionSync(new InMemorySyncStateStore());
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), eq(true)))
+                .thenReturn(Arrays.asList(transaction("1", -9.0, NOW - 20 * DAY, TransactionStatus.PENDING),
+                        transaction("2", -4.5, NOW - 15 * DAY, TransactionStatus.ACTIVE),
+                        transaction("3", -5.5, NOW - 10 * DAY, TransactionStatus.ACTIVE),
+                        transaction("4", -6.5, NOW - DAY, TransactionStatus.ACTIVE)));
+
+        final SyncResult first = transactionSync.syncAccount("c", "a");
+        final SyncResult second = transactionSync.syncAccount("c", "a");
+        final SyncResult third = transactionSync.syncAccount("c", "a");
+
+        assertEquals(4, first.getInserted().size());
+        assertEquals(0, second.getInserted().size());
+        assertEquals(4, second.getUnchanged());
+        assertEquals(0, third.getInserted().size());
+        verify(transactionOperations, times(2)).getAccountTransactions("c", "a", NOW - 23 * DAY, NOW, 1, 1000,
+                Sort.ASC, true);
+    }
+
+    @Test
+    public void testStateIsPersisted() {
+        final FileSyncStateStore syncStateStore = new FileSyncStateStore(temporaryFolder.getRoot().toPath());
+        when(transactionOperations.getAccountTransactions(eq("c"), eq("a"), anyLong(), anyLong(), anyInt(), anyInt(),
+                eq(Sort.ASC), eq(true)))
+                .thenReturn(Arrays.asList(transaction("1", -4.5, NOW - DAY, TransactionStatus.ACTIVE),
+                        transaction("2", -9.0, NOW, TransactionStatus.PENDING)));
+
+        givenTransactionSync(syncStateStore).syncAccount("c", "a");
+        final SyncResult syncResult = givenTransactionSync(syncStateStore).syncAccount("c", "a");
+
+        assertEquals(0, syncResult.getInserted().size());
+        assertEquals(2, syncResult.getUnchanged());
+        assertEquals(NOW - DAY, syncStateStore.load("c", "a").getPostedWatermark());
+        assertNull(syncStateStore.load("c", "b"));
+    }
+
+    private Transaction transaction(final String id, final Double amount, final long postedDate,
+                                    final TransactionStatus status) {
+        return new Transaction("a", amount, null, null, postedDate, "c", "Description", null, null, id, null, null,
+                null, postedDate, null, status, null, postedDate, null, null, null, null);
+    }
+
+    private TransactionSync givenTransactionSync(final SyncStateStore syncStateStore) {
+        return new TransactionSync(transactionOperations, syncStateStore) {
+            @Override
+            protected long currentTimeSeconds() {
+                return NOW;
+            }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import com.github.alexdlaird.type.transaction.Transaction;
+import com.github.alexdlaird.type.transaction.TransactionStatus;
+import com.github.alexdlaird.type.tx_push.SubscriptionType;
+import com.github.alexdlaird.type.tx_push.TxPushEvent;
+import com.github.alexdlaird.type.tx_push.TxPushEventType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+public class TxPushPipelineTest {
+
+    @Test
+    public void testRedeliveredEventIsDroppedButModificationIsNot() {
+        final TxPushDeduplicator txPushDeduplicator = new TxPushDeduplicator();
+
+        assertTrue(txPushDeduplicator.markSeen(event("a", "1", TxPushEventType.ADDED, TransactionStatus.PENDING)));
+        assertFalse(txPushDeduplicator.markSeen(event("a", "1", TxPushEventType.ADDED, TransactionStatus.PENDING)));
+        assertTrue(txPushDeduplicator.markSeen(event("a", "1", TxPushEventType.MODIFIED, TransactionStatus.ACTIVE)));
+        assertTrue(txPushDeduplicator.markSeen(event("a", "2", TxPushEventType.ADDED, TransactionStatus.PENDING)));
+    }
+
+    @Test
+    public void testEventIsForgottenAfterWindow() {
+        final AtomicLong now = new AtomicLong();
+        final TxPushDeduplicator txPushDeduplicator = new TxPushDeduplicator(1000, 64) {
+            @Override
+            protected long nanoTime() {
+                return now.get();
+            }
+        };
+        final TxPushEvent txPushEvent = event("a", "1", TxPushEventType.ADDED, TransactionStatus.PENDING);
+
+        assertTrue(txPushDeduplicator.markSeen(txPushEvent));
+        now.set(TimeUnit.MILLISECONDS.toNanos(600));
+        assertFalse(txPushDeduplicator.markSeen(txPushEvent));
+        now.set(TimeUnit.MILLISECONDS.toNanos(2000));
+        assertTrue(txPushDeduplicator.markSeen(txPushEvent));
+    }
+
+    @Test
+    public void testBurstPastCapacityIsRememberedForHalfTheWindow() {
+        final AtomicLong now = new AtomicLong();
+        final TxPushDeduplicator txPushDeduplicator = new TxPushDeduplicator(1000, 16) {
+            @Override
+            protected long nanoTime() {
+                return now.get();
+            }
+        };
+
+        for (int i = 0; i < 1000; ++i) {
+            assertTrue(txPushDeduplicator.markSeen(event("a", String.valueOf(i), TxPushEventType.ADDED,
+                    TransactionStatus.PENDING)));
+        }
+        now.set(TimeUnit.MILLISECONDS.toNanos(400));
+        for (int i = 0; i < 1000; ++i) {
+            assertFalse(txPushDeduplicator.markSeen(event("a", String.valueOf(i), TxPushEventType.ADDED,
+                    TransactionStatus.PENDING)));
+        }
+        now.set(TimeUnit.MILLISECONDS.toNanos(2000));
+        assertTrue(txPushDeduplicator.markSeen(event("a", "0", TxPushEventType.ADDED, TransactionStatus.PENDING)));
+    }
+
+    @Test
+    public void testEventsAreHandledInOrderPerAccount() throws Exception {
+        final Map<String, List<String>> handled = new ConcurrentHashMap<>();
+        final List<TxPushEvent> txPushEvents = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            txPushEvents.add(event("account" + (i % 5), String.valueOf(i), TxPushEventType.ADDED,
+                    TransactionStatus.ACTIVE));
+        }
+        // Redelivered
+        txPushEvents.addAll(txPushEvents.subList(0, 50));
+
+        try (TxPushPipeline txPushPipeline = new TxPushPipeline(txPushEvent -> handled.computeIfAbsent(
+                txPushEvent.getTransaction().getAccountId(), accountId -> Collections.synchronizedList(
+                        new ArrayList<>())).add(txPushEvent.getTransaction().getId()),
+                new TxPushDeduplicator(), new StripedExecutor(3, 16))) {
+            assertEquals(200, txPushPipeline.accept(txPushEvents));
+            assertTrue(txPushPipeline.getStripedExecutor().awaitQuiescence(10, TimeUnit.SECONDS));
+
+            assertEquals(50, txPushPipeline.getDuplicates());
+        }
+
+        assertEquals(5, handled.size());
+        for (int account = 0; account < 5; ++account) {
+            final List<String> expected = new ArrayList<>();
+            for (int i = account; i < 200; i += 5) {
+                expected.add(String.valueOf(i));
+            }
+            assertEquals(expected, handled.get("account" + account));
+        }
+    }
+
+    @Test
+    public void testCloseRunsTasksAlreadyQueuedOnAFullLane() throws Exception {
+        final StripedExecutor stripedExecutor = new StripedExecutor(1, 2);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch ran = new CountDownLatch(3);
+        stripedExecutor.execute("a", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            ran.countDown();
+        });
+        started.await();
+        stripedExecutor.execute("a", ran::countDown);
+        stripedExecutor.execute("a", ran::countDown);
+
+        final Thread closer = new Thread(stripedExecutor::close);
+        closer.start();
+        closer.join(100);
+        release.countDown();
+        closer.join(10000);
+
+        assertFalse(closer.isAlive());
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testShutdownNowDiscardsQueuedTasks() throws Exception {
+        final StripedExecutor stripedExecutor = new StripedExecutor(1, 4);
+        final CountDownLatch started = new CountDownLatch(1);
+        stripedExecutor.execute("a", () -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        started.await();
+        stripedExecutor.execute("a", () -> {
+        });
+
+        assertEquals(1, stripedExecutor.shutdownNow().size());
+    }
+
+    private static TxPushEvent event(final String accountId, final String id, final TxPushEventType type,
+                                     final TransactionStatus status) {
+        return new TxPushEvent(SubscriptionType.TRANSACTION, type, null, new Transaction(accountId, -4.5, null, null,
+                1L, "c", "Coffee", null, null, id, null, null, null, 1L, null, status, null, 1L, null, null, null,
+                null));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import com.github.alexdlaird.type.tx_push.SubscriptionType;
+import com.github.alexdlaird.type.tx_push.TxPushEvent;
+import com.github.alexdlaird.type.tx_push.TxPushEventType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+public class TxPushReceiverTest {
+
+    private static final String SIGNING_KEY = "secret";
+
+    private static final String PUSH = "<events>" +
+            "<event><class>transaction</class><type>added</type>" +
+            "<transaction><id>1001</id><accountId>2001</accountId><amount>-12.34</amount></transaction></event>" +
+            "<event><class>account</class><type>modified</type>" +
+            "<account><id>2001</id><number>8888</number><name>Checking</name><type>checking</type>" +
+            "<status>active</status><balance>100.00</balance></account></event>" +
+            "</events>";
+
+    private TxPushReceiver txPushReceiver;
+
+    @Before
+    public void setUp() throws Exception {
+        txPushReceiver = new TxPushReceiver(new InetSocketAddress("127.0.0.1", 0), "/txpush");
+        txPushReceiver.registerSigningKey("2001", SIGNING_KEY);
+        txPushReceiver.start();
+    }
+
+    @After
+    public void tearDown() {
+        txPushReceiver.close();
+    }
+
+    @Test
+    public void testSignedPushIsQueued() throws Exception {
+        assertEquals(200, post("/txpush/2001", sign(SIGNING_KEY, PUSH), PUSH));
+
+        final List<TxPushEvent> batch = txPushReceiver.takeBatch(10, 1000);
+
+        assertEquals(2, batch.size());
+        assertEquals(SubscriptionType.TRANSACTION, batch.get(0).getEventClass());
+        assertEquals(TxPushEventType.ADDED, batch.get(0).getType());
+        assertEquals("1001", batch.get(0).getTransaction().getId());
+        assertEquals(Double.valueOf(-12.34), batch.get(0).getTransaction().getAmount());
+        assertEquals("2001", batch.get(1).getAccount().getId());
+        assertEquals(0, txPushReceiver.getQueued());
+    }
+
+    @Test
+    public void testInvalidSignatureIsRefused() throws Exception {
+        assertEquals(401, post("/txpush/2001", sign("wrong", PUSH), PUSH));
+        assertEquals(401, post("/txpush/2002", sign(SIGNING_KEY, PUSH), PUSH));
+        assertEquals(400, post("/txpush/2001", sign(SIGNING_KEY, "<events"), "<events"));
+
+        assertEquals(0, txPushReceiver.getQueued());
+        assertEquals(2, txPushReceiver.getUnauthorized());
+        assertEquals(1, txPushReceiver.getMalformed());
+    }
+
+    @Test
+    public void testOnlyOneAccountSegmentIsAccepted() throws Exception {
+        assertEquals(404, post("/txpush", sign(SIGNING_KEY, PUSH), PUSH));
+        assertEquals(404, post("/txpush/", sign(SIGNING_KEY, PUSH), PUSH));
+        assertEquals(404, post("/txpushX/2001", sign(SIGNING_KEY, PUSH), PUSH));
+        assertEquals(404, post("/txpush/2001/extra", sign(SIGNING_KEY, PUSH), PUSH));
+
+        assertEquals(0, txPushReceiver.getQueued());
+        assertEquals(0, txPushReceiver.getUnauthorized());
+    }
+
+    @Test
+    public void testPushIsRefusedWholeWhenQueueIsFull() throws Exception {
+        final TxPushReceiver small = new TxPushReceiver(null, "/txpush", TxPushReceiver.DEFAULT_SIGNATURE_HEADER, 3,
+                TxPushReceiver.DEFAULT_MAX_BODY_BYTES, 0);
+        small.registerSigningKey("2001", SIGNING_KEY);
+        final byte[] body = PUSH.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(200, small.receive("2001", sign(SIGNING_KEY, PUSH), body));
+        assertEquals(503, small.receive("2001", sign(SIGNING_KEY, PUSH), body));
+        assertEquals(2, small.getQueued());
+        assertEquals(1, small.getRefused());
+
+        assertEquals(2, small.takeBatch(10, 0).size());
+        assertEquals(200, small.receive("2001", sign(SIGNING_KEY, PUSH), body));
+        assertTrue(small.takeBatch(1, 0).size() == 1);
+        assertEquals(1, small.getQueued());
+    }
+
+    private int post(final String path, final String signature, final String body) throws Exception {
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" +
+                txPushReceiver.getPort() + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(TxPushReceiver.DEFAULT_SIGNATURE_HEADER, signature);
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String sign(final String signingKey, final String body) {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : TxPushReceiver.sign(signingKey, body.getBytes(StandardCharsets.UTF_8))) {
+            hex.append(String.format("%02x", b));
+        }
+
+        return hex.toString();
+    }
+}
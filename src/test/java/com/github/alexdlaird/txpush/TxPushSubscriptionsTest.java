@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.txpush;
+
+import com.github.alexdlaird.FinicityClient;
+import com.github.alexdlaird.bulk.BulkResults;
+import com.github.alexdlaird.bulk.CustomerResult;
+import com.github.alexdlaird.operation.TxPushOperations;
+import com.github.alexdlaird.type.tx_push.Subscription;
+import com.github.alexdlaird.type.tx_push.SubscriptionType;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TxPushSubscriptionsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRegistryIsReplayedAndIndexed() throws Exception {
+        final Path path = temporaryFolder.getRoot().toPath().resolve("subscriptions.log");
+        try (SubscriptionRegistry subscriptionRegistry = new SubscriptionRegistry(path)) {
+            subscriptionRegistry.put("c1", "a1", subscriptions("a1", "https://example.com/txpush/a1", "key\t1"));
+            subscriptionRegistry.put("c1", "a2", subscriptions("a2", "https://example.com/txpush/a2", "key2"));
+            subscriptionRegistry.put("c2", "a3", subscriptions("a3", "https://example.com/txpush/a3", "key3"));
+            subscriptionRegistry.removeAccount("a2");
+            subscriptionRegistry.removeSubscription("a3-account");
+        }
+        // A crash in the middle of a write
+        Files.write(path, "P\tc9\ta9".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (SubscriptionRegistry subscriptionRegistry = new SubscriptionRegistry(path)) {
+            assertEquals(2, subscriptionRegistry.size());
+            assertEquals(Collections.singletonList("key\t1"), subscriptionRegistry.getSigningKeys("a1"));
+            assertEquals(Collections.emptyList(), subscriptionRegistry.getSigningKeys("a2"));
+            assertEquals(Collections.singleton("a1"), subscriptionRegistry.getAccountIds("c1"));
+            assertEquals("c2", subscriptionRegistry.getCustomerId("a3"));
+            assertEquals(1, subscriptionRegistry.getSubscriptions("a3").size());
+            assertNull(subscriptionRegistry.getSubscription("a3-account"));
+            assertEquals(SubscriptionType.TRANSACTION,
+                    subscriptionRegistry.getSubscription("a3-transaction").getType());
+            assertNull(subscriptionRegistry.getCustomerId("a9"));
+
+            final TxPushReceiver txPushReceiver = new TxPushReceiver(null, "/txpush",
+                    TxPushReceiver.DEFAULT_SIGNATURE_HEADER, 10, TxPushReceiver.DEFAULT_MAX_BODY_BYTES, 0,
+                    subscriptionRegistry);
+            final byte[] body = "<event/>".getBytes(StandardCharsets.UTF_8);
+            assertEquals(200, txPushReceiver.receive("a1", hex(TxPushReceiver.sign("key\t1", body)), body));
+            assertEquals(401, txPushReceiver.receive("a3", hex(TxPushReceiver.sign("key\t1", body)), body));
+            assertEquals(401, txPushReceiver.receive(null, hex(TxPushReceiver.sign("key\t1", body)), body));
+        }
+        if (path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(path));
+        }
+    }
+
+    @Test
+    public void testEnableAllTreatsNoSubscriptionsAsEmpty() throws Exception {
+        final TxPushOperations txPushOperations = mock(TxPushOperations.class);
+        final FinicityClient finicityClient = mock(FinicityClient.class);
+        when(finicityClient.getTxPushOperations()).thenReturn(txPushOperations);
+        when(txPushOperations.enableTxPushNotifications(eq("c1"), anyString(), any(Subscription.class)))
+                .thenReturn(null);
+        final TxPushSubscriptions txPushSubscriptions = new TxPushSubscriptions(finicityClient,
+                new SubscriptionRegistry(), 2);
+
+        final List<CustomerResult<List<Subscription>>> results;
+        try (Stream<CustomerResult<List<Subscription>>> stream = txPushSubscriptions.enableAll(
+                Collections.singletonMap("c1", Arrays.asList("a1", "a2")), accountId -> "https://example.com/txpush/" +
+                        accountId).stream()) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(Collections.emptyList(), results.get(0).getValue());
+    }
+
+    @Test
+    public void testReconcileOnlyChangesDrift() throws Exception {
+        final TxPushOperations txPushOperations = mock(TxPushOperations.class);
+        final FinicityClient finicityClient = mock(FinicityClient.class);
+        when(finicityClient.getTxPushOperations()).thenReturn(txPushOperations);
+        when(txPushOperations.enableTxPushNotifications(eq("c1"), anyString(), any(Subscription.class)))
+                .thenAnswer(invocation -> subscriptions((String) invocation.getArguments()[1],
+                        ((Subscription) invocation.getArguments()[2]).getCallbackUrl(), "key"));
+        final Function<String, String> callbackUrl = accountId -> "https://example.com/txpush/" + accountId;
+
+        final SubscriptionRegistry subscriptionRegistry = new SubscriptionRegistry();
+        subscriptionRegistry.put("c1", "unchanged", subscriptions("unchanged", callbackUrl.apply("unchanged"), "k"));
+        subscriptionRegistry.put("c1", "moved", subscriptions("moved", "https://old.example.com/moved", "k"));
+        subscriptionRegistry.put("c1", "closed", subscriptions("closed", callbackUrl.apply("closed"), "k"));
+        final TxPushSubscriptions txPushSubscriptions = new TxPushSubscriptions(finicityClient, subscriptionRegistry,
+                2);
+
+        final Map<String, List<String>> accountIdsByCustomerId = new HashMap<>();
+        accountIdsByCustomerId.put("c1", Arrays.asList("unchanged", "moved", "new"));
+        final BulkResults<SubscriptionDrift> bulkResults = txPushSubscriptions.reconcile(accountIdsByCustomerId,
+                callbackUrl);
+        final List<CustomerResult<SubscriptionDrift>> results;
+        try (Stream<CustomerResult<SubscriptionDrift>> stream = bulkResults.stream()) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        final SubscriptionDrift subscriptionDrift = results.get(0).getValue();
+        assertEquals(Collections.singleton("new"), subscriptionDrift.getMissing());
+        assertEquals(Collections.singleton("moved"), subscriptionDrift.getChanged());
+        assertEquals(Collections.singleton("closed"), subscriptionDrift.getStale());
+
+        verify(txPushOperations, never()).disableTxPushNotifications("c1", "unchanged");
+        verify(txPushOperations, never()).enableTxPushNotifications(eq("c1"), eq("unchanged"), any());
+        verify(txPushOperations, times(1)).disableTxPushNotifications("c1", "closed");
+        verify(txPushOperations, times(1)).disableTxPushNotifications("c1", "moved");
+        verify(txPushOperations, times(2)).enableTxPushNotifications(eq("c1"), anyString(), any());
+
+        assertTrue(txPushSubscriptions.findDrift("c1", accountIdsByCustomerId.get("c1"), callbackUrl).isEmpty());
+        assertEquals(callbackUrl.apply("moved"), subscriptionRegistry.getSubscriptions("moved").get(0)
+                .getCallbackUrl());
+    }
+
+    private static List<Subscription> subscriptions(final String accountId, final String callbackUrl,
+                                                    final String signingKey) {
+        return Arrays.asList(
+                new Subscription(accountId + "-account", accountId, SubscriptionType.ACCOUNT, callbackUrl, signingKey),
+                new Subscription(accountId + "-transaction", accountId, SubscriptionType.TRANSACTION, callbackUrl,
+                        signingKey));
+    }
+
+    private static String hex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+
+        return hex.toString();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.fail;
+
+public class MoneyTest {
+
+    @Test
+    public void testParseMinorUnits() {
+        assertEquals(-82890, Money.parseMinorUnits("-828.9"));
+        assertEquals(1200, Money.parseMinorUnits(" 12 "));
+        assertEquals(5, Money.parseMinorUnits("+.05"));
+        assertEquals(0, Money.parseMinorUnits("-0.0"));
+        assertEquals(1, Money.parseMinorUnits("0.005"));
+        assertEquals(-1, Money.parseMinorUnits("-0.005"));
+        assertEquals(0, Money.parseMinorUnits("0.0049999"));
+        assertEquals(123, Money.parseMinorUnits("1.23E0"));
+        assertEquals(-50000, Money.parseMinorUnits("-5.0E2"));
+        assertEquals(4995, Money.parseMinorUnits("xx49.95yy".toCharArray(), 2, 5));
+    }
+
+    @Test
+    public void testParseRejectsInvalidAmounts() {
+        for (final String text : new String[]{"", "-", ".", "1.2.3", "12a", "1,000.00", "92233720368547758.08"}) {
+            try {
+                Money.parseMinorUnits(text);
+                fail("Expected a NumberFormatException for " + text);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void testSumsAreExact() {
+        final MoneySummary moneySummary = new MoneySummary();
+        double doubleSum = 0;
+        for (int i = 0; i < 1000000; ++i) {
+            moneySummary.accept(Money.parseMinorUnits("0.10"));
+            doubleSum += 0.10;
+        }
+
+        assertEquals(Money.parse("100000.00"), moneySummary.getSum());
+        assertEquals(new BigDecimal("100000.00"), moneySummary.getSum().toBigDecimal());
+        assertFalse(doubleSum == 100000.0);
+        assertEquals(10, moneySummary.getMinMinorUnits());
+        assertEquals("100000.00", moneySummary.getSum().toString());
+    }
+
+    @Test
+    public void testSummariesCombine() {
+        final MoneySummary first = new MoneySummary();
+        first.accept(-500);
+        final MoneySummary second = new MoneySummary();
+        second.accept(250);
+        second.accept(1000);
+
+        first.combine(second).combine(new MoneySummary());
+
+        assertEquals(3, first.getCount());
+        assertEquals(750, first.getSumMinorUnits());
+        assertEquals(Money.ofMinorUnits(-500), first.getMin());
+        assertEquals(Money.ofMinorUnits(1000), first.getMax());
+        assertNull(new MoneySummary().getMin());
+        assertEquals(Money.ofMinorUnits(-82890), Money.valueOf(-828.9));
+    }
+}
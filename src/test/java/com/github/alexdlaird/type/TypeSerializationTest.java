@@ -24,6 +24,7 @@
 package com.github.alexdlaird.type;
 
 import com.github.alexdlaird.component.FinicityPersister;
+import com.github.alexdlaird.type.account.Account;
 import com.github.alexdlaird.type.account.AccountLoginForm;
 import com.github.alexdlaird.type.account.AccountMfaChallenge;
 import com.github.alexdlaird.type.account.Accounts;
@@ -71,6 +72,23 @@ public class TypeSerializationTest {
         verifySerializationAndDeserialization(xml, Accounts.class);
     }
 
+    @Test
+    public void testAccountBalanceIsExact() throws Exception {
+        final Account account = serializer.read(Account.class, "<account>\n" +
+                "   <id>2083</id>\n" +
+                "   <number>8000008888</number>\n" +
+                "   <name>Savings</name>\n" +
+                "   <type>savings</type>\n" +
+                "   <status>active</status>\n" +
+                "   <balance>1234567890123.45</balance>\n" +
+                "</account>");
+
+        assertEquals(123456789012345L, account.getBalanceMoney().getMinorUnits());
+        assertEquals(1234567890123.45, account.getBalance());
+        assertEquals(-1234L, new Account(null, null, null, null, null, -12.34, null, null, null, null, null, null,
+                null, null, null).getBalanceMoney().getMinorUnits());
+    }
+
     @Test
     public void testAccountLoginFormSerialization() throws Exception {
         String xml = "<accounts>\n" +
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type.transaction;
+
+import com.github.alexdlaird.component.FinicityPersister;
+import com.github.alexdlaird.component.StringPool;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * Compares the heap allocated while decoding, and retained after, by transactions decoded into a {@link
+ * TransactionBatch} with the same transactions deserialized into a <code>List&lt;Transaction&gt;</code>, each with and
+ * without a {@link StringPool}. Run it with a fixed heap, for instance <code>-Xms2g -Xmx2g</code>, and an optional
+ * number of transactions.
+ */
+public class TransactionBatchFootprint {
+
+    private static final int PAGE_SIZE = 1000;
+
+    public static void main(final String[] args) throws Exception {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        final List<String> pages = generatePages(count);
+
+        System.out.printf("%d transactions%n", count);
+        measure("List<Transaction>", count, () -> readList(new FinicityPersister(), pages));
+        measure("List<Transaction>, pooled", count, () -> readList(new FinicityPersister(new StringPool()), pages));
+        measure("TransactionBatch", count, () -> readBatch(new TransactionBatchDecoder(), pages, count));
+        measure("TransactionBatch, pooled", count,
+                () -> readBatch(new TransactionBatchDecoder(new StringPool()), pages, count));
+    }
+
+    private static void measure(final String name, final int count, final Callable<Object> decode) throws Exception {
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long baseline = usedHeap();
+        final long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        Object decoded = decode.call();
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        final long retained = usedHeap() - baseline;
+
+        System.out.printf("%-27s allocated %,14d bytes (%5d per transaction), retained %,12d bytes (%4d per " +
+                "transaction)%n", name + ":", allocated, allocated / count, retained, retained / count);
+
+        // Keep the result reachable until measured
+        if (decoded.hashCode() == 0) {
+            System.out.println();
+        }
+        decoded = null;
+    }
+
+    private static List<Transaction> readList(final FinicityPersister finicityPersister, final List<String> pages)
+            throws Exception {
+        final List<Transaction> transactions = new ArrayList<>();
+        for (final String page : pages) {
+            transactions.addAll(finicityPersister.read(Transactions.class, page).getTransactions());
+        }
+
+        return transactions;
+    }
+
+    private static TransactionBatch readBatch(final TransactionBatchDecoder transactionBatchDecoder,
+                                              final List<String> pages, final int count) throws Exception {
+        final TransactionBatch transactionBatch = new TransactionBatch(count);
+        for (final String page : pages) {
+            transactionBatchDecoder.decode(new StringReader(page), transactionBatch);
+        }
+
+        return transactionBatch;
+    }
+
+    private static List<String> generatePages(final int count) {
+        final Random random = new Random(42);
+        final String[] categories = {"Restaurants", "Groceries", "Gas", "Utilities", "Income", "Transfer", "Travel"};
+        final String[] types = {"debit", "credit", "atm"};
+
+        final List<String> pages = new ArrayList<>();
+        StringBuilder stringBuilder = null;
+        for (int i = 0; i < count; ++i) {
+            if (i % PAGE_SIZE == 0) {
+                if (stringBuilder != null) {
+                    pages.add(stringBuilder.append("</transactions>").toString());
+                }
+                stringBuilder = new StringBuilder("<transactions>");
+            }
+
+            final long date = 1420070400L + i * 60L;
+            final String payee = "MERCHANT " + random.nextInt(500);
+            stringBuilder.append("<transaction>")
+                    .append("<id>").append(100000000L + i).append("</id>")
+                    .append("<accountId>").append(2000 + random.nextInt(20)).append("</accountId>")
+                    .append("<customerId>41442</customerId>")
+                    .append("<amount>").append(random.nextInt(100000) / 100.0 - 500).append("</amount>")
+                    .append("<bonusAmount>0.0</bonusAmount><escrowAmount>0.0</escrowAmount>")
+                    .append("<feeAmount>0.0</feeAmount><interestAmount>0.0</interestAmount>")
+                    .append("<principalAmount>0.0</principalAmount>")
+                    .append("<unitQuantity>0.0</unitQuantity><unitValue>0.0</unitValue>")
+                    .append("<createdDate>").append(date + 3600).append("</createdDate>")
+                    .append("<postedDate>").append(date).append("</postedDate>")
+                    .append("<transactionDate>").append(date).append("</transactionDate>")
+                    .append("<description>").append(payee).append("</description>")
+                    .append("<institutionTransactionId>").append(900000000L + i).append("</institutionTransactionId>")
+                    .append("<status>active</status>")
+                    .append("<type>").append(types[random.nextInt(types.length)]).append("</type>")
+                    .append("<categorization><normalizedPayeeName>").append(payee).append("</normalizedPayeeName>")
+                    .append("<category>").append(categories[random.nextInt(categories.length)])
+                    .append("</category></categorization>")
+                    .append("</transaction>");
+        }
+        if (stringBuilder != null) {
+            pages.add(stringBuilder.append("</transactions>").toString());
+        }
+
+        return pages;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; ++i) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2016 Alex Laird
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.alexdlaird.type.transaction;
+
+import com.github.alexdlaird.component.FinicityPersister;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+
+public class TransactionBatchTest {
+
+    private static final String XML = "<transactions found=\"2\" displaying=\"2\" moreAvailable=\"false\">\n" +
+            "   <transaction>\n" +
+            "      <accountId>2055</accountId>\n" +
+            "      <amount>-124.99</amount>\n" +
+            "      <bonusAmount>0.0</bonusAmount>\n" +
+            "      <createdDate>1422272248</createdDate>\n" +
+            "      <customerId>41442</customerId>\n" +
+            "      <description>CLICKDESK CA</description>\n" +
+            "      <escrowAmount>0.0</escrowAmount>\n" +
+            "      <feeAmount>1.5</feeAmount>\n" +
+            "      <id>84293</id>\n" +
+            "      <institutionTransactionId>0000237637</institutionTransactionId>\n" +
+            "      <interestAmount>0.0</interestAmount>\n" +
+            "      <postedDate>1422082800</postedDate>\n" +
+            "      <principalAmount>0.0</principalAmount>\n" +
+            "      <status>active</status>\n" +
+            "      <subaccount>\n" +
+            "         <name>J Green</name>\n" +
+            "         <number>XXXX-XXXXXX-23687</number>\n" +
+            "      </subaccount>\n" +
+            "      <transactionDate>1422082800</transactionDate>\n" +
+            "      <type>debit</type>\n" +
+            "      <unitQuantity>0.0</unitQuantity>\n" +
+            "      <unitValue>0.0</unitValue>\n" +
+            "      <categorization>\n" +
+            "         <normalizedPayeeName>CLICKDESK CA</normalizedPayeeName>\n" +
+            "         <category>Unknown</category>\n" +
+            "      </categorization>\n" +
+            "   </transaction>\n" +
+            "   <transaction>\n" +
+            "      <accountId>2055</accountId>\n" +
+            "      <amount>12.3</amount>\n" +
+            "      <customerId>41442</customerId>\n" +
+            "      <id>84294</id>\n" +
+            "      <status>pending</status>\n" +
+            "      <transactionDate>1422082900</transactionDate>\n" +
+            "      <categorization>\n" +
+            "         <category>Unknown</category>\n" +
+            "      </categorization>\n" +
+            "   </transaction>\n" +
+            "</transactions>";
+
+    @Test
+    public void testDecodedViewsMatchDeserializedTransactions() throws Exception {
+        final List<Transaction> expected = new FinicityPersister().read(Transactions.class, XML).getTransactions();
+
+        final TransactionBatch transactionBatch = new TransactionBatchDecoder().decode(XML);
+
+        assertEquals(2, transactionBatch.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertTransactionEquals(expected.get(i), transactionBatch.get(i));
+        }
+        assertEquals(-12499, transactionBatch.getAmountMinorUnits(0));
+        assertEquals(transactionBatch.findAccountIdCode("2055"), transactionBatch.getAccountIdCode(1));
+        assertEquals(TransactionStatus.PENDING, transactionBatch.getStatus(1));
+        assertEquals(-1, transactionBatch.findCategoryCode("Travel"));
+    }
+
+    @Test
+    public void testBatchOfTransactionsRoundTrips() {
+        final Transaction empty = new Transaction();
+        final Transaction coffee = new Transaction("a", -4.5, null, "101", 3L, "c", "Coffee", null, 0.0, "1", null,
+                null, "Memo", 1L, null, TransactionStatus.SHADOW, null, 2L, "debit", 2.0, null,
+                new Categorization(null, null, null, "5812"));
+
+        final TransactionBatch transactionBatch = TransactionBatch.of(Arrays.asList(empty, coffee));
+        transactionBatch.trimToSize();
+
+        assertTransactionEquals(empty, transactionBatch.asList().get(0));
+        assertTransactionEquals(coffee, transactionBatch.asList().get(1));
+        assertNull(transactionBatch.get(0).getAmount());
+        assertEquals(0.0, transactionBatch.get(1).getFeeAmount());
+    }
+
+    private void assertTransactionEquals(final Transaction expected, final Transaction actual) {
+        assertEquals(expected.getAccountId(), actual.getAccountId());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getBonusAmount(), actual.getBonusAmount());
+        assertEquals(expected.getCheckNum(), actual.getCheckNum());
+        assertEquals(expected.getCreatedDate(), actual.getCreatedDate());
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getEscrowAmount(), actual.getEscrowAmount());
+        assertEquals(expected.getFeeAmount(), actual.getFeeAmount());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getInstitutionTransactionId(), actual.getInstitutionTransactionId());
+        assertEquals(expected.getInterestAmount(), actual.getInterestAmount());
+        assertEquals(expected.getMemo(), actual.getMemo());
+        assertEquals(expected.getPostedDate(), actual.getPostedDate());
+        assertEquals(expected.getPrincipalAmount(), actual.getPrincipalAmount());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getTransactionDate(), actual.getTransactionDate());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getUnitQuantity(), actual.getUnitQuantity());
+        assertEquals(expected.getUnitValue(), actual.getUnitValue());
+        if (expected.getSubaccount() == null) {
+            assertNull(actual.getSubaccount());
+        } else {
+            assertEquals(expected.getSubaccount().getName(), actual.getSubaccount().getName());
+            assertEquals(expected.getSubaccount().getNumber(), actual.getSubaccount().getNumber());
+        }
+        if (expected.getCategorization() == null) {
+            assertNull(actual.getCategorization());
+        } else {
+            assertEquals(expected.getCategorization().getNormalizedPayeeName(),
+                    actual.getCategorization().getNormalizedPayeeName());
+            assertEquals(expected.getCategorization().getCategory(), actual.getCategorization().getCategory());
+            assertEquals(expected.getCategorization().getScheduleC(), actual.getCategorization().getScheduleC());
+            assertEquals(expected.getCategorization().getSic(), actual.getCategorization().getSic());
+        }
+    }
+}